@@ -1,11 +1,14 @@
 package dev.clownsinformatics.tiendajava;
 
+import dev.clownsinformatics.tiendajava.utils.jpa.ListingJpaRepository;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 
 @SpringBootApplication
 @EnableCaching
+@EnableJpaRepositories(repositoryBaseClass = ListingJpaRepository.class)
 public class TiendaJavaApplication {
 
     public static void main(String[] args) {
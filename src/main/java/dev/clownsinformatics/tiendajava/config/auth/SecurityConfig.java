@@ -49,6 +49,7 @@ public class SecurityConfig {
                         .requestMatchers("/api/clients/**").permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/storage/**").permitAll()
+                        .requestMatchers("/api/suggestions/**").permitAll()
                         .anyRequest().authenticated())
                 .authenticationProvider(authenticationProvider()).addFilterBefore(
                         jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
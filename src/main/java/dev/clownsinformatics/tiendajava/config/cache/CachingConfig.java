@@ -0,0 +1,20 @@
+package dev.clownsinformatics.tiendajava.config.cache;
+
+import dev.clownsinformatics.tiendajava.utils.cache.PolicyCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Clase de configuración de las cachés de {@code @Cacheable}. En lugar de los mapas sin límite que se usan si no
+ * hay proveedor, cada caché es una caché de Caffeine con su tamaño máximo, su caducidad y estadísticas, según
+ * las propiedades {@code caches.*}.
+ */
+@Configuration
+public class CachingConfig {
+
+    @Bean
+    public PolicyCacheManager cacheManager(Environment environment) {
+        return new PolicyCacheManager(environment);
+    }
+}
@@ -0,0 +1,63 @@
+package dev.clownsinformatics.tiendajava.config.mongo;
+
+import dev.clownsinformatics.tiendajava.rest.orders.mappers.OrderDocumentMapper;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import org.bson.Document;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.util.List;
+
+/**
+ * Clase de configuración que registra los conversores escritos a mano para los documentos de Mongo.
+ * Los pedidos se leen y escriben con {@link OrderDocumentMapper} en lugar de por reflexión, y los importes
+ * ({@link Money}) se guardan como un número entero de céntimos.
+ */
+@Configuration
+public class MongoConversionsConfig {
+    private static final OrderDocumentMapper ORDER_DOCUMENT_MAPPER = new OrderDocumentMapper();
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return new MongoCustomConversions(List.of(
+                new OrderWritingConverter(), new OrderReadingConverter(),
+                new MoneyWritingConverter(), new MoneyReadingConverter()));
+    }
+
+    @WritingConverter
+    static class OrderWritingConverter implements Converter<Order, Document> {
+        @Override
+        public Document convert(Order order) {
+            return ORDER_DOCUMENT_MAPPER.toDocument(order);
+        }
+    }
+
+    @ReadingConverter
+    static class OrderReadingConverter implements Converter<Document, Order> {
+        @Override
+        public Order convert(Document document) {
+            return ORDER_DOCUMENT_MAPPER.toOrder(document);
+        }
+    }
+
+    @WritingConverter
+    static class MoneyWritingConverter implements Converter<Money, Long> {
+        @Override
+        public Long convert(Money money) {
+            return money.cents();
+        }
+    }
+
+    @ReadingConverter
+    static class MoneyReadingConverter implements Converter<Number, Money> {
+        @Override
+        public Money convert(Number cents) {
+            return Money.ofCents(cents.longValue());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package dev.clownsinformatics.tiendajava.config.mongo;
+
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.reports.models.SalesRollup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Clase de configuración que crea, si no existen, los índices declarados en los documentos de Mongo.
+ * Spring Data no los crea por defecto, así que sin esto las consultas por usuario o por fecha
+ * recorrerían toda la colección.
+ */
+@Configuration
+@Slf4j
+public class MongoIndexConfig {
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(Order.class, SalesRollup.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Indica si se deben crear los índices al arrancar.
+     */
+    @Value("${mongo.indexes.ensure-on-startup:true}")
+    private boolean ensureOnStartup;
+
+    /**
+     * Constructor de la clase.
+     * @param mongoTemplate Plantilla de Mongo.
+     */
+    @Autowired
+    public MongoIndexConfig(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Crea los índices en segundo plano una vez arrancada la aplicación, para no retrasar el arranque
+     * ni impedirlo si Mongo aún no está disponible.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        if (!ensureOnStartup) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+            for (Class<?> document : INDEXED_DOCUMENTS) {
+                IndexOperations indexOps = mongoTemplate.indexOps(document);
+                resolver.resolveIndexFor(document).forEach(index -> {
+                    String name = indexOps.ensureIndex(index);
+                    log.info("Ensured index {} on {}", name, document.getSimpleName());
+                });
+            }
+        }).exceptionally(e -> {
+            log.warn("Could not ensure Mongo indexes: {}", e.getMessage());
+            return null;
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package dev.clownsinformatics.tiendajava.config.mongo;
+
+import dev.clownsinformatics.tiendajava.rest.orders.mappers.OrderDocumentMapper;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Migra los pedidos guardados con el formato anterior (nombres completos, UUID heredados e importes en coma
+ * flotante) al formato compacto de {@link OrderDocumentMapper}, por lotes.
+ * <p>
+ * Las consultas solo conocen los nombres compactos, así que los pedidos que aún no se han migrado no aparecen en
+ * los listados. Con {@code mongo.orders.migrate-on-startup=true} la migración se lanza en segundo plano una vez
+ * arrancada la aplicación, como la creación de índices, sin retrasar el arranque ni impedirlo si Mongo no está
+ * disponible; por defecto está desactivada y también se puede lanzar llamando a {@link #migrate()}.
+ * <p>
+ * Solo toca los documentos que aún tienen el formato anterior, así que se puede repetir sin riesgo.
+ * Al terminar borra los índices sobre los nombres antiguos.
+ */
+@Component
+@Slf4j
+public class OrderDocumentMigration {
+    private static final int BATCH_SIZE = 500;
+    private static final Set<String> LEGACY_INDEXES = Set.of("idUser_id", "idUser_createdAt_id", "createdAt_id");
+
+    private final MongoTemplate mongoTemplate;
+    private final OrderDocumentMapper orderDocumentMapper = new OrderDocumentMapper();
+
+    /**
+     * Indica si se deben migrar los pedidos al arrancar.
+     */
+    @Value("${mongo.orders.migrate-on-startup:false}")
+    private boolean migrateOnStartup;
+
+    @Autowired
+    public OrderDocumentMigration(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Migra los pedidos en segundo plano una vez arrancada la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (!migrateOnStartup) {
+            return;
+        }
+        CompletableFuture.runAsync(this::migrate).exceptionally(e -> {
+            log.warn("Could not migrate orders to the compact format: {}", e.getMessage());
+            return null;
+        });
+    }
+
+    /**
+     * Reescribe en formato compacto todos los pedidos con el formato anterior.
+     *
+     * @return Número de pedidos migrados.
+     */
+    public long migrate() {
+        String collection = mongoTemplate.getCollectionName(Order.class);
+        Query legacy = Query.query(Criteria.where(OrderDocumentMapper.ID_USER).exists(false).and("idUser").exists(true));
+        legacy.cursorBatchSize(BATCH_SIZE);
+
+        long migrated = 0;
+        try (Stream<Document> documents = mongoTemplate.stream(legacy, Document.class, collection)) {
+            BulkOperations bulk = null;
+            int pending = 0;
+            var iterator = documents.iterator();
+            while (iterator.hasNext()) {
+                Document document = iterator.next();
+                if (bulk == null) {
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+                }
+                Document compact = orderDocumentMapper.toDocument(orderDocumentMapper.toOrder(document));
+                bulk.replaceOne(Query.query(Criteria.where(OrderDocumentMapper.ID).is(document.get(OrderDocumentMapper.ID))), compact);
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    migrated += pending;
+                    bulk = null;
+                    pending = 0;
+                }
+            }
+            if (bulk != null) {
+                bulk.execute();
+                migrated += pending;
+            }
+        }
+
+        var indexOps = mongoTemplate.indexOps(collection);
+        List<IndexInfo> indexes = indexOps.getIndexInfo();
+        indexes.stream()
+                .map(IndexInfo::getName)
+                .filter(LEGACY_INDEXES::contains)
+                .forEach(indexOps::dropIndex);
+        log.info("Migrated {} orders to the compact format", migrated);
+        return migrated;
+    }
+}
@@ -0,0 +1,48 @@
+package dev.clownsinformatics.tiendajava.rest.caches.controllers;
+
+import dev.clownsinformatics.tiendajava.rest.caches.dto.CacheStatsDto;
+import dev.clownsinformatics.tiendajava.rest.caches.services.CacheStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador REST para consultar el estado de las cachés.
+ */
+@RestController
+@RequestMapping("/api/caches")
+@Slf4j
+@PreAuthorize("hasRole('ADMIN')")
+public class CacheRestController {
+    private final CacheStatsService cacheStatsService;
+
+    @Autowired
+    public CacheRestController(CacheStatsService cacheStatsService) {
+        this.cacheStatsService = cacheStatsService;
+    }
+
+    /**
+     * Obtiene la política, el tamaño y los aciertos, fallos y expulsiones de cada caché.
+     *
+     * @return ResponseEntity con las estadísticas de las cachés.
+     */
+    @Operation(summary = "Get cache statistics")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the cache statistics"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @GetMapping
+    public ResponseEntity<List<CacheStatsDto>> getCacheStats() {
+        log.info("Getting cache statistics");
+        return ResponseEntity.ok(cacheStatsService.findAll());
+    }
+}
@@ -0,0 +1,15 @@
+package dev.clownsinformatics.tiendajava.rest.caches.dto;
+
+public record CacheStatsDto(
+        String name,
+        String spec,
+        long size,
+        Long maximum,
+        Long weightedSize,
+        long hits,
+        long misses,
+        double hitRate,
+        long evictions,
+        long evictionWeight
+) {
+}
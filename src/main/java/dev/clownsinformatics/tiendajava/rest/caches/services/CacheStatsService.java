@@ -0,0 +1,9 @@
+package dev.clownsinformatics.tiendajava.rest.caches.services;
+
+import dev.clownsinformatics.tiendajava.rest.caches.dto.CacheStatsDto;
+
+import java.util.List;
+
+public interface CacheStatsService {
+    List<CacheStatsDto> findAll();
+}
@@ -0,0 +1,61 @@
+package dev.clownsinformatics.tiendajava.rest.caches.services;
+
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dev.clownsinformatics.tiendajava.rest.caches.dto.CacheStatsDto;
+import dev.clownsinformatics.tiendajava.utils.cache.PolicyCacheManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Implementación de {@link CacheStatsService} que lee las estadísticas que guarda Caffeine en cada caché de
+ * {@link PolicyCacheManager}. Las cachés se crean la primera vez que se usan, así que solo aparecen a partir
+ * de entonces.
+ */
+@Service
+public class CacheStatsServiceImpl implements CacheStatsService {
+    private final PolicyCacheManager cacheManager;
+
+    @Autowired
+    public CacheStatsServiceImpl(PolicyCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Estadísticas de todas las cachés creadas, ordenadas por nombre.
+     *
+     * @return Tamaño, límites, aciertos, fallos y expulsiones de cada caché.
+     */
+    @Override
+    public List<CacheStatsDto> findAll() {
+        return cacheManager.getCacheNames().stream()
+                .sorted()
+                .map(cacheManager::getCache)
+                .filter(CaffeineCache.class::isInstance)
+                .map(CaffeineCache.class::cast)
+                .map(this::toDto)
+                .toList();
+    }
+
+    private CacheStatsDto toDto(CaffeineCache cache) {
+        var nativeCache = cache.getNativeCache();
+        CacheStats stats = nativeCache.stats();
+        Optional<Policy.Eviction<Object, Object>> eviction = nativeCache.policy().eviction();
+        return new CacheStatsDto(
+                cache.getName(),
+                cacheManager.specFor(cache.getName()),
+                nativeCache.estimatedSize(),
+                eviction.map(Policy.Eviction::getMaximum).orElse(null),
+                eviction.filter(Policy.Eviction::isWeighted).map(e -> e.weightedSize().orElse(0)).orElse(null),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount(),
+                stats.evictionWeight()
+        );
+    }
+}
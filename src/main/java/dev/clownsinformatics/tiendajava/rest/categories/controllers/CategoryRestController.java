@@ -3,8 +3,11 @@ package dev.clownsinformatics.tiendajava.rest.categories.controllers;
 import dev.clownsinformatics.tiendajava.rest.categories.dto.CategoryResponseDto;
 import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
 import dev.clownsinformatics.tiendajava.rest.categories.services.CategoryService;
+import dev.clownsinformatics.tiendajava.utils.pagination.ApproximateCounts;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PaginationLinksUtils;
+import dev.clownsinformatics.tiendajava.utils.pagination.TotalMode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -16,6 +19,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -26,6 +30,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -44,11 +49,13 @@ import java.util.UUID;
 public class CategoryRestController {
     private final CategoryService categoryService;
     private final PaginationLinksUtils paginationLinksUtils;
+    private final ApproximateCounts approximateCounts;
 
     @Autowired
-    public CategoryRestController(CategoryService categoryService, PaginationLinksUtils paginationLinksUtils) {
+    public CategoryRestController(CategoryService categoryService, PaginationLinksUtils paginationLinksUtils, ApproximateCounts approximateCounts) {
         this.categoryService = categoryService;
         this.paginationLinksUtils = paginationLinksUtils;
+        this.approximateCounts = approximateCounts;
     }
 
     /**
@@ -60,6 +67,7 @@ public class CategoryRestController {
      * @param size      Tamaño de la página solicitada (predeterminado: 10).
      * @param sortBy    Campo por el cual ordenar las categorías (predeterminado: uuid).
      * @param direction Dirección de ordenamiento (ascendente o descendente, predeterminado: asc).
+     * @param withTotal {@code true} cuenta el total, {@code false} no lo cuenta y {@code approximate} usa uno reciente.
      * @param request   Objeto HttpServletRequest para construir enlaces de paginación.
      * @return Respuesta que contiene una página de categorías y enlaces de paginación.
      */
@@ -74,7 +82,8 @@ public class CategoryRestController {
             @Parameter(name = "page", description = "Page number"),
             @Parameter(name = "size", description = "Page size"),
             @Parameter(name = "sortBy", description = "Sort by"),
-            @Parameter(name = "direction", description = "Sort direction")
+            @Parameter(name = "direction", description = "Sort direction"),
+            @Parameter(name = "withTotal", description = "true counts the total, false skips the count, approximate uses a recent count")
     })
     @GetMapping
     public ResponseEntity<PageResponse<Category>> getAll(@RequestParam(required = false) Optional<String> name,
@@ -83,16 +92,67 @@ public class CategoryRestController {
                                                          @RequestParam(defaultValue = "10") int size,
                                                          @RequestParam(defaultValue = "uuid") String sortBy,
                                                          @RequestParam(defaultValue = "asc") String direction,
+                                                         @RequestParam(defaultValue = "true") String withTotal,
                                                          HttpServletRequest request
     ) {
         Sort sort = direction.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        TotalMode totalMode = TotalMode.of(withTotal);
+        if (totalMode != TotalMode.EXACT) {
+            Slice<Category> slice = categoryService.findAllSlice(name, isDeleted, PageRequest.of(page, size, sort));
+            Long total = totalMode == TotalMode.APPROXIMATE
+                    ? approximateCounts.count("categories", List.of(name, isDeleted), () -> categoryService.count(name, isDeleted))
+                    : null;
+            return ResponseEntity.ok()
+                    .header("link", paginationLinksUtils.createLinkHeader(slice, uriBuilder))
+                    .body(PageResponse.of(slice, total, sortBy, direction));
+        }
         Page<Category> categoriaPage = categoryService.findAll(name, isDeleted, PageRequest.of(page, size, sort));
         return ResponseEntity.ok()
                 .header("link", paginationLinksUtils.createLinkHeader(categoriaPage, uriBuilder))
                 .body(PageResponse.of(categoriaPage, sortBy, direction));
     }
 
+    /**
+     * Obtiene las categorías paginadas por cursor, sin contar el total.
+     *
+     * @param name      Nombre opcional para filtrar las categorías.
+     * @param isDeleted Estado de eliminación opcional para filtrar las categorías.
+     * @param cursor    Cursor de la página anterior; si no se indica se devuelve la primera página.
+     * @param size      Tamaño de la página solicitada (predeterminado: 10).
+     * @param sortBy    Campo por el cual ordenar las categorías (predeterminado: uuid).
+     * @param direction Dirección de ordenamiento (ascendente o descendente, predeterminado: asc).
+     * @param request   Objeto HttpServletRequest para construir enlaces de paginación.
+     * @return Respuesta que contiene una página de categorías y el enlace a la siguiente.
+     */
+    @Operation(summary = "Get all categories by cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the categories"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, page size or sort supplied")
+    })
+    @Parameters({
+            @Parameter(name = "name", description = "Category name"),
+            @Parameter(name = "cursor", description = "Cursor returned by the previous page"),
+            @Parameter(name = "size", description = "Page size"),
+            @Parameter(name = "sortBy", description = "Sort by"),
+            @Parameter(name = "direction", description = "Sort direction")
+    })
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<Category>> getAllByCursor(@RequestParam(required = false) Optional<String> name,
+                                                                       @RequestParam(required = false) Optional<Boolean> isDeleted,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(defaultValue = "10") int size,
+                                                                       @RequestParam(defaultValue = "uuid") String sortBy,
+                                                                       @RequestParam(defaultValue = "asc") String direction,
+                                                                       HttpServletRequest request
+    ) {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        CursorPageResponse<Category> categoriaPage = categoryService.findAllByCursor(name, isDeleted, cursor, size, sortBy, direction);
+        return ResponseEntity.ok()
+                .header("link", paginationLinksUtils.createLinkHeader(categoriaPage, uriBuilder))
+                .body(categoriaPage);
+    }
+
     /**
      * Obtiene una categoría por su identificador UUID.
      *
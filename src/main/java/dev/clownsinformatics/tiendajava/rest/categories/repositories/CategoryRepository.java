@@ -1,6 +1,8 @@
 package dev.clownsinformatics.tiendajava.rest.categories.repositories;
 
 import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
+import dev.clownsinformatics.tiendajava.utils.jpa.KeysetRepository;
+import dev.clownsinformatics.tiendajava.utils.jpa.SliceRepository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
@@ -11,7 +13,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface CategoryRepository extends JpaRepository<Category, Long>, JpaSpecificationExecutor<Category> {
+public interface CategoryRepository extends JpaRepository<Category, Long>, JpaSpecificationExecutor<Category>, SliceRepository<Category>, KeysetRepository<Category> {
     Optional<Category> findByNameEqualsIgnoreCase(String name);
 
     Optional<Category> findByUuid(UUID uuid);
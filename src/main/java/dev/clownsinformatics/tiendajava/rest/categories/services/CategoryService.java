@@ -2,9 +2,11 @@ package dev.clownsinformatics.tiendajava.rest.categories.services;
 
 import dev.clownsinformatics.tiendajava.rest.categories.dto.CategoryResponseDto;
 import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -12,6 +14,12 @@ import java.util.UUID;
 public interface CategoryService {
     Page<Category> findAll(Optional<String> name, Optional<Boolean> isDeleted, Pageable pageable);
 
+    Slice<Category> findAllSlice(Optional<String> name, Optional<Boolean> isDeleted, Pageable pageable);
+
+    long count(Optional<String> name, Optional<Boolean> isDeleted);
+
+    CursorPageResponse<Category> findAllByCursor(Optional<String> name, Optional<Boolean> isDeleted, String cursor, int size, String sortBy, String direction);
+
     Category findById(UUID id);
 
     Category findByName(String name);
@@ -10,6 +10,14 @@ import dev.clownsinformatics.tiendajava.rest.categories.exceptions.CategoryNotFo
 import dev.clownsinformatics.tiendajava.rest.categories.mappers.CategoryMapper;
 import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
 import dev.clownsinformatics.tiendajava.rest.categories.repositories.CategoryRepository;
+import dev.clownsinformatics.tiendajava.rest.products.services.ProductCatalog;
+import dev.clownsinformatics.tiendajava.rest.suggestions.models.SuggestionType;
+import dev.clownsinformatics.tiendajava.rest.suggestions.services.SuggestionService;
+import dev.clownsinformatics.tiendajava.utils.cache.CacheInvalidationBus;
+import dev.clownsinformatics.tiendajava.utils.jpa.FilterSpecification;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorBadRequest;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
+import dev.clownsinformatics.tiendajava.utils.transaction.AfterCommit;
 import dev.clownsinformatics.tiendajava.websockets.notifications.dto.CategoryNotificationDto;
 import dev.clownsinformatics.tiendajava.websockets.notifications.mapper.CategoryNotificationMapper;
 import dev.clownsinformatics.tiendajava.websockets.notifications.models.Notification;
@@ -18,15 +26,19 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 
 /**
  * Implementación de {@link CategoryService} que gestiona las operaciones relacionadas con las categorías de productos.
@@ -46,14 +58,20 @@ public class CategoryServiceImpl implements CategoryService {
     private final WebSocketConfig webSocketConfig;
     private final ObjectMapper mapper;
     private final CategoryNotificationMapper categoryNotificationMapper;
+    private final SuggestionService suggestionService;
+    private final ProductCatalog productCatalog;
+    private final CacheInvalidationBus cacheInvalidationBus;
     private WebSocketHandler webSocketHandler;
 
     @Autowired
-    public CategoryServiceImpl(CategoryRepository categoryRepository, WebSocketConfig webSocketConfig, ObjectMapper mapper, CategoryNotificationMapper categoryNotificationMapper) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository, WebSocketConfig webSocketConfig, ObjectMapper mapper, CategoryNotificationMapper categoryNotificationMapper, SuggestionService suggestionService, ProductCatalog productCatalog, CacheInvalidationBus cacheInvalidationBus) {
         this.categoryRepository = categoryRepository;
         this.webSocketConfig = webSocketConfig;
         this.mapper = mapper;
         this.categoryNotificationMapper = categoryNotificationMapper;
+        this.suggestionService = suggestionService;
+        this.productCatalog = productCatalog;
+        this.cacheInvalidationBus = cacheInvalidationBus;
         webSocketHandler = webSocketConfig.webSocketCategoryHandler();
     }
 
@@ -68,17 +86,59 @@ public class CategoryServiceImpl implements CategoryService {
     @Override
     public Page<Category> findAll(Optional<String> name, Optional<Boolean> isDeleted, Pageable pageable) {
         log.info("Getting all categories with name: {}", name);
-        Specification<Category> specName = (root, criteriaQuery, criteriaBuilder) ->
-                name.map(value -> criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + value.toLowerCase() + "%"))
-                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+        return categoryRepository.findAll(specification(name, isDeleted), pageable);
+    }
+
+    /**
+     * Obtiene las categorías de una página sin contar el total.
+     *
+     * @param name      Opcional. Nombre de la categoría para filtrar.
+     * @param isDeleted Opcional. Indica si se deben incluir categorías eliminadas.
+     * @param pageable  Información de paginación.
+     * @return Trozo con las categorías de la página.
+     */
+    @Override
+    public Slice<Category> findAllSlice(Optional<String> name, Optional<Boolean> isDeleted, Pageable pageable) {
+        log.info("Getting a slice of categories with name: {}", name);
+        return categoryRepository.findSlice(specification(name, isDeleted), pageable);
+    }
+
+    /**
+     * Cuenta las categorías que cumplen los filtros.
+     *
+     * @param name      Opcional. Nombre de la categoría para filtrar.
+     * @param isDeleted Opcional. Indica si se deben incluir categorías eliminadas.
+     * @return Número de categorías.
+     */
+    @Override
+    public long count(Optional<String> name, Optional<Boolean> isDeleted) {
+        return categoryRepository.count(specification(name, isDeleted));
+    }
 
-        Specification<Category> specIsDeleted = (root, criteriaQuery, criteriaBuilder) ->
-                isDeleted.map(value -> criteriaBuilder.equal(root.get("isDeleted"), value))
-                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+    /**
+     * Obtiene las categorías paginadas por cursor, continuando a partir de la última de la página anterior.
+     *
+     * @param name      Opcional. Nombre de la categoría para filtrar.
+     * @param isDeleted Opcional. Indica si se deben incluir categorías eliminadas.
+     * @param cursor    Cursor de la página anterior, o {@code null} para la primera.
+     * @param size      Número de categorías por página.
+     * @param sortBy    Campo de ordenación.
+     * @param direction Dirección de ordenación (ASC o DESC).
+     * @return Página de categorías con el cursor de la siguiente.
+     * @throws CursorBadRequest Si el cursor, el tamaño o la ordenación no son válidos.
+     */
+    @Override
+    public CursorPageResponse<Category> findAllByCursor(Optional<String> name, Optional<Boolean> isDeleted, String cursor, int size, String sortBy, String direction) {
+        log.info("Getting categories by cursor with name: {}", name);
+        Sort.Direction sortDirection = direction.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return categoryRepository.findAfter(specification(name, isDeleted), cursor, size, sortBy, sortDirection)
+                .toResponse(Function.identity(), sortBy, direction);
+    }
 
-        Specification<Category> spec = Specification.where(specName)
-                .and(specIsDeleted);
-        return categoryRepository.findAll(spec, pageable);
+    private Specification<Category> specification(Optional<String> name, Optional<Boolean> isDeleted) {
+        return FilterSpecification.<Category>builder()
+                .contains("name", name)
+                .equal("isDeleted", isDeleted);
     }
 
     /**
@@ -117,14 +177,16 @@ public class CategoryServiceImpl implements CategoryService {
      * @throws CategoryConflict Excepción lanzada si ya existe una categoría con el mismo nombre.
      */
     @Override
-    @Cacheable
+    @CachePut(key = "#result.uuid")
     public Category save(CategoryResponseDto category) {
         log.info("Saving category");
         categoryRepository.findByName(category.name()).ifPresent(c -> {
             throw new CategoryConflict("Category already exists");
         });
         onChange(Notification.Tipo.CREATE, categoryMapper.toCategory(category));
-        return categoryRepository.save(categoryMapper.toCategory(category));
+        Category saved = categoryRepository.save(categoryMapper.toCategory(category));
+        AfterCommit.run(() -> suggestionService.index(saved));
+        return saved;
     }
 
     /**
@@ -137,7 +199,7 @@ public class CategoryServiceImpl implements CategoryService {
      * @throws CategoryConflict Excepción lanzada si ya existe otra categoría con el mismo nombre.
      */
     @Override
-    @Cacheable
+    @CacheEvict(allEntries = true)
     public Category update(CategoryResponseDto category, UUID id) {
         log.info("Updating category with id: {}", id);
         Category categoryToUpdate = categoryRepository.findByUuid(id).orElseThrow(() -> new CategoryNotFound(CATEGORY_NOT_FOUND));
@@ -148,7 +210,13 @@ public class CategoryServiceImpl implements CategoryService {
             }
         });
         onChange(Notification.Tipo.UPDATE, categoryToUpdate);
-        return categoryRepository.save(categoryMapper.toCategory(category, categoryToUpdate));
+        Category updated = categoryRepository.save(categoryMapper.toCategory(category, categoryToUpdate));
+        AfterCommit.run(() -> {
+            suggestionService.index(updated);
+            productCatalog.index(updated);
+        });
+        cacheInvalidationBus.invalidateAll("categories");
+        return updated;
     }
 
     /**
@@ -158,7 +226,7 @@ public class CategoryServiceImpl implements CategoryService {
      * @throws CategoryNotFound Excepción lanzada si la categoría no se encuentra.
      */
     @Override
-    @CacheEvict
+    @CacheEvict(allEntries = true)
     @Transactional
     public void delete(UUID id) {
         log.info("Deleting category with id: {}", id);
@@ -175,6 +243,8 @@ public class CategoryServiceImpl implements CategoryService {
             onChange(Notification.Tipo.DELETE, categoryToUpdate);
             categoryRepository.deleteById(id);
         }
+        AfterCommit.run(() -> suggestionService.remove(SuggestionType.CATEGORY, id));
+        cacheInvalidationBus.invalidateAll("categories");
     }
 
     /**
@@ -5,8 +5,14 @@ import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientCreateRequest;
 import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientResponse;
 import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientUpdateRequest;
 import dev.clownsinformatics.tiendajava.rest.clients.services.ClientServiceImpl;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.ClientOrderSummaryDto;
+import dev.clownsinformatics.tiendajava.rest.orders.service.ClientOrderSummaryService;
+import dev.clownsinformatics.tiendajava.utils.idempotency.IdempotencyStore;
+import dev.clownsinformatics.tiendajava.utils.pagination.ApproximateCounts;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PaginationLinksUtils;
+import dev.clownsinformatics.tiendajava.utils.pagination.TotalMode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -18,6 +24,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -30,6 +37,7 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -49,17 +57,24 @@ public class ClientRestController {
 
     private final ClientServiceImpl clientService;
     private final PaginationLinksUtils paginationLinksUtils;
+    private final ApproximateCounts approximateCounts;
+    private final ClientOrderSummaryService clientOrderSummaryService;
+    private final IdempotencyStore idempotencyStore;
 
     @Autowired
-    public ClientRestController(ClientServiceImpl clientService, PaginationLinksUtils paginationLinksUtils) {
+    public ClientRestController(ClientServiceImpl clientService, PaginationLinksUtils paginationLinksUtils, ApproximateCounts approximateCounts, ClientOrderSummaryService clientOrderSummaryService, IdempotencyStore idempotencyStore) {
         this.clientService = clientService;
         this.paginationLinksUtils = paginationLinksUtils;
+        this.approximateCounts = approximateCounts;
+        this.clientOrderSummaryService = clientOrderSummaryService;
+        this.idempotencyStore = idempotencyStore;
     }
 
     /**
     * Endpoint para crear un nuevo cliente
     *
     * @param clientCreateRequest Cliente a crear
+    * @param idempotencyKey Clave de idempotencia opcional para que los reintentos no dupliquen el cliente
     * @return ClientResponse cliente creado
     * @throws HttpClientErrorException.BadRequest Si el cliente no es valido
      * @throws HttpClientErrorException.Forbidden Si el usuario no tiene permisos para actualizar el cliente
@@ -75,10 +90,11 @@ public class ClientRestController {
     })
     @PostMapping("/")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ClientResponse> createClient(@Valid @RequestBody ClientCreateRequest clientCreateRequest) {
+    public ResponseEntity<ClientResponse> createClient(@Valid @RequestBody ClientCreateRequest clientCreateRequest,
+                                                       @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         log.info("Creating client");
-        ClientResponse clientResponse = clientService.save(clientCreateRequest);
-        return ResponseEntity.ok(clientResponse);
+        return idempotencyStore.execute(idempotencyKey, clientCreateRequest,
+                () -> ResponseEntity.ok(clientService.save(clientCreateRequest)));
     }
 
     /**
@@ -130,6 +146,27 @@ public class ClientRestController {
         return ResponseEntity.ok(clientService.findById(id));
     }
 
+    /**
+     * Endpoint para obtener el resumen de pedidos de un cliente
+     * @param id Id del cliente
+     * @return ClientOrderSummaryDto numero de pedidos, importe total y fecha del ultimo pedido
+     * @throws HttpClientErrorException.NotFound Si el cliente no existe
+     */
+    @Operation(summary = "Get the orders summary of a client")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Summary found"),
+            @ApiResponse(responseCode = "404", description = "Client not found")
+    })
+    @Parameters({
+            @Parameter(name = "id", required = true, description = "Client id")
+    })
+    @GetMapping("/{id}/orders/summary")
+    public ResponseEntity<ClientOrderSummaryDto> getClientOrderSummary(@PathVariable Long id) {
+        log.info("Getting client orders summary");
+        clientService.findById(id);
+        return ResponseEntity.ok(clientOrderSummaryService.findByIdUser(id));
+    }
+
     /**
      * Endpoint para obtener todos los clientes
      * @param username Nombre de usuario del cliente
@@ -138,6 +175,7 @@ public class ClientRestController {
      * @param size Tamaño de pagina
      * @param sortBy Campo por el que ordenar
      * @param direction Direccion de ordenacion
+     * @param withTotal {@code true} cuenta el total, {@code false} no lo cuenta y {@code approximate} usa uno reciente.
      * @param request Peticion HTTP
      * @return PageResponse pagina de clientes
      */
@@ -151,17 +189,30 @@ public class ClientRestController {
             @Parameter(name = "page", description = "Page number"),
             @Parameter(name = "size", description = "Page size"),
             @Parameter(name = "sortBy", description = "Sort by"),
-            @Parameter(name = "direction", description = "Sort direction")
+            @Parameter(name = "direction", description = "Sort direction"),
+            @Parameter(name = "withTotal", description = "true counts the total, false skips the count, approximate uses a recent count")
     })
     @GetMapping("/")
     public ResponseEntity<PageResponse<ClientResponse>> getAllClients(@RequestParam(required = false) Optional<String> username, @RequestParam(defaultValue = "false") String isDeleted,
                                                                       @RequestParam(defaultValue = "0") Integer page, @RequestParam(defaultValue = "10") Integer size, @RequestParam(defaultValue = "id") String sortBy,
-                                                                      @RequestParam(defaultValue = "asc") String direction, HttpServletRequest request) {
+                                                                      @RequestParam(defaultValue = "asc") String direction, @RequestParam(defaultValue = "true") String withTotal,
+                                                                      HttpServletRequest request) {
         log.info("Getting all clients");
 
         Sort sort = direction.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
 
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        TotalMode totalMode = TotalMode.of(withTotal);
+        if (totalMode != TotalMode.EXACT) {
+            Optional<Boolean> deleted = Optional.of(Boolean.valueOf(isDeleted));
+            Slice<ClientResponse> slice = clientService.findAllSlice(username, deleted, PageRequest.of(page, size, sort));
+            Long total = totalMode == TotalMode.APPROXIMATE
+                    ? approximateCounts.count("clients", List.of(username, deleted), () -> clientService.count(username, deleted))
+                    : null;
+            return ResponseEntity.ok()
+                    .header("link", paginationLinksUtils.createLinkHeader(slice, uriBuilder))
+                    .body(PageResponse.of(slice, total, sortBy, direction));
+        }
         Page<ClientResponse> pageResult = clientService.findAll(username, Optional.of(Boolean.valueOf(isDeleted)), PageRequest.of(page, size, sort));
         return ResponseEntity.ok()
                 .header("link", paginationLinksUtils.createLinkHeader(pageResult, uriBuilder))
@@ -169,6 +220,43 @@ public class ClientRestController {
 
     }
 
+    /**
+     * Endpoint para obtener los clientes paginados por cursor, sin contar el total
+     * @param username Nombre de usuario del cliente
+     * @param isDeleted Si el cliente esta eliminado
+     * @param cursor Cursor de la pagina anterior; si no se indica se devuelve la primera
+     * @param size Tamaño de pagina
+     * @param sortBy Campo por el que ordenar
+     * @param direction Direccion de ordenacion
+     * @param request Peticion HTTP
+     * @return CursorPageResponse pagina de clientes con el cursor de la siguiente
+     */
+    @Operation(summary = "Get all clients by cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Clients found"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, page size or sort supplied")
+    })
+    @Parameters({
+            @Parameter(name = "username", description = "Client username"),
+            @Parameter(name = "isDeleted", description = "Client is deleted"),
+            @Parameter(name = "cursor", description = "Cursor returned by the previous page"),
+            @Parameter(name = "size", description = "Page size"),
+            @Parameter(name = "sortBy", description = "Sort by"),
+            @Parameter(name = "direction", description = "Sort direction")
+    })
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<ClientResponse>> getAllClientsByCursor(@RequestParam(required = false) Optional<String> username, @RequestParam(defaultValue = "false") String isDeleted,
+                                                                                    @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "10") Integer size,
+                                                                                    @RequestParam(defaultValue = "id") String sortBy, @RequestParam(defaultValue = "asc") String direction,
+                                                                                    HttpServletRequest request) {
+        log.info("Getting all clients by cursor");
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        CursorPageResponse<ClientResponse> pageResult = clientService.findAllByCursor(username, Optional.of(Boolean.valueOf(isDeleted)), cursor, size, sortBy, direction);
+        return ResponseEntity.ok()
+                .header("link", paginationLinksUtils.createLinkHeader(pageResult, uriBuilder))
+                .body(pageResult);
+    }
+
     /**
      * Endpoint para eliminar un cliente
      * @param id Id del cliente
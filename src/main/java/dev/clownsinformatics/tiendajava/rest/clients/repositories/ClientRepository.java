@@ -1,6 +1,8 @@
 package dev.clownsinformatics.tiendajava.rest.clients.repositories;
 
 import dev.clownsinformatics.tiendajava.rest.clients.models.Client;
+import dev.clownsinformatics.tiendajava.utils.jpa.KeysetRepository;
+import dev.clownsinformatics.tiendajava.utils.jpa.SliceRepository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
@@ -16,7 +18,7 @@ import java.util.Optional;
  * Se usa para implementar ciertas consultas personalizadas
  */
 @Repository
-public interface ClientRepository extends JpaRepository<Client, Long>, JpaSpecificationExecutor<Client> {
+public interface ClientRepository extends JpaRepository<Client, Long>, JpaSpecificationExecutor<Client>, SliceRepository<Client>, KeysetRepository<Client> {
 
 
     Optional<Client> findByIdAndIsDeletedFalse(Long id);
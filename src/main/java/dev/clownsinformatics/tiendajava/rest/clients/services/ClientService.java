@@ -3,8 +3,10 @@ package dev.clownsinformatics.tiendajava.rest.clients.services;
 import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientCreateRequest;
 import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientResponse;
 import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientUpdateRequest;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Optional;
@@ -14,6 +16,12 @@ public interface ClientService {
 
     Page<ClientResponse> findAll(Optional<String> username, Optional<Boolean> isDeleted, Pageable pageable);
 
+    Slice<ClientResponse> findAllSlice(Optional<String> username, Optional<Boolean> isDeleted, Pageable pageable);
+
+    long count(Optional<String> username, Optional<Boolean> isDeleted);
+
+    CursorPageResponse<ClientResponse> findAllByCursor(Optional<String> username, Optional<Boolean> isDeleted, String cursor, int size, String sortBy, String direction);
+
     ClientResponse findById(Long id);
 
     ClientResponse save(ClientCreateRequest productoCreateRequest);
@@ -13,6 +13,9 @@ import dev.clownsinformatics.tiendajava.rest.clients.mappers.ClientMapper;
 import dev.clownsinformatics.tiendajava.rest.clients.models.Client;
 import dev.clownsinformatics.tiendajava.rest.clients.repositories.ClientRepository;
 import dev.clownsinformatics.tiendajava.rest.storage.services.FileSystemStorageService;
+import dev.clownsinformatics.tiendajava.utils.cache.CacheInvalidationBus;
+import dev.clownsinformatics.tiendajava.utils.jpa.FilterSpecification;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import dev.clownsinformatics.tiendajava.websockets.notifications.dto.ClientNotificationDto;
 import dev.clownsinformatics.tiendajava.websockets.notifications.mapper.ClientNotificationMapper;
 import dev.clownsinformatics.tiendajava.websockets.notifications.models.Notification;
@@ -25,6 +28,8 @@ import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -47,17 +52,19 @@ public class ClientServiceImpl implements ClientService {
     private final FileSystemStorageService fileSystemStorageService;
     private final ClientNotificationMapper clientNotificationMapper;
     private final WebSocketConfig webSocketConfig;
+    private final CacheInvalidationBus cacheInvalidationBus;
     private final ObjectMapper mapper = new ObjectMapper();
     private WebSocketHandler webSocketService;
 
 
     @Autowired
-    public ClientServiceImpl(ClientRepository clientRepository, ClientMapper clientMapper, FileSystemStorageService fileSystemStorageService, ClientNotificationMapper clientNotificationMapper, WebSocketConfig webSocketConfig) {
+    public ClientServiceImpl(ClientRepository clientRepository, ClientMapper clientMapper, FileSystemStorageService fileSystemStorageService, ClientNotificationMapper clientNotificationMapper, WebSocketConfig webSocketConfig, CacheInvalidationBus cacheInvalidationBus) {
         this.clientRepository = clientRepository;
         this.clientMapper = clientMapper;
         this.fileSystemStorageService = fileSystemStorageService;
         this.clientNotificationMapper = clientNotificationMapper;
         this.webSocketConfig = webSocketConfig;
+        this.cacheInvalidationBus = cacheInvalidationBus;
         this.webSocketService = webSocketConfig.webSocketClientHandler();
     }
 
@@ -72,20 +79,56 @@ public class ClientServiceImpl implements ClientService {
     @Override
     public Page<ClientResponse> findAll(Optional<String> username, Optional<Boolean> isDeleted, Pageable pageable) {
 
-        Specification<Client> specUsername = (root, query, criteriaBuilder) ->
-                username.map(m -> criteriaBuilder.like(criteriaBuilder.lower(root.get("username")), "%" + m.toLowerCase() + "%"))
-                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+        Page<ClientResponse> response = clientRepository.findAll(specification(username, isDeleted), pageable).map(clientMapper::toClientResponse);
 
-        Specification<Client> specIsDeleted = (root, query, criteriaBuilder) ->
-                isDeleted.map(d -> criteriaBuilder.equal(root.get("isDeleted"), d))
-                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+        return response;
 
-        Specification<Client> specs = Specification.where(specUsername).and(specIsDeleted);
+    }
 
-        Page<ClientResponse> response = clientRepository.findAll(specs, pageable).map(clientMapper::toClientResponse);
+    /**
+     * Busca los clientes de una pagina sin contar el total
+     * @param username nombre de usuario
+     * @param isDeleted si el cliente esta eliminado
+     * @param pageable paginacion
+     * @return trozo con los clientes de la pagina
+     */
+    @Override
+    public Slice<ClientResponse> findAllSlice(Optional<String> username, Optional<Boolean> isDeleted, Pageable pageable) {
+        return clientRepository.findSlice(specification(username, isDeleted), pageable).map(clientMapper::toClientResponse);
+    }
 
-        return response;
+    /**
+     * Cuenta los clientes que cumplen los filtros
+     * @param username nombre de usuario
+     * @param isDeleted si el cliente esta eliminado
+     * @return numero de clientes
+     */
+    @Override
+    public long count(Optional<String> username, Optional<Boolean> isDeleted) {
+        return clientRepository.count(specification(username, isDeleted));
+    }
+
+    /**
+     * Busca los clientes paginados por cursor, a partir del ultimo de la pagina anterior
+     * @param username nombre de usuario
+     * @param isDeleted si el cliente esta eliminado
+     * @param cursor cursor de la pagina anterior, o null para la primera
+     * @param size numero de clientes por pagina
+     * @param sortBy campo de ordenacion
+     * @param direction direccion de ordenacion (ASC o DESC)
+     * @return pagina de clientes con el cursor de la siguiente
+     */
+    @Override
+    public CursorPageResponse<ClientResponse> findAllByCursor(Optional<String> username, Optional<Boolean> isDeleted, String cursor, int size, String sortBy, String direction) {
+        Sort.Direction sortDirection = direction.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return clientRepository.findAfter(specification(username, isDeleted), cursor, size, sortBy, sortDirection)
+                .toResponse(clientMapper::toClientResponse, sortBy, direction);
+    }
 
+    private Specification<Client> specification(Optional<String> username, Optional<Boolean> isDeleted) {
+        return FilterSpecification.<Client>builder()
+                .contains("username", username)
+                .equal("isDeleted", isDeleted);
     }
 
     /**
@@ -174,6 +217,7 @@ public class ClientServiceImpl implements ClientService {
         ClientResponse response = clientMapper.toClientResponse(clientRepository.save(clientToSave));
 
         sendNotification(Notification.Tipo.UPDATE, clientMapper.toClient(response));
+        cacheInvalidationBus.invalidate("clients", id);
 
         return response;
     }
@@ -192,6 +236,7 @@ public class ClientServiceImpl implements ClientService {
             fileSystemStorageService.delete(client.getImage());
         }
         sendNotification(Notification.Tipo.DELETE, client);
+        cacheInvalidationBus.invalidate("clients", id);
     }
 
     /**
@@ -235,6 +280,7 @@ public class ClientServiceImpl implements ClientService {
                 .build();
 
         sendNotification(Notification.Tipo.UPDATE, clientMapper.toClient(response));
+        cacheInvalidationBus.invalidate("clients", id);
 
         return response;
     }
@@ -4,8 +4,11 @@ import dev.clownsinformatics.tiendajava.rest.employees.dto.CreateEmployeeRequest
 import dev.clownsinformatics.tiendajava.rest.employees.dto.EmployeeResponseDto;
 import dev.clownsinformatics.tiendajava.rest.employees.dto.UpdateEmployeeRequestDto;
 import dev.clownsinformatics.tiendajava.rest.employees.services.EmployeeService;
+import dev.clownsinformatics.tiendajava.utils.pagination.ApproximateCounts;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PaginationLinksUtils;
+import dev.clownsinformatics.tiendajava.utils.pagination.TotalMode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -18,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -28,6 +32,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -44,6 +49,7 @@ import java.util.Optional;
 public class EmployeeController {
     private final EmployeeService employeeService;
     private final PaginationLinksUtils paginationLinksUtils;
+    private final ApproximateCounts approximateCounts;
 
     /**
      * Obtiene todos los empleados
@@ -55,6 +61,7 @@ public class EmployeeController {
      * @param size Tamaño de página
      * @param sortBy Campo por el que ordenar
      * @param direction Dirección de ordenación
+     * @param withTotal {@code true} cuenta el total, {@code false} no lo cuenta y {@code approximate} usa uno reciente.
      * @param request Petición HTTP
      * @return Lista paginada de empleados
      */
@@ -71,7 +78,8 @@ public class EmployeeController {
             @Parameter(name = "page", description = "Page number"),
             @Parameter(name = "size", description = "Page size"),
             @Parameter(name = "sortBy", description = "Sort by"),
-            @Parameter(name = "direction", description = "Sort direction")
+            @Parameter(name = "direction", description = "Sort direction"),
+            @Parameter(name = "withTotal", description = "true counts the total, false skips the count, approximate uses a recent count")
     })
     @GetMapping
     public ResponseEntity<PageResponse<EmployeeResponseDto>> getAllEmployees(
@@ -83,11 +91,22 @@ public class EmployeeController {
             @RequestParam(defaultValue = "10") Integer size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "true") String withTotal,
             HttpServletRequest request
     ) {
         log.info("Getting all employees with name: {}, minSalary: {}, maxSalary: {}, position: {}", name, minSalary, maxSalary, position);
         Sort sort = direction.equalsIgnoreCase("asc") ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        TotalMode totalMode = TotalMode.of(withTotal);
+        if (totalMode != TotalMode.EXACT) {
+            Slice<EmployeeResponseDto> slice = employeeService.findAllSlice(name, minSalary, maxSalary, position, PageRequest.of(page, size, sort));
+            Long total = totalMode == TotalMode.APPROXIMATE
+                    ? approximateCounts.count("employees", List.of(name, minSalary, maxSalary, position), () -> employeeService.count(name, minSalary, maxSalary, position))
+                    : null;
+            return ResponseEntity.ok()
+                    .header("link", paginationLinksUtils.createLinkHeader(slice, uriBuilder))
+                    .body(PageResponse.of(slice, total, sortBy, direction));
+        }
         Page<EmployeeResponseDto> employees = employeeService.findAll(name, minSalary, maxSalary, position, PageRequest.of(page, size, sort));
         PageResponse<EmployeeResponseDto> response = PageResponse.of(employees, sortBy, direction);
         String linkHeader = paginationLinksUtils.createLinkHeader(employees, uriBuilder);
@@ -97,6 +116,54 @@ public class EmployeeController {
                 .body(response);
     }
 
+    /**
+     * Obtiene los empleados paginados por cursor, sin contar el total
+     * @param name Filtro por nombre
+     * @param minSalary Filtro por salario mínimo
+     * @param maxSalary Filtro por salario máximo
+     * @param position Filtro por posición
+     * @param cursor Cursor de la página anterior; si no se indica se devuelve la primera
+     * @param size Tamaño de página
+     * @param sortBy Campo por el que ordenar
+     * @param direction Dirección de ordenación
+     * @param request Petición HTTP
+     * @return Página de empleados con el cursor de la siguiente
+     */
+    @Operation(summary = "Get all employees by cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found all employees"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, page size or sort supplied")
+    })
+    @Parameters({
+            @Parameter(name = "name", description = "Employee name"),
+            @Parameter(name = "minSalary", description = "Minimum salary"),
+            @Parameter(name = "maxSalary", description = "Maximum salary"),
+            @Parameter(name = "position", description = "Employee position"),
+            @Parameter(name = "cursor", description = "Cursor returned by the previous page"),
+            @Parameter(name = "size", description = "Page size"),
+            @Parameter(name = "sortBy", description = "Sort by"),
+            @Parameter(name = "direction", description = "Sort direction")
+    })
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<EmployeeResponseDto>> getAllEmployeesByCursor(
+            @RequestParam(required = false) Optional<String> name,
+            @RequestParam(required = false) Optional<Double> minSalary,
+            @RequestParam(required = false) Optional<Double> maxSalary,
+            @RequestParam(required = false) Optional<String> position,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") Integer size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String direction,
+            HttpServletRequest request
+    ) {
+        log.info("Getting employees by cursor with name: {}, minSalary: {}, maxSalary: {}, position: {}", name, minSalary, maxSalary, position);
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        CursorPageResponse<EmployeeResponseDto> employees = employeeService.findAllByCursor(name, minSalary, maxSalary, position, cursor, size, sortBy, direction);
+        return ResponseEntity.ok()
+                .header("link", paginationLinksUtils.createLinkHeader(employees, uriBuilder))
+                .body(employees);
+    }
+
     /**
      * Obtiene un empleado por su id
      * @param id Id del empleado
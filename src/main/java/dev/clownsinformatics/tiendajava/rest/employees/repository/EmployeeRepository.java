@@ -1,10 +1,12 @@
 package dev.clownsinformatics.tiendajava.rest.employees.repository;
 
 import dev.clownsinformatics.tiendajava.rest.employees.models.Employee;
+import dev.clownsinformatics.tiendajava.utils.jpa.KeysetRepository;
+import dev.clownsinformatics.tiendajava.utils.jpa.SliceRepository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface EmployeeRepository extends JpaRepository<Employee, Integer>, JpaSpecificationExecutor<Employee> {
+public interface EmployeeRepository extends JpaRepository<Employee, Integer>, JpaSpecificationExecutor<Employee>, SliceRepository<Employee>, KeysetRepository<Employee> {
 }
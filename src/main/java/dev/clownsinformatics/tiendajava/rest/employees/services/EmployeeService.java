@@ -3,25 +3,27 @@ package dev.clownsinformatics.tiendajava.rest.employees.services;
 import dev.clownsinformatics.tiendajava.rest.employees.dto.CreateEmployeeRequestDto;
 import dev.clownsinformatics.tiendajava.rest.employees.dto.EmployeeResponseDto;
 import dev.clownsinformatics.tiendajava.rest.employees.dto.UpdateEmployeeRequestDto;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.Optional;
 
 public interface EmployeeService {
     Page<EmployeeResponseDto> findAll(Optional<String> name, Optional<Double> minSalary, Optional<Double> maxSalary, Optional<String> position, Pageable pageable);
 
-    @CachePut(key = "#id")
+    Slice<EmployeeResponseDto> findAllSlice(Optional<String> name, Optional<Double> minSalary, Optional<Double> maxSalary, Optional<String> position, Pageable pageable);
+
+    long count(Optional<String> name, Optional<Double> minSalary, Optional<Double> maxSalary, Optional<String> position);
+
+    CursorPageResponse<EmployeeResponseDto> findAllByCursor(Optional<String> name, Optional<Double> minSalary, Optional<Double> maxSalary, Optional<String> position, String cursor, int size, String sortBy, String direction);
+
     EmployeeResponseDto findById(Integer id);
 
-    @CachePut(key = "#result.id")
     EmployeeResponseDto save(CreateEmployeeRequestDto createEmployeeRequestDto);
 
-    @CachePut(key = "#id")
     EmployeeResponseDto update(Integer id, UpdateEmployeeRequestDto updateEmployeeRequestDto);
 
-    @CacheEvict(key = "#id")
     void delete(Integer id);
 }
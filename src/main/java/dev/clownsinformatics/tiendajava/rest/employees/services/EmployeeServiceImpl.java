@@ -11,13 +11,18 @@ import dev.clownsinformatics.tiendajava.rest.employees.exceptions.EmployeeNotFou
 import dev.clownsinformatics.tiendajava.rest.employees.mappers.EmployeeMapper;
 import dev.clownsinformatics.tiendajava.rest.employees.models.Employee;
 import dev.clownsinformatics.tiendajava.rest.employees.repository.EmployeeRepository;
+import dev.clownsinformatics.tiendajava.utils.jpa.FilterSpecification;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import dev.clownsinformatics.tiendajava.websockets.notifications.models.Notification;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
@@ -63,6 +68,55 @@ public class EmployeeServiceImpl implements EmployeeService {
         return employees.map(employeeMapper::toResponseDto);
     }
 
+    /**
+     * Obtiene los empleados de una página sin contar el total
+     *
+     * @param name      Filtro por nombre
+     * @param minSalary Filtro por salario mínimo
+     * @param maxSalary Filtro por salario máximo
+     * @param position  Filtro por posición
+     * @param pageable  Opciones de paginación
+     * @return Trozo con los empleados de la página
+     */
+    @Override
+    public Slice<EmployeeResponseDto> findAllSlice(Optional<String> name, Optional<Double> minSalary, Optional<Double> maxSalary, Optional<String> position, Pageable pageable) {
+        return employeeRepository.findSlice(getSpecification(name, minSalary, maxSalary, position), pageable).map(employeeMapper::toResponseDto);
+    }
+
+    /**
+     * Cuenta los empleados que cumplen los filtros
+     *
+     * @param name      Filtro por nombre
+     * @param minSalary Filtro por salario mínimo
+     * @param maxSalary Filtro por salario máximo
+     * @param position  Filtro por posición
+     * @return Número de empleados
+     */
+    @Override
+    public long count(Optional<String> name, Optional<Double> minSalary, Optional<Double> maxSalary, Optional<String> position) {
+        return employeeRepository.count(getSpecification(name, minSalary, maxSalary, position));
+    }
+
+    /**
+     * Obtiene los empleados paginados por cursor, continuando a partir del último de la página anterior
+     *
+     * @param name      Filtro por nombre
+     * @param minSalary Filtro por salario mínimo
+     * @param maxSalary Filtro por salario máximo
+     * @param position  Filtro por posición
+     * @param cursor    Cursor de la página anterior, o null para la primera
+     * @param size      Número de empleados por página
+     * @param sortBy    Campo de ordenación
+     * @param direction Dirección de ordenación (ASC o DESC)
+     * @return Página de empleados con el cursor de la siguiente
+     */
+    @Override
+    public CursorPageResponse<EmployeeResponseDto> findAllByCursor(Optional<String> name, Optional<Double> minSalary, Optional<Double> maxSalary, Optional<String> position, String cursor, int size, String sortBy, String direction) {
+        Sort.Direction sortDirection = direction.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return employeeRepository.findAfter(getSpecification(name, minSalary, maxSalary, position), cursor, size, sortBy, sortDirection)
+                .toResponse(employeeMapper::toResponseDto, sortBy, direction);
+    }
+
     /**
      * Obtiene un empleado por su id
      *
@@ -71,7 +125,7 @@ public class EmployeeServiceImpl implements EmployeeService {
      * @throws EmployeeNotFoundException Si no se encuentra el empleado
      */
     @Override
-    @CachePut(key = "#id")
+    @Cacheable(key = "#id")
     public EmployeeResponseDto findById(Integer id) {
         Employee employee = getEmployee(id);
         return employeeMapper.toResponseDto(employee);
@@ -156,14 +210,11 @@ public class EmployeeServiceImpl implements EmployeeService {
     }
 
     private Specification<Employee> getSpecification(Optional<String> name, Optional<Double> minSalary, Optional<Double> maxSalary, Optional<String> position) {
-        // Case-insensitive name search
-        Specification<Employee> nameSpecification = ((root, query, criteriaBuilder) -> name.map(s -> criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + s.toLowerCase() + "%")).orElse(criteriaBuilder.isTrue(criteriaBuilder.literal(true))));
-        // Min and max salary search
-        Specification<Employee> minSalarySpecification = ((root, query, criteriaBuilder) -> minSalary.map(s -> criteriaBuilder.greaterThanOrEqualTo(root.get("salary"), s)).orElse(criteriaBuilder.isTrue(criteriaBuilder.literal(true))));
-        Specification<Employee> maxSalarySpecification = ((root, query, criteriaBuilder) -> maxSalary.map(s -> criteriaBuilder.lessThanOrEqualTo(root.get("salary"), s)).orElse(criteriaBuilder.isTrue(criteriaBuilder.literal(true))));
-        // Case-sensitive position search
-        Specification<Employee> positionSpecification = ((root, query, criteriaBuilder) -> position.map(s -> criteriaBuilder.equal(root.get("position"), s)).orElse(criteriaBuilder.isTrue(criteriaBuilder.literal(true))));
-        return Specification.where(nameSpecification).and(minSalarySpecification).and(maxSalarySpecification).and(positionSpecification);
+        return FilterSpecification.<Employee>builder()
+                .contains("name", name)
+                .atLeast("salary", minSalary)
+                .atMost("salary", maxSalary)
+                .equal("position", position);
     }
 
     private Employee getEmployee(Integer id) {
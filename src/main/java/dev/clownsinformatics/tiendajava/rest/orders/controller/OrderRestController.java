@@ -1,9 +1,23 @@
 package dev.clownsinformatics.tiendajava.rest.orders.controller;
 
+import dev.clownsinformatics.tiendajava.rest.orders.dto.ClientOrderSummaryCheckDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderArchiveRunDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderBatchCreateDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderBatchResponseDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderCreateDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderExportFormat;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderIntakeDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderIntakeStatsDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderResponseDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderUpdateDto;
+import dev.clownsinformatics.tiendajava.rest.orders.exceptions.OrderBadRequest;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderArchiveRunRepository;
+import dev.clownsinformatics.tiendajava.rest.orders.service.ClientOrderSummaryService;
+import dev.clownsinformatics.tiendajava.rest.orders.service.OrderArchiver;
+import dev.clownsinformatics.tiendajava.rest.orders.service.OrderIntakeQueue;
 import dev.clownsinformatics.tiendajava.rest.orders.service.OrderService;
+import dev.clownsinformatics.tiendajava.utils.idempotency.IdempotencyStore;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PaginationLinksUtils;
 import io.swagger.v3.oas.annotations.Operation;
@@ -20,15 +34,21 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -41,11 +61,21 @@ import java.util.Map;
 public class OrderRestController {
     private final OrderService orderService;
     private final PaginationLinksUtils paginationLinksUtils;
+    private final ClientOrderSummaryService clientOrderSummaryService;
+    private final OrderIntakeQueue orderIntakeQueue;
+    private final IdempotencyStore idempotencyStore;
+    private final OrderArchiver orderArchiver;
+    private final OrderArchiveRunRepository orderArchiveRunRepository;
 
     @Autowired
-    public OrderRestController(OrderService orderService, PaginationLinksUtils paginationLinksUtils) {
+    public OrderRestController(OrderService orderService, PaginationLinksUtils paginationLinksUtils, ClientOrderSummaryService clientOrderSummaryService, OrderIntakeQueue orderIntakeQueue, IdempotencyStore idempotencyStore, OrderArchiver orderArchiver, OrderArchiveRunRepository orderArchiveRunRepository) {
         this.orderService = orderService;
         this.paginationLinksUtils = paginationLinksUtils;
+        this.clientOrderSummaryService = clientOrderSummaryService;
+        this.orderIntakeQueue = orderIntakeQueue;
+        this.idempotencyStore = idempotencyStore;
+        this.orderArchiver = orderArchiver;
+        this.orderArchiveRunRepository = orderArchiveRunRepository;
     }
 
     /**
@@ -87,6 +117,163 @@ public class OrderRestController {
                 .body(PageResponse.of(pageResult, sortBy, direction));
     }
 
+    /**
+     * Obtiene todos los pedidos paginados por cursor, sin contar el total, y proporciona el enlace a la siguiente página.
+     *
+     * @param cursor    Cursor de la página anterior; si no se indica se devuelve la primera página.
+     * @param size      Número de elementos por página.
+     * @param sortBy    Campo por el cual se ordenan los resultados (id o createdAt).
+     * @param direction Dirección de ordenamiento (ASC o DESC).
+     * @param request   Objeto HttpServletRequest para construir enlaces de paginación.
+     * @return ResponseEntity con la página de pedidos y enlaces de paginación.
+     */
+    @Operation(summary = "Get all orders by cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the orders"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, page size or sort supplied")
+    })
+    @Parameters({
+            @Parameter(name = "cursor", description = "Cursor returned by the previous page"),
+            @Parameter(name = "size", description = "Number of elements per page", example = "10"),
+            @Parameter(name = "sortBy", description = "id or createdAt. Default sort order is ascending.", example = "id"),
+            @Parameter(name = "direction", description = "Sorting order in the format: ASC|DESC. Default sort order is ascending.", example = "asc")
+    })
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<OrderResponseDto>> getAllOrdersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String direction,
+            HttpServletRequest request
+    ) {
+        log.info("Getting all orders by cursor");
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        CursorPageResponse<OrderResponseDto> pageResult = orderService.findAllByCursor(cursor, size, sortBy, direction);
+        return ResponseEntity.ok()
+                .header("link", paginationLinksUtils.createLinkHeader(pageResult, uriBuilder))
+                .body(pageResult);
+    }
+
+    /**
+     * Exporta los pedidos de un intervalo de fechas en NDJSON o CSV. La respuesta se escribe a medida
+     * que se leen los pedidos, así que puede contener cualquier número de ellos sin cargarlos en memoria.
+     *
+     * @param format Formato de exportación (ndjson o csv).
+     * @param from   Fecha de creación mínima, incluida.
+     * @param to     Fecha de creación máxima, excluida.
+     * @param idUser Identificador del usuario cuyos pedidos se exportan.
+     * @return ResponseEntity con el cuerpo que escribe los pedidos.
+     */
+    @Operation(summary = "Export orders as NDJSON or CSV")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Orders exported"),
+            @ApiResponse(responseCode = "400", description = "Invalid format or dates supplied"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @Parameters({
+            @Parameter(name = "format", description = "ndjson or csv", example = "csv"),
+            @Parameter(name = "from", description = "Created at or after, ISO date time", example = "2023-11-01T00:00:00"),
+            @Parameter(name = "to", description = "Created before, ISO date time", example = "2023-12-01T00:00:00"),
+            @Parameter(name = "idUser", description = "User id", example = "1")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) Long idUser
+    ) {
+        log.info("Exporting orders as {}", format);
+        OrderExportFormat exportFormat = OrderExportFormat.from(format);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new OrderBadRequest("The date from must be before the date to");
+        }
+        StreamingResponseBody body = out -> orderService.export(exportFormat, from, to, idUser, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Obtiene pedidos archivados paginados, filtrando por usuario y por fecha de creación.
+     *
+     * @param idUser    Identificador del usuario.
+     * @param from      Fecha de creación mínima, incluida.
+     * @param to        Fecha de creación máxima, excluida.
+     * @param page      Número de página.
+     * @param size      Número de elementos por página.
+     * @param sortBy    Campo por el cual se ordenan los resultados.
+     * @param direction Dirección de ordenamiento (ASC o DESC).
+     * @return ResponseEntity con la página de pedidos archivados.
+     */
+    @Operation(summary = "Get archived orders by user and date range")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the archived orders"),
+            @ApiResponse(responseCode = "400", description = "Invalid dates supplied"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @Parameters({
+            @Parameter(name = "idUser", description = "User id", example = "1"),
+            @Parameter(name = "from", description = "Created at or after, ISO date time", example = "2022-01-01T00:00:00"),
+            @Parameter(name = "to", description = "Created before, ISO date time", example = "2023-01-01T00:00:00"),
+            @Parameter(name = "page", description = "Page number", example = "0"),
+            @Parameter(name = "size", description = "Number of elements per page", example = "10"),
+            @Parameter(name = "sortBy", description = "Default sort order is ascending.", example = "createdAt"),
+            @Parameter(name = "direction", description = "Default sort order is ascending.", example = "asc")
+    })
+    @GetMapping("/archive")
+    public ResponseEntity<PageResponse<OrderResponseDto>> getArchivedOrders(
+            @RequestParam(required = false) Long idUser,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "createdAt") String sortBy,
+            @RequestParam(defaultValue = "asc") String direction
+    ) {
+        log.info("Getting archived orders of user {}", idUser);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new OrderBadRequest("The date from must be before the date to");
+        }
+        Sort sort = direction.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
+        Pageable pageable = PageRequest.of(page, size, sort);
+        return ResponseEntity.ok(PageResponse.of(orderService.findArchived(idUser, from, to, pageable), sortBy, direction));
+    }
+
+    /**
+     * Archiva ahora los pedidos antiguos, sin esperar a la siguiente ejecución periódica.
+     *
+     * @return ResponseEntity con la entrada del índice del archivo, o 409 si ya hay un archivado en curso.
+     */
+    @Operation(summary = "Archive the old orders now")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Orders archived"),
+            @ApiResponse(responseCode = "409", description = "Archiving already running"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @PostMapping("/archive/run")
+    public ResponseEntity<OrderArchiveRunDto> archiveOrders() {
+        log.info("Archiving old orders");
+        var run = orderArchiver.archive();
+        return run != null ? ResponseEntity.ok(OrderArchiveRunDto.of(run)) : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    /**
+     * Obtiene las últimas entradas del índice del archivo de pedidos.
+     *
+     * @return ResponseEntity con las últimas ejecuciones del archivado, de la más reciente a la más antigua.
+     */
+    @Operation(summary = "Get the order archive manifest")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Archive manifest"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @GetMapping("/archive/manifest")
+    public ResponseEntity<List<OrderArchiveRunDto>> getArchiveManifest() {
+        return ResponseEntity.ok(orderArchiveRunRepository.findTop50ByOrderByStartedAtDesc().stream().map(OrderArchiveRunDto::of).toList());
+    }
+
     /**
      * Obtiene un pedido por su identificador.
      *
@@ -147,10 +334,51 @@ public class OrderRestController {
         return ResponseEntity.ok(PageResponse.of(orderService.findByUserId(id, pageable), sortBy, direction));
     }
 
+    /**
+     * Obtiene pedidos de un usuario paginados por cursor, sin contar el total, y proporciona el enlace a la siguiente página.
+     *
+     * @param id        Identificador del usuario.
+     * @param cursor    Cursor de la página anterior; si no se indica se devuelve la primera página.
+     * @param size      Número de elementos por página.
+     * @param sortBy    Campo por el cual se ordenan los resultados (id o createdAt).
+     * @param direction Dirección de ordenamiento (ASC o DESC).
+     * @param request   Objeto HttpServletRequest para construir enlaces de paginación.
+     * @return ResponseEntity con la página de pedidos del usuario y enlaces de paginación.
+     */
+    @Operation(summary = "Get orders by user id by cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the orders"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, page size or sort supplied")
+    })
+    @Parameters({
+            @Parameter(name = "id", description = "User id", example = "1", required = true),
+            @Parameter(name = "cursor", description = "Cursor returned by the previous page"),
+            @Parameter(name = "size", description = "Number of elements per page", example = "10"),
+            @Parameter(name = "sortBy", description = "id or createdAt. Default sort order is ascending.", example = "id"),
+            @Parameter(name = "direction", description = "Sorting order in the format: ASC|DESC. Default sort order is ascending.", example = "asc")
+    })
+    @GetMapping("/user/{id}/cursor")
+    public ResponseEntity<CursorPageResponse<OrderResponseDto>> getOrdersByUserIdByCursor(
+            @PathVariable("id") Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String direction,
+            HttpServletRequest request
+    ) {
+        log.info("Getting orders by user id {} by cursor", id);
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        CursorPageResponse<OrderResponseDto> pageResult = orderService.findByUserIdByCursor(id, cursor, size, sortBy, direction);
+        return ResponseEntity.ok()
+                .header("link", paginationLinksUtils.createLinkHeader(pageResult, uriBuilder))
+                .body(pageResult);
+    }
+
     /**
      * Crea un nuevo pedido.
      *
-     * @param order Datos del nuevo pedido.
+     * @param order          Datos del nuevo pedido.
+     * @param idempotencyKey Clave de idempotencia opcional para que los reintentos no dupliquen el pedido.
      * @return ResponseEntity con el pedido creado.
      */
     @Operation(summary = "Get orders by status")
@@ -164,9 +392,119 @@ public class OrderRestController {
             @Parameter(name = "order create body", description = "Order create body", required = true)
     })
     @PostMapping
-    public ResponseEntity<OrderResponseDto> createOrder(@Valid @RequestBody OrderCreateDto order) {
+    public ResponseEntity<OrderResponseDto> createOrder(@Valid @RequestBody OrderCreateDto order,
+                                                        @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         log.info("Creating order {}", order);
-        return ResponseEntity.status(HttpStatus.CREATED).body(orderService.save(order));
+        return idempotencyStore.execute(idempotencyKey, order,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(orderService.save(order)));
+    }
+
+    /**
+     * Acepta un pedido para crearlo en segundo plano. Devuelve 202 con el identificador que tendrá el pedido
+     * y, en la cabecera Location, la URL donde consultar su estado.
+     *
+     * @param order   Datos del nuevo pedido.
+     * @param request Objeto HttpServletRequest para construir la URL del estado.
+     * @return ResponseEntity con el identificador y el estado del pedido.
+     */
+    @Operation(summary = "Accept an order to be created in the background")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Order accepted"),
+            @ApiResponse(responseCode = "400", description = "Invalid order supplied, not enough stock or wrong price"),
+            @ApiResponse(responseCode = "403", description = "Access denied"),
+            @ApiResponse(responseCode = "404", description = "Client or product not found"),
+            @ApiResponse(responseCode = "503", description = "The intake queue is full")
+    })
+    @Parameters({
+            @Parameter(name = "order create body", description = "Order create body", required = true)
+    })
+    @PostMapping("/async")
+    public ResponseEntity<OrderIntakeDto> createOrderAsync(@Valid @RequestBody OrderCreateDto order, HttpServletRequest request) {
+        log.info("Queueing order {}", order);
+        OrderIntakeDto intake = orderIntakeQueue.submit(order);
+        return ResponseEntity.accepted()
+                .location(UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString())
+                        .pathSegment(intake.id()).build().toUri())
+                .body(intake);
+    }
+
+    /**
+     * Obtiene el estado de un pedido aceptado de forma asíncrona.
+     *
+     * @param id Identificador devuelto al aceptar el pedido.
+     * @return ResponseEntity con el estado del pedido.
+     */
+    @Operation(summary = "Get the status of an order accepted in the background")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the status"),
+            @ApiResponse(responseCode = "404", description = "Unknown order"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @Parameters({
+            @Parameter(name = "id", description = "Order id", example = "60f0a9b9e4b0e3a6f0f3f0a1", required = true)
+    })
+    @GetMapping("/async/{id}")
+    public ResponseEntity<OrderIntakeDto> getOrderIntakeStatus(@PathVariable("id") ObjectId id) {
+        return ResponseEntity.ok(orderIntakeQueue.status(id));
+    }
+
+    /**
+     * Obtiene el tamaño de la cola de pedidos asíncronos y sus contadores.
+     *
+     * @return ResponseEntity con las métricas de la cola.
+     */
+    @Operation(summary = "Get the order intake queue metrics")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Queue metrics"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @GetMapping("/async")
+    public ResponseEntity<OrderIntakeStatsDto> getOrderIntakeStats() {
+        return ResponseEntity.ok(orderIntakeQueue.stats());
+    }
+
+    /**
+     * Crea varios pedidos en una sola petición. Devuelve 201 si se crean todos y 207 si alguno falla,
+     * con el resultado de cada pedido en la posición que ocupaba en el lote.
+     *
+     * @param batch Pedidos a crear.
+     * @return ResponseEntity con el resultado de cada pedido.
+     */
+    @Operation(summary = "Create a batch of orders")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "All the orders were created"),
+            @ApiResponse(responseCode = "207", description = "Some orders were not created"),
+            @ApiResponse(responseCode = "400", description = "Invalid batch supplied"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @Parameters({
+            @Parameter(name = "order batch body", description = "Orders to create", required = true)
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<OrderBatchResponseDto> createOrders(@Valid @RequestBody OrderBatchCreateDto batch) {
+        log.info("Creating batch of {} orders", batch.orders().size());
+        OrderBatchResponseDto result = orderService.saveAll(batch.orders());
+        return ResponseEntity.status(result.failed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS).body(result);
+    }
+
+    /**
+     * Compara el resumen de pedidos de cada cliente con sus pedidos y, si se indica, lo reconstruye.
+     *
+     * @param repair Si se deben corregir los resúmenes que no coinciden.
+     * @return ResponseEntity con el resultado de la comprobación.
+     */
+    @Operation(summary = "Check and optionally rebuild the client order summaries")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Summaries checked"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @Parameters({
+            @Parameter(name = "repair", description = "Rebuild the summaries that do not match the orders", example = "true")
+    })
+    @PostMapping("/summaries/check")
+    public ResponseEntity<ClientOrderSummaryCheckDto> checkClientOrderSummaries(@RequestParam(defaultValue = "false") boolean repair) {
+        log.info("Checking client order summaries, repair: {}", repair);
+        return ResponseEntity.ok(clientOrderSummaryService.check(repair));
     }
 
     /**
@@ -0,0 +1,10 @@
+package dev.clownsinformatics.tiendajava.rest.orders.dto;
+
+public record ClientOrderSummaryCheckDto(
+        long checked,
+        long mismatched,
+        long orphaned,
+        boolean repaired,
+        long elapsedMs
+) {
+}
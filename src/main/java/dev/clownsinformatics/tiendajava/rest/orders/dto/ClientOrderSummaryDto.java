@@ -0,0 +1,21 @@
+package dev.clownsinformatics.tiendajava.rest.orders.dto;
+
+import dev.clownsinformatics.tiendajava.rest.orders.models.ClientOrderSummary;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+
+import java.time.LocalDateTime;
+
+public record ClientOrderSummaryDto(
+        Long idUser,
+        long totalOrders,
+        double totalSpent,
+        LocalDateTime lastOrderAt
+) {
+    public static ClientOrderSummaryDto of(ClientOrderSummary summary) {
+        return new ClientOrderSummaryDto(summary.getIdUser(), summary.getTotalOrders(), Money.ofCents(summary.getTotalSpentCents()).amount(), summary.getLastOrderAt());
+    }
+
+    public static ClientOrderSummaryDto empty(Long idUser) {
+        return new ClientOrderSummaryDto(idUser, 0, 0.0, null);
+    }
+}
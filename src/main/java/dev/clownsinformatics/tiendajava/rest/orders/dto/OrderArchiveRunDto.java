@@ -0,0 +1,20 @@
+package dev.clownsinformatics.tiendajava.rest.orders.dto;
+
+import dev.clownsinformatics.tiendajava.rest.orders.models.OrderArchiveRun;
+
+import java.time.LocalDateTime;
+
+public record OrderArchiveRunDto(
+        String id,
+        LocalDateTime cutoff,
+        long archived,
+        LocalDateTime oldestCreatedAt,
+        LocalDateTime newestCreatedAt,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt
+) {
+    public static OrderArchiveRunDto of(OrderArchiveRun run) {
+        return new OrderArchiveRunDto(run.getId().toHexString(), run.getCutoff(), run.getArchived(),
+                run.getOldestCreatedAt(), run.getNewestCreatedAt(), run.getStartedAt(), run.getFinishedAt());
+    }
+}
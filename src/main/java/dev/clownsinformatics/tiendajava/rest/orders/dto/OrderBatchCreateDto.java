@@ -0,0 +1,15 @@
+package dev.clownsinformatics.tiendajava.rest.orders.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record OrderBatchCreateDto(
+        @NotEmpty(message = "The batch should have at least one order")
+        @Size(max = 1000, message = "The batch can not have more than 1000 orders")
+        @Schema(description = "The orders to create", example = "[{\"idUser\": 1, \"orderLines\": [{\"idProduct\": \"d69cf3db-b77d-4181-b3cd-5ca8107fb6a0\", \"quantity\": 2, \"price\": 100.0}]}]")
+        List<OrderCreateDto> orders
+) {
+}
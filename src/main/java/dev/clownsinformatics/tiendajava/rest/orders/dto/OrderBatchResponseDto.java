@@ -0,0 +1,14 @@
+package dev.clownsinformatics.tiendajava.rest.orders.dto;
+
+import java.util.List;
+
+public record OrderBatchResponseDto(
+        int created,
+        int failed,
+        List<OrderBatchResultDto> results
+) {
+    public static OrderBatchResponseDto of(List<OrderBatchResultDto> results) {
+        int created = (int) results.stream().filter(OrderBatchResultDto::created).count();
+        return new OrderBatchResponseDto(created, results.size() - created, results);
+    }
+}
@@ -0,0 +1,22 @@
+package dev.clownsinformatics.tiendajava.rest.orders.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record OrderBatchResultDto(
+        @Schema(description = "Position of the order in the batch", example = "0")
+        int index,
+        @Schema(description = "If the order was created", example = "true")
+        boolean created,
+        @Schema(description = "The created order, if any")
+        OrderResponseDto order,
+        @Schema(description = "Why the order was not created, if it failed", example = "Product stock is: 1 and order quantity is: 2")
+        String error
+) {
+    public static OrderBatchResultDto created(int index, OrderResponseDto order) {
+        return new OrderBatchResultDto(index, true, order, null);
+    }
+
+    public static OrderBatchResultDto failed(int index, String error) {
+        return new OrderBatchResultDto(index, false, null, error);
+    }
+}
@@ -0,0 +1,43 @@
+package dev.clownsinformatics.tiendajava.rest.orders.dto;
+
+import dev.clownsinformatics.tiendajava.rest.orders.exceptions.OrderBadRequest;
+
+/**
+ * Formatos en los que se pueden exportar los pedidos.
+ */
+public enum OrderExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    OrderExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Obtiene el formato a partir de su nombre, sin distinguir mayúsculas.
+     *
+     * @param format Nombre del formato.
+     * @return Formato de exportación.
+     * @throws OrderBadRequest Si el formato no existe.
+     */
+    public static OrderExportFormat from(String format) {
+        for (OrderExportFormat value : values()) {
+            if (value.extension.equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new OrderBadRequest("Unsupported export format: " + format + ". Use ndjson or csv");
+    }
+}
@@ -0,0 +1,20 @@
+package dev.clownsinformatics.tiendajava.rest.orders.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+public record OrderIntakeDto(
+        @Schema(description = "The id the order will have once created", example = "60f0a9b9e8c9a72e8c7f0b1a")
+        String id,
+        @Schema(description = "The processing status of the order", example = "QUEUED")
+        OrderIntakeStatus status,
+        @Schema(description = "Why the order was not created, if it failed", example = "Product stock is: 1 and order quantity is: 2")
+        String error
+) {
+    public static OrderIntakeDto of(String id, OrderIntakeStatus status) {
+        return new OrderIntakeDto(id, status, null);
+    }
+
+    public static OrderIntakeDto failed(String id, String error) {
+        return new OrderIntakeDto(id, OrderIntakeStatus.FAILED, error);
+    }
+}
@@ -0,0 +1,12 @@
+package dev.clownsinformatics.tiendajava.rest.orders.dto;
+
+public record OrderIntakeStatsDto(
+        int depth,
+        int capacity,
+        int workers,
+        long accepted,
+        long rejected,
+        long created,
+        long failed
+) {
+}
@@ -0,0 +1,11 @@
+package dev.clownsinformatics.tiendajava.rest.orders.dto;
+
+/**
+ * Estados de un pedido recibido de forma asíncrona.
+ */
+public enum OrderIntakeStatus {
+    QUEUED,
+    PROCESSING,
+    CREATED,
+    FAILED
+}
@@ -3,6 +3,7 @@ package dev.clownsinformatics.tiendajava.rest.orders.dto;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientResponse;
 import dev.clownsinformatics.tiendajava.rest.orders.models.OrderLine;
+import dev.clownsinformatics.tiendajava.utils.cache.CacheWeighted;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -18,5 +19,9 @@ public record OrderResponseDto(
         LocalDateTime createdAt,
         LocalDateTime updatedAt,
         Boolean isDeleted
-) {
+) implements CacheWeighted {
+    @Override
+    public int cacheWeight() {
+        return 1 + (orderLines == null ? 0 : orderLines.size());
+    }
 }
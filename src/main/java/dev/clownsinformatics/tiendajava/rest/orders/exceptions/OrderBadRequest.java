@@ -0,0 +1,18 @@
+package dev.clownsinformatics.tiendajava.rest.orders.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Clase que representa una excepción de petición de pedidos no válida.
+ * @version 1.0
+ * @since 1.0
+ * @see OrderException
+ * @see ResponseStatus
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class OrderBadRequest extends OrderException {
+    public OrderBadRequest(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package dev.clownsinformatics.tiendajava.rest.orders.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Clase que representa una excepción cuando la cola de pedidos asíncronos está llena.
+ * @version 1.0
+ * @since 1.0
+ * @see OrderException
+ * @see ResponseStatus
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class OrderIntakeFull extends OrderException {
+    public OrderIntakeFull(int capacity) {
+        super("The order intake queue is full (" + capacity + " orders), try again later");
+    }
+}
@@ -0,0 +1,326 @@
+package dev.clownsinformatics.tiendajava.rest.orders.mappers;
+
+import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientResponse;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.orders.models.OrderLine;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import org.bson.BsonBinarySubType;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Convierte a mano los pedidos en documentos BSON compactos y viceversa, sin pasar por la reflexión
+ * del conversor de Spring Data.
+ * <p>
+ * Formato compacto:
+ * <ul>
+ *     <li>Claves de una o dos letras, las mismas que declaran las anotaciones {@code @Field} de {@link Order}
+ *     y {@link OrderLine}, de modo que las consultas por propiedad siguen funcionando.</li>
+ *     <li>Los UUID se guardan como binario de subtipo 4 (estándar).</li>
+ *     <li>Los importes se guardan como un número entero de céntimos, en 32 bits si cabe.</li>
+ *     <li>Las fechas con hora se guardan como fecha BSON en la zona del sistema, igual que hace Spring Data,
+ *     y la fecha de nacimiento del cliente como número de días desde 1970.</li>
+ *     <li>Los valores nulos y los valores por defecto del cliente se omiten.</li>
+ * </ul>
+ * Los documentos con el formato anterior (nombres completos, UUID en binario heredado de Java e importes
+ * en coma flotante) se siguen leyendo, para poder migrarlos sin parar la aplicación.
+ */
+public class OrderDocumentMapper {
+    public static final String ID = "_id";
+    public static final String ID_USER = "u";
+    public static final String CLIENT = "cl";
+    public static final String ORDER_LINES = "l";
+    public static final String TOTAL_ITEMS = "n";
+    public static final String TOTAL = "t";
+    public static final String CREATED_AT = "c";
+    public static final String UPDATED_AT = "m";
+    public static final String IS_DELETED = "d";
+
+    public static final String LINE_QUANTITY = "q";
+    public static final String LINE_ID_PRODUCT = "p";
+    public static final String LINE_PRICE = "pr";
+    public static final String LINE_TOTAL = "t";
+
+    private static final String CLIENT_ID = "i";
+    private static final String CLIENT_USERNAME = "un";
+    private static final String CLIENT_NAME = "nm";
+    private static final String CLIENT_BALANCE = "b";
+    private static final String CLIENT_EMAIL = "e";
+    private static final String CLIENT_ADDRESS = "a";
+    private static final String CLIENT_PHONE = "ph";
+    private static final String CLIENT_BIRTHDATE = "bd";
+    private static final String CLIENT_IMAGE = "im";
+    private static final String CLIENT_IS_DELETED = "d";
+    private static final String CLIENT_CREATED_AT = "c";
+    private static final String CLIENT_UPDATED_AT = "m";
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    /**
+     * Indica si un documento de pedido tiene todavía el formato anterior.
+     *
+     * @param document Documento de la colección de pedidos.
+     * @return {@code true} si no tiene el formato compacto.
+     */
+    public boolean isLegacy(Document document) {
+        return !document.containsKey(ID_USER) && document.containsKey("idUser");
+    }
+
+    /**
+     * Convierte un pedido en un documento compacto.
+     *
+     * @param order Pedido.
+     * @return Documento BSON.
+     */
+    public Document toDocument(Order order) {
+        Document document = new Document(ID, order.getId());
+        putIfNotNull(document, ID_USER, order.getIdUser());
+        if (order.getClient() != null) {
+            document.put(CLIENT, toDocument(order.getClient()));
+        }
+        if (order.getOrderLines() != null) {
+            List<Document> lines = new ArrayList<>(order.getOrderLines().size());
+            for (OrderLine line : order.getOrderLines()) {
+                lines.add(toDocument(line));
+            }
+            document.put(ORDER_LINES, lines);
+        }
+        putIfNotNull(document, TOTAL_ITEMS, order.getTotalItems());
+        putIfNotNull(document, TOTAL, toCents(order.getTotal()));
+        putIfNotNull(document, CREATED_AT, toDate(order.getCreatedAt()));
+        putIfNotNull(document, UPDATED_AT, toDate(order.getUpdatedAt()));
+        if (Boolean.TRUE.equals(order.getIsDeleted())) {
+            document.put(IS_DELETED, true);
+        }
+        return document;
+    }
+
+    /**
+     * Convierte un documento de pedido, compacto o con el formato anterior, en un pedido.
+     *
+     * @param document Documento BSON.
+     * @return Pedido.
+     */
+    public Order toOrder(Document document) {
+        if (isLegacy(document)) {
+            return toOrderLegacy(document);
+        }
+        List<Document> lines = document.getList(ORDER_LINES, Document.class);
+        List<OrderLine> orderLines = null;
+        if (lines != null) {
+            orderLines = new ArrayList<>(lines.size());
+            for (Document line : lines) {
+                orderLines.add(OrderLine.builder()
+                        .quantity(line.getInteger(LINE_QUANTITY))
+                        .idProduct(toUuid(line.get(LINE_ID_PRODUCT)))
+                        .price(toMoney(line.get(LINE_PRICE)))
+                        .total(toMoney(line.get(LINE_TOTAL)))
+                        .build());
+            }
+        }
+        Document client = document.get(CLIENT, Document.class);
+        return Order.builder()
+                .id(document.getObjectId(ID))
+                .idUser(toLong(document.get(ID_USER)))
+                .client(client != null ? toClient(client) : null)
+                .orderLines(orderLines)
+                .totalItems(document.getInteger(TOTAL_ITEMS, 0))
+                .total(toMoney(document.get(TOTAL)))
+                .createdAt(toLocalDateTime(document.getDate(CREATED_AT)))
+                .updatedAt(toLocalDateTime(document.getDate(UPDATED_AT)))
+                .isDeleted(document.getBoolean(IS_DELETED, false))
+                .build();
+    }
+
+    private Document toDocument(OrderLine line) {
+        Document document = new Document();
+        document.put(LINE_QUANTITY, line.getQuantity());
+        putIfNotNull(document, LINE_ID_PRODUCT, toBinary(line.getIdProduct()));
+        putIfNotNull(document, LINE_PRICE, toCents(line.getPrice()));
+        putIfNotNull(document, LINE_TOTAL, toCents(line.getTotal()));
+        return document;
+    }
+
+    private Document toDocument(ClientResponse client) {
+        Document document = new Document();
+        putIfNotNull(document, CLIENT_ID, client.id());
+        putIfNotNull(document, CLIENT_USERNAME, client.username());
+        putIfNotNull(document, CLIENT_NAME, client.name());
+        putIfNotNull(document, CLIENT_BALANCE, toCents(client.balance()));
+        putIfNotNull(document, CLIENT_EMAIL, client.email());
+        putIfNotNull(document, CLIENT_ADDRESS, client.address());
+        putIfNotNull(document, CLIENT_PHONE, client.phone());
+        if (client.birthdate() != null) {
+            document.put(CLIENT_BIRTHDATE, (int) client.birthdate().toEpochDay());
+        }
+        putIfNotNull(document, CLIENT_IMAGE, client.image());
+        if (Boolean.TRUE.equals(client.isDeleted())) {
+            document.put(CLIENT_IS_DELETED, true);
+        }
+        putIfNotNull(document, CLIENT_CREATED_AT, toDate(client.createdAt()));
+        putIfNotNull(document, CLIENT_UPDATED_AT, toDate(client.updatedAt()));
+        return document;
+    }
+
+    private ClientResponse toClient(Document document) {
+        Number birthdate = (Number) document.get(CLIENT_BIRTHDATE);
+        return new ClientResponse(
+                toLong(document.get(CLIENT_ID)),
+                document.getString(CLIENT_USERNAME),
+                document.getString(CLIENT_NAME),
+                fromCents(document.get(CLIENT_BALANCE)),
+                document.getString(CLIENT_EMAIL),
+                document.getString(CLIENT_ADDRESS),
+                document.getString(CLIENT_PHONE),
+                birthdate != null ? LocalDate.ofEpochDay(birthdate.longValue()) : null,
+                document.getString(CLIENT_IMAGE),
+                document.getBoolean(CLIENT_IS_DELETED, false),
+                toLocalDateTime(document.getDate(CLIENT_CREATED_AT)),
+                toLocalDateTime(document.getDate(CLIENT_UPDATED_AT))
+        );
+    }
+
+    /**
+     * Lee un pedido guardado por el conversor de Spring Data antes del formato compacto.
+     */
+    private Order toOrderLegacy(Document document) {
+        List<Document> lines = document.getList("orderLines", Document.class);
+        List<OrderLine> orderLines = null;
+        if (lines != null) {
+            orderLines = new ArrayList<>(lines.size());
+            for (Document line : lines) {
+                orderLines.add(OrderLine.builder()
+                        .quantity(line.getInteger("quantity"))
+                        .idProduct(toUuid(line.get("idProduct")))
+                        .price(Money.of(toDouble(line.get("price"))))
+                        .total(Money.of(toDouble(line.get("total"))))
+                        .build());
+            }
+        }
+        Document client = document.get("client", Document.class);
+        return Order.builder()
+                .id(document.getObjectId(ID))
+                .idUser(toLong(document.get("idUser")))
+                .client(client != null ? toClientLegacy(client) : null)
+                .orderLines(orderLines)
+                .totalItems(document.getInteger("totalItems", 0))
+                .total(Money.of(toDouble(document.get("total"))))
+                .createdAt(toLocalDateTime(document.getDate("createdAt")))
+                .updatedAt(toLocalDateTime(document.getDate("updatedAt")))
+                .isDeleted(document.getBoolean("isDeleted", false))
+                .build();
+    }
+
+    private ClientResponse toClientLegacy(Document document) {
+        Date birthdate = document.getDate("birthdate");
+        return new ClientResponse(
+                toLong(document.get(ID)),
+                document.getString("username"),
+                document.getString("name"),
+                toDouble(document.get("balance")),
+                document.getString("email"),
+                document.getString("address"),
+                document.getString("phone"),
+                birthdate != null ? LocalDate.ofInstant(birthdate.toInstant(), ZONE) : null,
+                document.getString("image"),
+                document.getBoolean("isDeleted", false),
+                toLocalDateTime(document.getDate("createdAt")),
+                toLocalDateTime(document.getDate("updatedAt"))
+        );
+    }
+
+    private static void putIfNotNull(Document document, String key, Object value) {
+        if (value != null) {
+            document.put(key, value);
+        }
+    }
+
+    /**
+     * Convierte un importe en céntimos redondeando, en 32 bits si cabe.
+     */
+    static Number toCents(Double amount) {
+        if (amount == null) {
+            return null;
+        }
+        long cents = Math.round(amount * 100);
+        return cents == (int) cents ? (Number) (int) cents : (Number) cents;
+    }
+
+    static Number toCents(Money amount) {
+        if (amount == null) {
+            return null;
+        }
+        long cents = amount.cents();
+        return cents == (int) cents ? (Number) (int) cents : (Number) cents;
+    }
+
+    static Money toMoney(Object cents) {
+        return cents != null ? Money.ofCents(((Number) cents).longValue()) : null;
+    }
+
+    static Double fromCents(Object cents) {
+        return cents != null ? ((Number) cents).longValue() / 100.0 : null;
+    }
+
+    private static Double toDouble(Object value) {
+        return value != null ? ((Number) value).doubleValue() : null;
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : null;
+    }
+
+    private static Date toDate(LocalDateTime dateTime) {
+        return dateTime != null ? Date.from(dateTime.atZone(ZONE).toInstant()) : null;
+    }
+
+    private static LocalDateTime toLocalDateTime(Date date) {
+        return date != null ? LocalDateTime.ofInstant(date.toInstant(), ZONE) : null;
+    }
+
+    static Binary toBinary(UUID uuid) {
+        if (uuid == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+        return new Binary(BsonBinarySubType.UUID_STANDARD, buffer.array());
+    }
+
+    /**
+     * Lee un UUID guardado como binario estándar (subtipo 4), como binario heredado de Java (subtipo 3)
+     * o ya decodificado por el driver.
+     */
+    static UUID toUuid(Object value) {
+        if (value == null || value instanceof UUID) {
+            return (UUID) value;
+        }
+        Binary binary = (Binary) value;
+        byte[] bytes = binary.getData().clone();
+        if (binary.getType() == BsonBinarySubType.UUID_LEGACY.getValue()) {
+            reverse(bytes, 0);
+            reverse(bytes, 8);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static void reverse(byte[] bytes, int offset) {
+        for (int i = 0; i < 4; i++) {
+            byte tmp = bytes[offset + i];
+            bytes[offset + i] = bytes[offset + 7 - i];
+            bytes[offset + 7 - i] = tmp;
+        }
+    }
+}
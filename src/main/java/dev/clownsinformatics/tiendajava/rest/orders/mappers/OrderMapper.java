@@ -57,7 +57,7 @@ public class OrderMapper {
                 order.getClient(),
                 order.getOrderLines(),
                 order.getTotalItems(),
-                order.getTotal(),
+                order.getTotal() != null ? order.getTotal().amount() : null,
                 order.getCreatedAt(),
                 order.getUpdatedAt(),
                 order.getIsDeleted()
@@ -0,0 +1,39 @@
+package dev.clownsinformatics.tiendajava.rest.orders.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumen de los pedidos de un cliente, mantenido con incrementos cada vez que cambian sus pedidos
+ * para no tener que recorrerlos. Se identifica por el {@code idUser} de los pedidos.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document("client_order_summaries")
+@TypeAlias("ClientOrderSummary")
+public class ClientOrderSummary {
+    @Id
+    private Long idUser;
+
+    @Builder.Default
+    private long totalOrders = 0;
+
+    /**
+     * Importe gastado en céntimos, guardado e incrementado como entero.
+     */
+    @Builder.Default
+    private long totalSpentCents = 0;
+
+    private LocalDateTime lastOrderAt;
+
+    private LocalDateTime updatedAt;
+}
@@ -2,6 +2,8 @@ package dev.clownsinformatics.tiendajava.rest.orders.models;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientResponse;
+import dev.clownsinformatics.tiendajava.rest.orders.mappers.OrderDocumentMapper;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
@@ -15,7 +17,10 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.data.annotation.TypeAlias;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,6 +31,11 @@ import java.util.List;
 @Builder
 @Document("orders")
 @TypeAlias("Order")
+@CompoundIndexes({
+        @CompoundIndex(name = "u_id", def = "{'u': 1, '_id': 1}"),
+        @CompoundIndex(name = "u_c_id", def = "{'u': 1, 'c': 1, '_id': 1}"),
+        @CompoundIndex(name = "c_id", def = "{'c': 1, '_id': 1}")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Order {
     @Id
@@ -35,36 +45,44 @@ public class Order {
 
     @NotNull(message = "The idUser is required")
     @Schema(description = "The id of the user that made the order", example = "1")
+    @Field(OrderDocumentMapper.ID_USER)
     private Long idUser;
 
     @NotNull(message = "The client is required")
     @Schema(description = "The client that made the order", example = "{\"id\": 1, \"name\": \"Maria\"}")
+    @Field(OrderDocumentMapper.CLIENT)
     private ClientResponse client;
 
     @NotNull(message = "The order should have at least one order line")
     @Schema(description = "The order lines of the order", example = "[{\"idProduct\": 1, \"quantity\": 2}]")
+    @Field(OrderDocumentMapper.ORDER_LINES)
     private List<OrderLine> orderLines;
 
     @Builder.Default
     @Schema(description = "The total items of the order", example = "2")
+    @Field(OrderDocumentMapper.TOTAL_ITEMS)
     private Integer totalItems = 0;
 
     @Builder.Default
-    @Schema(description = "The total of the order", example = "100.0")
-    private Double total = 0.0;
+    @Schema(description = "The total of the order", example = "100.0", type = "number")
+    @Field(OrderDocumentMapper.TOTAL)
+    private Money total = Money.ZERO;
 
     @CreationTimestamp
     @Builder.Default
     @Schema(description = "The date when the order was created", example = "2021-07-16T20:00:00.000Z")
+    @Field(OrderDocumentMapper.CREATED_AT)
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @UpdateTimestamp
     @Builder.Default
     @Schema(description = "The date when the order was updated", example = "2021-07-16T20:00:00.000Z")
+    @Field(OrderDocumentMapper.UPDATED_AT)
     private LocalDateTime updatedAt = LocalDateTime.now();
 
     @Builder.Default
     @Schema(description = "If the order was deleted", example = "false")
+    @Field(OrderDocumentMapper.IS_DELETED)
     private Boolean isDeleted = false;
 
     @JsonProperty("id")
@@ -75,6 +93,12 @@ public class Order {
     public void setOrderLines(List<OrderLine> orderLines) {
         this.orderLines = orderLines;
         this.totalItems = orderLines != null ? orderLines.size() : 0;
-        this.total = orderLines != null ? orderLines.stream().mapToDouble(OrderLine::getTotal).sum() : 0.0;
+        long cents = 0;
+        if (orderLines != null) {
+            for (OrderLine orderLine : orderLines) {
+                cents = Math.addExact(cents, orderLine.getTotal().cents());
+            }
+        }
+        this.total = Money.ofCents(cents);
     }
 }
@@ -0,0 +1,41 @@
+package dev.clownsinformatics.tiendajava.rest.orders.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Entrada del índice del archivo de pedidos: una por cada ejecución del archivado, con la fecha de corte
+ * y el intervalo de fechas de los pedidos que movió.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document("orders_archive_manifest")
+@TypeAlias("OrderArchiveRun")
+public class OrderArchiveRun {
+    @Id
+    @Builder.Default
+    private ObjectId id = new ObjectId();
+
+    private LocalDateTime cutoff;
+
+    @Builder.Default
+    private long archived = 0;
+
+    private LocalDateTime oldestCreatedAt;
+
+    private LocalDateTime newestCreatedAt;
+
+    private LocalDateTime startedAt;
+
+    private LocalDateTime finishedAt;
+}
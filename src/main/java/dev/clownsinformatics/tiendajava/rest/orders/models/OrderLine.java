@@ -1,10 +1,14 @@
 package dev.clownsinformatics.tiendajava.rest.orders.models;
 
+import dev.clownsinformatics.tiendajava.rest.orders.mappers.OrderDocumentMapper;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import jakarta.validation.constraints.AssertFalse;
 import jakarta.validation.constraints.Min;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.util.UUID;
 
@@ -15,28 +19,45 @@ import java.util.UUID;
 public class OrderLine {
     @Min(value = 1, message = "Quantity must be greater than 0")
     @Builder.Default
+    @Field(OrderDocumentMapper.LINE_QUANTITY)
     private Integer quantity = 1;
 
+    @Field(OrderDocumentMapper.LINE_ID_PRODUCT)
     private UUID idProduct;
 
-    @Min(value = 0, message = "Price must be greater than 0")
     @Builder.Default
-    private Double price = 0.0;
+    @Field(OrderDocumentMapper.LINE_PRICE)
+    private Money price = Money.ZERO;
 
     @Builder.Default
-    private Double total = 0.0;
+    @Field(OrderDocumentMapper.LINE_TOTAL)
+    private Money total = Money.ZERO;
 
     public void setQuantity(Integer quantity) {
         this.quantity = quantity;
-        this.total = this.price * this.quantity;
+        this.total = Money.ofCents(totalCents());
     }
 
-    public void setPrice(Double price) {
+    public void setPrice(Money price) {
         this.price = price;
-        this.total = this.price * this.quantity;
+        this.total = Money.ofCents(totalCents());
     }
 
-    public void setTotal(Double total) {
+    public void setTotal(Money total) {
         this.total = total;
     }
+
+    /**
+     * Calcula el importe de la línea en céntimos con el precio y la cantidad actuales, sin crear objetos.
+     *
+     * @return Precio por cantidad, en céntimos.
+     */
+    public long totalCents() {
+        return Money.times(price.cents(), quantity);
+    }
+
+    @AssertFalse(message = "Price must be greater than 0")
+    private boolean isNegativePrice() {
+        return price != null && price.isNegative();
+    }
 }
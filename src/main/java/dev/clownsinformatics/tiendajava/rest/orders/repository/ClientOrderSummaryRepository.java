@@ -0,0 +1,9 @@
+package dev.clownsinformatics.tiendajava.rest.orders.repository;
+
+import dev.clownsinformatics.tiendajava.rest.orders.models.ClientOrderSummary;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ClientOrderSummaryRepository extends MongoRepository<ClientOrderSummary, Long> {
+}
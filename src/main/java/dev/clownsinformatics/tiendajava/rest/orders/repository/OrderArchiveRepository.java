@@ -0,0 +1,177 @@
+package dev.clownsinformatics.tiendajava.rest.orders.repository;
+
+import dev.clownsinformatics.tiendajava.rest.orders.mappers.OrderDocumentMapper;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Repositorio de los pedidos archivados. Los pedidos antiguos se mueven a una colección aparte con el mismo
+ * formato que la de pedidos, de modo que las consultas habituales solo recorren los pedidos recientes.
+ */
+@Repository
+public class OrderArchiveRepository {
+    public static final String COLLECTION = "orders_archive";
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    public OrderArchiveRepository(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Crea, si no existen, los índices por cliente y fecha y por fecha de la colección de archivo.
+     */
+    public void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(COLLECTION);
+        indexOps.ensureIndex(new Index()
+                .on(OrderDocumentMapper.ID_USER, Sort.Direction.ASC)
+                .on(OrderDocumentMapper.CREATED_AT, Sort.Direction.ASC)
+                .on(OrderDocumentMapper.ID, Sort.Direction.ASC)
+                .named("u_c_id"));
+        indexOps.ensureIndex(new Index()
+                .on(OrderDocumentMapper.CREATED_AT, Sort.Direction.ASC)
+                .on(OrderDocumentMapper.ID, Sort.Direction.ASC)
+                .named("c_id"));
+    }
+
+    /**
+     * Guarda pedidos en el archivo. Si un pedido ya estaba archivado se sustituye, así que repetir un lote
+     * interrumpido no duplica pedidos.
+     *
+     * @param orders Pedidos a archivar.
+     */
+    public void saveAll(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class, COLLECTION);
+        orders.forEach(order -> bulk.replaceOne(Query.query(Criteria.where("_id").is(order.getId())), order,
+                FindAndReplaceOptions.options().upsert()));
+        bulk.execute();
+    }
+
+    public Optional<Order> findById(ObjectId id) {
+        return Optional.ofNullable(mongoTemplate.findById(id, Order.class, COLLECTION));
+    }
+
+    /**
+     * Busca pedidos archivados de un cliente y un intervalo de fechas.
+     *
+     * @param idUser   Cliente, o {@code null} para todos.
+     * @param from     Fecha de creación mínima, incluida, o {@code null} sin límite.
+     * @param to       Fecha de creación máxima, excluida, o {@code null} sin límite.
+     * @param pageable Configuración de paginación.
+     * @return Página de pedidos archivados.
+     */
+    public Page<Order> findByIdUserAndCreatedAt(Long idUser, LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        Query query = byIdUserAndCreatedAt(idUser, from, to);
+        long total = mongoTemplate.count(query, Order.class, COLLECTION);
+        List<Order> orders = mongoTemplate.find(query.with(pageable), Order.class, COLLECTION);
+        return new PageImpl<>(orders, pageable, total);
+    }
+
+    /**
+     * Recorre los pedidos archivados creados en un intervalo, ordenados por fecha. El stream debe cerrarse.
+     *
+     * @param from Fecha de creación mínima, incluida, o {@code null} sin límite.
+     * @param to   Fecha de creación máxima, excluida, o {@code null} sin límite.
+     * @return Stream de pedidos archivados.
+     */
+    public Stream<Order> streamByCreatedAt(LocalDateTime from, LocalDateTime to) {
+        Query query = byIdUserAndCreatedAt(null, from, to)
+                .with(Sort.by(Sort.Direction.ASC, "createdAt", "_id"))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        return mongoTemplate.stream(query, Order.class, COLLECTION);
+    }
+
+    /**
+     * Busca el pedido archivado más antiguo o más reciente.
+     *
+     * @param direction ASC para el más antiguo, DESC para el más reciente.
+     * @return Pedido, si hay alguno archivado.
+     */
+    public Optional<Order> findFirstByCreatedAt(Sort.Direction direction) {
+        Query query = new Query().with(Sort.by(direction, "createdAt", "_id")).limit(1);
+        return Optional.ofNullable(mongoTemplate.findOne(query, Order.class, COLLECTION));
+    }
+
+    /**
+     * Indica si un cliente tiene algún pedido archivado.
+     *
+     * @param idUser Cliente.
+     * @return {@code true} si hay al menos un pedido archivado del cliente.
+     */
+    public boolean existsByIdUser(Long idUser) {
+        return mongoTemplate.exists(byIdUserAndCreatedAt(idUser, null, null), Order.class, COLLECTION);
+    }
+
+    /**
+     * Devuelve solo los ids de los pedidos archivados de un cliente, del más reciente al más antiguo, leyéndolos
+     * del cursor de Mongo a medida que se consumen. El stream debe cerrarse.
+     *
+     * @param idUser Cliente.
+     * @param limit  Número máximo de ids; 0 o negativo para todos.
+     * @return Ids de los pedidos archivados del cliente.
+     */
+    public Stream<ObjectId> streamOrderIdsByIdUser(Long idUser, int limit) {
+        Query query = Query.query(Criteria.where(OrderDocumentMapper.ID_USER).is(idUser))
+                .with(Sort.by(Sort.Direction.DESC, OrderDocumentMapper.CREATED_AT, OrderDocumentMapper.ID))
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+        query.fields().include(OrderDocumentMapper.ID);
+        if (limit > 0) {
+            query.limit(limit);
+        }
+        return mongoTemplate.stream(query, Document.class, COLLECTION)
+                .map(document -> document.getObjectId(OrderDocumentMapper.ID));
+    }
+
+    /**
+     * Busca el pedido archivado más reciente de un cliente.
+     *
+     * @param idUser Cliente.
+     * @return Pedido, si el cliente tiene alguno archivado.
+     */
+    public Optional<Order> findLatestByIdUser(Long idUser) {
+        Query query = byIdUserAndCreatedAt(idUser, null, null)
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(1);
+        return Optional.ofNullable(mongoTemplate.findOne(query, Order.class, COLLECTION));
+    }
+
+    private Query byIdUserAndCreatedAt(Long idUser, LocalDateTime from, LocalDateTime to) {
+        Query query = new Query();
+        if (idUser != null) {
+            query.addCriteria(Criteria.where("idUser").is(idUser));
+        }
+        if (from != null || to != null) {
+            Criteria createdAt = Criteria.where("createdAt");
+            if (from != null) {
+                createdAt = createdAt.gte(from);
+            }
+            if (to != null) {
+                createdAt = createdAt.lt(to);
+            }
+            query.addCriteria(createdAt);
+        }
+        return query;
+    }
+}
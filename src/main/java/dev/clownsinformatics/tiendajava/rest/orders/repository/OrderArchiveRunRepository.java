@@ -0,0 +1,13 @@
+package dev.clownsinformatics.tiendajava.rest.orders.repository;
+
+import dev.clownsinformatics.tiendajava.rest.orders.models.OrderArchiveRun;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderArchiveRunRepository extends MongoRepository<OrderArchiveRun, ObjectId> {
+    List<OrderArchiveRun> findTop50ByOrderByStartedAtDesc();
+}
@@ -7,13 +7,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
-
 @Repository
-public interface OrderRepository extends MongoRepository<Order, ObjectId> {
+public interface OrderRepository extends MongoRepository<Order, ObjectId>, OrderRepositoryCustom {
     Page<Order> findByIdUser(Long idUser, Pageable pageable);
 
-    List<Order> findOrderIdsByIdUser(Long idUser);
-
     boolean existsByIdUser(Long idUser);
 }
@@ -0,0 +1,64 @@
+package dev.clownsinformatics.tiendajava.rest.orders.repository;
+
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Operaciones sobre pedidos que no se pueden expresar como consultas derivadas de Spring Data.
+ */
+public interface OrderRepositoryCustom {
+    /**
+     * Inserta varios pedidos con una única escritura masiva no ordenada: un fallo en un pedido
+     * no impide que se inserten los demás.
+     *
+     * @param orders Pedidos a insertar, con su id ya asignado.
+     * @return Mensaje de error indexado por la posición en la lista de cada pedido que no se pudo insertar.
+     */
+    Map<Integer, String> insertUnordered(List<Order> orders);
+
+    /**
+     * Busca pedidos a partir de una posición, sin saltar documentos ni contar el total. Ordena por {@code _id}
+     * o por {@code (createdAt, _id)} y devuelve los que van detrás del último pedido de la página anterior.
+     *
+     * @param idUser        Usuario de los pedidos, o {@code null} para todos.
+     * @param byCreatedAt   Si se ordena por fecha de creación en lugar de por id.
+     * @param direction     Dirección de la ordenación.
+     * @param lastCreatedAt Fecha de creación del último pedido devuelto, si se ordena por fecha.
+     * @param lastId        Id del último pedido devuelto, o {@code null} para la primera página.
+     * @param limit         Número máximo de pedidos.
+     * @return Pedidos encontrados, en el orden pedido.
+     */
+    List<Order> findPageAfter(Long idUser, boolean byCreatedAt, Sort.Direction direction, LocalDateTime lastCreatedAt, ObjectId lastId, int limit);
+
+    /**
+     * Devuelve solo los ids de los pedidos de un usuario, del más reciente al más antiguo, leyéndolos
+     * del cursor de Mongo a medida que se consumen. La consulta se resuelve solo con el índice
+     * {@code (idUser, _id)}, sin leer los documentos.
+     * <p>
+     * El stream mantiene abierto el cursor y debe cerrarse.
+     *
+     * @param idUser Identificador del usuario.
+     * @param limit  Número máximo de ids; 0 o negativo para todos.
+     * @return Ids de los pedidos del usuario.
+     */
+    Stream<ObjectId> streamOrderIdsByIdUser(Long idUser, int limit);
+
+    /**
+     * Devuelve los pedidos creados en un intervalo, ordenados por fecha de creación, leyéndolos del cursor
+     * de Mongo por lotes a medida que se consumen.
+     * <p>
+     * El stream mantiene abierto el cursor y debe cerrarse.
+     *
+     * @param from   Fecha de creación mínima, incluida, o {@code null} sin límite.
+     * @param to     Fecha de creación máxima, excluida, o {@code null} sin límite.
+     * @param idUser Usuario de los pedidos, o {@code null} para todos.
+     * @return Pedidos encontrados.
+     */
+    Stream<Order> streamByCreatedAt(LocalDateTime from, LocalDateTime to, Long idUser);
+}
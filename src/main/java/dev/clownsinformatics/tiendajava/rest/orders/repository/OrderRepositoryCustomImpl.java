@@ -0,0 +1,104 @@
+package dev.clownsinformatics.tiendajava.rest.orders.repository;
+
+import com.mongodb.bulk.BulkWriteError;
+import dev.clownsinformatics.tiendajava.rest.orders.mappers.OrderDocumentMapper;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementación con {@link MongoTemplate} de {@link OrderRepositoryCustom}.
+ */
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+
+    public OrderRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Order> orders) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class)
+                    .insert(orders)
+                    .execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            return e.getErrors().stream()
+                    .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage, (first, second) -> first));
+        }
+    }
+
+    @Override
+    public List<Order> findPageAfter(Long idUser, boolean byCreatedAt, Sort.Direction direction, LocalDateTime lastCreatedAt, ObjectId lastId, int limit) {
+        Query query = new Query();
+        if (idUser != null) {
+            query.addCriteria(Criteria.where("idUser").is(idUser));
+        }
+        if (lastId != null) {
+            if (byCreatedAt) {
+                query.addCriteria(new Criteria().orOperator(
+                        after(Criteria.where("createdAt"), direction, lastCreatedAt),
+                        new Criteria().andOperator(
+                                Criteria.where("createdAt").is(lastCreatedAt),
+                                after(Criteria.where("_id"), direction, lastId))));
+            } else {
+                query.addCriteria(after(Criteria.where("_id"), direction, lastId));
+            }
+        }
+        query.with(byCreatedAt ? Sort.by(direction, "createdAt", "_id") : Sort.by(direction, "_id"));
+        query.limit(limit);
+        return mongoTemplate.find(query, Order.class);
+    }
+
+    @Override
+    public Stream<ObjectId> streamOrderIdsByIdUser(Long idUser, int limit) {
+        Query query = Query.query(Criteria.where(OrderDocumentMapper.ID_USER).is(idUser))
+                .with(Sort.by(Sort.Direction.DESC, OrderDocumentMapper.ID));
+        query.fields().include(OrderDocumentMapper.ID);
+        if (limit > 0) {
+            query.limit(limit);
+        }
+        return mongoTemplate.stream(query, Document.class, mongoTemplate.getCollectionName(Order.class))
+                .map(document -> document.getObjectId(OrderDocumentMapper.ID));
+    }
+
+    @Override
+    public Stream<Order> streamByCreatedAt(LocalDateTime from, LocalDateTime to, Long idUser) {
+        Query query = new Query();
+        if (idUser != null) {
+            query.addCriteria(Criteria.where("idUser").is(idUser));
+        }
+        if (from != null || to != null) {
+            Criteria createdAt = Criteria.where("createdAt");
+            if (from != null) {
+                createdAt = createdAt.gte(from);
+            }
+            if (to != null) {
+                createdAt = createdAt.lt(to);
+            }
+            query.addCriteria(createdAt);
+        }
+        query.with(Sort.by(Sort.Direction.ASC, "createdAt", "_id"));
+        query.cursorBatchSize(EXPORT_BATCH_SIZE);
+        return mongoTemplate.stream(query, Order.class);
+    }
+
+    private Criteria after(Criteria criteria, Sort.Direction direction, Object value) {
+        return direction.isAscending() ? criteria.gt(value) : criteria.lt(value);
+    }
+}
@@ -0,0 +1,15 @@
+package dev.clownsinformatics.tiendajava.rest.orders.service;
+
+import dev.clownsinformatics.tiendajava.rest.orders.dto.ClientOrderSummaryCheckDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.ClientOrderSummaryDto;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+
+import java.util.List;
+
+public interface ClientOrderSummaryService {
+    ClientOrderSummaryDto findByIdUser(Long idUser);
+
+    void apply(List<Order> removed, List<Order> added);
+
+    ClientOrderSummaryCheckDto check(boolean repair);
+}
@@ -0,0 +1,278 @@
+package dev.clownsinformatics.tiendajava.rest.orders.service;
+
+import dev.clownsinformatics.tiendajava.rest.orders.dto.ClientOrderSummaryCheckDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.ClientOrderSummaryDto;
+import dev.clownsinformatics.tiendajava.rest.orders.models.ClientOrderSummary;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.ClientOrderSummaryRepository;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderArchiveRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.aggregation.UnionWithOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de servicio para el resumen de pedidos de cada cliente.
+ * <p>
+ * Cada cambio en los pedidos se aplica como una única actualización atómica por cliente ({@code $inc} de
+ * pedidos e importe y {@code $max} de la fecha del último pedido), todas en una escritura masiva.
+ * Un fallo al actualizar el resumen no hace fallar al pedido: se registra y se corrige con {@link #check(boolean)}.
+ */
+@Service
+@Slf4j
+@CacheConfig(cacheNames = {ClientOrderSummaryServiceImpl.CACHE})
+public class ClientOrderSummaryServiceImpl implements ClientOrderSummaryService {
+    static final String CACHE = "clientOrderSummaries";
+    private static final int CHECK_BATCH_SIZE = 500;
+
+    private final ClientOrderSummaryRepository clientOrderSummaryRepository;
+    private final MongoTemplate mongoTemplate;
+    private final CacheManager cacheManager;
+    private final OrderArchiveRepository orderArchiveRepository;
+
+    public ClientOrderSummaryServiceImpl(ClientOrderSummaryRepository clientOrderSummaryRepository, MongoTemplate mongoTemplate, CacheManager cacheManager, OrderArchiveRepository orderArchiveRepository) {
+        this.clientOrderSummaryRepository = clientOrderSummaryRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.cacheManager = cacheManager;
+        this.orderArchiveRepository = orderArchiveRepository;
+    }
+
+    /**
+     * Recupera el resumen de pedidos de un cliente. Un cliente sin pedidos tiene un resumen vacío.
+     *
+     * @param idUser Identificador del cliente.
+     * @return DTO del resumen.
+     */
+    @Override
+    @Cacheable(key = "#idUser")
+    public ClientOrderSummaryDto findByIdUser(Long idUser) {
+        log.info("Find order summary by idUser: {}", idUser);
+        return clientOrderSummaryRepository.findById(idUser)
+                .map(ClientOrderSummaryDto::of)
+                .orElseGet(() -> ClientOrderSummaryDto.empty(idUser));
+    }
+
+    /**
+     * Aplica a los resúmenes los pedidos que desaparecen y los que aparecen. En una modificación el pedido anterior
+     * se quita y el nuevo se añade, de modo que solo se escribe la diferencia, y si cambia de cliente se descuenta
+     * de uno y se suma al otro.
+     * <p>
+     * {@code $max} no sirve para quitar: si un cliente pierde pedidos, su fecha de último pedido se vuelve a leer
+     * de los pedidos con el índice {@code u_c_id} (usuario, fecha de creación, id).
+     *
+     * @param removed Pedidos que se quitan, en su versión anterior.
+     * @param added   Pedidos que se añaden, ya guardados.
+     */
+    @Override
+    public void apply(List<Order> removed, List<Order> added) {
+        Map<Long, Change> changes = new HashMap<>();
+        removed.forEach(order -> changes.computeIfAbsent(order.getIdUser(), Change::new).add(order, -1));
+        added.forEach(order -> changes.computeIfAbsent(order.getIdUser(), Change::new).add(order, 1));
+        changes.values().removeIf(Change::isEmpty);
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ClientOrderSummary.class);
+            changes.values().forEach(change -> bulk.upsert(byIdUser(change.idUser), change.toUpdate()));
+            bulk.execute();
+            changes.values().stream()
+                    .filter(change -> change.orders < 0)
+                    .forEach(change -> refreshLastOrderAt(change.idUser));
+        } catch (RuntimeException e) {
+            log.warn("Could not update client order summaries, check them to recover: {}", e.getMessage());
+        } finally {
+            evict(changes.keySet());
+        }
+    }
+
+    /**
+     * Compara cada resumen con los pedidos del cliente y, si se indica, corrige los que no coinciden y borra
+     * los de clientes sin pedidos. Los pedidos, recientes y archivados, se agregan por cliente en Mongo y se
+     * leen como un cursor, comparándolos con los resúmenes guardados por lotes.
+     *
+     * @param repair Si se deben corregir las diferencias.
+     * @return Resultado de la comprobación.
+     */
+    @Override
+    public ClientOrderSummaryCheckDto check(boolean repair) {
+        log.info("Check client order summaries, repair: {}", repair);
+        long begin = System.currentTimeMillis();
+        Aggregation aggregation = Aggregation.newAggregation(
+                        UnionWithOperation.unionWith(OrderArchiveRepository.COLLECTION),
+                        Aggregation.group("idUser")
+                                .count().as("totalOrders")
+                                .sum("total").as("totalSpentCents")
+                                .max("createdAt").as("lastOrderAt"))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).build());
+
+        Set<Long> seen = new HashSet<>();
+        long checked = 0;
+        long mismatched = 0;
+        try (Stream<Document> expected = mongoTemplate.aggregateStream(aggregation, Order.class, Document.class)) {
+            List<ClientOrderSummary> batch = new ArrayList<>(CHECK_BATCH_SIZE);
+            var iterator = expected.iterator();
+            while (iterator.hasNext()) {
+                var summary = toSummary(iterator.next());
+                if (summary.getIdUser() == null) {
+                    continue;
+                }
+                seen.add(summary.getIdUser());
+                batch.add(summary);
+                if (batch.size() == CHECK_BATCH_SIZE) {
+                    checked += batch.size();
+                    mismatched += checkBatch(batch, repair);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                checked += batch.size();
+                mismatched += checkBatch(batch, repair);
+            }
+        }
+
+        Query allIds = new Query();
+        allIds.fields().include("_id");
+        List<Long> orphans;
+        try (Stream<Document> stored = mongoTemplate.stream(allIds, Document.class, mongoTemplate.getCollectionName(ClientOrderSummary.class))) {
+            orphans = stored.map(document -> ((Number) document.get("_id")).longValue())
+                    .filter(idUser -> !seen.contains(idUser))
+                    .toList();
+        }
+        if (repair && !orphans.isEmpty()) {
+            mongoTemplate.remove(Query.query(Criteria.where("_id").in(orphans)), ClientOrderSummary.class);
+            evict(orphans);
+        }
+
+        long elapsed = System.currentTimeMillis() - begin;
+        log.info("Checked {} client order summaries: {} mismatched, {} orphaned in {} ms", checked, mismatched, orphans.size(), elapsed);
+        return new ClientOrderSummaryCheckDto(checked, mismatched, orphans.size(), repair, elapsed);
+    }
+
+    /**
+     * Convierte el resultado de la agregación en un resumen. Los pedidos guardan el importe en céntimos.
+     */
+    private ClientOrderSummary toSummary(Document group) {
+        Number idUser = (Number) group.get("_id");
+        Number cents = (Number) group.get("totalSpentCents");
+        Date lastOrderAt = group.getDate("lastOrderAt");
+        return ClientOrderSummary.builder()
+                .idUser(idUser != null ? idUser.longValue() : null)
+                .totalOrders(((Number) group.get("totalOrders")).longValue())
+                .totalSpentCents(cents != null ? cents.longValue() : 0)
+                .lastOrderAt(lastOrderAt != null ? LocalDateTime.ofInstant(lastOrderAt.toInstant(), ZoneId.systemDefault()) : null)
+                .build();
+    }
+
+    private long checkBatch(List<ClientOrderSummary> expected, boolean repair) {
+        Map<Long, ClientOrderSummary> stored = clientOrderSummaryRepository.findAllById(expected.stream().map(ClientOrderSummary::getIdUser).toList())
+                .stream()
+                .collect(Collectors.toMap(ClientOrderSummary::getIdUser, Function.identity()));
+        List<ClientOrderSummary> mismatches = expected.stream()
+                .filter(summary -> !matches(summary, stored.get(summary.getIdUser())))
+                .toList();
+        if (repair && !mismatches.isEmpty()) {
+            mismatches.forEach(summary -> summary.setUpdatedAt(LocalDateTime.now()));
+            clientOrderSummaryRepository.saveAll(mismatches);
+            evict(mismatches.stream().map(ClientOrderSummary::getIdUser).toList());
+        }
+        return mismatches.size();
+    }
+
+    private boolean matches(ClientOrderSummary expected, ClientOrderSummary stored) {
+        return stored != null
+                && expected.getTotalOrders() == stored.getTotalOrders()
+                && expected.getTotalSpentCents() == stored.getTotalSpentCents()
+                && Objects.equals(expected.getLastOrderAt(), stored.getLastOrderAt());
+    }
+
+    private void refreshLastOrderAt(Long idUser) {
+        Query latest = Query.query(Criteria.where("idUser").is(idUser))
+                .with(Sort.by(Sort.Direction.DESC, "createdAt", "_id"))
+                .limit(1);
+        latest.fields().include("createdAt");
+        Order order = mongoTemplate.findOne(latest, Order.class);
+        if (order == null) {
+            order = orderArchiveRepository.findLatestByIdUser(idUser).orElse(null);
+        }
+        Update update = order != null ? new Update().set("lastOrderAt", order.getCreatedAt()) : new Update().unset("lastOrderAt");
+        mongoTemplate.updateFirst(byIdUser(idUser), update, ClientOrderSummary.class);
+    }
+
+    private Query byIdUser(Long idUser) {
+        return Query.query(Criteria.where("_id").is(idUser));
+    }
+
+    private void evict(Collection<Long> idUsers) {
+        Cache cache = cacheManager.getCache(CACHE);
+        if (cache != null) {
+            idUsers.forEach(cache::evict);
+        }
+    }
+
+    /**
+     * Cambio acumulado en el resumen de un cliente.
+     */
+    private static class Change {
+        private final Long idUser;
+        private long orders;
+        private long spentCents;
+        private LocalDateTime lastAdded;
+
+        Change(Long idUser) {
+            this.idUser = idUser;
+        }
+
+        void add(Order order, int sign) {
+            orders += sign;
+            if (order.getTotal() != null) {
+                spentCents = Math.addExact(spentCents, sign * order.getTotal().cents());
+            }
+            if (sign > 0 && order.getCreatedAt() != null && (lastAdded == null || order.getCreatedAt().isAfter(lastAdded))) {
+                lastAdded = order.getCreatedAt();
+            }
+        }
+
+        boolean isEmpty() {
+            return orders == 0 && spentCents == 0;
+        }
+
+        Update toUpdate() {
+            Update update = new Update()
+                    .inc("totalOrders", orders)
+                    .inc("totalSpentCents", spentCents)
+                    .set("updatedAt", LocalDateTime.now());
+            if (lastAdded != null) {
+                update.max("lastOrderAt", lastAdded);
+            }
+            return update;
+        }
+    }
+}
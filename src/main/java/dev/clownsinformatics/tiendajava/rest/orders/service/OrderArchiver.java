@@ -0,0 +1,154 @@
+package dev.clownsinformatics.tiendajava.rest.orders.service;
+
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.orders.models.OrderArchiveRun;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderArchiveRepository;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderArchiveRunRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Mueve al archivo los pedidos creados hace más de {@code orders.archive.age-days} días, para que las consultas
+ * habituales sobre la colección de pedidos solo recorran los recientes.
+ * <p>
+ * Los pedidos se copian al archivo por lotes y después se borran de la colección de pedidos; si el proceso
+ * se interrumpe entre ambos pasos, la siguiente ejecución vuelve a copiar el lote sin duplicarlo. Cada ejecución
+ * deja una entrada en el índice del archivo ({@link OrderArchiveRun}).
+ * <p>
+ * Con {@code orders.archive.enabled=true} se ejecuta en segundo plano cada {@code orders.archive.interval-hours}
+ * horas; también se puede lanzar a mano. Los pedidos archivados no se pueden modificar ni borrar.
+ *
+ * @version 1.0
+ * @since 2023-11-28
+ */
+@Component
+@Slf4j
+public class OrderArchiver {
+    private final MongoTemplate mongoTemplate;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final OrderArchiveRunRepository orderArchiveRunRepository;
+    private final boolean enabled;
+    private final int ageDays;
+    private final int batchSize;
+    private final long intervalHours;
+    private final ReentrantLock running = new ReentrantLock();
+
+    private ScheduledExecutorService scheduler;
+
+    public OrderArchiver(MongoTemplate mongoTemplate,
+                         OrderArchiveRepository orderArchiveRepository,
+                         OrderArchiveRunRepository orderArchiveRunRepository,
+                         @Value("${orders.archive.enabled:false}") boolean enabled,
+                         @Value("${orders.archive.age-days:365}") int ageDays,
+                         @Value("${orders.archive.batch-size:500}") int batchSize,
+                         @Value("${orders.archive.interval-hours:24}") long intervalHours) {
+        this.mongoTemplate = mongoTemplate;
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.orderArchiveRunRepository = orderArchiveRunRepository;
+        this.enabled = enabled;
+        this.ageDays = ageDays;
+        this.batchSize = Math.max(1, batchSize);
+        this.intervalHours = Math.max(1, intervalHours);
+    }
+
+    /**
+     * Arranca el archivado periódico si está activo.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::archiveQuietly, intervalHours, intervalHours, TimeUnit.HOURS);
+        log.info("Order archiver enabled, archiving orders older than {} days every {} hours", ageDays, intervalHours);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Archiva los pedidos creados antes de la fecha de corte. Si ya hay un archivado en curso no hace nada.
+     *
+     * @return Entrada del índice del archivo de esta ejecución, o {@code null} si ya había una en curso.
+     */
+    public OrderArchiveRun archive() {
+        if (!running.tryLock()) {
+            log.info("Order archiving already running");
+            return null;
+        }
+        try {
+            orderArchiveRepository.ensureIndexes();
+            var run = OrderArchiveRun.builder()
+                    .cutoff(LocalDateTime.now().minusDays(ageDays))
+                    .startedAt(LocalDateTime.now())
+                    .build();
+            Query batchQuery = Query.query(Criteria.where("createdAt").lt(run.getCutoff()))
+                    .with(Sort.by(Sort.Direction.ASC, "_id"))
+                    .limit(batchSize);
+            List<Order> batch;
+            do {
+                batch = mongoTemplate.find(batchQuery, Order.class);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                orderArchiveRepository.saveAll(batch);
+                List<ObjectId> ids = batch.stream().map(Order::getId).toList();
+                mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids)), Order.class);
+                record(run, batch);
+            } while (batch.size() == batchSize);
+            run.setFinishedAt(LocalDateTime.now());
+            log.info("Archived {} orders created before {}", run.getArchived(), run.getCutoff());
+            return orderArchiveRunRepository.save(run);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private void record(OrderArchiveRun run, List<Order> batch) {
+        run.setArchived(run.getArchived() + batch.size());
+        for (Order order : batch) {
+            LocalDateTime createdAt = order.getCreatedAt();
+            if (createdAt == null) {
+                continue;
+            }
+            if (run.getOldestCreatedAt() == null || createdAt.isBefore(run.getOldestCreatedAt())) {
+                run.setOldestCreatedAt(createdAt);
+            }
+            if (run.getNewestCreatedAt() == null || createdAt.isAfter(run.getNewestCreatedAt())) {
+                run.setNewestCreatedAt(createdAt);
+            }
+        }
+    }
+
+    private void archiveQuietly() {
+        try {
+            archive();
+        } catch (RuntimeException e) {
+            log.warn("Could not archive orders: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package dev.clownsinformatics.tiendajava.rest.orders.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderExportFormat;
+import dev.clownsinformatics.tiendajava.rest.orders.mappers.OrderMapper;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Escribe pedidos en NDJSON o CSV a medida que se leen, sin acumularlos en memoria.
+ * <p>
+ * Cada pedido se escribe en cuanto llega del cursor y la salida se vacía cada {@value #FLUSH_EVERY} pedidos.
+ * Si el cliente lee despacio, la escritura se bloquea y con ella la lectura del cursor, de modo que la memoria
+ * usada no depende del número de pedidos exportados.
+ */
+@Component
+public class OrderExportWriter {
+    static final String CSV_HEADER = "id,idUser,clientId,clientName,clientEmail,totalItems,total,createdAt,updatedAt,isDeleted";
+    static final int FLUSH_EVERY = 1000;
+
+    private final ObjectMapper objectMapper;
+    private final OrderMapper orderMapper;
+
+    @Autowired
+    public OrderExportWriter(ObjectMapper objectMapper, OrderMapper orderMapper) {
+        this.objectMapper = objectMapper;
+        this.orderMapper = orderMapper;
+    }
+
+    /**
+     * Escribe los pedidos en el formato indicado. El stream no se cierra.
+     *
+     * @param format Formato de exportación.
+     * @param orders Pedidos a escribir.
+     * @param out    Salida.
+     * @return Número de pedidos escritos.
+     * @throws IOException Si falla la escritura, por ejemplo porque el cliente ha cerrado la conexión.
+     */
+    public long write(OrderExportFormat format, Stream<Order> orders, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == OrderExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        long count = 0;
+        Iterator<Order> iterator = orders.iterator();
+        while (iterator.hasNext()) {
+            Order order = iterator.next();
+            if (format == OrderExportFormat.CSV) {
+                writeCsvRow(order, writer);
+            } else {
+                writer.write(objectMapper.writeValueAsString(orderMapper.toOrderResponseDto(order)));
+            }
+            writer.write('\n');
+            if (++count % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private void writeCsvRow(Order order, Writer writer) throws IOException {
+        var client = order.getClient();
+        writer.write(order.getId().toHexString());
+        writer.write(',');
+        writer.write(csv(order.getIdUser()));
+        writer.write(',');
+        writer.write(csv(client != null ? client.id() : null));
+        writer.write(',');
+        writer.write(csv(client != null ? client.name() : null));
+        writer.write(',');
+        writer.write(csv(client != null ? client.email() : null));
+        writer.write(',');
+        writer.write(csv(order.getTotalItems()));
+        writer.write(',');
+        writer.write(csv(order.getTotal()));
+        writer.write(',');
+        writer.write(csv(order.getCreatedAt()));
+        writer.write(',');
+        writer.write(csv(order.getUpdatedAt()));
+        writer.write(',');
+        writer.write(csv(order.getIsDeleted()));
+    }
+
+    private String csv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
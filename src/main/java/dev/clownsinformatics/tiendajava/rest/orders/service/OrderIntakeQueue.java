@@ -0,0 +1,235 @@
+package dev.clownsinformatics.tiendajava.rest.orders.service;
+
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderBatchResponseDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderBatchResultDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderCreateDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderIntakeDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderIntakeStatsDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderIntakeStatus;
+import dev.clownsinformatics.tiendajava.rest.orders.exceptions.OrderIntakeFull;
+import dev.clownsinformatics.tiendajava.rest.orders.exceptions.OrderNotFound;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cola en memoria de pedidos recibidos de forma asíncrona.
+ * <p>
+ * La petición comprueba el pedido con {@link OrderService#validate(OrderCreateDto)} (cliente, productos, stock y
+ * precio), de modo que esos errores se devuelven en la propia petición, le asigna el identificador que tendrá y lo
+ * encola; si la cola está llena se rechaza con {@link OrderIntakeFull} para que el cliente reintente más tarde.
+ * Un grupo de hilos vacía la cola en lotes a través de {@link OrderService#saveAll(List, List)}, así que cada lote
+ * carga clientes y productos una sola vez y se inserta con una única escritura. Como el stock puede cambiar mientras
+ * el pedido espera, la reserva aún puede fallar y el pedido quedar como fallido.
+ * <p>
+ * El estado de cada pedido se guarda en memoria hasta {@code orders.intake.status-capacity} entradas, descartando
+ * las más antiguas. Al parar la aplicación se dejan de aceptar pedidos y los que siguen en la cola se procesan
+ * antes de terminar.
+ *
+ * @version 1.0
+ * @since 2023-11-28
+ */
+@Component
+@Slf4j
+public class OrderIntakeQueue {
+    private static final long POLL_TIMEOUT_MS = 500;
+
+    private final OrderService orderService;
+    private final int workers;
+    private final int batchSize;
+    private final int capacity;
+    private final BlockingQueue<Ticket> queue;
+    private final Map<ObjectId, OrderIntakeDto> statuses;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private ExecutorService pool;
+    private volatile boolean running;
+    private volatile boolean accepting = true;
+
+    public OrderIntakeQueue(OrderService orderService,
+                            @Value("${orders.intake.workers:2}") int workers,
+                            @Value("${orders.intake.batch-size:50}") int batchSize,
+                            @Value("${orders.intake.queue-capacity:1000}") int capacity,
+                            @Value("${orders.intake.status-capacity:10000}") int statusCapacity) {
+        this.orderService = orderService;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.statuses = Collections.synchronizedMap(new LinkedHashMap<ObjectId, OrderIntakeDto>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ObjectId, OrderIntakeDto> eldest) {
+                return size() > statusCapacity;
+            }
+        });
+    }
+
+    /**
+     * Arranca los hilos que vacían la cola.
+     */
+    @PostConstruct
+    public void start() {
+        running = true;
+        AtomicInteger sequence = new AtomicInteger();
+        pool = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "order-intake-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            pool.execute(this::drain);
+        }
+    }
+
+    /**
+     * Deja de aceptar pedidos, detiene los hilos cuando terminan el lote que estén procesando y procesa en este
+     * hilo los pedidos que quedan en la cola.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        accepting = false;
+        running = false;
+        if (pool != null) {
+            pool.shutdown();
+            pool.awaitTermination(10, TimeUnit.SECONDS);
+        }
+        if (!queue.isEmpty()) {
+            log.info("Processing {} queued orders before stopping", queue.size());
+        }
+        while (drainOnce(0) > 0) {
+            // Vacía la cola lote a lote.
+        }
+    }
+
+    /**
+     * Comprueba un pedido y lo encola para crearlo en segundo plano.
+     *
+     * @param order DTO de creación del pedido.
+     * @return Identificador que tendrá el pedido y su estado.
+     * @throws OrderIntakeFull Si la cola está llena o la aplicación se está parando.
+     */
+    public OrderIntakeDto submit(OrderCreateDto order) {
+        if (!accepting) {
+            rejected.incrementAndGet();
+            throw new OrderIntakeFull(capacity);
+        }
+        orderService.validate(order);
+        ObjectId id = new ObjectId();
+        OrderIntakeDto status = OrderIntakeDto.of(id.toHexString(), OrderIntakeStatus.QUEUED);
+        statuses.put(id, status);
+        if (!queue.offer(new Ticket(id, order))) {
+            statuses.remove(id);
+            rejected.incrementAndGet();
+            throw new OrderIntakeFull(capacity);
+        }
+        accepted.incrementAndGet();
+        return status;
+    }
+
+    /**
+     * Obtiene el estado de un pedido encolado.
+     *
+     * @param id Identificador devuelto al encolarlo.
+     * @return Estado del pedido.
+     * @throws OrderNotFound Si no se encoló o su estado ya se ha descartado.
+     */
+    public OrderIntakeDto status(ObjectId id) {
+        OrderIntakeDto status = statuses.get(id);
+        if (status == null) {
+            throw new OrderNotFound(id.toHexString());
+        }
+        return status;
+    }
+
+    /**
+     * Obtiene el tamaño de la cola y los contadores de pedidos aceptados, rechazados, creados y fallidos.
+     *
+     * @return Métricas de la cola.
+     */
+    public OrderIntakeStatsDto stats() {
+        return new OrderIntakeStatsDto(queue.size(), capacity, workers,
+                accepted.get(), rejected.get(), created.get(), failed.get());
+    }
+
+    private void drain() {
+        while (running) {
+            try {
+                drainOnce(POLL_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error draining the order intake queue", e);
+            }
+        }
+    }
+
+    /**
+     * Espera al primer pedido de la cola y procesa un lote con él y los que ya estén esperando.
+     *
+     * @param timeoutMs Tiempo máximo de espera al primer pedido.
+     * @return Número de pedidos procesados.
+     */
+    int drainOnce(long timeoutMs) throws InterruptedException {
+        Ticket first = queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return 0;
+        }
+        List<Ticket> batch = new ArrayList<>(batchSize);
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        process(batch);
+        return batch.size();
+    }
+
+    private void process(List<Ticket> batch) {
+        List<OrderCreateDto> orders = new ArrayList<>(batch.size());
+        List<ObjectId> ids = new ArrayList<>(batch.size());
+        for (Ticket ticket : batch) {
+            orders.add(ticket.order());
+            ids.add(ticket.id());
+            statuses.put(ticket.id(), OrderIntakeDto.of(ticket.id().toHexString(), OrderIntakeStatus.PROCESSING));
+        }
+        log.info("Processing {} queued orders", batch.size());
+        try {
+            OrderBatchResponseDto response = orderService.saveAll(orders, ids);
+            for (OrderBatchResultDto result : response.results()) {
+                String id = ids.get(result.index()).toHexString();
+                if (result.created()) {
+                    created.incrementAndGet();
+                    statuses.put(ids.get(result.index()), OrderIntakeDto.of(id, OrderIntakeStatus.CREATED));
+                } else {
+                    failed.incrementAndGet();
+                    statuses.put(ids.get(result.index()), OrderIntakeDto.failed(id, result.error()));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not process {} queued orders", batch.size(), e);
+            failed.addAndGet(batch.size());
+            ids.forEach(id -> statuses.put(id, OrderIntakeDto.failed(id.toHexString(), e.getMessage())));
+        }
+    }
+
+    private record Ticket(ObjectId id, OrderCreateDto order) {
+    }
+}
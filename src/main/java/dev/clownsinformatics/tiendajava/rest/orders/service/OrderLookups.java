@@ -0,0 +1,192 @@
+package dev.clownsinformatics.tiendajava.rest.orders.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta en paralelo las consultas independientes de la creación de un pedido (cliente y productos),
+ * de modo que la latencia es la de la consulta más lenta y no la suma de todas.
+ * <p>
+ * Solo se usa cuando está activo ({@code orders.intake.concurrent-lookups=true}). Las consultas se lanzan
+ * en un {@link Scope}: en cuanto una falla se cancelan las demás y se relanza su excepción tal cual, por
+ * ejemplo {@code ClientNotFound} o {@code ProductNotFound}. Los hilos son limitados; si están todos ocupados
+ * y la cola llena, la consulta se ejecuta en el hilo de la petición.
+ *
+ * @version 1.0
+ * @since 2023-11-28
+ */
+@Component
+@Slf4j
+public class OrderLookups {
+    private final boolean enabled;
+    private final ExecutorService executor;
+
+    public OrderLookups(@Value("${orders.intake.concurrent-lookups:false}") boolean enabled,
+                        @Value("${orders.intake.lookup-threads:16}") int threads,
+                        @Value("${orders.intake.lookup-queue:256}") int queueCapacity) {
+        this.enabled = enabled;
+        AtomicInteger sequence = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "order-lookup-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+    }
+
+    /**
+     * Indica si las consultas de la creación de pedidos se hacen en paralelo.
+     *
+     * @return {@code true} si está activo.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Abre un ámbito donde lanzar consultas en paralelo. Debe cerrarse, normalmente con try-with-resources.
+     *
+     * @return Ámbito nuevo.
+     */
+    public Scope open() {
+        return new Scope(executor);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Grupo de consultas lanzadas juntas. {@link #join()} espera a que terminen todas o a que falle la primera;
+     * en cuanto una falla se cancelan las demás, y al cerrarlo se cancelan las que sigan en marcha.
+     */
+    public static class Scope implements AutoCloseable {
+        private final ExecutorService executor;
+        private final List<Fork<?>> forks = new CopyOnWriteArrayList<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Scope(ExecutorService executor) {
+            this.executor = executor;
+        }
+
+        /**
+         * Lanza una consulta.
+         *
+         * @param task Consulta.
+         * @param <T>  Tipo del resultado.
+         * @return Resultado, disponible después de {@link #join()}. Si la consulta falló relanza su excepción tal cual.
+         */
+        public <T> Supplier<T> fork(Supplier<T> task) {
+            CompletableFuture<T> result = new CompletableFuture<>();
+            Runnable run = () -> {
+                if (failure.get() != null) {
+                    result.cancel(false);
+                    return;
+                }
+                try {
+                    result.complete(task.get());
+                } catch (RuntimeException | Error e) {
+                    // El fallo se anota antes de completar el resultado para que join() lo vea siempre
+                    failure.compareAndSet(null, e);
+                    result.completeExceptionally(e);
+                    cancel();
+                }
+            };
+            Fork<T> fork = new Fork<>(result);
+            forks.add(fork);
+            try {
+                fork.future = executor.submit(run);
+            } catch (RejectedExecutionException e) {
+                log.debug("Order lookup pool saturated, running lookup on the caller thread");
+                run.run();
+            }
+            return () -> {
+                try {
+                    return result.join();
+                } catch (CompletionException e) {
+                    throw rethrow(e.getCause());
+                }
+            };
+        }
+
+        /**
+         * Espera a que terminen todas las consultas lanzadas. Si alguna falla cancela el resto y relanza su excepción.
+         */
+        public void join() {
+            try {
+                CompletableFuture.allOf(forks.stream().map(Fork::result).toArray(CompletableFuture[]::new)).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel();
+                throw new IllegalStateException("Interrupted while waiting for order lookups", e);
+            } catch (ExecutionException | CancellationException e) {
+                // La causa es la del primer fallo, que se relanza abajo
+            }
+            Throwable first = failure.get();
+            if (first != null) {
+                throw rethrow(first);
+            }
+        }
+
+        @Override
+        public void close() {
+            cancel();
+        }
+
+        /**
+         * Cancela las consultas que no han terminado. Sus resultados se completan como cancelados para que
+         * {@link #join()} no espere a consultas que ya no se van a ejecutar.
+         */
+        private void cancel() {
+            for (Fork<?> fork : forks) {
+                if (fork.result.cancel(false) && fork.future != null) {
+                    fork.future.cancel(true);
+                }
+            }
+        }
+
+        private static RuntimeException rethrow(Throwable failure) {
+            if (failure instanceof RuntimeException runtime) {
+                return runtime;
+            }
+            if (failure instanceof Error error) {
+                throw error;
+            }
+            return new IllegalStateException(failure);
+        }
+
+        private static final class Fork<T> {
+            private final CompletableFuture<T> result;
+            private volatile Future<?> future;
+
+            private Fork(CompletableFuture<T> result) {
+                this.result = result;
+            }
+
+            private CompletableFuture<T> result() {
+                return result;
+            }
+        }
+    }
+}
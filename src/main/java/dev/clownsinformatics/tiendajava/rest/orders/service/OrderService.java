@@ -1,12 +1,20 @@
 package dev.clownsinformatics.tiendajava.rest.orders.service;
 
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderBatchResponseDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderCreateDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderExportFormat;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderResponseDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderUpdateDto;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import org.bson.types.ObjectId;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+
 public interface OrderService {
     Page<OrderResponseDto> findAll(Pageable pageable);
 
@@ -14,8 +22,22 @@ public interface OrderService {
 
     Page<OrderResponseDto> findByUserId(Long idUser, Pageable pageable);
 
+    Page<OrderResponseDto> findArchived(Long idUser, LocalDateTime from, LocalDateTime to, Pageable pageable);
+
+    CursorPageResponse<OrderResponseDto> findAllByCursor(String cursor, int size, String sortBy, String direction);
+
+    CursorPageResponse<OrderResponseDto> findByUserIdByCursor(Long idUser, String cursor, int size, String sortBy, String direction);
+
     OrderResponseDto save(OrderCreateDto order);
 
+    void validate(OrderCreateDto order);
+
+    OrderBatchResponseDto saveAll(List<OrderCreateDto> orders);
+
+    OrderBatchResponseDto saveAll(List<OrderCreateDto> orders, List<ObjectId> ids);
+
+    long export(OrderExportFormat format, LocalDateTime from, LocalDateTime to, Long idUser, OutputStream out) throws IOException;
+
     void delete(ObjectId objectId);
 
     OrderResponseDto update(ObjectId objectId, OrderUpdateDto order);
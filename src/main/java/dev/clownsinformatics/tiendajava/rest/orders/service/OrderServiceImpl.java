@@ -2,7 +2,10 @@ package dev.clownsinformatics.tiendajava.rest.orders.service;
 
 import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientResponse;
 import dev.clownsinformatics.tiendajava.rest.clients.services.ClientService;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderBatchResponseDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderBatchResultDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderCreateDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderExportFormat;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderResponseDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderUpdateDto;
 import dev.clownsinformatics.tiendajava.rest.orders.exceptions.OrderNotFound;
@@ -10,11 +13,20 @@ import dev.clownsinformatics.tiendajava.rest.orders.exceptions.OrderNotItems;
 import dev.clownsinformatics.tiendajava.rest.orders.mappers.OrderMapper;
 import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
 import dev.clownsinformatics.tiendajava.rest.orders.models.OrderLine;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderArchiveRepository;
 import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderRepository;
 import dev.clownsinformatics.tiendajava.rest.products.exceptions.ProductBadPrice;
 import dev.clownsinformatics.tiendajava.rest.products.exceptions.ProductNotFound;
 import dev.clownsinformatics.tiendajava.rest.products.exceptions.ProductNotStock;
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
 import dev.clownsinformatics.tiendajava.rest.products.repositories.ProductRepository;
+import dev.clownsinformatics.tiendajava.rest.products.services.StockLedger;
+import dev.clownsinformatics.tiendajava.rest.reports.services.SalesRollupDelta;
+import dev.clownsinformatics.tiendajava.rest.reports.services.SalesRollupService;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorBadRequest;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorCodec;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
@@ -24,9 +36,26 @@ import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementación de servicio para gestionar operaciones relacionadas con los pedidos en la tienda.
@@ -43,12 +72,24 @@ public class OrderServiceImpl implements OrderService {
     private final ProductRepository productRepository;
     private final OrderMapper orderMapper;
     private final ClientService clientService;
+    private final StockLedger stockLedger;
+    private final OrderExportWriter orderExportWriter;
+    private final SalesRollupService salesRollupService;
+    private final ClientOrderSummaryService clientOrderSummaryService;
+    private final OrderLookups orderLookups;
+    private final OrderArchiveRepository orderArchiveRepository;
 
-    public OrderServiceImpl(OrderRepository orderRepository, ProductRepository productRepository, OrderMapper orderMapper, ClientService clientService) {
+    public OrderServiceImpl(OrderRepository orderRepository, ProductRepository productRepository, OrderMapper orderMapper, ClientService clientService, StockLedger stockLedger, OrderExportWriter orderExportWriter, SalesRollupService salesRollupService, ClientOrderSummaryService clientOrderSummaryService, OrderLookups orderLookups, OrderArchiveRepository orderArchiveRepository) {
         this.orderRepository = orderRepository;
         this.productRepository = productRepository;
         this.orderMapper = orderMapper;
         this.clientService = clientService;
+        this.stockLedger = stockLedger;
+        this.orderExportWriter = orderExportWriter;
+        this.salesRollupService = salesRollupService;
+        this.clientOrderSummaryService = clientOrderSummaryService;
+        this.orderLookups = orderLookups;
+        this.orderArchiveRepository = orderArchiveRepository;
     }
 
     /**
@@ -64,7 +105,8 @@ public class OrderServiceImpl implements OrderService {
     }
 
     /**
-     * Recupera un pedido por su identificador ObjectId.
+     * Recupera un pedido por su identificador ObjectId. Si no está entre los pedidos recientes se busca
+     * en el archivo.
      *
      * @param id Identificador ObjectId del pedido.
      * @return DTO de respuesta del pedido encontrada.
@@ -74,10 +116,27 @@ public class OrderServiceImpl implements OrderService {
     @Cacheable(key = "#id")
     public OrderResponseDto findById(ObjectId id) {
         log.info("Find order by id: {}", id);
-        Order order = orderRepository.findById(id).orElseThrow(() -> new OrderNotFound(id.toHexString()));
+        Order order = orderRepository.findById(id)
+                .or(() -> orderArchiveRepository.findById(id))
+                .orElseThrow(() -> new OrderNotFound(id.toHexString()));
         return orderMapper.toOrderResponseDto(order);
     }
 
+    /**
+     * Recupera pedidos archivados paginados, filtrando por cliente y por fecha de creación.
+     *
+     * @param idUser   Identificador del cliente, o {@code null} para todos.
+     * @param from     Fecha de creación mínima, incluida, o {@code null} sin límite.
+     * @param to       Fecha de creación máxima, excluida, o {@code null} sin límite.
+     * @param pageable Configuración de paginación.
+     * @return Página de DTOs de respuesta de pedidos archivados.
+     */
+    @Override
+    public Page<OrderResponseDto> findArchived(Long idUser, LocalDateTime from, LocalDateTime to, Pageable pageable) {
+        log.info("Find archived orders of customer {} from {} to {}", idUser, from, to);
+        return orderArchiveRepository.findByIdUserAndCreatedAt(idUser, from, to, pageable).map(orderMapper::toOrderResponseDto);
+    }
+
     /**
      * Recupera pedidos de un cliente específico paginados.
      *
@@ -91,8 +150,102 @@ public class OrderServiceImpl implements OrderService {
         return orderRepository.findByIdUser(idUser, pageable).map(orderMapper::toOrderResponseDto);
     }
 
+    /**
+     * Recupera pedidos paginados por cursor. En lugar de saltar las páginas anteriores y contar el total,
+     * cada página continúa a partir del último pedido de la anterior, así que su coste no depende de lo
+     * lejos que esté del principio.
+     *
+     * @param cursor    Cursor devuelto en la página anterior, o {@code null} para la primera.
+     * @param size      Número de pedidos por página.
+     * @param sortBy    Campo de ordenación: {@code id} o {@code createdAt}.
+     * @param direction Dirección de ordenación (ASC o DESC).
+     * @return Página de DTOs de respuesta de pedidos con el cursor de la siguiente.
+     * @throws CursorBadRequest Si el cursor, el tamaño o la ordenación no son válidos.
+     */
+    @Override
+    public CursorPageResponse<OrderResponseDto> findAllByCursor(String cursor, int size, String sortBy, String direction) {
+        log.info("Find all orders by cursor");
+        return findByCursor(null, cursor, size, sortBy, direction);
+    }
+
+    /**
+     * Recupera pedidos de un cliente específico paginados por cursor.
+     *
+     * @param idUser    Identificador del cliente.
+     * @param cursor    Cursor devuelto en la página anterior, o {@code null} para la primera.
+     * @param size      Número de pedidos por página.
+     * @param sortBy    Campo de ordenación: {@code id} o {@code createdAt}.
+     * @param direction Dirección de ordenación (ASC o DESC).
+     * @return Página de DTOs de respuesta de pedidos con el cursor de la siguiente.
+     * @throws CursorBadRequest Si el cursor, el tamaño o la ordenación no son válidos.
+     */
+    @Override
+    public CursorPageResponse<OrderResponseDto> findByUserIdByCursor(Long idUser, String cursor, int size, String sortBy, String direction) {
+        log.info("Find order by customer id by cursor: {}", idUser);
+        return findByCursor(idUser, cursor, size, sortBy, direction);
+    }
+
+    private CursorPageResponse<OrderResponseDto> findByCursor(Long idUser, String cursor, int size, String sortBy, String direction) {
+        if (!sortBy.equals("id") && !sortBy.equals("createdAt")) {
+            throw new CursorBadRequest("Cursor pagination can only sort by id or createdAt");
+        }
+        if (size < 1) {
+            throw new CursorBadRequest("Page size must be greater than 0");
+        }
+        boolean byCreatedAt = sortBy.equals("createdAt");
+        Sort.Direction sortDirection = direction.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.Direction.ASC : Sort.Direction.DESC;
+
+        LocalDateTime lastCreatedAt = null;
+        ObjectId lastId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            var values = CursorCodec.decode(cursor, 4);
+            if (!values.get(0).equals(sortBy) || !values.get(1).equals(sortDirection.name())) {
+                throw new CursorBadRequest("Cursor does not match sortBy " + sortBy + " and direction " + direction);
+            }
+            try {
+                lastCreatedAt = byCreatedAt ? LocalDateTime.parse(values.get(2)) : null;
+                lastId = new ObjectId(values.get(3));
+            } catch (RuntimeException e) {
+                throw new CursorBadRequest("Invalid cursor: " + cursor);
+            }
+        }
+
+        List<Order> orders = orderRepository.findPageAfter(idUser, byCreatedAt, sortDirection, lastCreatedAt, lastId, size + 1);
+        String nextCursor = null;
+        if (orders.size() > size) {
+            orders = orders.subList(0, size);
+            Order last = orders.get(size - 1);
+            nextCursor = CursorCodec.encode(sortBy, sortDirection.name(),
+                    byCreatedAt ? last.getCreatedAt().toString() : "", last.getId().toHexString());
+        }
+        return CursorPageResponse.of(orders.stream().map(orderMapper::toOrderResponseDto).toList(),
+                size, nextCursor, lastId == null, sortBy, direction);
+    }
+
+    /**
+     * Exporta los pedidos creados en un intervalo escribiéndolos en la salida a medida que se leen de Mongo.
+     *
+     * @param format Formato de exportación.
+     * @param from   Fecha de creación mínima, incluida, o {@code null} sin límite.
+     * @param to     Fecha de creación máxima, excluida, o {@code null} sin límite.
+     * @param idUser Usuario de los pedidos, o {@code null} para todos.
+     * @param out    Salida donde se escriben los pedidos.
+     * @return Número de pedidos exportados.
+     * @throws IOException Si falla la escritura en la salida.
+     */
+    @Override
+    public long export(OrderExportFormat format, LocalDateTime from, LocalDateTime to, Long idUser, OutputStream out) throws IOException {
+        log.info("Export orders as {} from {} to {} for user {}", format, from, to, idUser);
+        try (Stream<Order> orders = orderRepository.streamByCreatedAt(from, to, idUser)) {
+            long count = orderExportWriter.write(format, orders, out);
+            log.info("Exported {} orders", count);
+            return count;
+        }
+    }
+
     /**
      * Crea una nueva orden a partir de los datos proporcionados en el DTO de creación de pedidos.
+     * Si {@link OrderLookups} está activo, el cliente y los productos se consultan y validan en paralelo.
      *
      * @param order DTO de creación de pedidos que contiene la información para crear la nueva orden.
      * @return DTO de respuesta del pedido creada.
@@ -103,15 +256,210 @@ public class OrderServiceImpl implements OrderService {
     @CachePut(key = "#result.id")
     public OrderResponseDto save(OrderCreateDto order) {
         log.info("Save order: {}", order);
-        ClientResponse client = clientService.findById(order.idUser());
-        Order orderMapped = orderMapper.toOrder(order, client);
-        checkOrder(orderMapped);
+        Order orderMapped;
+        Map<UUID, Product> products;
+        if (orderLookups.isEnabled()) {
+            orderMapped = orderMapper.toOrder(order, null);
+            products = checkOrderConcurrently(orderMapped, order.idUser());
+        } else {
+            ClientResponse client = clientService.findById(order.idUser());
+            orderMapped = orderMapper.toOrder(order, client);
+            products = checkOrder(orderMapped);
+        }
 
-        var orderToSave = reserveStockOrder(orderMapped);
+        var orderToSave = reserveStockOrder(orderMapped, products);
         orderToSave.setCreatedAt(LocalDateTime.now());
         orderToSave.setUpdatedAt(LocalDateTime.now());
 
-        return orderMapper.toOrderResponseDto(orderRepository.save(orderToSave));
+        var saved = saveReserved(orderToSave, Map.of());
+        salesRollupService.apply(new SalesRollupDelta().add(saved), products);
+        clientOrderSummaryService.apply(List.of(), List.of(saved));
+        return orderMapper.toOrderResponseDto(saved);
+    }
+
+    /**
+     * Comprueba un pedido sin crearlo ni reservar stock: que el cliente exista y que los productos existan,
+     * tengan stock suficiente y mantengan el precio. El stock puede cambiar antes de crear el pedido, así que la
+     * reserva definitiva puede fallar igualmente.
+     *
+     * @param order DTO de creación del pedido.
+     * @throws OrderNotItems   Si el pedido no contiene elementos.
+     * @throws ProductNotFound Si algún producto no existe.
+     * @throws ProductNotStock Si algún producto no tiene stock suficiente.
+     * @throws ProductBadPrice Si el precio de algún producto no coincide.
+     */
+    @Override
+    public void validate(OrderCreateDto order) {
+        log.info("Validate order: {}", order);
+        if (orderLookups.isEnabled()) {
+            checkOrderConcurrently(orderMapper.toOrder(order, null), order.idUser());
+        } else {
+            checkOrder(orderMapper.toOrder(order, clientService.findById(order.idUser())));
+        }
+    }
+
+    /**
+     * Busca el cliente y verifica el pedido a la vez. Si cualquiera de las dos falla, la otra se cancela
+     * y se relanza su excepción sin esperarla.
+     *
+     * @param order  Pedido a verificar, sin cliente.
+     * @param idUser Identificador del cliente.
+     * @return Productos del pedido indexados por su identificador.
+     */
+    private Map<UUID, Product> checkOrderConcurrently(Order order, Long idUser) {
+        try (var scope = orderLookups.open()) {
+            var client = scope.fork(() -> clientService.findById(idUser));
+            var products = scope.fork(() -> checkOrder(order));
+            scope.join();
+            order.setClient(client.get());
+            return products.get();
+        }
+    }
+
+    /**
+     * Crea varios pedidos de una vez. Los clientes se buscan una sola vez por usuario, los productos de todo
+     * el lote se cargan con una única consulta y el stock se reserva sumado por producto. Si la reserva
+     * conjunta no es posible se reserva pedido a pedido, en el orden del lote. Los pedidos válidos se insertan
+     * con una única escritura masiva no ordenada.
+     * <p>
+     * Un pedido que falla no hace fallar al resto: el resultado indica, para cada posición del lote,
+     * el pedido creado o el motivo del fallo.
+     *
+     * @param orders DTOs de creación de los pedidos.
+     * @return Resultado de cada pedido del lote.
+     */
+    @Override
+    @Transactional
+    public OrderBatchResponseDto saveAll(List<OrderCreateDto> orders) {
+        return saveAll(orders, null);
+    }
+
+    /**
+     * Crea varios pedidos de una vez con identificadores ya asignados, como {@link #saveAll(List)}.
+     *
+     * @param orders DTOs de creación de los pedidos.
+     * @param ids    Identificador de cada pedido, en la misma posición, o {@code null} para generarlos.
+     * @return Resultado de cada pedido del lote.
+     */
+    @Override
+    @Transactional
+    public OrderBatchResponseDto saveAll(List<OrderCreateDto> orders, List<ObjectId> ids) {
+        log.info("Save batch of {} orders", orders.size());
+        var results = new OrderBatchResultDto[orders.size()];
+
+        Map<Long, ClientResponse> clients = new HashMap<>();
+        Map<Long, String> clientErrors = new HashMap<>();
+        orders.stream()
+                .filter(Objects::nonNull)
+                .map(OrderCreateDto::idUser)
+                .filter(Objects::nonNull)
+                .distinct()
+                .forEach(idUser -> {
+                    try {
+                        clients.put(idUser, clientService.findById(idUser));
+                    } catch (RuntimeException e) {
+                        clientErrors.put(idUser, e.getMessage());
+                    }
+                });
+
+        Set<UUID> productIds = orders.stream()
+                .filter(order -> order != null && order.orderLines() != null)
+                .flatMap(order -> order.orderLines().stream())
+                .map(OrderLine::getIdProduct)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<UUID, Product> products = productIds.isEmpty() ? Map.of() : productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        Map<Integer, Order> valid = new LinkedHashMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            var dto = orders.get(i);
+            if (dto == null || dto.idUser() == null) {
+                results[i] = OrderBatchResultDto.failed(i, "The idUser is required");
+            } else if (clientErrors.containsKey(dto.idUser())) {
+                results[i] = OrderBatchResultDto.failed(i, clientErrors.get(dto.idUser()));
+            } else {
+                try {
+                    Order order = orderMapper.toOrder(dto, clients.get(dto.idUser()));
+                    if (ids != null) {
+                        order.setId(ids.get(i));
+                    }
+                    validateOrder(order, products, Map.of());
+                    valid.put(i, order);
+                } catch (RuntimeException e) {
+                    results[i] = OrderBatchResultDto.failed(i, e.getMessage());
+                }
+            }
+        }
+
+        reserveBatchStock(valid, results);
+
+        List<Integer> positions = new ArrayList<>(valid.keySet());
+        List<Order> toInsert = new ArrayList<>(valid.values());
+        toInsert.forEach(order -> {
+            applyTotals(order, products);
+            order.setCreatedAt(LocalDateTime.now());
+            order.setUpdatedAt(LocalDateTime.now());
+        });
+
+        Map<Integer, String> insertErrors;
+        try {
+            insertErrors = toInsert.isEmpty() ? Map.of() : orderRepository.insertUnordered(toInsert);
+        } catch (RuntimeException e) {
+            if (stockLedger.isEnabled()) {
+                toInsert.forEach(order -> releaseStock(quantitiesByProduct(order)));
+            }
+            throw e;
+        }
+
+        var rollupDelta = new SalesRollupDelta();
+        List<Order> created = new ArrayList<>();
+        for (int j = 0; j < toInsert.size(); j++) {
+            int position = positions.get(j);
+            Order order = toInsert.get(j);
+            if (insertErrors.containsKey(j)) {
+                releaseStock(quantitiesByProduct(order));
+                results[position] = OrderBatchResultDto.failed(position, insertErrors.get(j));
+            } else {
+                rollupDelta.add(order);
+                created.add(order);
+                results[position] = OrderBatchResultDto.created(position, orderMapper.toOrderResponseDto(order));
+            }
+        }
+        salesRollupService.apply(rollupDelta, products);
+        clientOrderSummaryService.apply(List.of(), created);
+        return OrderBatchResponseDto.of(Arrays.asList(results));
+    }
+
+    /**
+     * Reserva el stock de todos los pedidos válidos de un lote con un cambio por producto. Si no hay stock
+     * para todos, reserva pedido a pedido en el orden del lote y marca como fallidos los que no caben.
+     *
+     * @param valid   Pedidos válidos indexados por su posición en el lote. Se eliminan los que no se reservan.
+     * @param results Resultados del lote, donde se anotan los fallos.
+     */
+    private void reserveBatchStock(Map<Integer, Order> valid, OrderBatchResultDto[] results) {
+        SortedMap<UUID, Integer> total = new TreeMap<>();
+        valid.values().forEach(order -> quantitiesByProduct(order).forEach((idProduct, quantity) ->
+                total.merge(idProduct, quantity, Integer::sum)));
+        if (total.isEmpty()) {
+            return;
+        }
+        try {
+            reserveStock(total);
+        } catch (ProductNotStock e) {
+            log.info("Not enough stock for the whole batch, reserving order by order: {}", e.getMessage());
+            var iterator = valid.entrySet().iterator();
+            while (iterator.hasNext()) {
+                var entry = iterator.next();
+                try {
+                    reserveStock(quantitiesByProduct(entry.getValue()));
+                } catch (ProductNotStock ex) {
+                    results[entry.getKey()] = OrderBatchResultDto.failed(entry.getKey(), ex.getMessage());
+                    iterator.remove();
+                }
+            }
+        }
     }
 
     /**
@@ -129,6 +477,8 @@ public class OrderServiceImpl implements OrderService {
                 .orElseThrow(() -> new OrderNotFound(objectId.toHexString()));
         returnStockOrders(orderToDelete);
         orderRepository.delete(orderToDelete);
+        salesRollupService.apply(new SalesRollupDelta().remove(orderToDelete), Map.of());
+        clientOrderSummaryService.apply(List.of(orderToDelete), List.of());
     }
 
     /**
@@ -149,50 +499,124 @@ public class OrderServiceImpl implements OrderService {
     public OrderResponseDto update(ObjectId objectId, OrderUpdateDto order) {
         log.info("Update order by id: {}", objectId);
         Order orderToUpdate = orderRepository.findById(objectId).orElseThrow(() -> new OrderNotFound(objectId.toHexString()));
-        returnStockOrders(orderToUpdate);
+        var returned = quantitiesByProduct(orderToUpdate);
+        var rollupDelta = new SalesRollupDelta().remove(orderToUpdate);
 
         ClientResponse client = clientService.findById(order.idUser());
         Order orderMapped = orderMapper.toOrder(order, orderToUpdate, client);
-        checkOrder(orderMapped);
+        var products = checkOrder(orderMapped, returned);
 
-        var orderToSave = reserveStockOrder(orderMapped);
+        var orderToSave = reserveStockOrder(orderMapped, products, returned);
+        orderToSave.setCreatedAt(orderToUpdate.getCreatedAt());
         orderToSave.setUpdatedAt(LocalDateTime.now());
 
-        return orderMapper.toOrderResponseDto(orderRepository.save(orderToSave));
+        var saved = saveReserved(orderToSave, returned);
+        salesRollupService.apply(rollupDelta.add(saved), products);
+        clientOrderSummaryService.apply(List.of(orderToUpdate), List.of(saved));
+        return orderMapper.toOrderResponseDto(saved);
     }
 
     /**
      * Reserva el stock de productos asociados a un pedido y actualiza los totales del pedido.
      *
-     * @param order Pedido para el cual se reserva el stock.
+     * @param order    Pedido para el cual se reserva el stock.
+     * @param products Productos del pedido indexados por su identificador.
+     * @return Pedido actualizado con el stock reservado y los totales actualizados.
+     * @throws OrderNotItems   Excepción lanzada si el pedido no contiene elementos.
+     * @throws ProductNotFound Excepción lanzada si un producto asociado el pedido no se encuentra.
+     * @throws ProductNotStock Excepción lanzada si un producto no tiene suficiente stock para el pedido.
+     */
+    Order reserveStockOrder(Order order, Map<UUID, Product> products) {
+        return reserveStockOrder(order, products, Map.of());
+    }
+
+    /**
+     * Reserva el stock de productos asociados a un pedido descontando las cantidades que se devuelven
+     * de una versión anterior del mismo pedido, y actualiza los totales del pedido.
+     * <p>
+     * El stock no se lee y se vuelve a escribir: cada producto recibe una única actualización condicional
+     * ({@code stock = stock - q where stock >= q}) y los productos se recorren siempre ordenados por id,
+     * de modo que dos pedidos concurrentes bloquean las filas en el mismo orden y no pueden interbloquearse.
+     * Si algún producto no tiene stock se lanza {@link ProductNotStock} y la transacción del llamante
+     * deshace las reservas ya hechas.
+     *
+     * @param order    Pedido para el cual se reserva el stock.
+     * @param products Productos del pedido indexados por su identificador.
+     * @param returned Cantidades por producto que se devuelven al stock antes de reservar.
      * @return Pedido actualizado con el stock reservado y los totales actualizados.
      * @throws OrderNotItems   Excepción lanzada si el pedido no contiene elementos.
      * @throws ProductNotFound Excepción lanzada si un producto asociado el pedido no se encuentra.
      * @throws ProductNotStock Excepción lanzada si un producto no tiene suficiente stock para el pedido.
      */
-    Order reserveStockOrder(Order order) {
+    Order reserveStockOrder(Order order, Map<UUID, Product> products, Map<UUID, Integer> returned) {
         log.info("Reserve stock for order: {}", order);
 
         if (order.getOrderLines() == null || order.getOrderLines().isEmpty()) {
             throw new OrderNotItems(order.getId().toHexString());
         }
 
-        order.getOrderLines().forEach(orderLine -> {
-            var product = productRepository.findById(orderLine.getIdProduct()).get();
-            product.setStock(product.getStock() - orderLine.getQuantity());
-            productRepository.save(product);
-            orderLine.setTotal(orderLine.getQuantity() * product.getPrice());
+        reserveStock(stockDeltas(order, returned));
+        return applyTotals(order, products);
+    }
+
+    /**
+     * Aplica de una vez los cambios netos de stock indicados, en orden de id de producto. Las cantidades
+     * positivas se reservan con una actualización condicional y las negativas se devuelven.
+     * Si algún producto no tiene stock se deshacen los cambios ya aplicados y se lanza {@link ProductNotStock},
+     * de modo que quien llama puede seguir usando la misma transacción.
+     *
+     * @param deltas Cantidad neta a reservar por producto, ordenada por id.
+     * @throws ProductNotStock Excepción lanzada si un producto no tiene suficiente stock.
+     */
+    void reserveStock(SortedMap<UUID, Integer> deltas) {
+        if (stockLedger.isEnabled()) {
+            stockLedger.reserve(deltas);
+            return;
+        }
+        Map<UUID, Integer> applied = new TreeMap<>();
+        deltas.forEach((idProduct, quantity) -> {
+            if (quantity > 0 && productRepository.decrementStock(idProduct, quantity) == 0) {
+                applied.forEach(productRepository::incrementStock);
+                throw new ProductNotStock("Product " + idProduct + " has not enough stock for quantity: " + quantity);
+            } else if (quantity < 0) {
+                productRepository.incrementStock(idProduct, -quantity);
+            }
+            applied.put(idProduct, quantity);
         });
+    }
 
-        var total = order.getOrderLines().stream()
-                .map(orderLine -> orderLine.getQuantity() * orderLine.getPrice())
-                .reduce(0.0, Double::sum);
+    /**
+     * Devuelve al stock las cantidades indicadas.
+     *
+     * @param quantities Cantidad a devolver por producto.
+     */
+    private void releaseStock(Map<UUID, Integer> quantities) {
+        if (stockLedger.isEnabled()) {
+            stockLedger.release(quantities);
+        } else {
+            quantities.forEach(productRepository::incrementStock);
+        }
+    }
 
-        var totalItems = order.getOrderLines().stream()
-                .map(OrderLine::getQuantity)
-                .reduce(0, Integer::sum);
+    /**
+     * Calcula el total de cada línea con el precio actual del producto y los totales del pedido.
+     *
+     * @param order    Pedido a calcular.
+     * @param products Productos del pedido indexados por su identificador.
+     * @return El mismo pedido con los totales calculados.
+     */
+    private Order applyTotals(Order order, Map<UUID, Product> products) {
+        long total = 0;
+        int totalItems = 0;
+        for (OrderLine orderLine : order.getOrderLines()) {
+            var product = getProduct(products, orderLine.getIdProduct());
+            long lineTotal = Money.times(product.getPrice().cents(), orderLine.getQuantity());
+            orderLine.setTotal(Money.ofCents(lineTotal));
+            total = Math.addExact(total, lineTotal);
+            totalItems += orderLine.getQuantity();
+        }
 
-        order.setTotal(total);
+        order.setTotal(Money.ofCents(total));
         order.setTotalItems(totalItems);
 
         return order;
@@ -200,47 +624,147 @@ public class OrderServiceImpl implements OrderService {
 
     /**
      * Verifica si un pedido es válido, asegurándose de que contenga elementos y de que los productos asociados
-     * tengan suficiente stock y precios coincidentes.
+     * tengan suficiente stock y precios coincidentes. Los productos se cargan con una única consulta.
      *
      * @param order Pedido a verificar.
+     * @return Productos del pedido indexados por su identificador.
+     * @throws OrderNotItems   Excepción lanzada si un pedido no contiene elementos.
+     * @throws ProductNotFound Excepción lanzada si un producto asociado al pedido no se encuentra.
+     * @throws ProductNotStock Excepción lanzada si un producto no tiene suficiente stock para el pedido.
+     * @throws ProductBadPrice Excepción lanzada si el precio de un producto en el pedido no coincide con el precio del producto.
+     */
+    Map<UUID, Product> checkOrder(Order order) {
+        return checkOrder(order, Map.of());
+    }
+
+    /**
+     * Verifica si un pedido es válido teniendo en cuenta el stock que se va a devolver de una versión anterior
+     * del mismo pedido. La comprobación de stock es orientativa: la reserva definitiva la hace
+     * {@link #reserveStockOrder(Order, Map, Map)} de forma atómica. Con el libro de stock activo el stock de la base
+     * de datos puede no incluir aún las devoluciones pendientes de volcar, así que se comprueba contra el disponible
+     * del libro.
+     *
+     * @param order    Pedido a verificar.
+     * @param returned Cantidades por producto que se devuelven al stock antes de reservar.
+     * @return Productos del pedido indexados por su identificador.
      * @throws OrderNotItems   Excepción lanzada si un pedido no contiene elementos.
      * @throws ProductNotFound Excepción lanzada si un producto asociado al pedido no se encuentra.
      * @throws ProductNotStock Excepción lanzada si un producto no tiene suficiente stock para el pedido.
      * @throws ProductBadPrice Excepción lanzada si el precio de un producto en el pedido no coincide con el precio del producto.
      */
-    void checkOrder(Order order) {
+    Map<UUID, Product> checkOrder(Order order, Map<UUID, Integer> returned) {
         log.info("Check order: {}", order);
 
+        if (order.getOrderLines() == null || order.getOrderLines().isEmpty()) {
+            throw new OrderNotItems(order.getId().toHexString());
+        }
+        var products = findProducts(order);
+        validateOrder(order, products, returned);
+        return products;
+    }
+
+    /**
+     * Comprueba en memoria las líneas de un pedido contra los productos ya cargados.
+     *
+     * @param order    Pedido a verificar.
+     * @param products Productos indexados por su identificador.
+     * @param returned Cantidades por producto que se devuelven al stock antes de reservar.
+     * @throws OrderNotItems   Excepción lanzada si un pedido no contiene elementos.
+     * @throws ProductNotFound Excepción lanzada si un producto asociado al pedido no se encuentra.
+     * @throws ProductNotStock Excepción lanzada si un producto no tiene suficiente stock para el pedido.
+     * @throws ProductBadPrice Excepción lanzada si el precio de un producto en el pedido no coincide con el precio del producto.
+     */
+    private void validateOrder(Order order, Map<UUID, Product> products, Map<UUID, Integer> returned) {
         if (order.getOrderLines() == null || order.getOrderLines().isEmpty()) {
             throw new OrderNotItems(order.getId().toHexString());
         }
         order.getOrderLines().forEach(orderLine -> {
-            var product = productRepository.findById(orderLine.getIdProduct())
-                    .orElseThrow(() -> new ProductNotFound("Product not found with id: " + orderLine.getIdProduct()));
-            if (product.getStock() < orderLine.getQuantity() && orderLine.getQuantity() > 0) {
-                throw new ProductNotStock("Product stock is: " + product.getStock() + " and order quantity is: " + orderLine.getQuantity());
+            var product = getProduct(products, orderLine.getIdProduct());
+            var available = stockLedger.isEnabled() ? stockLedger.available(product.getId()) : product.getStock();
+            var stock = available + returned.getOrDefault(orderLine.getIdProduct(), 0);
+            if (stock < orderLine.getQuantity() && orderLine.getQuantity() > 0) {
+                throw new ProductNotStock("Product stock is: " + stock + " and order quantity is: " + orderLine.getQuantity());
             }
-            if (!product.getPrice().equals(orderLine.getPrice())) {
+            if (orderLine.getPrice() == null || product.getPrice().cents() != orderLine.getPrice().cents()) {
                 throw new ProductBadPrice("Product price is: " + product.getPrice() + " and order price is: " + orderLine.getPrice());
             }
         });
     }
 
     /**
-     * Devuelve el stock de productos asociados a un pedido.
+     * Devuelve el stock de productos asociados a un pedido, con una actualización por producto en orden de id.
      *
      * @param order Pedido para el cual se devuelve el stock.
      * @return Pedido actualizado con el stock devuelto.
      */
     Order returnStockOrders(Order order) {
         log.info("Return stock for order: {}", order);
+        releaseStock(quantitiesByProduct(order));
+        return order;
+    }
+
+    /**
+     * Carga con una única consulta todos los productos referenciados por las líneas de un pedido.
+     *
+     * @param order Pedido cuyos productos se cargan.
+     * @return Productos indexados por su identificador.
+     */
+    Map<UUID, Product> findProducts(Order order) {
+        Set<UUID> ids = order.getOrderLines().stream()
+                .map(OrderLine::getIdProduct)
+                .collect(Collectors.toSet());
+        return productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    /**
+     * Agrupa las cantidades de las líneas de un pedido por producto, ordenadas por id de producto.
+     *
+     * @param order Pedido cuyas líneas se agrupan.
+     * @return Cantidad total por producto, ordenada por id.
+     */
+    SortedMap<UUID, Integer> quantitiesByProduct(Order order) {
+        SortedMap<UUID, Integer> quantities = new TreeMap<>();
         if (order.getOrderLines() != null) {
-            order.getOrderLines().forEach(orderLine -> {
-                var product = productRepository.findById(orderLine.getIdProduct()).get();
-                product.setStock(product.getStock() + orderLine.getQuantity());
-                productRepository.save(product);
-            });
+            order.getOrderLines().forEach(orderLine ->
+                    quantities.merge(orderLine.getIdProduct(), orderLine.getQuantity(), Integer::sum));
         }
-        return order;
+        return quantities;
+    }
+
+    /**
+     * Cambio neto de stock por producto de un pedido: lo que pide menos lo que se devuelve, ordenado por id.
+     *
+     * @param order    Pedido.
+     * @param returned Cantidades por producto que se devuelven al stock.
+     * @return Cantidad neta a reservar por producto; negativa si se devuelve stock.
+     */
+    SortedMap<UUID, Integer> stockDeltas(Order order, Map<UUID, Integer> returned) {
+        var deltas = quantitiesByProduct(order);
+        returned.forEach((idProduct, quantity) -> deltas.merge(idProduct, -quantity, Integer::sum));
+        return deltas;
+    }
+
+    /**
+     * Guarda un pedido cuyo stock ya está reservado. Con el libro de stock activo la reserva no forma parte
+     * de ninguna transacción, así que si el guardado falla se deshace a mano.
+     */
+    private Order saveReserved(Order order, Map<UUID, Integer> returned) {
+        try {
+            return orderRepository.save(order);
+        } catch (RuntimeException e) {
+            if (stockLedger.isEnabled()) {
+                releaseStock(stockDeltas(order, returned));
+            }
+            throw e;
+        }
+    }
+
+    private Product getProduct(Map<UUID, Product> products, UUID idProduct) {
+        var product = products.get(idProduct);
+        if (product == null) {
+            throw new ProductNotFound("Product not found with id: " + idProduct);
+        }
+        return product;
     }
 }
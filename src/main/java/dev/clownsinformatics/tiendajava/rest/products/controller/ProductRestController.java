@@ -4,8 +4,12 @@ import dev.clownsinformatics.tiendajava.rest.products.dto.ProductCreateDto;
 import dev.clownsinformatics.tiendajava.rest.products.dto.ProductResponseDto;
 import dev.clownsinformatics.tiendajava.rest.products.dto.ProductUpdateDto;
 import dev.clownsinformatics.tiendajava.rest.products.services.ProductService;
+import dev.clownsinformatics.tiendajava.utils.idempotency.IdempotencyStore;
+import dev.clownsinformatics.tiendajava.utils.pagination.ApproximateCounts;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PaginationLinksUtils;
+import dev.clownsinformatics.tiendajava.utils.pagination.TotalMode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -17,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -29,6 +34,7 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -47,16 +53,23 @@ import java.util.Optional;
 public class ProductRestController {
     private final ProductService productService;
     private final PaginationLinksUtils paginationLinksUtils;
+    private final ApproximateCounts approximateCounts;
+    private final IdempotencyStore idempotencyStore;
 
     @Autowired
-    public ProductRestController(ProductService productService, PaginationLinksUtils paginationLinksUtils) {
+    public ProductRestController(ProductService productService, PaginationLinksUtils paginationLinksUtils, ApproximateCounts approximateCounts, IdempotencyStore idempotencyStore) {
         this.productService = productService;
         this.paginationLinksUtils = paginationLinksUtils;
+        this.approximateCounts = approximateCounts;
+        this.idempotencyStore = idempotencyStore;
     }
 
     /**
-     * Obtiene todos los productos según los parámetros de consulta proporcionados.
+     * Obtiene todos los productos según los parámetros de consulta proporcionados. Si se indica {@code q} se hace
+     * una búsqueda de texto en el nombre y la descripción, ordenada por relevancia, y se ignoran los demás filtros
+     * y la ordenación.
      *
+     * @param q         Opcional. Texto a buscar en el nombre y la descripción.
      * @param name      Opcional. Nombre del producto para filtrar.
      * @param maxWeight Opcional. Peso máximo del producto para filtrar.
      * @param maxPrice  Opcional. Precio máximo del producto para filtrar.
@@ -67,6 +80,7 @@ public class ProductRestController {
      * @param size      Tamaño de la página.
      * @param sortBy    Campo por el cual se debe ordenar la respuesta.
      * @param direction Dirección de ordenamiento (ascendente o descendente).
+     * @param withTotal {@code true} cuenta el total, {@code false} no lo cuenta y {@code approximate} usa uno reciente.
      * @param request   Objeto HttpServletRequest para construir enlaces de paginación.
      * @return Respuesta con una página paginada de productos y enlaces de paginación.
      */
@@ -77,6 +91,7 @@ public class ProductRestController {
             @ApiResponse(responseCode = "404", description = "Products not found")
     })
     @Parameters({
+            @Parameter(name = "q", description = "Full text search on name and description, ranked by relevance"),
             @Parameter(name = "name", description = "Product name"),
             @Parameter(name = "maxWeight", description = "Maximum product weight"),
             @Parameter(name = "maxPrice", description = "Maximum product price"),
@@ -85,10 +100,12 @@ public class ProductRestController {
             @Parameter(name = "page", description = "Page number"),
             @Parameter(name = "size", description = "Page size"),
             @Parameter(name = "sortBy", description = "Sort by"),
-            @Parameter(name = "direction", description = "Sort direction")
+            @Parameter(name = "direction", description = "Sort direction"),
+            @Parameter(name = "withTotal", description = "true counts the total, false skips the count, approximate uses a recent count")
     })
     @GetMapping
     public ResponseEntity<PageResponse<ProductResponseDto>> getAllProducts(
+            @RequestParam(required = false) Optional<String> q,
             @RequestParam(required = false) Optional<String> name,
             @RequestParam(required = false) Optional<Double> maxWeight,
             @RequestParam(required = false) Optional<Double> maxPrice,
@@ -99,18 +116,91 @@ public class ProductRestController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "true") String withTotal,
             HttpServletRequest request
     ) {
-        log.info("Searching all products with name: {}, maxWeight: {}, maxPrice: {}, minStock: {}, category: {}, page: {}, size: {}, sortBy: {}, direction: {}",
-                name, maxWeight, maxPrice, minStock, category, page, size, sortBy, direction);
-        Sort sort = direction.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
+        log.info("Searching all products with q: {}, name: {}, maxWeight: {}, maxPrice: {}, minStock: {}, category: {}, page: {}, size: {}, sortBy: {}, direction: {}",
+                q, name, maxWeight, maxPrice, minStock, category, page, size, sortBy, direction);
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        if (q.isPresent() && !q.get().isBlank()) {
+            Page<ProductResponseDto> pageResult = productService.search(q.get(), PageRequest.of(page, size));
+            return ResponseEntity.ok()
+                    .header("link", paginationLinksUtils.createLinkHeader(pageResult, uriBuilder))
+                    .body(PageResponse.of(pageResult, "relevance", Sort.Direction.DESC.name().toLowerCase()));
+        }
+        Sort sort = direction.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
+        TotalMode totalMode = TotalMode.of(withTotal);
+        if (totalMode != TotalMode.EXACT) {
+            Slice<ProductResponseDto> slice = productService.findAllSlice(name, maxWeight, maxPrice, minStock, category, isDeleted, PageRequest.of(page, size, sort));
+            Long total = totalMode == TotalMode.APPROXIMATE
+                    ? approximateCounts.count("products", List.of(name, maxWeight, maxPrice, minStock, category, isDeleted), () -> productService.count(name, maxWeight, maxPrice, minStock, category, isDeleted))
+                    : null;
+            return ResponseEntity.ok()
+                    .header("link", paginationLinksUtils.createLinkHeader(slice, uriBuilder))
+                    .body(PageResponse.of(slice, total, sortBy, direction));
+        }
         Page<ProductResponseDto> pageResult = productService.findAll(name, maxWeight, maxPrice, minStock, category, isDeleted, PageRequest.of(page, size, sort));
         return ResponseEntity.ok()
                 .header("link", paginationLinksUtils.createLinkHeader(pageResult, uriBuilder))
                 .body(PageResponse.of(pageResult, sortBy, direction));
     }
 
+    /**
+     * Obtiene los productos paginados por cursor, sin contar el total. Cada página continúa a partir del último
+     * producto de la anterior, así que tarda lo mismo sea cual sea su posición en el listado.
+     *
+     * @param name      Opcional. Nombre del producto para filtrar.
+     * @param maxWeight Opcional. Peso máximo del producto para filtrar.
+     * @param maxPrice  Opcional. Precio máximo del producto para filtrar.
+     * @param minStock  Opcional. Cantidad mínima de stock para filtrar.
+     * @param category  Opcional. Nombre de la categoría del producto para filtrar.
+     * @param isDeleted Opcional. Indica si el producto está marcado como eliminado.
+     * @param cursor    Cursor de la página anterior; si no se indica se devuelve la primera página.
+     * @param size      Tamaño de la página.
+     * @param sortBy    Campo por el cual se debe ordenar la respuesta.
+     * @param direction Dirección de ordenamiento (ascendente o descendente).
+     * @param request   Objeto HttpServletRequest para construir enlaces de paginación.
+     * @return Respuesta con la página de productos y el enlace a la siguiente.
+     */
+    @Operation(summary = "Get all products by cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the products"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, page size or sort supplied")
+    })
+    @Parameters({
+            @Parameter(name = "name", description = "Product name"),
+            @Parameter(name = "maxWeight", description = "Maximum product weight"),
+            @Parameter(name = "maxPrice", description = "Maximum product price"),
+            @Parameter(name = "minStock", description = "Minimum product stock"),
+            @Parameter(name = "category", description = "Product category"),
+            @Parameter(name = "cursor", description = "Cursor returned by the previous page"),
+            @Parameter(name = "size", description = "Page size"),
+            @Parameter(name = "sortBy", description = "Sort by"),
+            @Parameter(name = "direction", description = "Sort direction")
+    })
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<ProductResponseDto>> getAllProductsByCursor(
+            @RequestParam(required = false) Optional<String> name,
+            @RequestParam(required = false) Optional<Double> maxWeight,
+            @RequestParam(required = false) Optional<Double> maxPrice,
+            @RequestParam(required = false) Optional<Double> minStock,
+            @RequestParam(required = false) Optional<String> category,
+            @RequestParam(defaultValue = "false", required = false) Optional<Boolean> isDeleted,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String direction,
+            HttpServletRequest request
+    ) {
+        log.info("Searching products by cursor with name: {}, maxWeight: {}, maxPrice: {}, minStock: {}, category: {}, size: {}, sortBy: {}, direction: {}",
+                name, maxWeight, maxPrice, minStock, category, size, sortBy, direction);
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        CursorPageResponse<ProductResponseDto> pageResult = productService.findAllByCursor(name, maxWeight, maxPrice, minStock, category, isDeleted, cursor, size, sortBy, direction);
+        return ResponseEntity.ok()
+                .header("link", paginationLinksUtils.createLinkHeader(pageResult, uriBuilder))
+                .body(pageResult);
+    }
+
     /**
      * Obtiene un producto por su identificador.
      *
@@ -136,7 +226,8 @@ public class ProductRestController {
     /**
      * Crea un nuevo producto utilizando la información proporcionada en el DTO de creación.
      *
-     * @param product DTO con la información del nuevo producto.
+     * @param product        DTO con la información del nuevo producto.
+     * @param idempotencyKey Clave de idempotencia opcional para que los reintentos no dupliquen el producto.
      * @return Respuesta con el objeto {@link ProductResponseDto} del producto recién creado.
      */
     @Operation(summary = "Get a product by name")
@@ -151,9 +242,11 @@ public class ProductRestController {
     })
     @PostMapping()
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<ProductResponseDto> postProduct(@Valid @RequestBody ProductCreateDto product) {
+    public ResponseEntity<ProductResponseDto> postProduct(@Valid @RequestBody ProductCreateDto product,
+                                                          @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
         log.info("Creating product: {}", product);
-        return ResponseEntity.status(HttpStatus.CREATED).body(productService.save(product));
+        return idempotencyStore.execute(idempotencyKey, product,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(productService.save(product)));
     }
 
     /**
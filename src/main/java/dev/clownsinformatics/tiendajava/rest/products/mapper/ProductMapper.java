@@ -6,6 +6,7 @@ import dev.clownsinformatics.tiendajava.rest.products.dto.ProductResponseDto;
 import dev.clownsinformatics.tiendajava.rest.products.dto.ProductUpdateDto;
 import dev.clownsinformatics.tiendajava.rest.products.models.Product;
 import dev.clownsinformatics.tiendajava.rest.suppliers.models.Supplier;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -31,7 +32,7 @@ public class ProductMapper {
         return Product.builder()
                 .name(productCreateDto.name())
                 .weight(productCreateDto.weight())
-                .price(productCreateDto.price())
+                .price(Money.of(productCreateDto.price()))
                 .img(productCreateDto.img())
                 .stock(productCreateDto.stock())
                 .description(productCreateDto.description())
@@ -56,7 +57,7 @@ public class ProductMapper {
                 .id(product.getId())
                 .name(productUpdateDto.name() != null ? productUpdateDto.name() : product.getName())
                 .weight(productUpdateDto.weight() != null ? productUpdateDto.weight() : product.getWeight())
-                .price(productUpdateDto.price() != null ? productUpdateDto.price() : product.getPrice())
+                .price(productUpdateDto.price() != null ? Money.of(productUpdateDto.price()) : product.getPrice())
                 .img(productUpdateDto.img() != null ? productUpdateDto.img() : product.getImg())
                 .stock(productUpdateDto.stock() != null ? productUpdateDto.stock() : product.getStock())
                 .description(productUpdateDto.description() != null ? productUpdateDto.description() : product.getDescription())
@@ -78,7 +79,7 @@ public class ProductMapper {
                 product.getId(),
                 product.getName(),
                 product.getWeight(),
-                product.getPrice(),
+                product.getPrice() != null ? product.getPrice().amount() : null,
                 product.getImg(),
                 product.getStock(),
                 product.getDescription(),
@@ -2,6 +2,7 @@ package dev.clownsinformatics.tiendajava.rest.products.models;
 
 import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
 import dev.clownsinformatics.tiendajava.rest.suppliers.models.Supplier;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
@@ -45,10 +46,9 @@ public class Product {
     private Double weight = 0.0;
 
     @NotNull
-    @Min(value = 0, message = "The price must be greater than or equal to 0")
     @Builder.Default
-    @Schema(description = "Product's price", example = "100.0")
-    private Double price = 0.0;
+    @Schema(description = "Product's price", example = "100.0", type = "number")
+    private Money price = Money.ZERO;
 
     @NotBlank
     @Column(nullable = false)
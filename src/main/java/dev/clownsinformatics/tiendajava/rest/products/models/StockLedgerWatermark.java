@@ -0,0 +1,29 @@
+package dev.clownsinformatics.tiendajava.rest.products.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Último segmento del registro del libro de stock cuyos cambios ya están en la base de datos. Se actualiza
+ * en la misma transacción que el stock, así que al reaplicar el registro se saltan los segmentos que ya
+ * se volcaron aunque no se llegaran a borrar.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "STOCK_LEDGER_WATERMARKS")
+public class StockLedgerWatermark {
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private long segment;
+}
@@ -1,15 +1,54 @@
 package dev.clownsinformatics.tiendajava.rest.products.repositories;
 
 import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.utils.jpa.KeysetRepository;
+import dev.clownsinformatics.tiendajava.utils.jpa.KeysetSlice;
+import dev.clownsinformatics.tiendajava.utils.jpa.SliceRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
 
-public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product> {
+public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpecificationExecutor<Product>, SliceRepository<Product>, KeysetRepository<Product> {
+    /**
+     * Listado de productos cargando en la misma consulta su categoría y su proveedor con la categoría de este,
+     * en lugar de una consulta más por cada relación.
+     */
+    @Override
+    @EntityGraph(attributePaths = {"category", "supplier", "supplier.category"})
+    Page<Product> findAll(Specification<Product> spec, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "supplier", "supplier.category"})
+    Slice<Product> findSlice(Specification<Product> spec, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "supplier", "supplier.category"})
+    KeysetSlice<Product> findAfter(Specification<Product> spec, String cursor, int size, String sortBy, Sort.Direction direction);
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "supplier", "supplier.category"})
+    Page<Product> findAll(Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "supplier", "supplier.category"})
+    List<Product> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "supplier", "supplier.category"})
+    List<Product> findAllById(Iterable<UUID> ids);
+
     List<Product> findAllByWeight(Double weight);
 
     List<Product> findAllByName(String name);
@@ -19,4 +58,29 @@ public interface ProductRepository extends JpaRepository<Product, UUID>, JpaSpec
     @Modifying(flushAutomatically = true, clearAutomatically = true)
     @Query("update Product p set p.isDeleted = true where p.id = ?1")
     void deleteById(UUID id);
+
+    /**
+     * Resta stock de un producto solo si hay suficiente, en una única sentencia.
+     * La fila queda bloqueada hasta el final de la transacción que la invoca.
+     *
+     * @param id       Identificador del producto.
+     * @param quantity Cantidad a reservar.
+     * @return Número de filas actualizadas: 1 si se reservó, 0 si no hay stock o no existe el producto.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.stock = p.stock - :quantity where p.id = :id and p.stock >= :quantity")
+    int decrementStock(@Param("id") UUID id, @Param("quantity") int quantity);
+
+    /**
+     * Devuelve stock a un producto en una única sentencia.
+     *
+     * @param id       Identificador del producto.
+     * @param quantity Cantidad a devolver.
+     * @return Número de filas actualizadas.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.stock = p.stock + :quantity where p.id = :id")
+    int incrementStock(@Param("id") UUID id, @Param("quantity") int quantity);
 }
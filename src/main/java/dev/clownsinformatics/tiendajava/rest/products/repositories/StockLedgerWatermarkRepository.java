@@ -0,0 +1,7 @@
+package dev.clownsinformatics.tiendajava.rest.products.repositories;
+
+import dev.clownsinformatics.tiendajava.rest.products.models.StockLedgerWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StockLedgerWatermarkRepository extends JpaRepository<StockLedgerWatermark, String> {
+}
@@ -0,0 +1,372 @@
+package dev.clownsinformatics.tiendajava.rest.products.services;
+
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.rest.products.repositories.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria de los productos, para H2 y desarrollo.
+ * <p>
+ * Cada producto ocupa una posición del índice y cada término guarda, ordenadas, las posiciones de los productos
+ * que lo contienen con un peso: tres por aparición en el nombre y uno por aparición en la descripción. La
+ * relevancia es la suma, por término, del peso por la rareza del término. Al actualizar un producto su posición
+ * anterior se marca como libre y se añade al final; cuando las posiciones libres superan a las ocupadas el
+ * índice se compacta.
+ * <p>
+ * El índice se carga de la base de datos al arrancar la aplicación y después se mantiene con
+ * {@link #index(Product)} y {@link #remove(UUID)}.
+ *
+ * @version 1.0
+ * @since 2023-11-28
+ */
+@Component
+@ConditionalOnProperty(name = "products.search.engine", havingValue = "memory", matchIfMissing = true)
+@Slf4j
+public class InMemoryProductSearchEngine implements ProductSearchEngine {
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final int MIN_COMPACTION = 1024;
+
+    private final ProductRepository productRepository;
+    private final int loadBatchSize;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<UUID, Integer> slots = new HashMap<>();
+    private final List<UUID> ids = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private int liveCount;
+    private volatile boolean loaded;
+
+    public InMemoryProductSearchEngine(ProductRepository productRepository,
+                                       @Value("${products.search.load-batch-size:1000}") int loadBatchSize) {
+        this.productRepository = productRepository;
+        this.loadBatchSize = Math.max(1, loadBatchSize);
+    }
+
+    /**
+     * Carga en el índice todos los productos no borrados de la base de datos, sustituyendo lo que hubiera.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            loadLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<UUID> search(String query, Pageable pageable) {
+        if (!loaded) {
+            lock.writeLock().lock();
+            try {
+                if (!loaded) {
+                    loadLocked();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        List<String> terms = ProductSearchTerms.of(query);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        lock.readLock().lock();
+        try {
+            Matches matches = null;
+            for (int i = 0; i < terms.size() && (matches == null || matches.size > 0); i++) {
+                Matches term = i == terms.size() - 1 ? matchPrefix(terms.get(i)) : matchExact(terms.get(i));
+                matches = matches == null ? term : matches.intersect(term);
+            }
+            return top(matches, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void loadLocked() {
+        clear();
+        long start = System.currentTimeMillis();
+        Pageable pageable = PageRequest.of(0, loadBatchSize, Sort.by("id"));
+        Page<Product> page;
+        do {
+            page = productRepository.findAll(pageable);
+            page.forEach(this::add);
+            pageable = page.nextPageable();
+        } while (page.hasNext());
+        loaded = true;
+        log.info("Indexed {} products for search in {} ms", liveCount, System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public void index(Product product) {
+        lock.writeLock().lock();
+        try {
+            release(product.getId());
+            add(product);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            release(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Número de productos en el índice.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void clear() {
+        slots.clear();
+        ids.clear();
+        live.clear();
+        postings.clear();
+        liveCount = 0;
+    }
+
+    private void add(Product product) {
+        if (product.getId() == null || Boolean.TRUE.equals(product.getIsDeleted())) {
+            return;
+        }
+        Map<String, Integer> weights = new HashMap<>();
+        ProductSearchTerms.of(product.getName()).forEach(term -> weights.merge(term, NAME_WEIGHT, Integer::sum));
+        ProductSearchTerms.of(product.getDescription()).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Integer::sum));
+
+        int slot = ids.size();
+        ids.add(product.getId());
+        slots.put(product.getId(), slot);
+        live.set(slot);
+        liveCount++;
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, key -> new Postings()).add(slot, weight));
+    }
+
+    private void release(UUID id) {
+        Integer slot = slots.remove(id);
+        if (slot != null) {
+            live.clear(slot);
+            ids.set(slot, null);
+            liveCount--;
+        }
+    }
+
+    /**
+     * Quita de las listas de términos las posiciones libres y renumera las ocupadas, manteniendo el orden.
+     */
+    private void compactIfNeeded() {
+        int dead = ids.size() - liveCount;
+        if (dead < MIN_COMPACTION || dead <= liveCount) {
+            return;
+        }
+        int[] remap = new int[ids.size()];
+        List<UUID> compacted = new ArrayList<>(liveCount);
+        for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+            remap[slot] = compacted.size();
+            slots.put(ids.get(slot), compacted.size());
+            compacted.add(ids.get(slot));
+        }
+        postings.values().removeIf(list -> list.compact(live, remap) == 0);
+        ids.clear();
+        ids.addAll(compacted);
+        live.clear();
+        live.set(0, compacted.size());
+        log.info("Compacted product search index, released {} slots", dead);
+    }
+
+    private Matches matchExact(String term) {
+        Postings list = postings.get(term);
+        return list != null ? list.matches(idf(list.size)) : Matches.EMPTY;
+    }
+
+    /**
+     * Une las listas de todos los términos que empiezan por el prefijo; si un producto tiene varios se queda
+     * con el de mayor puntuación.
+     */
+    private Matches matchPrefix(String prefix) {
+        Collection<Postings> lists = postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values();
+        if (lists.isEmpty()) {
+            return Matches.EMPTY;
+        }
+        if (lists.size() == 1) {
+            Postings list = lists.iterator().next();
+            return list.matches(idf(list.size));
+        }
+        long[] packed = new long[lists.stream().mapToInt(list -> list.size).sum()];
+        float[] scores = new float[packed.length];
+        int n = 0;
+        for (Postings list : lists) {
+            float idf = idf(list.size);
+            for (int i = 0; i < list.size; i++) {
+                packed[n] = ((long) list.docs[i] << 32) | n;
+                scores[n++] = list.weights[i] * idf;
+            }
+        }
+        Arrays.sort(packed);
+        Matches union = new Matches(new int[packed.length], new float[packed.length], 0);
+        for (long entry : packed) {
+            int doc = (int) (entry >>> 32);
+            float score = scores[(int) entry];
+            if (union.size > 0 && union.docs[union.size - 1] == doc) {
+                union.scores[union.size - 1] = Math.max(union.scores[union.size - 1], score);
+            } else {
+                union.docs[union.size] = doc;
+                union.scores[union.size++] = score;
+            }
+        }
+        return union;
+    }
+
+    private float idf(int documentFrequency) {
+        return (float) Math.log(1 + (double) Math.max(1, liveCount) / Math.max(1, documentFrequency));
+    }
+
+    /**
+     * Selecciona la página pedida de los resultados más relevantes sin ordenar todos los resultados.
+     */
+    private Page<UUID> top(Matches matches, Pageable pageable) {
+        int total = 0;
+        long wanted = pageable.getOffset() + pageable.getPageSize();
+        PriorityQueue<int[]> heap = new PriorityQueue<>((a, b) -> compare(matches, a[0], b[0]));
+        for (int i = 0; i < matches.size; i++) {
+            if (!live.get(matches.docs[i])) {
+                continue;
+            }
+            total++;
+            if (heap.size() < wanted) {
+                heap.add(new int[]{i});
+            } else if (compare(matches, i, heap.peek()[0]) > 0) {
+                heap.poll();
+                heap.add(new int[]{i});
+            }
+        }
+        List<UUID> best = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            best.add(ids.get(matches.docs[heap.poll()[0]]));
+        }
+        Collections.reverse(best);
+        int from = (int) Math.min(pageable.getOffset(), best.size());
+        return new PageImpl<>(new ArrayList<>(best.subList(from, best.size())), pageable, total);
+    }
+
+    /**
+     * Más relevante primero; a igual relevancia, el que se indexó antes.
+     */
+    private static int compare(Matches matches, int a, int b) {
+        int byScore = Float.compare(matches.scores[a], matches.scores[b]);
+        return byScore != 0 ? byScore : Integer.compare(matches.docs[b], matches.docs[a]);
+    }
+
+    /**
+     * Posiciones de los productos que contienen un término, en orden creciente, con el peso del término en cada uno.
+     */
+    private static final class Postings {
+        private int[] docs = new int[2];
+        private byte[] weights = new byte[2];
+        private int size;
+
+        void add(int doc, int weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size++] = (byte) Math.min(weight, Byte.MAX_VALUE);
+        }
+
+        int compact(BitSet live, int[] remap) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (live.get(docs[i])) {
+                    docs[kept] = remap[docs[i]];
+                    weights[kept++] = weights[i];
+                }
+            }
+            size = kept;
+            return size;
+        }
+
+        Matches matches(float idf) {
+            float[] scores = new float[size];
+            for (int i = 0; i < size; i++) {
+                scores[i] = weights[i] * idf;
+            }
+            return new Matches(docs, scores, size);
+        }
+    }
+
+    /**
+     * Resultados parciales de una búsqueda: posiciones en orden creciente y su puntuación acumulada.
+     */
+    private static final class Matches {
+        static final Matches EMPTY = new Matches(new int[0], new float[0], 0);
+
+        private final int[] docs;
+        private final float[] scores;
+        private int size;
+
+        Matches(int[] docs, float[] scores, int size) {
+            this.docs = docs;
+            this.scores = scores;
+            this.size = size;
+        }
+
+        Matches intersect(Matches other) {
+            Matches result = new Matches(new int[Math.min(size, other.size)], new float[Math.min(size, other.size)], 0);
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.size) {
+                if (docs[i] < other.docs[j]) {
+                    i++;
+                } else if (docs[i] > other.docs[j]) {
+                    j++;
+                } else {
+                    result.docs[result.size] = docs[i];
+                    result.scores[result.size++] = scores[i++] + other.scores[j++];
+                }
+            }
+            return result;
+        }
+    }
+}
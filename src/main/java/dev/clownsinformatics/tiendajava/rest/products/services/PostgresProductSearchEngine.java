@@ -0,0 +1,123 @@
+package dev.clownsinformatics.tiendajava.rest.products.services;
+
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Búsqueda de productos con el texto completo de Postgres.
+ * <p>
+ * Al arrancar añade a la tabla de productos, si no existen, una columna {@code tsvector} calculada a partir del
+ * nombre (peso A) y la descripción (peso B) y un índice GIN sobre ella. Postgres mantiene la columna al insertar
+ * y actualizar filas, así que {@link #index(Product)} y {@link #remove(UUID)} no tienen nada que hacer.
+ * Los resultados se ordenan con {@code ts_rank}.
+ * <p>
+ * Como el índice en memoria, no distingue tildes: la columna y la consulta pasan por la extensión {@code unaccent}
+ * a través de {@value #UNACCENT}, una función inmutable para poder usarla en la columna calculada.
+ *
+ * @version 1.0
+ * @since 2023-11-28
+ */
+@Component
+@ConditionalOnProperty(name = "products.search.engine", havingValue = "postgres")
+@DependsOn("entityManagerFactory")
+@Slf4j
+public class PostgresProductSearchEngine implements ProductSearchEngine {
+    private static final Pattern CONFIG = Pattern.compile("[a-z_]+");
+    static final String UNACCENT = "products_unaccent";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final String config;
+
+    public PostgresProductSearchEngine(JdbcTemplate jdbcTemplate,
+                                       NamedParameterJdbcTemplate namedJdbcTemplate,
+                                       @Value("${products.search.postgres-config:spanish}") String config) {
+        if (!CONFIG.matcher(config).matches()) {
+            throw new IllegalArgumentException("Invalid text search configuration: " + config);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.config = config;
+    }
+
+    /**
+     * Crea la columna de búsqueda y su índice si todavía no existen, después de que Hibernate cree la tabla.
+     * Si la columna existe pero se calculó sin {@value #UNACCENT} o con otra configuración, se vuelve a crear.
+     */
+    @PostConstruct
+    public void createIndex() {
+        jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS unaccent");
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION " + UNACCENT + "(text) RETURNS text"
+                + " LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT"
+                + " AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $$");
+        List<String> expressions = jdbcTemplate.queryForList("SELECT generation_expression FROM information_schema.columns"
+                + " WHERE table_name = 'products' AND column_name = 'search_vector'", String.class);
+        if (expressions.stream().anyMatch(expression -> expression == null
+                || !expression.contains(UNACCENT) || !expression.contains("'" + config + "'"))) {
+            jdbcTemplate.execute("ALTER TABLE products DROP COLUMN search_vector");
+            log.info("Dropped the outdated product search column");
+        }
+        jdbcTemplate.execute("ALTER TABLE products ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS ("
+                + "setweight(to_tsvector('" + config + "', " + UNACCENT + "(coalesce(name, ''))), 'A') || "
+                + "setweight(to_tsvector('" + config + "', " + UNACCENT + "(coalesce(description, ''))), 'B')) STORED");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS products_search_vector_idx ON products USING GIN (search_vector)");
+        log.info("Product search uses the Postgres full text index with the '{}' configuration", config);
+    }
+
+    @Override
+    public Page<UUID> search(String query, Pageable pageable) {
+        String tsQuery = toTsQuery(query);
+        if (tsQuery.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        var params = new MapSqlParameterSource()
+                .addValue("query", tsQuery)
+                .addValue("limit", pageable.getPageSize())
+                .addValue("offset", pageable.getOffset());
+        String from = " FROM products, to_tsquery('" + config + "', " + UNACCENT + "(:query)) query"
+                + " WHERE search_vector @@ query AND is_deleted = false";
+        List<UUID> ids = namedJdbcTemplate.queryForList(
+                "SELECT id" + from + " ORDER BY ts_rank(search_vector, query) DESC, id LIMIT :limit OFFSET :offset",
+                params, UUID.class);
+        Long total = namedJdbcTemplate.queryForObject("SELECT count(*)" + from, params, Long.class);
+        return new PageImpl<>(ids, pageable, total != null ? total : 0);
+    }
+
+    @Override
+    public void index(Product product) {
+        // La columna search_vector la calcula Postgres.
+    }
+
+    @Override
+    public void remove(UUID id) {
+        // Los productos borrados se filtran en la consulta.
+    }
+
+    /**
+     * Convierte el texto de la búsqueda en una consulta que exige todos los términos, con el último como prefijo.
+     * Solo se conservan letras y números, así que el texto no puede inyectar operadores de {@code tsquery}, y se
+     * quitan las tildes igual que en la columna.
+     */
+    static String toTsQuery(String query) {
+        List<String> terms = ProductSearchTerms.of(query);
+        if (terms.isEmpty()) {
+            return "";
+        }
+        return String.join(" & ", terms) + ":*";
+    }
+}
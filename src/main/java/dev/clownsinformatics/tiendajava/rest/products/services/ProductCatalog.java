@@ -0,0 +1,532 @@
+package dev.clownsinformatics.tiendajava.rest.products.services;
+
+import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.rest.products.repositories.ProductRepository;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Copia en memoria, por columnas, de los campos con los que se filtra y ordena el listado de productos.
+ * <p>
+ * Cada producto ocupa una posición y cada campo se guarda en un array primitivo (precio en céntimos y peso),
+ * las categorías como un código de diccionario y el borrado lógico como un {@link BitSet}. Los filtros
+ * se evalúan columna a columna sobre el conjunto de candidatos y la ordenación y la paginación se hacen en
+ * memoria, de modo que el listado no necesita ni la consulta con los filtros ni la de recuento.
+ * <p>
+ * Con {@code products.catalog.enabled=true} se carga al arrancar, la mantienen los servicios de productos y
+ * categorías y se reconstruye cada {@code products.catalog.refresh-interval-ms} para recoger los cambios hechos
+ * desde otras instancias. El stock no se copia: lo cambian los pedidos y el libro de stock en cada reserva, así
+ * que los filtros por stock mínimo y la ordenación por stock se resuelven siempre en la base de datos. Tampoco
+ * se resuelven aquí las consultas que no puede responder igual que la base de datos (patrones con comodines,
+ * ordenación por texto o por columnas con nulos). En todos esos casos devuelve {@link Optional#empty()} y se usa
+ * la consulta de siempre.
+ *
+ * @version 1.0
+ * @since 2023-11-28
+ */
+@Component
+@Slf4j
+public class ProductCatalog {
+    private static final Set<String> SORTABLE = Set.of("id", "price", "weight");
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final int loadBatchSize;
+    private final long refreshIntervalMs;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Columns columns;
+    private List<Object> replay;
+    private ScheduledExecutorService refresher;
+
+    public ProductCatalog(ProductRepository productRepository,
+                          @Value("${products.catalog.enabled:false}") boolean enabled,
+                          @Value("${products.catalog.load-batch-size:1000}") int loadBatchSize,
+                          @Value("${products.catalog.refresh-interval-ms:60000}") long refreshIntervalMs) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.loadBatchSize = Math.max(1, loadBatchSize);
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    /**
+     * Arranca la reconstrucción periódica si la copia está activa.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled || refreshIntervalMs <= 0) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-catalog-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Carga la copia desde la base de datos al arrancar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    /**
+     * Reconstruye la copia desde la base de datos. Los cambios que llegan mientras se lee se vuelven a aplicar
+     * sobre la copia nueva antes de sustituir a la anterior.
+     */
+    public synchronized void refresh() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Columns fresh = new Columns();
+        try {
+            Pageable pageable = PageRequest.of(0, loadBatchSize, Sort.by("id"));
+            Page<Product> page;
+            do {
+                page = productRepository.findAll(pageable);
+                page.forEach(fresh::put);
+                pageable = page.nextPageable();
+            } while (page.hasNext());
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                replay = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Object change : replay) {
+                apply(fresh, change);
+            }
+            replay = null;
+            columns = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded product catalog with {} products in {} ms", fresh.size, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Añade o actualiza un producto guardado.
+     *
+     * @param product Producto tal como se ha guardado.
+     */
+    public void index(Product product) {
+        change(product);
+    }
+
+    /**
+     * Actualiza el nombre de una categoría para los productos que la usan.
+     *
+     * @param category Categoría tal como se ha guardado.
+     */
+    public void index(Category category) {
+        change(category);
+    }
+
+    /**
+     * Marca como borrado un producto.
+     *
+     * @param id Identificador del producto.
+     */
+    public void markDeleted(UUID id) {
+        change(id);
+    }
+
+    private void change(Object change) {
+        if (!enabled || change == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (columns != null) {
+                apply(columns, change);
+            }
+            if (replay != null) {
+                replay.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void apply(Columns target, Object change) {
+        if (change instanceof Product product) {
+            target.put(product);
+        } else if (change instanceof Category category) {
+            target.rename(category);
+        } else if (change instanceof UUID id) {
+            target.markDeleted(id);
+        }
+    }
+
+    /**
+     * Filtra, ordena y pagina los productos igual que la consulta de {@link ProductService#findAll}.
+     *
+     * @return Página de identificadores de producto, o {@link Optional#empty()} si la copia no está cargada o la
+     * consulta se debe resolver en la base de datos.
+     */
+    public Optional<Page<UUID>> findAll(Optional<String> name, Optional<Double> maxWeight, Optional<Double> maxPrice, Optional<Double> minStock, Optional<String> category, Optional<Boolean> isDeleted, Pageable pageable) {
+        if (!enabled || pageable.isUnpaged() || !supported(pageable.getSort())
+                || name.filter(ProductCatalog::hasWildcards).isPresent()
+                || category.filter(ProductCatalog::hasWildcards).isPresent()
+                || minStock.isPresent()) {
+            return Optional.empty();
+        }
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            if (current == null || !current.sortable(pageable.getSort())) {
+                return Optional.empty();
+            }
+            if (isDeleted.isEmpty()) {
+                return Optional.of(Page.empty(pageable));
+            }
+            BitSet rows = current.filter(name, maxWeight, maxPrice, category, isDeleted.get());
+            return Optional.of(current.page(rows, pageable));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns != null ? columns.size : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean supported(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!SORTABLE.contains(order.getProperty()) || order.isIgnoreCase()
+                    || order.getNullHandling() != Sort.NullHandling.NATIVE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * En la base de datos {@code %}, {@code _} y {@code \} son comodines o escapes dentro de un {@code LIKE}.
+     */
+    private static boolean hasWildcards(String value) {
+        return value.indexOf('%') >= 0 || value.indexOf('_') >= 0 || value.indexOf('\\') >= 0;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Could not refresh the product catalog: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Columnas de la copia. Las posiciones no se reutilizan: los productos solo se borran de forma lógica.
+     */
+    private static final class Columns {
+        private final Map<UUID, Integer> slots = new HashMap<>();
+        private final Map<UUID, Integer> categoryCodes = new HashMap<>();
+        private final List<String> categoryNames = new ArrayList<>();
+
+        private long[] idHigh = new long[16];
+        private long[] idLow = new long[16];
+        private String[] names = new String[16];
+        private double[] weights = new double[16];
+        private long[] prices = new long[16];
+        private int[] categories = new int[16];
+        private final BitSet nullPrices = new BitSet();
+        private final BitSet deleted = new BitSet();
+        private final BitSet nullDeleted = new BitSet();
+        private int size;
+
+        void put(Product product) {
+            if (product.getId() == null) {
+                return;
+            }
+            Integer slot = slots.get(product.getId());
+            if (slot == null) {
+                slot = size++;
+                grow();
+                slots.put(product.getId(), slot);
+                idHigh[slot] = product.getId().getMostSignificantBits();
+                idLow[slot] = product.getId().getLeastSignificantBits();
+            }
+            names[slot] = product.getName() != null ? product.getName().toLowerCase() : null;
+            weights[slot] = product.getWeight() != null ? product.getWeight() : Double.NaN;
+            nullPrices.set(slot, product.getPrice() == null);
+            prices[slot] = product.getPrice() != null ? product.getPrice().cents() : 0;
+            categories[slot] = code(product.getCategory());
+            nullDeleted.set(slot, product.getIsDeleted() == null);
+            deleted.set(slot, Boolean.TRUE.equals(product.getIsDeleted()));
+        }
+
+        void markDeleted(UUID id) {
+            Integer slot = slots.get(id);
+            if (slot != null) {
+                deleted.set(slot);
+                nullDeleted.clear(slot);
+            }
+        }
+
+        void rename(Category category) {
+            Integer code = categoryCodes.get(category.getUuid());
+            if (code != null && category.getName() != null) {
+                categoryNames.set(code, category.getName().toLowerCase());
+            }
+        }
+
+        private int code(Category category) {
+            if (category == null || category.getUuid() == null) {
+                return -1;
+            }
+            Integer code = categoryCodes.get(category.getUuid());
+            if (code == null) {
+                code = categoryNames.size();
+                categoryCodes.put(category.getUuid(), code);
+                categoryNames.add(null);
+            }
+            if (category.getName() != null) {
+                categoryNames.set(code, category.getName().toLowerCase());
+            }
+            return code;
+        }
+
+        private void grow() {
+            if (size <= idHigh.length) {
+                return;
+            }
+            int capacity = idHigh.length * 2;
+            idHigh = Arrays.copyOf(idHigh, capacity);
+            idLow = Arrays.copyOf(idLow, capacity);
+            names = Arrays.copyOf(names, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+        }
+
+        /**
+         * Las posiciones que cumplen los filtros. Se empieza por el borrado lógico y se descartan candidatos
+         * columna a columna, dejando para el final las comparaciones de texto.
+         */
+        BitSet filter(Optional<String> name, Optional<Double> maxWeight, Optional<Double> maxPrice, Optional<String> category, boolean isDeleted) {
+            BitSet rows;
+            if (isDeleted) {
+                rows = (BitSet) deleted.clone();
+            } else {
+                rows = new BitSet(size);
+                rows.set(0, size);
+                rows.andNot(deleted);
+                rows.andNot(nullDeleted);
+            }
+            if (maxWeight.isPresent()) {
+                double max = maxWeight.get();
+                for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1)) {
+                    if (!(weights[i] <= max)) {
+                        rows.clear(i);
+                    }
+                }
+            }
+            if (maxPrice.isPresent()) {
+                long max = Money.of(maxPrice.get()).cents();
+                rows.andNot(nullPrices);
+                for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1)) {
+                    if (prices[i] > max) {
+                        rows.clear(i);
+                    }
+                }
+            }
+            if (category.isPresent()) {
+                String pattern = category.get().toLowerCase();
+                BitSet codes = new BitSet(categoryNames.size());
+                for (int code = 0; code < categoryNames.size(); code++) {
+                    String categoryName = categoryNames.get(code);
+                    codes.set(code, categoryName != null && categoryName.contains(pattern));
+                }
+                for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1)) {
+                    if (categories[i] < 0 || !codes.get(categories[i])) {
+                        rows.clear(i);
+                    }
+                }
+            }
+            if (name.isPresent()) {
+                String pattern = name.get().toLowerCase();
+                for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1)) {
+                    if (names[i] == null || !names[i].contains(pattern)) {
+                        rows.clear(i);
+                    }
+                }
+            }
+            return rows;
+        }
+
+        /**
+         * Solo se ordena en memoria por columnas sin nulos, porque cada base de datos los coloca en un sitio.
+         */
+        boolean sortable(Sort sort) {
+            for (Sort.Order order : sort) {
+                if (order.getProperty().equals("weight")) {
+                    for (int i = 0; i < size; i++) {
+                        if (Double.isNaN(weights[i])) {
+                            return false;
+                        }
+                    }
+                } else if (order.getProperty().equals("price") && !nullPrices.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Selecciona la página pedida con un montículo del tamaño de las filas hasta el final de la página, sin
+         * ordenar todos los resultados. A igualdad de criterios se ordena por id.
+         */
+        Page<UUID> page(BitSet rows, Pageable pageable) {
+            int total = rows.cardinality();
+            int wanted = (int) Math.min(total, pageable.getOffset() + pageable.getPageSize());
+            if (pageable.getOffset() >= total) {
+                return new PageImpl<>(List.of(), pageable, total);
+            }
+            Sort sort = pageable.getSort();
+            int[] heap = new int[wanted];
+            int count = 0;
+            for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1)) {
+                if (count < wanted) {
+                    heap[count] = i;
+                    siftUp(heap, count++, sort);
+                } else if (compare(i, heap[0], sort) < 0) {
+                    heap[0] = i;
+                    siftDown(heap, count, sort);
+                }
+            }
+            int[] ordered = new int[count];
+            for (int n = count - 1; n >= 0; n--) {
+                ordered[n] = heap[0];
+                heap[0] = heap[n];
+                siftDown(heap, n, sort);
+            }
+            List<UUID> ids = new ArrayList<>(count - (int) pageable.getOffset());
+            for (int n = (int) pageable.getOffset(); n < count; n++) {
+                ids.add(new UUID(idHigh[ordered[n]], idLow[ordered[n]]));
+            }
+            return new PageImpl<>(ids, pageable, total);
+        }
+
+        /**
+         * Montículo con la peor fila de las seleccionadas en la raíz.
+         */
+        private void siftUp(int[] heap, int index, Sort sort) {
+            while (index > 0) {
+                int parent = (index - 1) / 2;
+                if (compare(heap[index], heap[parent], sort) <= 0) {
+                    return;
+                }
+                swap(heap, index, parent);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int count, Sort sort) {
+            int index = 0;
+            while (true) {
+                int worst = index;
+                int left = 2 * index + 1;
+                int right = left + 1;
+                if (left < count && compare(heap[left], heap[worst], sort) > 0) {
+                    worst = left;
+                }
+                if (right < count && compare(heap[right], heap[worst], sort) > 0) {
+                    worst = right;
+                }
+                if (worst == index) {
+                    return;
+                }
+                swap(heap, index, worst);
+                index = worst;
+            }
+        }
+
+        private static void swap(int[] heap, int a, int b) {
+            int value = heap[a];
+            heap[a] = heap[b];
+            heap[b] = value;
+        }
+
+        /**
+         * Negativo si la fila {@code a} va antes que la {@code b}.
+         */
+        private int compare(int a, int b, Sort sort) {
+            for (Sort.Order order : sort) {
+                int result = switch (order.getProperty()) {
+                    case "price" -> Long.compare(prices[a], prices[b]);
+                    case "weight" -> Double.compare(weights[a], weights[b]);
+                    default -> compareIds(a, b);
+                };
+                if (result != 0) {
+                    return order.isAscending() ? result : -result;
+                }
+            }
+            return compareIds(a, b);
+        }
+
+        /**
+         * Los UUID se comparan como números sin signo, igual que en H2 y Postgres.
+         */
+        private int compareIds(int a, int b) {
+            int result = Long.compareUnsigned(idHigh[a], idHigh[b]);
+            return result != 0 ? result : Long.compareUnsigned(idLow[a], idLow[b]);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package dev.clownsinformatics.tiendajava.rest.products.services;
+
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.UUID;
+
+/**
+ * Búsqueda de texto completo sobre el nombre y la descripción de los productos, ordenada por relevancia.
+ * <p>
+ * Con {@code products.search.engine=postgres} la búsqueda la resuelve Postgres con un índice GIN; en cualquier
+ * otro caso se usa un índice invertido en memoria. Los productos borrados no aparecen en los resultados.
+ */
+public interface ProductSearchEngine {
+    /**
+     * Busca los productos que contienen todos los términos de la consulta. El último término se busca también
+     * como prefijo, para poder buscar mientras se escribe.
+     *
+     * @param query    Texto a buscar.
+     * @param pageable Página a devolver; la ordenación se ignora porque los resultados se ordenan por relevancia.
+     * @return Página de identificadores de producto, del más relevante al menos relevante.
+     */
+    Page<UUID> search(String query, Pageable pageable);
+
+    /**
+     * Añade o actualiza un producto en el índice. Si el producto está borrado se quita del índice.
+     *
+     * @param product Producto guardado.
+     */
+    void index(Product product);
+
+    /**
+     * Quita un producto del índice.
+     *
+     * @param id Identificador del producto.
+     */
+    void remove(UUID id);
+}
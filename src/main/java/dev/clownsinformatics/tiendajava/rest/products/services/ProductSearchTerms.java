@@ -0,0 +1,40 @@
+package dev.clownsinformatics.tiendajava.rest.products.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Divide textos en los términos que usan los motores de búsqueda de productos.
+ */
+final class ProductSearchTerms {
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private ProductSearchTerms() {
+    }
+
+    /**
+     * Términos de un texto en minúsculas y sin tildes ni diéresis, para que "portátil" y "portatil" coincidan,
+     * en el orden en que aparecen.
+     *
+     * @param text Texto a dividir, puede ser {@code null}.
+     * @return Términos del texto.
+     */
+    static List<String> of(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD))
+                .replaceAll("");
+        for (String term : SEPARATOR.split(normalized)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
@@ -3,8 +3,10 @@ package dev.clownsinformatics.tiendajava.rest.products.services;
 import dev.clownsinformatics.tiendajava.rest.products.dto.ProductCreateDto;
 import dev.clownsinformatics.tiendajava.rest.products.dto.ProductResponseDto;
 import dev.clownsinformatics.tiendajava.rest.products.dto.ProductUpdateDto;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.Optional;
@@ -16,6 +18,14 @@ public interface ProductService {
 
     Page<ProductResponseDto> findAll(Optional<String> name, Optional<Double> maxWeight, Optional<Double> maxPrice, Optional<Double> minStock, Optional<String> category, Optional<Boolean> isDeleted, Pageable pageable);
 
+    Slice<ProductResponseDto> findAllSlice(Optional<String> name, Optional<Double> maxWeight, Optional<Double> maxPrice, Optional<Double> minStock, Optional<String> category, Optional<Boolean> isDeleted, Pageable pageable);
+
+    long count(Optional<String> name, Optional<Double> maxWeight, Optional<Double> maxPrice, Optional<Double> minStock, Optional<String> category, Optional<Boolean> isDeleted);
+
+    CursorPageResponse<ProductResponseDto> findAllByCursor(Optional<String> name, Optional<Double> maxWeight, Optional<Double> maxPrice, Optional<Double> minStock, Optional<String> category, Optional<Boolean> isDeleted, String cursor, int size, String sortBy, String direction);
+
+    Page<ProductResponseDto> search(String query, Pageable pageable);
+
     ProductResponseDto findById(String id);
 
     ProductResponseDto save(ProductCreateDto productCreateDto);
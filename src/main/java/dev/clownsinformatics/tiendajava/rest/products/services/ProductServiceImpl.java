@@ -15,13 +15,20 @@ import dev.clownsinformatics.tiendajava.rest.products.mapper.ProductMapper;
 import dev.clownsinformatics.tiendajava.rest.products.models.Product;
 import dev.clownsinformatics.tiendajava.rest.products.repositories.ProductRepository;
 import dev.clownsinformatics.tiendajava.rest.storage.services.StorageService;
+import dev.clownsinformatics.tiendajava.rest.suggestions.models.SuggestionType;
+import dev.clownsinformatics.tiendajava.rest.suggestions.services.SuggestionService;
 import dev.clownsinformatics.tiendajava.rest.suppliers.mapper.SupplierMapper;
 import dev.clownsinformatics.tiendajava.rest.suppliers.models.Supplier;
 import dev.clownsinformatics.tiendajava.rest.suppliers.services.SupplierService;
+import dev.clownsinformatics.tiendajava.utils.cache.CacheInvalidationBus;
+import dev.clownsinformatics.tiendajava.utils.jpa.FilterSpecification;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorBadRequest;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
+import dev.clownsinformatics.tiendajava.utils.transaction.AfterCommit;
 import dev.clownsinformatics.tiendajava.websockets.notifications.dto.ProductsNotificationDto;
 import dev.clownsinformatics.tiendajava.websockets.notifications.mapper.ProductNotificationMapper;
 import dev.clownsinformatics.tiendajava.websockets.notifications.models.Notification;
-import jakarta.persistence.criteria.Join;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,14 +37,22 @@ import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Implementación de la interfaz {@link ProductService} que gestiona las operaciones relacionadas con los productos.
@@ -59,10 +74,15 @@ public class ProductServiceImpl implements ProductService {
     private final WebSocketConfig webSocketConfig;
     private final ObjectMapper mapper;
     private final ProductNotificationMapper productNotificationMapper;
+    private final StockLedger stockLedger;
+    private final ProductSearchEngine productSearchEngine;
+    private final SuggestionService suggestionService;
+    private final ProductCatalog productCatalog;
+    private final CacheInvalidationBus cacheInvalidationBus;
     private WebSocketHandler webSocketHandler;
 
     @Autowired
-    public ProductServiceImpl(ProductRepository productRepository, CategoryService categoryService, ProductMapper productMapper, StorageService storageService, WebSocketConfig webSocketConfig, ObjectMapper mapper, ProductNotificationMapper productNotificationMapper, SupplierService supplierService, SupplierMapper supplierMapper) {
+    public ProductServiceImpl(ProductRepository productRepository, CategoryService categoryService, ProductMapper productMapper, StorageService storageService, WebSocketConfig webSocketConfig, ObjectMapper mapper, ProductNotificationMapper productNotificationMapper, SupplierService supplierService, SupplierMapper supplierMapper, StockLedger stockLedger, ProductSearchEngine productSearchEngine, SuggestionService suggestionService, ProductCatalog productCatalog, CacheInvalidationBus cacheInvalidationBus) {
         this.productRepository = productRepository;
         this.categoryService = categoryService;
         this.productMapper = productMapper;
@@ -72,6 +92,11 @@ public class ProductServiceImpl implements ProductService {
         this.productNotificationMapper = productNotificationMapper;
         this.supplierService = supplierService;
         this.supplierMapper = supplierMapper;
+        this.stockLedger = stockLedger;
+        this.productSearchEngine = productSearchEngine;
+        this.suggestionService = suggestionService;
+        this.productCatalog = productCatalog;
+        this.cacheInvalidationBus = cacheInvalidationBus;
         webSocketHandler = webSocketConfig.webSocketProductHandler();
     }
 
@@ -105,34 +130,107 @@ public class ProductServiceImpl implements ProductService {
      */
     @Override
     public Page<ProductResponseDto> findAll(Optional<String> name, Optional<Double> maxWeight, Optional<Double> maxPrice, Optional<Double> minStock, Optional<String> category, Optional<Boolean> isDeleted, Pageable pageable) {
-        Specification<Product> specName = (root, query, criteriaBuilder) ->
-                name.map(value -> criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + value.toLowerCase() + "%"))
-                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+        Optional<Page<UUID>> ids = productCatalog.findAll(name, maxWeight, maxPrice, minStock, category, isDeleted, pageable);
+        if (ids.isPresent()) {
+            return findAllInOrder(ids.get(), pageable);
+        }
+        return productRepository.findAll(specification(name, maxWeight, maxPrice, minStock, category, isDeleted), pageable).map(productMapper::toProductResponseDto);
+    }
 
-        Specification<Product> specMaxWeight = (root, query, criteriaBuilder) ->
-                maxWeight.map(value -> criteriaBuilder.lessThanOrEqualTo(root.get("weight"), value))
-                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+    /**
+     * Obtiene los productos de una página sin contar el total. Como {@link #findAll}, usa el catálogo en memoria
+     * si puede responder a la consulta.
+     *
+     * @param name      Opcional. Nombre del producto para filtrar.
+     * @param maxWeight Opcional. Peso máximo del producto para filtrar.
+     * @param maxPrice  Opcional. Precio máximo del producto para filtrar.
+     * @param minStock  Opcional. Cantidad mínima de stock para filtrar.
+     * @param category  Opcional. Nombre de la categoría del producto para filtrar.
+     * @param isDeleted Opcional. Indica si el producto está marcado como eliminado.
+     * @param pageable  Información de paginación.
+     * @return Trozo con los productos de la página.
+     */
+    @Override
+    public Slice<ProductResponseDto> findAllSlice(Optional<String> name, Optional<Double> maxWeight, Optional<Double> maxPrice, Optional<Double> minStock, Optional<String> category, Optional<Boolean> isDeleted, Pageable pageable) {
+        Optional<Page<UUID>> ids = productCatalog.findAll(name, maxWeight, maxPrice, minStock, category, isDeleted, pageable);
+        if (ids.isPresent()) {
+            return findAllInOrder(ids.get(), pageable);
+        }
+        return productRepository.findSlice(specification(name, maxWeight, maxPrice, minStock, category, isDeleted), pageable).map(productMapper::toProductResponseDto);
+    }
 
-        Specification<Product> specMaxPrice = (root, query, criteriaBuilder) ->
-                maxPrice.map(value -> criteriaBuilder.lessThanOrEqualTo(root.get("price"), value))
-                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+    /**
+     * Cuenta los productos que cumplen los filtros.
+     *
+     * @return Número de productos.
+     */
+    @Override
+    public long count(Optional<String> name, Optional<Double> maxWeight, Optional<Double> maxPrice, Optional<Double> minStock, Optional<String> category, Optional<Boolean> isDeleted) {
+        return productRepository.count(specification(name, maxWeight, maxPrice, minStock, category, isDeleted));
+    }
 
-        Specification<Product> spectMinStock = (root, query, criteriaBuilder) ->
-                minStock.map(value -> criteriaBuilder.greaterThanOrEqualTo(root.get("stock"), value))
-                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+    /**
+     * Obtiene los productos paginados por cursor: cada página continúa a partir del último producto de la anterior,
+     * así que su coste no depende de lo lejos que esté del principio. No usa el catálogo en memoria.
+     *
+     * @param name      Opcional. Nombre del producto para filtrar.
+     * @param maxWeight Opcional. Peso máximo del producto para filtrar.
+     * @param maxPrice  Opcional. Precio máximo del producto para filtrar.
+     * @param minStock  Opcional. Cantidad mínima de stock para filtrar.
+     * @param category  Opcional. Nombre de la categoría del producto para filtrar.
+     * @param isDeleted Opcional. Indica si el producto está marcado como eliminado.
+     * @param cursor    Cursor de la página anterior, o {@code null} para la primera.
+     * @param size      Número de productos por página.
+     * @param sortBy    Campo de ordenación.
+     * @param direction Dirección de ordenación (ASC o DESC).
+     * @return Página de productos con el cursor de la siguiente.
+     * @throws CursorBadRequest Si el cursor, el tamaño o la ordenación no son válidos.
+     */
+    @Override
+    public CursorPageResponse<ProductResponseDto> findAllByCursor(Optional<String> name, Optional<Double> maxWeight, Optional<Double> maxPrice, Optional<Double> minStock, Optional<String> category, Optional<Boolean> isDeleted, String cursor, int size, String sortBy, String direction) {
+        Sort.Direction sortDirection = direction.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return productRepository.findAfter(specification(name, maxWeight, maxPrice, minStock, category, isDeleted), cursor, size, sortBy, sortDirection)
+                .toResponse(productMapper::toProductResponseDto, sortBy, direction);
+    }
 
-        Specification<Product> specCategory = (root, query, criteriaBuilder) ->
-                category.map(value -> {
-                    Join<Product, Category> categoryJoin = root.join("category");
-                    return criteriaBuilder.like(criteriaBuilder.lower(categoryJoin.get("name")), "%" + value.toLowerCase() + "%");
-                }).orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+    /**
+     * Consulta con los filtros del listado de productos; {@link ProductCatalog} debe devolver lo mismo.
+     */
+    static Specification<Product> specification(Optional<String> name, Optional<Double> maxWeight, Optional<Double> maxPrice, Optional<Double> minStock, Optional<String> category, Optional<Boolean> isDeleted) {
+        return FilterSpecification.<Product>builder()
+                .contains("name", name)
+                .atMost("weight", maxWeight)
+                .atMost("price", maxPrice.map(Money::of))
+                .atLeast("stock", minStock.map(value -> (int) Math.ceil(value)))
+                .joinedContains("category", "name", category)
+                .equalOrNone("isDeleted", isDeleted);
+    }
 
-        Specification<Product> specIsDeleted = (root, query, criteriaBuilder) ->
-                isDeleted.map(value -> criteriaBuilder.equal(root.get("isDeleted"), value))
-                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(false)));
+    /**
+     * Busca productos por texto en su nombre y descripción, del más relevante al menos relevante.
+     *
+     * @param query    Texto a buscar.
+     * @param pageable Información de paginación; la ordenación se ignora.
+     * @return Página de objetos {@link ProductResponseDto} que coinciden con la búsqueda.
+     */
+    @Override
+    public Page<ProductResponseDto> search(String query, Pageable pageable) {
+        log.info("Searching products by text: {}", query);
+        return findAllInOrder(productSearchEngine.search(query, pageable), pageable);
+    }
 
-        Specification<Product> spec = Specification.where(specName).and(specMaxWeight).and(specMaxPrice).and(spectMinStock).and(specCategory).and(specIsDeleted);
-        return productRepository.findAll(spec, pageable).map(productMapper::toProductResponseDto);
+    /**
+     * Carga los productos de una página de identificadores manteniendo su orden.
+     */
+    private Page<ProductResponseDto> findAllInOrder(Page<UUID> ids, Pageable pageable) {
+        Map<UUID, Product> products = productRepository.findAllById(ids.getContent()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductResponseDto> content = ids.getContent().stream()
+                .map(products::get)
+                .filter(Objects::nonNull)
+                .map(productMapper::toProductResponseDto)
+                .toList();
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
     }
 
     /**
@@ -157,13 +255,18 @@ public class ProductServiceImpl implements ProductService {
      * @return Objeto {@link ProductResponseDto} del producto recién creado.
      */
     @Override
-    @Cacheable
+    @CachePut(key = "#result.id.toString()")
     public ProductResponseDto save(ProductCreateDto productCreateDto) {
         log.info("Saving product: " + productCreateDto);
         log.info("Category: " + productCreateDto.category());
         Category category = categoryService.findByName(productCreateDto.category().getName());
         Supplier supplier = supplierMapper.toSupplier(supplierService.findByName(productCreateDto.supplier().getName()));
         Product productSaved = productRepository.save(productMapper.toProduct(productCreateDto, category, supplier));
+        AfterCommit.run(() -> {
+            productSearchEngine.index(productSaved);
+            suggestionService.index(productSaved);
+            productCatalog.index(productSaved);
+        });
         onChange(Notification.Tipo.CREATE, productSaved);
         return productMapper.toProductResponseDto(productSaved);
     }
@@ -177,7 +280,7 @@ public class ProductServiceImpl implements ProductService {
      * @throws ProductNotFound Si no se encuentra el producto con el identificador especificado.
      */
     @Override
-    @Cacheable
+    @CachePut(key = "#id")
     @Transactional
     public ProductResponseDto update(String id, ProductUpdateDto productUpdateDto) {
         log.info("Updating product with id: " + id);
@@ -191,7 +294,14 @@ public class ProductServiceImpl implements ProductService {
         }
         Supplier supplier = supplierMapper.toSupplier(supplierService.findByName(productUpdateDto.supplier().getName()));
         Product productUpdated = productRepository.save(productMapper.toProduct(productUpdateDto, actualProduct, category, supplier));
+        stockLedger.invalidate(productUpdated.getId());
+        AfterCommit.run(() -> {
+            productSearchEngine.index(productUpdated);
+            suggestionService.index(productUpdated);
+            productCatalog.index(productUpdated);
+        });
         onChange(Notification.Tipo.UPDATE, productUpdated);
+        cacheInvalidationBus.invalidate("products", id);
         return productMapper.toProductResponseDto(productUpdated);
     }
 
@@ -217,6 +327,7 @@ public class ProductServiceImpl implements ProductService {
             product.setImg(urlImage);
             onChange(Notification.Tipo.UPDATE, product);
             Product productSaved = productRepository.save(product);
+            cacheInvalidationBus.invalidate("products", id);
             return productMapper.toProductResponseDto(productSaved);
         } else {
             throw new ProductBadRequest("Image is empty");
@@ -236,10 +347,16 @@ public class ProductServiceImpl implements ProductService {
         log.info("Deleting product with id: " + id);
         var product = productRepository.findById(getUUID(id)).orElseThrow(() -> new ProductNotFound(id));
         productRepository.deleteById(getUUID(id));
+        AfterCommit.run(() -> {
+            productSearchEngine.remove(product.getId());
+            suggestionService.remove(SuggestionType.PRODUCT, product.getId());
+            productCatalog.markDeleted(product.getId());
+        });
         if (product.getImg() != null && !product.getImg().equals(Product.IMAGE_DEFAULT)) {
             storageService.delete(product.getImg());
         }
         onChange(Notification.Tipo.DELETE, product);
+        cacheInvalidationBus.invalidate("products", id);
     }
 
     /**
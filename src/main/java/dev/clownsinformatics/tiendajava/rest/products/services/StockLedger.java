@@ -0,0 +1,489 @@
+package dev.clownsinformatics.tiendajava.rest.products.services;
+
+import dev.clownsinformatics.tiendajava.rest.products.exceptions.ProductNotFound;
+import dev.clownsinformatics.tiendajava.rest.products.exceptions.ProductNotStock;
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.rest.products.models.StockLedgerWatermark;
+import dev.clownsinformatics.tiendajava.rest.products.repositories.ProductRepository;
+import dev.clownsinformatics.tiendajava.rest.products.repositories.StockLedgerWatermarkRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Libro de stock en memoria para los productos con más demanda.
+ * <p>
+ * Cuando está activo ({@code stock.ledger.enabled=true}) las reservas y devoluciones de los pedidos se hacen
+ * sobre contadores atómicos por producto, inicializados desde {@link ProductRepository} la primera vez que se usan.
+ * Los cambios se acumulan por producto y un hilo en segundo plano los escribe en la base de datos en lotes,
+ * con una única actualización por producto y lote.
+ * <p>
+ * Cada cambio se anota antes en un registro de solo escritura en disco. Al arrancar se reaplican los registros
+ * que no llegaron a volcarse, de modo que una caída del proceso no pierde reservas. Cada volcado guarda, en la
+ * misma transacción que el stock, el número del último segmento que cubre ({@link StockLedgerWatermark}); al
+ * reaplicar se saltan los segmentos hasta ese número, así que un segmento que no se llegó a borrar tras
+ * confirmarse su lote no se aplica dos veces.
+ *
+ * @version 1.0
+ * @since 2023-11-28
+ */
+@Component
+@Slf4j
+public class StockLedger {
+    private static final int STRIPES = 64;
+    private static final String SEGMENT_PREFIX = "stock-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final ProductRepository productRepository;
+    private final StockLedgerWatermarkRepository watermarkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long flushIntervalMs;
+    private final Path logDir;
+    private final String watermarkName;
+
+    private final Map<UUID, AtomicInteger> available = new ConcurrentHashMap<>();
+    private final Map<UUID, AtomicInteger> pending = new ConcurrentHashMap<>();
+    private final Object[] seedLocks = new Object[STRIPES];
+    private final ReentrantReadWriteLock seedFlushLock = new ReentrantReadWriteLock();
+    private final ReentrantReadWriteLock logLock = new ReentrantReadWriteLock();
+    private final Deque<Path> sealedSegments = new ArrayDeque<>();
+
+    private ScheduledExecutorService flusher;
+    private BufferedWriter segment;
+    private Path segmentPath;
+    private long segmentSequence;
+
+    @Autowired
+    public StockLedger(ProductRepository productRepository,
+                       StockLedgerWatermarkRepository watermarkRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${stock.ledger.enabled:false}") boolean enabled,
+                       @Value("${stock.ledger.flush-interval-ms:250}") long flushIntervalMs,
+                       @Value("${stock.ledger.log-dir:stock-ledger}") String logDir) {
+        this.productRepository = productRepository;
+        this.watermarkRepository = watermarkRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.flushIntervalMs = flushIntervalMs;
+        this.logDir = Paths.get(logDir);
+        this.watermarkName = this.logDir.toAbsolutePath().normalize().toString();
+        for (int i = 0; i < STRIPES; i++) {
+            seedLocks[i] = new Object();
+        }
+    }
+
+    /**
+     * Reaplica los registros pendientes de una ejecución anterior, abre un segmento nuevo y arranca el volcado
+     * periódico a la base de datos.
+     */
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(logDir);
+            replay();
+            openSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not initialize stock ledger at " + logDir, e);
+        }
+        if (flushIntervalMs > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "stock-ledger-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        log.info("Stock ledger enabled, logging to {}", logDir.toAbsolutePath());
+    }
+
+    /**
+     * Detiene el volcado periódico y escribe en la base de datos los cambios pendientes.
+     */
+    @PreDestroy
+    public void stop() {
+        if (!enabled) {
+            return;
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        try {
+            flush();
+        } finally {
+            closeSegment();
+        }
+    }
+
+    /**
+     * Indica si el libro de stock está activo.
+     *
+     * @return {@code true} si las reservas deben pasar por el libro.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Aplica de forma atómica los cambios de stock de un pedido. Las cantidades positivas se reservan y las
+     * negativas se devuelven. Las reservas se hacen en orden de id y, si alguna no tiene stock suficiente,
+     * se deshacen las ya hechas y no se devuelve nada.
+     *
+     * @param quantities Cantidad a reservar por producto, ordenada por id.
+     * @throws ProductNotFound Si alguno de los productos no existe.
+     * @throws ProductNotStock Si alguno de los productos no tiene stock suficiente.
+     */
+    public void reserve(SortedMap<UUID, Integer> quantities) {
+        Map<UUID, AtomicInteger> counters = new TreeMap<>();
+        quantities.forEach((idProduct, quantity) -> {
+            if (quantity != 0) {
+                counters.put(idProduct, counter(idProduct));
+            }
+        });
+
+        List<UUID> applied = new ArrayList<>();
+        for (var entry : counters.entrySet()) {
+            int quantity = quantities.get(entry.getKey());
+            if (quantity > 0 && !tryDecrement(entry.getValue(), quantity)) {
+                undo(applied, counters, quantities);
+                throw new ProductNotStock("Product " + entry.getKey() + " has not enough stock for quantity: " + quantity);
+            }
+            if (quantity > 0) {
+                applied.add(entry.getKey());
+            }
+        }
+        counters.forEach((idProduct, counter) -> {
+            int quantity = quantities.get(idProduct);
+            if (quantity < 0) {
+                counter.addAndGet(-quantity);
+                applied.add(idProduct);
+            }
+        });
+
+        try {
+            record(quantities);
+        } catch (UncheckedIOException e) {
+            undo(applied, counters, quantities);
+            throw e;
+        }
+    }
+
+    /**
+     * Devuelve al stock las cantidades indicadas.
+     *
+     * @param quantities Cantidad a devolver por producto.
+     */
+    public void release(Map<UUID, Integer> quantities) {
+        SortedMap<UUID, Integer> negated = new TreeMap<>();
+        quantities.forEach((idProduct, quantity) -> negated.put(idProduct, -quantity));
+        reserve(negated);
+    }
+
+    /**
+     * Stock disponible de un producto según el libro.
+     *
+     * @param idProduct Identificador del producto.
+     * @return Stock disponible.
+     * @throws ProductNotFound Si el producto no existe.
+     */
+    public int available(UUID idProduct) {
+        return counter(idProduct).get();
+    }
+
+    /**
+     * Olvida el contador de un producto para que se vuelva a leer de la base de datos en su próximo uso,
+     * por ejemplo después de que se haya modificado su stock desde la gestión de productos.
+     *
+     * @param idProduct Identificador del producto.
+     */
+    public void invalidate(UUID idProduct) {
+        if (!enabled) {
+            return;
+        }
+        seedFlushLock.readLock().lock();
+        try {
+            synchronized (seedLock(idProduct)) {
+                available.remove(idProduct);
+            }
+        } finally {
+            seedFlushLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Escribe en la base de datos, en una sola transacción, los cambios acumulados desde el último volcado
+     * junto con el último segmento que cubren, y borra los segmentos del registro que ya quedan cubiertos. Si la escritura falla, los cambios vuelven
+     * a quedar pendientes y los segmentos se conservan para el siguiente intento.
+     */
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        seedFlushLock.writeLock().lock();
+        try {
+            Map<UUID, Integer> batch = new TreeMap<>();
+            long flushedSegment;
+            logLock.writeLock().lock();
+            try {
+                pending.forEach((idProduct, delta) -> {
+                    int value = delta.getAndSet(0);
+                    if (value != 0) {
+                        batch.put(idProduct, value);
+                    }
+                });
+                if (batch.isEmpty()) {
+                    return;
+                }
+                flushedSegment = segmentSequence;
+                rotateSegment();
+            } finally {
+                logLock.writeLock().unlock();
+            }
+
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    batch.forEach(productRepository::incrementStock);
+                    saveWatermark(flushedSegment);
+                });
+            } catch (RuntimeException e) {
+                batch.forEach((idProduct, delta) -> pendingCounter(idProduct).addAndGet(delta));
+                throw e;
+            }
+            deleteSealedSegments();
+            log.debug("Stock ledger flushed {} products", batch.size());
+        } finally {
+            seedFlushLock.writeLock().unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Error flushing stock ledger", e);
+        }
+    }
+
+    private void undo(List<UUID> applied, Map<UUID, AtomicInteger> counters, Map<UUID, Integer> quantities) {
+        applied.forEach(idProduct -> counters.get(idProduct).addAndGet(quantities.get(idProduct)));
+    }
+
+    private boolean tryDecrement(AtomicInteger counter, int quantity) {
+        while (true) {
+            int current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - quantity)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Devuelve el contador de un producto, leyéndolo de la base de datos si aún no está en memoria.
+     * El valor inicial suma los cambios pendientes de volcar; el bloqueo compartido con el volcado
+     * evita leer la base de datos y los pendientes en mitad de un lote.
+     */
+    private AtomicInteger counter(UUID idProduct) {
+        AtomicInteger counter = available.get(idProduct);
+        if (counter != null) {
+            return counter;
+        }
+        seedFlushLock.readLock().lock();
+        try {
+            synchronized (seedLock(idProduct)) {
+                counter = available.get(idProduct);
+                if (counter == null) {
+                    int stock = productRepository.findById(idProduct)
+                            .map(Product::getStock)
+                            .orElseThrow(() -> new ProductNotFound("Product not found with id: " + idProduct));
+                    counter = new AtomicInteger(stock + pendingCounter(idProduct).get());
+                    available.put(idProduct, counter);
+                }
+                return counter;
+            }
+        } finally {
+            seedFlushLock.readLock().unlock();
+        }
+    }
+
+    private Object seedLock(UUID idProduct) {
+        return seedLocks[(idProduct.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    private AtomicInteger pendingCounter(UUID idProduct) {
+        return pending.computeIfAbsent(idProduct, key -> new AtomicInteger());
+    }
+
+    /**
+     * Anota los cambios de un pedido en una sola línea del registro y los acumula como pendientes.
+     * Una línea incompleta por una caída se descarta entera al reaplicar el registro.
+     */
+    private void record(SortedMap<UUID, Integer> quantities) {
+        StringBuilder line = new StringBuilder();
+        quantities.forEach((idProduct, quantity) -> {
+            if (quantity != 0) {
+                line.append(idProduct).append(':').append(-quantity).append(';');
+            }
+        });
+        if (line.isEmpty()) {
+            return;
+        }
+        logLock.readLock().lock();
+        try {
+            synchronized (this) {
+                segment.write(line.append('\n').toString());
+                segment.flush();
+            }
+            quantities.forEach((idProduct, quantity) -> pendingCounter(idProduct).addAndGet(-quantity));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write stock ledger", e);
+        } finally {
+            logLock.readLock().unlock();
+        }
+    }
+
+    private void replay() throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(logDir)) {
+            segments = files.filter(this::isSegment).sorted((a, b) -> Long.compare(sequence(a), sequence(b))).toList();
+        }
+        long watermark = watermarkRepository.findById(watermarkName).map(StockLedgerWatermark::getSegment).orElse(0L);
+        // Los segmentos nuevos no pueden reutilizar un número ya cubierto, o se saltarían en el próximo arranque.
+        segmentSequence = watermark;
+        if (segments.isEmpty()) {
+            return;
+        }
+        Map<UUID, Integer> batch = new TreeMap<>();
+        int replayed = 0;
+        for (Path path : segments) {
+            long sequence = sequence(path);
+            segmentSequence = Math.max(segmentSequence, sequence);
+            if (sequence <= watermark) {
+                continue;
+            }
+            replayed++;
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                parseLine(line).forEach((idProduct, delta) -> batch.merge(idProduct, delta, Integer::sum));
+            }
+        }
+        log.info("Replaying stock ledger: {} segments, {} already flushed, {} products",
+                replayed, segments.size() - replayed, batch.size());
+        if (replayed > 0) {
+            long lastSegment = segmentSequence;
+            transactionTemplate.executeWithoutResult(status -> {
+                batch.forEach((idProduct, delta) -> {
+                    if (delta != 0) {
+                        productRepository.incrementStock(idProduct, delta);
+                    }
+                });
+                saveWatermark(lastSegment);
+            });
+        }
+        for (Path path : segments) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private void saveWatermark(long segment) {
+        watermarkRepository.save(StockLedgerWatermark.builder().name(watermarkName).segment(segment).build());
+    }
+
+    private Map<UUID, Integer> parseLine(String line) {
+        Map<UUID, Integer> deltas = new TreeMap<>();
+        if (!line.endsWith(";")) {
+            return deltas;
+        }
+        try {
+            for (String entry : line.split(";")) {
+                int separator = entry.indexOf(':');
+                deltas.put(UUID.fromString(entry.substring(0, separator)), Integer.parseInt(entry.substring(separator + 1)));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Skipping malformed stock ledger line: {}", line);
+            return Map.of();
+        }
+        return deltas;
+    }
+
+    private boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    private long sequence(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private void openSegment() throws IOException {
+        segmentSequence++;
+        segmentPath = logDir.resolve(SEGMENT_PREFIX + segmentSequence + SEGMENT_SUFFIX);
+        segment = Files.newBufferedWriter(segmentPath, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void rotateSegment() {
+        closeSegment();
+        sealedSegments.add(segmentPath);
+        try {
+            openSegment();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not rotate stock ledger", e);
+        }
+    }
+
+    private void closeSegment() {
+        try {
+            if (segment != null) {
+                segment.close();
+            }
+        } catch (IOException e) {
+            log.warn("Error closing stock ledger segment {}", segmentPath, e);
+        }
+    }
+
+    private void deleteSealedSegments() {
+        while (!sealedSegments.isEmpty()) {
+            Path path = sealedSegments.poll();
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Could not delete stock ledger segment {}", path, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package dev.clownsinformatics.tiendajava.rest.reports.controllers;
+
+import dev.clownsinformatics.tiendajava.rest.reports.dto.SalesRollupDto;
+import dev.clownsinformatics.tiendajava.rest.reports.dto.SalesRollupRebuildDto;
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupDimension;
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupGranularity;
+import dev.clownsinformatics.tiendajava.rest.reports.services.SalesRollupService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.Parameters;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Controlador REST para consultar los informes de ventas agregadas.
+ */
+@RestController
+@RequestMapping("/api/reports/sales")
+@Slf4j
+@PreAuthorize("hasRole('ADMIN')")
+public class SalesReportRestController {
+    private final SalesRollupService salesRollupService;
+
+    @Autowired
+    public SalesReportRestController(SalesRollupService salesRollupService) {
+        this.salesRollupService = salesRollupService;
+    }
+
+    /**
+     * Obtiene las ventas agregadas por intervalo de una dimensión entre dos fechas.
+     *
+     * @param granularity Granularidad de los intervalos (HOUR o DAY).
+     * @param dimension   Dimensión (TOTAL, PRODUCT o CATEGORY).
+     * @param key         Clave dentro de la dimensión; si no se indica se devuelven todas.
+     * @param from        Fecha mínima, incluida.
+     * @param to          Fecha máxima, excluida.
+     * @return ResponseEntity con los agregados ordenados por intervalo.
+     */
+    @Operation(summary = "Get sales rollups")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the sales rollups"),
+            @ApiResponse(responseCode = "400", description = "Invalid dates, granularity or dimension supplied"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @Parameters({
+            @Parameter(name = "granularity", description = "HOUR or DAY", example = "DAY"),
+            @Parameter(name = "dimension", description = "TOTAL, PRODUCT or CATEGORY", example = "CATEGORY"),
+            @Parameter(name = "key", description = "Product id or category name", example = "PORTATILES"),
+            @Parameter(name = "from", description = "From, ISO date time", example = "2023-11-01T00:00:00", required = true),
+            @Parameter(name = "to", description = "To (excluded), ISO date time", example = "2023-12-01T00:00:00", required = true)
+    })
+    @GetMapping
+    public ResponseEntity<List<SalesRollupDto>> getSalesRollups(
+            @RequestParam(defaultValue = "DAY") RollupGranularity granularity,
+            @RequestParam(defaultValue = "TOTAL") RollupDimension dimension,
+            @RequestParam(required = false) String key,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        log.info("Getting {} sales rollups by {}", granularity, dimension);
+        return ResponseEntity.ok(salesRollupService.findRollups(granularity, dimension, key, from, to));
+    }
+
+    /**
+     * Recalcula todos los agregados de ventas a partir de los pedidos.
+     *
+     * @return ResponseEntity con el resumen de la reconstrucción.
+     */
+    @Operation(summary = "Rebuild sales rollups from the orders")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sales rollups rebuilt"),
+            @ApiResponse(responseCode = "403", description = "Access denied")
+    })
+    @PostMapping("/rebuild")
+    public ResponseEntity<SalesRollupRebuildDto> rebuildSalesRollups() {
+        log.info("Rebuilding sales rollups");
+        return ResponseEntity.ok(salesRollupService.rebuild());
+    }
+}
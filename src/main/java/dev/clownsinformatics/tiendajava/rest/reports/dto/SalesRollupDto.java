@@ -0,0 +1,17 @@
+package dev.clownsinformatics.tiendajava.rest.reports.dto;
+
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupDimension;
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupGranularity;
+
+import java.time.LocalDateTime;
+
+public record SalesRollupDto(
+        RollupGranularity granularity,
+        RollupDimension dimension,
+        String key,
+        LocalDateTime bucket,
+        long orders,
+        long quantity,
+        double revenue
+) {
+}
@@ -0,0 +1,9 @@
+package dev.clownsinformatics.tiendajava.rest.reports.dto;
+
+public record SalesRollupRebuildDto(
+        long orders,
+        long rollups,
+        int chunks,
+        long elapsedMs
+) {
+}
@@ -0,0 +1,18 @@
+package dev.clownsinformatics.tiendajava.rest.reports.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Clase que representa una excepción de petición de informe no válida.
+ * @version 1.0
+ * @since 1.0
+ * @see ReportException
+ * @see ResponseStatus
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ReportBadRequest extends ReportException {
+    public ReportBadRequest(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package dev.clownsinformatics.tiendajava.rest.reports.exceptions;
+
+/**
+ * Clase abstracta que representa una excepción de informes.
+ * @version 1.0
+ * @since 1.0
+ * @see RuntimeException
+ */
+public abstract class ReportException extends RuntimeException {
+    protected ReportException(String message) {
+        super(message);
+    }
+}
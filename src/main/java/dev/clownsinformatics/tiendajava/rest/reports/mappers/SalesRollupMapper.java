@@ -0,0 +1,30 @@
+package dev.clownsinformatics.tiendajava.rest.reports.mappers;
+
+import dev.clownsinformatics.tiendajava.rest.reports.dto.SalesRollupDto;
+import dev.clownsinformatics.tiendajava.rest.reports.models.SalesRollup;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import org.springframework.stereotype.Component;
+
+/**
+ * Componente encargado de mapear los agregados de ventas a sus DTOs de respuesta.
+ */
+@Component
+public class SalesRollupMapper {
+    /**
+     * Convierte un agregado de ventas en un SalesRollupDto.
+     *
+     * @param rollup Agregado de ventas.
+     * @return DTO de respuesta del agregado.
+     */
+    public SalesRollupDto toSalesRollupDto(SalesRollup rollup) {
+        return new SalesRollupDto(
+                rollup.getGranularity(),
+                rollup.getDimension(),
+                rollup.getKey(),
+                rollup.getBucket(),
+                rollup.getOrders(),
+                rollup.getQuantity(),
+                Money.ofCents(rollup.getRevenueCents()).amount()
+        );
+    }
+}
@@ -0,0 +1,19 @@
+package dev.clownsinformatics.tiendajava.rest.reports.models;
+
+/**
+ * Criterio por el que se agrupan las ventas de cada intervalo.
+ */
+public enum RollupDimension {
+    /**
+     * Todas las ventas del intervalo, con la clave {@link SalesRollup#TOTAL_KEY}.
+     */
+    TOTAL,
+    /**
+     * Ventas por producto, con el id del producto como clave.
+     */
+    PRODUCT,
+    /**
+     * Ventas por categoría, con el nombre de la categoría como clave.
+     */
+    CATEGORY
+}
@@ -0,0 +1,28 @@
+package dev.clownsinformatics.tiendajava.rest.reports.models;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Tamaño de los intervalos en los que se agregan las ventas.
+ */
+public enum RollupGranularity {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    RollupGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Devuelve el inicio del intervalo al que pertenece una fecha.
+     *
+     * @param dateTime Fecha.
+     * @return Inicio del intervalo.
+     */
+    public LocalDateTime bucketOf(LocalDateTime dateTime) {
+        return dateTime.truncatedTo(unit);
+    }
+}
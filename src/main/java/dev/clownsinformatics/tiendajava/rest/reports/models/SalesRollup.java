@@ -0,0 +1,114 @@
+package dev.clownsinformatics.tiendajava.rest.reports.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.TypeAlias;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ventas agregadas de un intervalo para una clave de una dimensión. Se mantiene con incrementos
+ * a medida que se crean, modifican y eliminan pedidos, así que los informes leen un documento
+ * por intervalo en lugar de recorrer los pedidos.
+ * <p>
+ * El id se compone de la granularidad, la dimensión, la clave y el inicio del intervalo, de modo que
+ * los incrementos de un mismo intervalo siempre van al mismo documento.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Document("sales_rollups")
+@TypeAlias("SalesRollup")
+@CompoundIndexes({
+        @CompoundIndex(name = "granularity_dimension_bucket", def = "{'granularity': 1, 'dimension': 1, 'bucket': 1}"),
+        @CompoundIndex(name = "granularity_dimension_key_bucket", def = "{'granularity': 1, 'dimension': 1, 'key': 1, 'bucket': 1}")
+})
+public class SalesRollup {
+    public static final String TOTAL_KEY = "all";
+    public static final String NO_CATEGORY_KEY = "none";
+
+    @Id
+    private String id;
+
+    private RollupGranularity granularity;
+
+    private RollupDimension dimension;
+
+    private String key;
+
+    private LocalDateTime bucket;
+
+    @Builder.Default
+    private long orders = 0;
+
+    @Builder.Default
+    private long quantity = 0;
+
+    /**
+     * Importe vendido en céntimos. Se guarda y se incrementa como entero para que los incrementos no acumulen
+     * errores de redondeo.
+     */
+    @Builder.Default
+    private long revenueCents = 0;
+
+    /**
+     * Crea un agregado vacío para una fecha, en el intervalo de la granularidad indicada.
+     *
+     * @param granularity Granularidad.
+     * @param dimension   Dimensión.
+     * @param key         Clave dentro de la dimensión.
+     * @param dateTime    Fecha contenida en el intervalo.
+     * @return Agregado con todos los contadores a cero.
+     */
+    public static SalesRollup of(RollupGranularity granularity, RollupDimension dimension, String key, LocalDateTime dateTime) {
+        LocalDateTime bucket = granularity.bucketOf(dateTime);
+        return SalesRollup.builder()
+                .id(granularity + "|" + dimension + "|" + key + "|" + bucket)
+                .granularity(granularity)
+                .dimension(dimension)
+                .key(key)
+                .bucket(bucket)
+                .build();
+    }
+
+    /**
+     * Suma a este agregado los valores indicados.
+     *
+     * @param orders   Pedidos.
+     * @param quantity Unidades vendidas.
+     * @param revenueCents Importe vendido en céntimos.
+     * @return El mismo agregado.
+     */
+    public SalesRollup add(long orders, long quantity, long revenueCents) {
+        this.orders += orders;
+        this.quantity += quantity;
+        this.revenueCents = Math.addExact(this.revenueCents, revenueCents);
+        return this;
+    }
+
+    /**
+     * Suma a este agregado los valores de otro del mismo intervalo y clave.
+     *
+     * @param other Agregado a sumar.
+     * @return El mismo agregado.
+     */
+    public SalesRollup add(SalesRollup other) {
+        return add(other.orders, other.quantity, other.revenueCents);
+    }
+
+    /**
+     * Indica si el agregado no cambia nada al aplicarlo como incremento.
+     *
+     * @return {@code true} si todos los contadores son cero.
+     */
+    public boolean isEmpty() {
+        return orders == 0 && quantity == 0 && revenueCents == 0;
+    }
+}
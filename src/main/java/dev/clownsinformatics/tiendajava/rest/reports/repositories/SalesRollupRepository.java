@@ -0,0 +1,27 @@
+package dev.clownsinformatics.tiendajava.rest.reports.repositories;
+
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupDimension;
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupGranularity;
+import dev.clownsinformatics.tiendajava.rest.reports.models.SalesRollup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SalesRollupRepository extends MongoRepository<SalesRollup, String> {
+    /**
+     * Busca los agregados de una dimensión cuyo intervalo empieza en {@code [from, to)}.
+     */
+    @Query("{'granularity': ?0, 'dimension': ?1, 'bucket': {$gte: ?2, $lt: ?3}}")
+    List<SalesRollup> findBuckets(RollupGranularity granularity, RollupDimension dimension, LocalDateTime from, LocalDateTime to, Sort sort);
+
+    /**
+     * Busca los agregados de una clave de una dimensión cuyo intervalo empieza en {@code [from, to)}.
+     */
+    @Query("{'granularity': ?0, 'dimension': ?1, 'key': ?2, 'bucket': {$gte: ?3, $lt: ?4}}")
+    List<SalesRollup> findBuckets(RollupGranularity granularity, RollupDimension dimension, String key, LocalDateTime from, LocalDateTime to, Sort sort);
+}
@@ -0,0 +1,132 @@
+package dev.clownsinformatics.tiendajava.rest.reports.services;
+
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.orders.models.OrderLine;
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupDimension;
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupGranularity;
+import dev.clownsinformatics.tiendajava.rest.reports.models.SalesRollup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Cambio en las ventas provocado por uno o varios pedidos. Las líneas de un pedido se copian en el momento
+ * de añadirlo o quitarlo, así que se puede quitar la versión anterior de un pedido antes de modificarlo
+ * y añadir la nueva después de guardarlo.
+ * <p>
+ * Al convertirlo en agregados, lo que se quita y lo que se vuelve a añadir en el mismo intervalo se compensa,
+ * y los agregados que no cambian no se escriben.
+ */
+public class SalesRollupDelta {
+    private final Map<ProductBucket, SalesRollup> products = new HashMap<>();
+    private final List<OrderEntry> orders = new ArrayList<>();
+
+    /**
+     * Añade las ventas de un pedido.
+     *
+     * @param order Pedido.
+     * @return Este mismo cambio.
+     */
+    public SalesRollupDelta add(Order order) {
+        return record(order, 1);
+    }
+
+    /**
+     * Quita las ventas de un pedido.
+     *
+     * @param order Pedido.
+     * @return Este mismo cambio.
+     */
+    public SalesRollupDelta remove(Order order) {
+        return record(order, -1);
+    }
+
+    /**
+     * Indica si el cambio no contiene ningún pedido.
+     *
+     * @return {@code true} si no se ha añadido ni quitado ningún pedido.
+     */
+    public boolean isEmpty() {
+        return orders.isEmpty();
+    }
+
+    /**
+     * Devuelve los productos que aparecen en el cambio.
+     *
+     * @return Ids de producto.
+     */
+    public Set<UUID> productIds() {
+        Set<UUID> ids = new HashSet<>();
+        products.keySet().forEach(key -> ids.add(key.idProduct()));
+        return ids;
+    }
+
+    /**
+     * Convierte el cambio en los incrementos de cada agregado, por hora y por día, del total, de cada producto
+     * y de cada categoría.
+     *
+     * @param categoryOf Categoría de cada producto.
+     * @return Incrementos no nulos indexados por el id del agregado.
+     */
+    public Map<String, SalesRollup> toRollups(Function<UUID, String> categoryOf) {
+        Map<String, SalesRollup> rollups = new LinkedHashMap<>();
+        products.forEach((key, amount) -> {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                merge(rollups, granularity, RollupDimension.TOTAL, SalesRollup.TOTAL_KEY, key.bucket(), 0, amount);
+                merge(rollups, granularity, RollupDimension.PRODUCT, key.idProduct().toString(), key.bucket(), amount.getOrders(), amount);
+                merge(rollups, granularity, RollupDimension.CATEGORY, categoryOf.apply(key.idProduct()), key.bucket(), 0, amount);
+            }
+        });
+        orders.forEach(entry -> {
+            Set<String> categories = new HashSet<>();
+            entry.products().forEach(idProduct -> categories.add(categoryOf.apply(idProduct)));
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                increment(rollups, granularity, RollupDimension.TOTAL, SalesRollup.TOTAL_KEY, entry.bucket(), entry.sign());
+                categories.forEach(category ->
+                        increment(rollups, granularity, RollupDimension.CATEGORY, category, entry.bucket(), entry.sign()));
+            }
+        });
+        rollups.values().removeIf(SalesRollup::isEmpty);
+        return rollups;
+    }
+
+    private SalesRollupDelta record(Order order, int sign) {
+        LocalDateTime bucket = RollupGranularity.HOUR.bucketOf(order.getCreatedAt());
+        Set<UUID> ids = new HashSet<>();
+        if (order.getOrderLines() != null) {
+            for (OrderLine line : order.getOrderLines()) {
+                long cents = line.getTotal() != null ? line.getTotal().cents() : line.totalCents();
+                products.computeIfAbsent(new ProductBucket(bucket, line.getIdProduct()), key -> new SalesRollup())
+                        .add(ids.add(line.getIdProduct()) ? sign : 0, (long) sign * line.getQuantity(), sign * cents);
+            }
+        }
+        orders.add(new OrderEntry(bucket, sign, ids));
+        return this;
+    }
+
+    private void merge(Map<String, SalesRollup> rollups, RollupGranularity granularity, RollupDimension dimension,
+                       String key, LocalDateTime dateTime, long orders, SalesRollup amount) {
+        SalesRollup rollup = SalesRollup.of(granularity, dimension, key, dateTime);
+        rollups.computeIfAbsent(rollup.getId(), id -> rollup).add(orders, amount.getQuantity(), amount.getRevenueCents());
+    }
+
+    private void increment(Map<String, SalesRollup> rollups, RollupGranularity granularity, RollupDimension dimension,
+                           String key, LocalDateTime dateTime, int orders) {
+        SalesRollup rollup = SalesRollup.of(granularity, dimension, key, dateTime);
+        rollups.computeIfAbsent(rollup.getId(), id -> rollup).add(orders, 0, 0);
+    }
+
+    private record ProductBucket(LocalDateTime bucket, UUID idProduct) {
+    }
+
+    private record OrderEntry(LocalDateTime bucket, int sign, Set<UUID> products) {
+    }
+}
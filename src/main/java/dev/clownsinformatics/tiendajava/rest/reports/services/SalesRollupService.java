@@ -0,0 +1,20 @@
+package dev.clownsinformatics.tiendajava.rest.reports.services;
+
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.rest.reports.dto.SalesRollupDto;
+import dev.clownsinformatics.tiendajava.rest.reports.dto.SalesRollupRebuildDto;
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupDimension;
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupGranularity;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface SalesRollupService {
+    void apply(SalesRollupDelta delta, Map<UUID, Product> products);
+
+    List<SalesRollupDto> findRollups(RollupGranularity granularity, RollupDimension dimension, String key, LocalDateTime from, LocalDateTime to);
+
+    SalesRollupRebuildDto rebuild();
+}
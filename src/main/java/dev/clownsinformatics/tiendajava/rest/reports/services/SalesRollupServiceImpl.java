@@ -0,0 +1,286 @@
+package dev.clownsinformatics.tiendajava.rest.reports.services;
+
+import com.mongodb.MongoNamespace;
+import com.mongodb.client.model.RenameCollectionOptions;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderArchiveRepository;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderRepository;
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.rest.products.repositories.ProductRepository;
+import dev.clownsinformatics.tiendajava.rest.reports.dto.SalesRollupDto;
+import dev.clownsinformatics.tiendajava.rest.reports.dto.SalesRollupRebuildDto;
+import dev.clownsinformatics.tiendajava.rest.reports.exceptions.ReportBadRequest;
+import dev.clownsinformatics.tiendajava.rest.reports.mappers.SalesRollupMapper;
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupDimension;
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupGranularity;
+import dev.clownsinformatics.tiendajava.rest.reports.models.SalesRollup;
+import dev.clownsinformatics.tiendajava.rest.reports.repositories.SalesRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Implementación de servicio para mantener y consultar los agregados de ventas.
+ * <p>
+ * Los agregados se actualizan con incrementos ({@code $inc} con upsert) que aplican solo la diferencia entre
+ * la versión anterior y la nueva de cada pedido, en una única escritura masiva. Un fallo al actualizarlos
+ * no hace fallar al pedido: se registra y los agregados se recuperan con {@link #rebuild()}.
+ */
+@Service
+@Slf4j
+public class SalesRollupServiceImpl implements SalesRollupService {
+    private static final int REBUILD_FLUSH_EVERY = 10_000;
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final MongoTemplate mongoTemplate;
+    private final SalesRollupMapper salesRollupMapper;
+    private final OrderArchiveRepository orderArchiveRepository;
+    private final int rebuildThreads;
+    private final int rebuildChunkDays;
+
+    public SalesRollupServiceImpl(SalesRollupRepository salesRollupRepository, OrderRepository orderRepository,
+                                  ProductRepository productRepository, MongoTemplate mongoTemplate, SalesRollupMapper salesRollupMapper,
+                                  OrderArchiveRepository orderArchiveRepository,
+                                  @Value("${reports.rollups.rebuild-threads:4}") int rebuildThreads,
+                                  @Value("${reports.rollups.rebuild-chunk-days:7}") int rebuildChunkDays) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.salesRollupMapper = salesRollupMapper;
+        this.orderArchiveRepository = orderArchiveRepository;
+        this.rebuildThreads = Math.max(1, rebuildThreads);
+        this.rebuildChunkDays = Math.max(1, rebuildChunkDays);
+    }
+
+    /**
+     * Aplica a los agregados el cambio en las ventas de uno o varios pedidos.
+     *
+     * @param delta    Cambio a aplicar.
+     * @param products Productos ya cargados, indexados por id. Los que falten se cargan con una única consulta.
+     */
+    @Override
+    public void apply(SalesRollupDelta delta, Map<UUID, Product> products) {
+        if (delta.isEmpty()) {
+            return;
+        }
+        try {
+            var categories = categoriesOf(delta.productIds(), products);
+            var rollups = delta.toRollups(categoryLookup(categories));
+            if (rollups.isEmpty()) {
+                return;
+            }
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SalesRollup.class);
+            rollups.values().forEach(rollup -> bulk.upsert(Query.query(Criteria.where("_id").is(rollup.getId())), increment(rollup)));
+            bulk.execute();
+        } catch (RuntimeException e) {
+            log.warn("Could not update sales rollups, rebuild them to recover: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recupera los agregados de ventas de una dimensión cuyos intervalos empiezan entre dos fechas, ordenados
+     * por intervalo. Lee un documento por intervalo y clave, sin recorrer los pedidos.
+     *
+     * @param granularity Granularidad de los intervalos.
+     * @param dimension   Dimensión.
+     * @param key         Clave dentro de la dimensión, o {@code null} para todas.
+     * @param from        Fecha mínima, incluida.
+     * @param to          Fecha máxima, excluida.
+     * @return DTOs de los agregados.
+     * @throws ReportBadRequest Si el intervalo no es válido.
+     */
+    @Override
+    public List<SalesRollupDto> findRollups(RollupGranularity granularity, RollupDimension dimension, String key, LocalDateTime from, LocalDateTime to) {
+        log.info("Find {} sales rollups by {} from {} to {}", granularity, dimension, from, to);
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new ReportBadRequest("The from date must be before the to date");
+        }
+        Sort sort = Sort.by("bucket", "key");
+        List<SalesRollup> rollups = key == null || key.isBlank()
+                ? salesRollupRepository.findBuckets(granularity, dimension, granularity.bucketOf(from), to, sort)
+                : salesRollupRepository.findBuckets(granularity, dimension, key, granularity.bucketOf(from), to, sort);
+        return rollups.stream().map(salesRollupMapper::toSalesRollupDto).toList();
+    }
+
+    /**
+     * Recalcula todos los agregados a partir de los pedidos, recientes y archivados. Los pedidos se reparten en tramos de días
+     * que se procesan en paralelo; como cada tramo contiene días completos, los agregados de tramos distintos
+     * no coinciden y se insertan sin conflictos en una colección auxiliar que al final sustituye a la actual.
+     * <p>
+     * Los incrementos que lleguen mientras se reconstruye se pierden al sustituir la colección,
+     * así que conviene lanzarlo con poca actividad.
+     *
+     * @return Resumen de la reconstrucción.
+     */
+    @Override
+    public SalesRollupRebuildDto rebuild() {
+        long begin = System.currentTimeMillis();
+        String collection = mongoTemplate.getCollectionName(SalesRollup.class);
+        String staging = collection + "_rebuild";
+        log.info("Rebuild sales rollups");
+
+        Order first = firstByCreatedAt(Sort.Direction.ASC);
+        Order last = firstByCreatedAt(Sort.Direction.DESC);
+        if (first == null || last == null) {
+            mongoTemplate.remove(new Query(), SalesRollup.class);
+            return new SalesRollupRebuildDto(0, 0, 0, System.currentTimeMillis() - begin);
+        }
+
+        mongoTemplate.dropCollection(staging);
+        var indexOps = mongoTemplate.indexOps(staging);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(SalesRollup.class)
+                .forEach(indexOps::ensureIndex);
+
+        Function<UUID, String> categories = categoryLookup(productRepository.findAll().stream()
+                .collect(Collectors.toMap(Product::getId, this::categoryOf)));
+
+        List<LocalDate> starts = new ArrayList<>();
+        LocalDate lastDay = last.getCreatedAt().toLocalDate();
+        for (LocalDate day = first.getCreatedAt().toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(rebuildChunkDays)) {
+            starts.add(day);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(rebuildThreads, starts.size()));
+        long orders = 0;
+        long rollups = 0;
+        try {
+            List<Future<long[]>> chunks = new ArrayList<>();
+            for (LocalDate start : starts) {
+                chunks.add(executor.submit(() -> rebuildChunk(start.atStartOfDay(), start.plusDays(rebuildChunkDays).atStartOfDay(), categories, staging)));
+            }
+            for (Future<long[]> chunk : chunks) {
+                long[] counts = chunk.get();
+                orders += counts[0];
+                rollups += counts[1];
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            mongoTemplate.dropCollection(staging);
+            throw new IllegalStateException("Sales rollup rebuild interrupted", e);
+        } catch (ExecutionException e) {
+            mongoTemplate.dropCollection(staging);
+            throw new IllegalStateException("Sales rollup rebuild failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        mongoTemplate.getCollection(staging).renameCollection(
+                new MongoNamespace(mongoTemplate.getDb().getName(), collection),
+                new RenameCollectionOptions().dropTarget(true));
+        long elapsed = System.currentTimeMillis() - begin;
+        log.info("Rebuilt {} sales rollups from {} orders in {} chunks in {} ms", rollups, orders, starts.size(), elapsed);
+        return new SalesRollupRebuildDto(orders, rollups, starts.size(), elapsed);
+    }
+
+    /**
+     * Recalcula los agregados de los pedidos creados en {@code [from, to)} y los inserta en la colección indicada.
+     *
+     * @return Pedidos leídos y agregados insertados.
+     */
+    private long[] rebuildChunk(LocalDateTime from, LocalDateTime to, Function<UUID, String> categories, String collection) {
+        Map<String, SalesRollup> rollups = new HashMap<>();
+        long orders = 0;
+        SalesRollupDelta delta = new SalesRollupDelta();
+        try (Stream<Order> stream = Stream.concat(orderArchiveRepository.streamByCreatedAt(from, to),
+                orderRepository.streamByCreatedAt(from, to, null))) {
+            var iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                delta.add(iterator.next());
+                if (++orders % REBUILD_FLUSH_EVERY == 0) {
+                    merge(rollups, delta.toRollups(categories));
+                    delta = new SalesRollupDelta();
+                }
+            }
+        }
+        merge(rollups, delta.toRollups(categories));
+        if (!rollups.isEmpty()) {
+            mongoTemplate.insert(rollups.values(), collection);
+        }
+        return new long[]{orders, rollups.size()};
+    }
+
+    /**
+     * Busca el pedido más antiguo o más reciente entre los recientes y los archivados.
+     */
+    private Order firstByCreatedAt(Sort.Direction direction) {
+        Order hot = mongoTemplate.findOne(new Query().with(Sort.by(direction, "createdAt", "_id")).limit(1), Order.class);
+        Order archived = orderArchiveRepository.findFirstByCreatedAt(direction).orElse(null);
+        if (hot == null || archived == null) {
+            return hot != null ? hot : archived;
+        }
+        boolean archivedFirst = direction.isAscending()
+                ? archived.getCreatedAt().isBefore(hot.getCreatedAt())
+                : archived.getCreatedAt().isAfter(hot.getCreatedAt());
+        return archivedFirst ? archived : hot;
+    }
+
+    private void merge(Map<String, SalesRollup> rollups, Map<String, SalesRollup> increments) {
+        increments.forEach((id, increment) -> rollups.merge(id, increment, SalesRollup::add));
+    }
+
+    private Update increment(SalesRollup rollup) {
+        return new Update()
+                .inc("orders", rollup.getOrders())
+                .inc("quantity", rollup.getQuantity())
+                .inc("revenueCents", rollup.getRevenueCents())
+                .setOnInsert("granularity", rollup.getGranularity())
+                .setOnInsert("dimension", rollup.getDimension())
+                .setOnInsert("key", rollup.getKey())
+                .setOnInsert("bucket", rollup.getBucket());
+    }
+
+    /**
+     * Obtiene la categoría de los productos indicados, usando los ya cargados y consultando el resto de una vez.
+     */
+    private Map<UUID, String> categoriesOf(Set<UUID> ids, Map<UUID, Product> products) {
+        Map<UUID, String> categories = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        ids.forEach(id -> {
+            var product = products.get(id);
+            if (product != null) {
+                categories.put(id, categoryOf(product));
+            } else {
+                missing.add(id);
+            }
+        });
+        if (!missing.isEmpty()) {
+            productRepository.findAllById(missing).forEach(product -> categories.put(product.getId(), categoryOf(product)));
+        }
+        return categories;
+    }
+
+    private Function<UUID, String> categoryLookup(Map<UUID, String> categories) {
+        return idProduct -> categories.getOrDefault(idProduct, SalesRollup.NO_CATEGORY_KEY);
+    }
+
+    private String categoryOf(Product product) {
+        return product.getCategory() != null ? product.getCategory().getName() : SalesRollup.NO_CATEGORY_KEY;
+    }
+}
@@ -0,0 +1,59 @@
+package dev.clownsinformatics.tiendajava.rest.suggestions.controllers;
+
+import dev.clownsinformatics.tiendajava.rest.suggestions.dto.SuggestionDto;
+import dev.clownsinformatics.tiendajava.rest.suggestions.services.SuggestionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.Parameters;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador REST del autocompletado del buscador de la tienda.
+ */
+@RestController
+@RequestMapping("/api/suggestions")
+@Slf4j
+@PreAuthorize("hasRole('USER')")
+public class SuggestionRestController {
+    private final SuggestionService suggestionService;
+
+    @Autowired
+    public SuggestionRestController(SuggestionService suggestionService) {
+        this.suggestionService = suggestionService;
+    }
+
+    /**
+     * Obtiene los productos, categorías y proveedores cuyo nombre, o alguna de sus palabras, empieza por el texto.
+     *
+     * @param prefix Texto escrito en el buscador.
+     * @param limit  Número máximo de sugerencias.
+     * @return ResponseEntity con las sugerencias, primero categorías y proveedores y después productos por stock.
+     */
+    @Operation(summary = "Suggest products, categories and suppliers by name prefix")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Suggestions found")
+    })
+    @Parameters({
+            @Parameter(name = "prefix", description = "Text typed so far", example = "port", required = true),
+            @Parameter(name = "limit", description = "Maximum number of suggestions", example = "10")
+    })
+    @GetMapping
+    public ResponseEntity<List<SuggestionDto>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        log.debug("Suggesting for prefix: {}", prefix);
+        return ResponseEntity.ok(suggestionService.suggest(prefix, limit));
+    }
+}
@@ -0,0 +1,12 @@
+package dev.clownsinformatics.tiendajava.rest.suggestions.dto;
+
+import dev.clownsinformatics.tiendajava.rest.suggestions.models.SuggestionType;
+
+import java.util.UUID;
+
+public record SuggestionDto(
+        SuggestionType type,
+        UUID id,
+        String text
+) {
+}
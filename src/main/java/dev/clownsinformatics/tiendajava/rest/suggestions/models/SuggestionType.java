@@ -0,0 +1,8 @@
+package dev.clownsinformatics.tiendajava.rest.suggestions.models;
+
+/**
+ * Tipo de elemento que se sugiere al escribir en el buscador.
+ */
+public enum SuggestionType {
+    PRODUCT, CATEGORY, SUPPLIER
+}
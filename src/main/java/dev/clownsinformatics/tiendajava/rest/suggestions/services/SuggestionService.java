@@ -0,0 +1,22 @@
+package dev.clownsinformatics.tiendajava.rest.suggestions.services;
+
+import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.rest.suggestions.dto.SuggestionDto;
+import dev.clownsinformatics.tiendajava.rest.suggestions.models.SuggestionType;
+import dev.clownsinformatics.tiendajava.rest.suppliers.models.Supplier;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface SuggestionService {
+    List<SuggestionDto> suggest(String prefix, int limit);
+
+    void index(Product product);
+
+    void index(Category category);
+
+    void index(Supplier supplier);
+
+    void remove(SuggestionType type, UUID id);
+}
@@ -0,0 +1,131 @@
+package dev.clownsinformatics.tiendajava.rest.suggestions.services;
+
+import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
+import dev.clownsinformatics.tiendajava.rest.categories.repositories.CategoryRepository;
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.rest.products.repositories.ProductRepository;
+import dev.clownsinformatics.tiendajava.rest.suggestions.dto.SuggestionDto;
+import dev.clownsinformatics.tiendajava.rest.suggestions.models.SuggestionType;
+import dev.clownsinformatics.tiendajava.rest.suppliers.models.Supplier;
+import dev.clownsinformatics.tiendajava.rest.suppliers.repositories.SupplierRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Sugerencias de productos, categorías y proveedores para el buscador de la tienda, servidas desde un árbol de
+ * prefijos en memoria ({@link SuggestionTrie}) en lugar de consultar la base de datos en cada pulsación.
+ * <p>
+ * El árbol se carga de los repositorios al arrancar la aplicación y después lo mantienen los servicios de
+ * productos, categorías y proveedores al crear, modificar o borrar. Las categorías y los proveedores aparecen
+ * antes que los productos y los productos se ordenan por stock; el stock que descuentan los pedidos se refleja
+ * la próxima vez que se guarde el producto.
+ *
+ * @version 1.0
+ * @since 2023-11-28
+ */
+@Service
+@Slf4j
+public class SuggestionServiceImpl implements SuggestionService {
+    private static final long GROUP_SCORE = Long.MAX_VALUE;
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final SupplierRepository supplierRepository;
+    private final int loadBatchSize;
+    private final int maxLimit;
+    private final SuggestionTrie trie = new SuggestionTrie();
+
+    public SuggestionServiceImpl(ProductRepository productRepository,
+                                 CategoryRepository categoryRepository,
+                                 SupplierRepository supplierRepository,
+                                 @Value("${suggestions.load-batch-size:1000}") int loadBatchSize,
+                                 @Value("${suggestions.max-limit:20}") int maxLimit) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.supplierRepository = supplierRepository;
+        this.loadBatchSize = Math.max(1, loadBatchSize);
+        this.maxLimit = Math.max(1, maxLimit);
+    }
+
+    /**
+     * Carga en el árbol todos los productos, categorías y proveedores no borrados, sustituyendo lo que hubiera.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.currentTimeMillis();
+        trie.clear();
+        categoryRepository.findAll().forEach(this::index);
+        supplierRepository.findAll().forEach(this::index);
+        Pageable pageable = PageRequest.of(0, loadBatchSize, Sort.by("id"));
+        Page<Product> page;
+        do {
+            page = productRepository.findAll(pageable);
+            page.forEach(this::index);
+            pageable = page.nextPageable();
+        } while (page.hasNext());
+        log.info("Loaded {} suggestions in {} ms", trie.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Obtiene las mejores sugerencias para lo que se ha escrito hasta ahora.
+     *
+     * @param prefix Texto escrito; se ignoran mayúsculas, tildes y signos de puntuación.
+     * @param limit  Número máximo de sugerencias, hasta {@code suggestions.max-limit}.
+     * @return Sugerencias ordenadas, primero categorías y proveedores y después productos por stock.
+     */
+    @Override
+    public List<SuggestionDto> suggest(String prefix, int limit) {
+        return trie.suggest(prefix, Math.min(limit, maxLimit));
+    }
+
+    @Override
+    public void index(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+        if (Boolean.TRUE.equals(product.getIsDeleted())) {
+            trie.remove(SuggestionType.PRODUCT, product.getId());
+        } else {
+            trie.put(SuggestionType.PRODUCT, product.getId(), product.getName(), product.getStock() != null ? product.getStock() : 0);
+        }
+    }
+
+    @Override
+    public void index(Category category) {
+        if (category == null || category.getUuid() == null) {
+            return;
+        }
+        if (category.isDeleted()) {
+            trie.remove(SuggestionType.CATEGORY, category.getUuid());
+        } else {
+            trie.put(SuggestionType.CATEGORY, category.getUuid(), category.getName(), GROUP_SCORE);
+        }
+    }
+
+    @Override
+    public void index(Supplier supplier) {
+        if (supplier == null || supplier.getId() == null) {
+            return;
+        }
+        if (Boolean.TRUE.equals(supplier.getIsDeleted())) {
+            trie.remove(SuggestionType.SUPPLIER, supplier.getId());
+        } else {
+            trie.put(SuggestionType.SUPPLIER, supplier.getId(), supplier.getName(), GROUP_SCORE);
+        }
+    }
+
+    @Override
+    public void remove(SuggestionType type, UUID id) {
+        trie.remove(type, id);
+    }
+}
@@ -0,0 +1,390 @@
+package dev.clownsinformatics.tiendajava.rest.suggestions.services;
+
+import dev.clownsinformatics.tiendajava.rest.suggestions.dto.SuggestionDto;
+import dev.clownsinformatics.tiendajava.rest.suggestions.models.SuggestionType;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Árbol de prefijos comprimido con los nombres que se sugieren al escribir.
+ * <p>
+ * Cada nombre se guarda normalizado (minúsculas, sin tildes y con las palabras separadas por un espacio) y también
+ * a partir de cada una de sus palabras, para que "gamer" sugiera "PC Gamer". Las ramas sin bifurcaciones se guardan
+ * en un solo nodo y cada nodo conoce la mayor puntuación de su subárbol, así que las {@code k} mejores sugerencias
+ * de un prefijo se obtienen recorriendo primero los nodos más prometedores, sin visitar el resto del subárbol.
+ */
+final class SuggestionTrie {
+    private static final Pattern SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Comparator<Object> BEST_FIRST = Comparator
+            .comparingLong(SuggestionTrie::score).reversed()
+            .thenComparing(item -> item instanceof Node)
+            .thenComparing(item -> item instanceof Entry entry ? entry.text : "");
+
+    private final Node root = new Node("");
+    private final Map<Key, Entry> entries = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Añade o sustituye la sugerencia de un elemento.
+     *
+     * @param type  Tipo del elemento.
+     * @param id    Identificador del elemento.
+     * @param text  Texto a sugerir.
+     * @param score Puntuación; a mayor puntuación antes aparece.
+     */
+    void put(SuggestionType type, UUID id, String text, long score) {
+        List<String> keys = keys(text);
+        lock.writeLock().lock();
+        try {
+            removeLocked(new Key(type, id));
+            if (keys.isEmpty()) {
+                return;
+            }
+            Entry entry = new Entry(new Key(type, id), text, score, keys);
+            entries.put(entry.key, entry);
+            for (String key : keys) {
+                insert(key, entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(SuggestionType type, UUID id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(new Key(type, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            root.children = Node.NO_CHILDREN;
+            root.entries = Entry.NONE;
+            root.best = Long.MIN_VALUE;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Las mejores sugerencias que empiezan por el prefijo, de mayor a menor puntuación.
+     *
+     * @param prefix Texto escrito hasta ahora.
+     * @param limit  Número máximo de sugerencias.
+     * @return Sugerencias, sin repetir elementos.
+     */
+    List<SuggestionDto> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = find(normalized);
+            if (node == null) {
+                return List.of();
+            }
+            List<SuggestionDto> result = new ArrayList<>(limit);
+            Set<Entry> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            PriorityQueue<Object> queue = new PriorityQueue<>(BEST_FIRST);
+            queue.add(node);
+            while (!queue.isEmpty() && result.size() < limit) {
+                Object item = queue.poll();
+                if (item instanceof Entry entry) {
+                    if (seen.add(entry)) {
+                        result.add(new SuggestionDto(entry.key.type, entry.key.id, entry.text));
+                    }
+                } else {
+                    Node current = (Node) item;
+                    Collections.addAll(queue, current.entries);
+                    Collections.addAll(queue, current.children);
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nodo cuyo subárbol contiene todas las claves que empiezan por el prefijo, aunque el prefijo acabe a mitad
+     * de la etiqueta del nodo.
+     */
+    private Node find(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            Node child = node.child(prefix.charAt(i));
+            if (child == null) {
+                return null;
+            }
+            int common = commonPrefix(child.label, prefix, i);
+            if (i + common == prefix.length()) {
+                return child;
+            }
+            if (common < child.label.length()) {
+                return null;
+            }
+            node = child;
+            i += common;
+        }
+        return node;
+    }
+
+    private void insert(String key, Entry entry) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int i = 0;
+        while (true) {
+            path.add(node);
+            if (i == key.length()) {
+                node.addEntry(entry);
+                break;
+            }
+            Node child = node.child(key.charAt(i));
+            if (child == null) {
+                Node leaf = new Node(key.substring(i));
+                leaf.addEntry(entry);
+                leaf.updateBest();
+                node.putChild(leaf);
+                break;
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // El nodo partido sustituye al hijo antes de cambiar su etiqueta: el padre busca por el primer carácter
+                Node split = new Node(child.label.substring(0, common));
+                split.best = child.best;
+                node.putChild(split);
+                child.label = child.label.substring(common);
+                split.putChild(child);
+                child = split;
+            }
+            node = child;
+            i += common;
+        }
+        for (int j = path.size() - 1; j >= 0; j--) {
+            path.get(j).updateBest();
+        }
+    }
+
+    private void removeLocked(Key key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        for (String text : entry.keys) {
+            delete(text, entry);
+        }
+    }
+
+    /**
+     * Quita la sugerencia de la clave y deshace los nodos que quedan vacíos o con un solo hijo.
+     */
+    private void delete(String key, Entry entry) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            path.add(node);
+            node = node.child(key.charAt(i));
+            if (node == null) {
+                return;
+            }
+            i += node.label.length();
+        }
+        node.removeEntry(entry);
+        for (int j = path.size() - 1; j >= 0; j--) {
+            Node parent = path.get(j);
+            if (node.entries.length == 0 && node.children.length == 0) {
+                parent.removeChild(node);
+            } else if (node.entries.length == 0 && node.children.length == 1) {
+                Node only = node.children[0];
+                only.label = node.label + only.label;
+                parent.putChild(only);
+            } else {
+                node.updateBest();
+            }
+            node = parent;
+        }
+        root.updateBest();
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Claves de un texto: el texto normalizado completo y lo que queda a partir de cada una de sus palabras.
+     */
+    static List<String> keys(String text) {
+        String normalized = normalize(text);
+        List<String> keys = new ArrayList<>();
+        if (normalized.isEmpty()) {
+            return keys;
+        }
+        keys.add(normalized);
+        for (int i = normalized.indexOf(' '); i >= 0; i = normalized.indexOf(' ', i + 1)) {
+            String suffix = normalized.substring(i + 1);
+            if (!keys.contains(suffix)) {
+                keys.add(suffix);
+            }
+        }
+        return keys;
+    }
+
+    static String normalize(String text) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATOR.matcher(folded).replaceAll(" ").trim();
+    }
+
+    private static long score(Object item) {
+        return item instanceof Entry entry ? entry.score : ((Node) item).best;
+    }
+
+    private record Key(SuggestionType type, UUID id) {
+    }
+
+    private static final class Entry {
+        static final Entry[] NONE = new Entry[0];
+
+        private final Key key;
+        private final String text;
+        private final long score;
+        private final List<String> keys;
+
+        Entry(Key key, String text, long score, List<String> keys) {
+            this.key = key;
+            this.text = text;
+            this.score = score;
+            this.keys = keys;
+        }
+    }
+
+    /**
+     * Nodo del árbol: la etiqueta es el tramo de clave desde el padre y los hijos se guardan ordenados por su
+     * primer carácter.
+     */
+    private static final class Node {
+        static final Node[] NO_CHILDREN = new Node[0];
+
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        private Entry[] entries = Entry.NONE;
+        private long best = Long.MIN_VALUE;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        Node child(char first) {
+            int index = indexOf(first);
+            return index >= 0 ? children[index] : null;
+        }
+
+        void putChild(Node child) {
+            int index = indexOf(child.label.charAt(0));
+            if (index >= 0) {
+                children[index] = child;
+                return;
+            }
+            int insertion = -index - 1;
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, insertion);
+            grown[insertion] = child;
+            System.arraycopy(children, insertion, grown, insertion + 1, children.length - insertion);
+            children = grown;
+        }
+
+        void removeChild(Node child) {
+            int index = indexOf(child.label.charAt(0));
+            if (index >= 0 && children[index] == child) {
+                Node[] shrunk = new Node[children.length - 1];
+                System.arraycopy(children, 0, shrunk, 0, index);
+                System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+                children = shrunk;
+            }
+        }
+
+        void addEntry(Entry entry) {
+            entries = Arrays.copyOf(entries, entries.length + 1);
+            entries[entries.length - 1] = entry;
+        }
+
+        void removeEntry(Entry entry) {
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i] == entry) {
+                    Entry[] shrunk = new Entry[entries.length - 1];
+                    System.arraycopy(entries, 0, shrunk, 0, i);
+                    System.arraycopy(entries, i + 1, shrunk, i, entries.length - i - 1);
+                    entries = shrunk;
+                    return;
+                }
+            }
+        }
+
+        void updateBest() {
+            long max = Long.MIN_VALUE;
+            for (Entry entry : entries) {
+                max = Math.max(max, entry.score);
+            }
+            for (Node child : children) {
+                max = Math.max(max, child.best);
+            }
+            best = max;
+        }
+
+        private int indexOf(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char value = children[mid].label.charAt(0);
+                if (value < first) {
+                    low = mid + 1;
+                } else if (value > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
@@ -4,8 +4,11 @@ import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierCreateDto;
 import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierResponseDto;
 import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierUpdateDto;
 import dev.clownsinformatics.tiendajava.rest.suppliers.services.SupplierService;
+import dev.clownsinformatics.tiendajava.utils.pagination.ApproximateCounts;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PaginationLinksUtils;
+import dev.clownsinformatics.tiendajava.utils.pagination.TotalMode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -18,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -27,6 +31,7 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -50,6 +55,7 @@ public class SupplierController {
      * Utilidad para la creación de enlaces de paginación.
      */
     private final PaginationLinksUtils paginationLinksUtils;
+    private final ApproximateCounts approximateCounts;
 
     /**
      * Constructor que inyecta las dependencias necesarias para el controlador.
@@ -58,9 +64,10 @@ public class SupplierController {
      * @param paginationLinksUtils Utilidad para enlaces de paginación.
      */
     @Autowired
-    public SupplierController(SupplierService supplierService, PaginationLinksUtils paginationLinksUtils) {
+    public SupplierController(SupplierService supplierService, PaginationLinksUtils paginationLinksUtils, ApproximateCounts approximateCounts) {
         this.supplierService = supplierService;
         this.paginationLinksUtils = paginationLinksUtils;
+        this.approximateCounts = approximateCounts;
     }
 
     /**
@@ -74,6 +81,7 @@ public class SupplierController {
      * @param size      Número de elementos por página.
      * @param sortBy    Campo por el cual ordenar los resultados.
      * @param direction Dirección de ordenamiento (ascendente o descendente).
+     * @param withTotal {@code true} cuenta el total, {@code false} no lo cuenta y {@code approximate} usa uno reciente.
      * @param request   Objeto HttpServletRequest para construir enlaces de paginación.
      * @return ResponseEntity con la lista paginada de proveedores y enlaces de paginación.
      */
@@ -91,7 +99,8 @@ public class SupplierController {
             @Parameter(name = "page", description = "Page number", example = "0"),
             @Parameter(name = "size", description = "Number of elements per page", example = "10"),
             @Parameter(name = "sortBy", description = "Sort by field", example = "id"),
-            @Parameter(name = "direction", description = "Sort direction", example = "asc")
+            @Parameter(name = "direction", description = "Sort direction", example = "asc"),
+            @Parameter(name = "withTotal", description = "true counts the total, false skips the count, approximate uses a recent count")
     })
     @GetMapping()
     public ResponseEntity<PageResponse<SupplierResponseDto>> getAll(@RequestParam(required = false) Optional<String> category,
@@ -102,16 +111,74 @@ public class SupplierController {
                                                                     @RequestParam(defaultValue = "10") int size,
                                                                     @RequestParam(defaultValue = "id") String sortBy,
                                                                     @RequestParam(defaultValue = "asc") String direction,
+                                                                    @RequestParam(defaultValue = "true") String withTotal,
                                                                     HttpServletRequest request) {
         log.info("Searching suppliers...");
         Sort sort = Sort.by(Sort.Direction.fromString(direction), sortBy);
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        TotalMode totalMode = TotalMode.of(withTotal);
+        if (totalMode != TotalMode.EXACT) {
+            Slice<SupplierResponseDto> slice = supplierService.findAllSlice(category, name, contact, isDeleted, PageRequest.of(page, size, sort));
+            Long total = totalMode == TotalMode.APPROXIMATE
+                    ? approximateCounts.count("suppliers", List.of(category, name, contact, isDeleted), () -> supplierService.count(category, name, contact, isDeleted))
+                    : null;
+            return ResponseEntity.ok()
+                    .header("link", paginationLinksUtils.createLinkHeader(slice, uriBuilder))
+                    .body(PageResponse.of(slice, total, sortBy, direction));
+        }
         Page<SupplierResponseDto> result = supplierService.findAll(category, name, contact, isDeleted, PageRequest.of(page, size, sort));
         return ResponseEntity.ok()
                 .header("link", paginationLinksUtils.createLinkHeader(result, uriBuilder))
                 .body(PageResponse.of(result, sortBy, direction));
     }
 
+    /**
+     * Recupera los proveedores paginados por cursor, sin contar el total.
+     *
+     * @param category  Categoría del proveedor (opcional).
+     * @param name      Nombre del proveedor (opcional).
+     * @param contact   Contacto del proveedor (opcional).
+     * @param isDeleted Indica si el proveedor está eliminado (opcional).
+     * @param cursor    Cursor de la página anterior; si no se indica se devuelve la primera página.
+     * @param size      Número de elementos por página.
+     * @param sortBy    Campo por el cual ordenar los resultados.
+     * @param direction Dirección de ordenamiento (ascendente o descendente).
+     * @param request   Objeto HttpServletRequest para construir enlaces de paginación.
+     * @return ResponseEntity con la página de proveedores y el enlace a la siguiente.
+     */
+    @Operation(summary = "Get all suppliers by cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Found the suppliers"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, page size or sort supplied")
+    })
+    @Parameters({
+            @Parameter(name = "category", description = "Category of the supplier", example = "PORTATILES"),
+            @Parameter(name = "name", description = "Name of the supplier", example = "HP"),
+            @Parameter(name = "contact", description = "Contact of the supplier", example = "123456789"),
+            @Parameter(name = "isDeleted", description = "Supplier deleted", example = "false"),
+            @Parameter(name = "cursor", description = "Cursor returned by the previous page"),
+            @Parameter(name = "size", description = "Number of elements per page", example = "10"),
+            @Parameter(name = "sortBy", description = "Sort by field", example = "id"),
+            @Parameter(name = "direction", description = "Sort direction", example = "asc")
+    })
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageResponse<SupplierResponseDto>> getAllByCursor(@RequestParam(required = false) Optional<String> category,
+                                                                                  @RequestParam(required = false) Optional<String> name,
+                                                                                  @RequestParam(required = false) Optional<Integer> contact,
+                                                                                  @RequestParam(defaultValue = "false") Optional<Boolean> isDeleted,
+                                                                                  @RequestParam(required = false) String cursor,
+                                                                                  @RequestParam(defaultValue = "10") int size,
+                                                                                  @RequestParam(defaultValue = "id") String sortBy,
+                                                                                  @RequestParam(defaultValue = "asc") String direction,
+                                                                                  HttpServletRequest request) {
+        log.info("Searching suppliers by cursor...");
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        CursorPageResponse<SupplierResponseDto> result = supplierService.findAllByCursor(category, name, contact, isDeleted, cursor, size, sortBy, direction);
+        return ResponseEntity.ok()
+                .header("link", paginationLinksUtils.createLinkHeader(result, uriBuilder))
+                .body(result);
+    }
+
     /**
      * Obtiene un proveedor por su UUID.
      *
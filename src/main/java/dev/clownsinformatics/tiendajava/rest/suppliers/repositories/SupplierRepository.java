@@ -1,6 +1,15 @@
 package dev.clownsinformatics.tiendajava.rest.suppliers.repositories;
 
 import dev.clownsinformatics.tiendajava.rest.suppliers.models.Supplier;
+import dev.clownsinformatics.tiendajava.utils.jpa.KeysetRepository;
+import dev.clownsinformatics.tiendajava.utils.jpa.KeysetSlice;
+import dev.clownsinformatics.tiendajava.utils.jpa.SliceRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
@@ -13,7 +22,25 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface SupplierRepository extends JpaRepository<Supplier, UUID>, JpaSpecificationExecutor<Supplier> {
+public interface SupplierRepository extends JpaRepository<Supplier, UUID>, JpaSpecificationExecutor<Supplier>, SliceRepository<Supplier>, KeysetRepository<Supplier> {
+    /**
+     * Listado de proveedores cargando su categoría en la misma consulta.
+     */
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Page<Supplier> findAll(Specification<Supplier> spec, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Slice<Supplier> findSlice(Specification<Supplier> spec, Pageable pageable);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    KeysetSlice<Supplier> findAfter(Specification<Supplier> spec, String cursor, int size, String sortBy, Sort.Direction direction);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Supplier> findAll();
 
     Optional<Supplier> findByNameEqualsIgnoreCase(String name);
 
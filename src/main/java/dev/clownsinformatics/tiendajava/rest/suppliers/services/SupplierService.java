@@ -3,14 +3,22 @@ package dev.clownsinformatics.tiendajava.rest.suppliers.services;
 import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierCreateDto;
 import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierResponseDto;
 import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierUpdateDto;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.Optional;
 
 public interface SupplierService {
     Page<SupplierResponseDto> findAll(Optional<String> category, Optional<String> name, Optional<Integer> contact, Optional<Boolean> isDeleted, Pageable pageable);
 
+    Slice<SupplierResponseDto> findAllSlice(Optional<String> category, Optional<String> name, Optional<Integer> contact, Optional<Boolean> isDeleted, Pageable pageable);
+
+    long count(Optional<String> category, Optional<String> name, Optional<Integer> contact, Optional<Boolean> isDeleted);
+
+    CursorPageResponse<SupplierResponseDto> findAllByCursor(Optional<String> category, Optional<String> name, Optional<Integer> contact, Optional<Boolean> isDeleted, String cursor, int size, String sortBy, String direction);
+
     SupplierResponseDto findByUUID(String id);
 
     SupplierResponseDto findByName(String name);
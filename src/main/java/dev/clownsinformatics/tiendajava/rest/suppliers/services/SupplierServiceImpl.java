@@ -4,8 +4,9 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.clownsinformatics.tiendajava.config.websocket.WebSocketConfig;
 import dev.clownsinformatics.tiendajava.config.websocket.WebSocketHandler;
-import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
 import dev.clownsinformatics.tiendajava.rest.categories.services.CategoryService;
+import dev.clownsinformatics.tiendajava.rest.suggestions.models.SuggestionType;
+import dev.clownsinformatics.tiendajava.rest.suggestions.services.SuggestionService;
 import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierCreateDto;
 import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierResponseDto;
 import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierUpdateDto;
@@ -14,10 +15,14 @@ import dev.clownsinformatics.tiendajava.rest.suppliers.exceptions.SupplierNotFou
 import dev.clownsinformatics.tiendajava.rest.suppliers.mapper.SupplierMapper;
 import dev.clownsinformatics.tiendajava.rest.suppliers.models.Supplier;
 import dev.clownsinformatics.tiendajava.rest.suppliers.repositories.SupplierRepository;
+import dev.clownsinformatics.tiendajava.utils.cache.CacheInvalidationBus;
+import dev.clownsinformatics.tiendajava.utils.jpa.FilterSpecification;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorBadRequest;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
+import dev.clownsinformatics.tiendajava.utils.transaction.AfterCommit;
 import dev.clownsinformatics.tiendajava.websockets.notifications.dto.SuppliersNotificationDto;
 import dev.clownsinformatics.tiendajava.websockets.notifications.mapper.SuppliersNotificationMapper;
 import dev.clownsinformatics.tiendajava.websockets.notifications.models.Notification;
-import jakarta.persistence.criteria.Join;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheConfig;
@@ -26,6 +31,8 @@ import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -76,6 +83,16 @@ public class SupplierServiceImpl implements SupplierService {
      */
     private final ObjectMapper mapper;
 
+    /**
+     * Servicio de sugerencias del buscador, que se mantiene al día con los cambios.
+     */
+    private final SuggestionService suggestionService;
+
+    /**
+     * Bus que avisa a los demás nodos de los cambios para que invaliden sus cachés.
+     */
+    private final CacheInvalidationBus cacheInvalidationBus;
+
     /**
      * Manejador de WebSocket para enviar notificaciones.
      */
@@ -90,9 +107,11 @@ public class SupplierServiceImpl implements SupplierService {
      * @param webSocketConfig             Configuración WebSocket.
      * @param suppliersNotificationMapper Mapper de notificaciones de proveedores.
      * @param mapper                      ObjectMapper para JSON.
+     * @param suggestionService           Servicio de sugerencias del buscador.
+     * @param cacheInvalidationBus        Bus de invalidación de las cachés de los demás nodos.
      */
     @Autowired
-    public SupplierServiceImpl(SupplierRepository supplierRepository, SupplierMapper supplierMapper, CategoryService categoryService, WebSocketConfig webSocketConfig, SuppliersNotificationMapper suppliersNotificationMapper, ObjectMapper mapper) {
+    public SupplierServiceImpl(SupplierRepository supplierRepository, SupplierMapper supplierMapper, CategoryService categoryService, WebSocketConfig webSocketConfig, SuppliersNotificationMapper suppliersNotificationMapper, ObjectMapper mapper, SuggestionService suggestionService, CacheInvalidationBus cacheInvalidationBus) {
         this.supplierRepository = supplierRepository;
         this.supplierMapper = supplierMapper;
         this.categoryService = categoryService;
@@ -100,6 +119,8 @@ public class SupplierServiceImpl implements SupplierService {
         webSocketService = webSocketConfig.webSocketSupplierHandler();
         this.suppliersNotificationMapper = suppliersNotificationMapper;
         this.mapper = new ObjectMapper();
+        this.suggestionService = suggestionService;
+        this.cacheInvalidationBus = cacheInvalidationBus;
     }
 
     /**
@@ -114,24 +135,65 @@ public class SupplierServiceImpl implements SupplierService {
      */
     @Override
     public Page<SupplierResponseDto> findAll(Optional<String> category, Optional<String> name, Optional<Integer> contact, Optional<Boolean> isDeleted, Pageable pageable) {
-        Specification<Supplier> specSupplierCategory = (root, query, criteriaBuilder) ->
-                category.map(c -> {
-                    Join<Supplier, Category> categoriaJoin = root.join("category");
-                    return criteriaBuilder.like(criteriaBuilder.lower(categoriaJoin.get("name")), "%" + c.toLowerCase() + "%");
-                }).orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+        return supplierRepository.findAll(specification(category, name, contact, isDeleted), pageable).map(supplierMapper::toSupplierDto);
+    }
 
-        Specification<Supplier> specSupplierName = (root, query, criteriaBuilder) ->
-                name.map(n -> criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + n.toLowerCase() + "%"))
-                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
-        Specification<Supplier> specIsDeleted = (root, query, criteriaBuilder) ->
-                isDeleted.map(d -> criteriaBuilder.equal(root.get("isDeleted"), d))
-                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
-        Specification<Supplier> specSupplierContact = (root, query, criteriaBuilder) ->
-                contact.map(c -> criteriaBuilder.equal(root.get("contact"), c))
-                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+    /**
+     * Obtiene los proveedores de una página sin contar el total.
+     *
+     * @param category  Categoría del proveedor (opcional).
+     * @param name      Nombre del proveedor (opcional).
+     * @param contact   Contacto del proveedor (opcional).
+     * @param isDeleted Indica si el proveedor está eliminado (opcional).
+     * @param pageable  Información de paginación.
+     * @return Trozo con los DTOs de proveedores de la página.
+     */
+    @Override
+    public Slice<SupplierResponseDto> findAllSlice(Optional<String> category, Optional<String> name, Optional<Integer> contact, Optional<Boolean> isDeleted, Pageable pageable) {
+        return supplierRepository.findSlice(specification(category, name, contact, isDeleted), pageable).map(supplierMapper::toSupplierDto);
+    }
+
+    /**
+     * Cuenta los proveedores que cumplen los filtros.
+     *
+     * @param category  Categoría del proveedor (opcional).
+     * @param name      Nombre del proveedor (opcional).
+     * @param contact   Contacto del proveedor (opcional).
+     * @param isDeleted Indica si el proveedor está eliminado (opcional).
+     * @return Número de proveedores.
+     */
+    @Override
+    public long count(Optional<String> category, Optional<String> name, Optional<Integer> contact, Optional<Boolean> isDeleted) {
+        return supplierRepository.count(specification(category, name, contact, isDeleted));
+    }
+
+    /**
+     * Obtiene los proveedores paginados por cursor, continuando a partir del último de la página anterior.
+     *
+     * @param category  Categoría del proveedor (opcional).
+     * @param name      Nombre del proveedor (opcional).
+     * @param contact   Contacto del proveedor (opcional).
+     * @param isDeleted Indica si el proveedor está eliminado (opcional).
+     * @param cursor    Cursor de la página anterior, o {@code null} para la primera.
+     * @param size      Número de proveedores por página.
+     * @param sortBy    Campo de ordenación.
+     * @param direction Dirección de ordenación (ASC o DESC).
+     * @return Página de DTOs de proveedores con el cursor de la siguiente.
+     * @throws CursorBadRequest Si el cursor, el tamaño o la ordenación no son válidos.
+     */
+    @Override
+    public CursorPageResponse<SupplierResponseDto> findAllByCursor(Optional<String> category, Optional<String> name, Optional<Integer> contact, Optional<Boolean> isDeleted, String cursor, int size, String sortBy, String direction) {
+        Sort.Direction sortDirection = direction.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return supplierRepository.findAfter(specification(category, name, contact, isDeleted), cursor, size, sortBy, sortDirection)
+                .toResponse(supplierMapper::toSupplierDto, sortBy, direction);
+    }
 
-        Specification<Supplier> spec = Specification.where(specSupplierCategory).and(specSupplierName).and(specIsDeleted).and(specSupplierContact);
-        return supplierRepository.findAll(spec, pageable).map(supplierMapper::toSupplierDto);
+    private Specification<Supplier> specification(Optional<String> category, Optional<String> name, Optional<Integer> contact, Optional<Boolean> isDeleted) {
+        return FilterSpecification.<Supplier>builder()
+                .joinedContains("category", "name", category)
+                .contains("name", name)
+                .equal("isDeleted", isDeleted)
+                .equal("contact", contact);
     }
 
 
@@ -189,12 +251,14 @@ public class SupplierServiceImpl implements SupplierService {
      */
     @Transactional
     @Override
-    @CachePut(key = "#result.id")
+    @CachePut(key = "#result.id.toString()")
     public SupplierResponseDto save(SupplierCreateDto supplierCreateDto) {
         categoryService.findById(supplierCreateDto.category().getUuid());
         var supplierToSave = supplierMapper.toSupplier(supplierCreateDto);
         sendNotification(Notification.Tipo.CREATE, supplierToSave);
-        return supplierMapper.toSupplierDto(supplierRepository.save(supplierToSave));
+        Supplier saved = supplierRepository.save(supplierToSave);
+        AfterCommit.run(() -> suggestionService.index(saved));
+        return supplierMapper.toSupplierDto(saved);
     }
 
     /**
@@ -213,7 +277,10 @@ public class SupplierServiceImpl implements SupplierService {
                 .orElseThrow(() -> new SupplierNotFound(getUUID(idSupplier)));
         var supplier = supplierMapper.toSupplier(supplierUpdateDto, supplierToUpdate);
         sendNotification(Notification.Tipo.UPDATE, supplier);
-        return supplierMapper.toSupplierDto(supplierRepository.save(supplier));
+        Supplier updated = supplierRepository.save(supplier);
+        AfterCommit.run(() -> suggestionService.index(updated));
+        cacheInvalidationBus.invalidate("suppliers", idSupplier);
+        return supplierMapper.toSupplierDto(updated);
     }
 
     /**
@@ -231,6 +298,8 @@ public class SupplierServiceImpl implements SupplierService {
                 .orElseThrow(() -> new SupplierNotFound(uuid));
         sendNotification(Notification.Tipo.DELETE, supplierToDelete);
         supplierRepository.deleteById(uuid);
+        AfterCommit.run(() -> suggestionService.remove(SuggestionType.SUPPLIER, uuid));
+        cacheInvalidationBus.invalidate("suppliers", idSupplier);
     }
 
     /**
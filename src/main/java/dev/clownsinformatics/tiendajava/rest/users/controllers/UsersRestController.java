@@ -1,9 +1,11 @@
 package dev.clownsinformatics.tiendajava.rest.users.controllers;
 
+import dev.clownsinformatics.tiendajava.rest.orders.dto.ClientOrderSummaryDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderCreateDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderResponseDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderUpdateDto;
 import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.orders.service.ClientOrderSummaryService;
 import dev.clownsinformatics.tiendajava.rest.orders.service.OrderService;
 import dev.clownsinformatics.tiendajava.rest.users.dto.UserInfoResponse;
 import dev.clownsinformatics.tiendajava.rest.users.dto.UserRequest;
@@ -11,8 +13,11 @@ import dev.clownsinformatics.tiendajava.rest.users.dto.UserResponse;
 import dev.clownsinformatics.tiendajava.rest.users.exceptions.UnauthorizedUser;
 import dev.clownsinformatics.tiendajava.rest.users.models.User;
 import dev.clownsinformatics.tiendajava.rest.users.services.UsersService;
+import dev.clownsinformatics.tiendajava.utils.pagination.ApproximateCounts;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PaginationLinksUtils;
+import dev.clownsinformatics.tiendajava.utils.pagination.TotalMode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Parameters;
@@ -26,6 +31,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -38,6 +44,7 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
@@ -48,13 +55,17 @@ import java.util.Optional;
 public class UsersRestController {
     private final UsersService usersService;
     private final PaginationLinksUtils paginationLinksUtils;
+    private final ApproximateCounts approximateCounts;
     private final OrderService orderService;
+    private final ClientOrderSummaryService clientOrderSummaryService;
 
     @Autowired
-    public UsersRestController(UsersService usersService, PaginationLinksUtils paginationLinksUtils, OrderService orderService) {
+    public UsersRestController(UsersService usersService, PaginationLinksUtils paginationLinksUtils, ApproximateCounts approximateCounts, OrderService orderService, ClientOrderSummaryService clientOrderSummaryService) {
         this.usersService = usersService;
         this.paginationLinksUtils = paginationLinksUtils;
+        this.approximateCounts = approximateCounts;
         this.orderService = orderService;
+        this.clientOrderSummaryService = clientOrderSummaryService;
     }
 
     /**
@@ -67,6 +78,7 @@ public class UsersRestController {
      * @param size      tamaño
      * @param sortBy    campo de ordenación
      * @param direction dirección de ordenación
+     * @param withTotal {@code true} cuenta el total, {@code false} no lo cuenta y {@code approximate} usa uno reciente.
      * @param request   petición
      * @return Respuesta con la página de usuarios
      */
@@ -84,6 +96,7 @@ public class UsersRestController {
             @Parameter(name = "size", required = false, description = "Size"),
             @Parameter(name = "sortBy", required = false, description = "Sort by"),
             @Parameter(name = "direction", required = false, description = "Direction"),
+            @Parameter(name = "withTotal", description = "true counts the total, false skips the count, approximate uses a recent count"),
             @Parameter(name = "request", required = true, description = "Request")
     })
     @GetMapping
@@ -96,18 +109,78 @@ public class UsersRestController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "id") String sortBy,
             @RequestParam(defaultValue = "asc") String direction,
+            @RequestParam(defaultValue = "true") String withTotal,
             HttpServletRequest request
     ) {
         log.info("findAll: username: {}, email: {}, isDeleted: {}, page: {}, size: {}, sortBy: {}, direction: {}",
                 username, email, isDeleted, page, size, sortBy, direction);
         Sort sort = direction.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.by(sortBy).ascending() : Sort.by(sortBy).descending();
         UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        TotalMode totalMode = TotalMode.of(withTotal);
+        if (totalMode != TotalMode.EXACT) {
+            Slice<UserResponse> slice = usersService.findAllSlice(username, email, isDeleted, PageRequest.of(page, size, sort));
+            Long total = totalMode == TotalMode.APPROXIMATE
+                    ? approximateCounts.count("users", List.of(username, email, isDeleted), () -> usersService.count(username, email, isDeleted))
+                    : null;
+            return ResponseEntity.ok()
+                    .header("link", paginationLinksUtils.createLinkHeader(slice, uriBuilder))
+                    .body(PageResponse.of(slice, total, sortBy, direction));
+        }
         Page<UserResponse> pageResult = usersService.findAll(username, email, isDeleted, PageRequest.of(page, size, sort));
         return ResponseEntity.ok()
                 .header("link", paginationLinksUtils.createLinkHeader(pageResult, uriBuilder))
                 .body(PageResponse.of(pageResult, sortBy, direction));
     }
 
+    /**
+     * Obtiene los usuarios paginados por cursor, sin contar el total
+     *
+     * @param username  username del usuario
+     * @param email     email del usuario
+     * @param isDeleted si está borrado o no
+     * @param cursor    cursor de la página anterior; si no se indica se devuelve la primera
+     * @param size      tamaño
+     * @param sortBy    campo de ordenación
+     * @param direction dirección de ordenación
+     * @param request   petición
+     * @return Respuesta con la página de usuarios y el cursor de la siguiente
+     */
+    @Operation(summary = "Find all users by cursor")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "Bad Request")
+    })
+    @Parameters({
+            @Parameter(name = "username", required = false, description = "Username"),
+            @Parameter(name = "email", required = false, description = "Email"),
+            @Parameter(name = "isDeleted", required = false, description = "Is deleted"),
+            @Parameter(name = "cursor", required = false, description = "Cursor returned by the previous page"),
+            @Parameter(name = "size", required = false, description = "Size"),
+            @Parameter(name = "sortBy", required = false, description = "Sort by"),
+            @Parameter(name = "direction", required = false, description = "Direction"),
+            @Parameter(name = "request", required = true, description = "Request")
+    })
+    @GetMapping("/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageResponse<UserResponse>> findAllByCursor(
+            @RequestParam(required = false) Optional<String> username,
+            @RequestParam(required = false) Optional<String> email,
+            @RequestParam(required = false) Optional<Boolean> isDeleted,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sortBy,
+            @RequestParam(defaultValue = "asc") String direction,
+            HttpServletRequest request
+    ) {
+        log.info("findAllByCursor: username: {}, email: {}, isDeleted: {}, size: {}, sortBy: {}, direction: {}",
+                username, email, isDeleted, size, sortBy, direction);
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromHttpUrl(request.getRequestURL().toString());
+        CursorPageResponse<UserResponse> pageResult = usersService.findAllByCursor(username, email, isDeleted, cursor, size, sortBy, direction);
+        return ResponseEntity.ok()
+                .header("link", paginationLinksUtils.createLinkHeader(pageResult, uriBuilder))
+                .body(pageResult);
+    }
+
     /**
      * Obtiene un usuario por su id
      *
@@ -130,6 +203,27 @@ public class UsersRestController {
         return ResponseEntity.ok(usersService.findById(id));
     }
 
+    /**
+     * Obtiene el resumen de pedidos de un usuario: número de pedidos, importe total y fecha del último pedido
+     *
+     * @param id del usuario, se pasa como parámetro de la URL /{id}/pedidos/summary
+     * @return Resumen de pedidos
+     */
+    @Operation(summary = "Get user orders summary")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK"),
+            @ApiResponse(responseCode = "400", description = "Bad Request")
+    })
+    @Parameters({
+            @Parameter(name = "id", required = true, description = "User id")
+    })
+    @GetMapping("/{id}/pedidos/summary")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ClientOrderSummaryDto> getOrderSummary(@PathVariable Long id) {
+        log.info("getOrderSummary: id: {}", id);
+        return ResponseEntity.ok(clientOrderSummaryService.findByIdUser(id));
+    }
+
     /**
      * Crea un nuevo usuario
      *
@@ -311,6 +405,26 @@ public class UsersRestController {
     }
 
 
+    /**
+     * Obtiene el resumen de pedidos del usuario actual
+     *
+     * @param user usuario autenticado
+     * @return Resumen de pedidos
+     */
+    @Operation(summary = "Get current user orders summary")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "OK")
+    })
+    @Parameters({
+            @Parameter(name = "user", required = true, description = "User data")
+    })
+    @GetMapping("/me/pedidos/summary")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ClientOrderSummaryDto> getPedidosSummary(@AuthenticationPrincipal User user) {
+        log.info("Obteniendo resumen de pedidos del usuario con id: " + user.getId());
+        return ResponseEntity.ok(clientOrderSummaryService.findByIdUser(user.getId()));
+    }
+
     /**
      * Obtiene un pedido del usuario actual
      *
@@ -1,6 +1,7 @@
 package dev.clownsinformatics.tiendajava.rest.users.dto;
 
 import dev.clownsinformatics.tiendajava.rest.users.models.Role;
+import dev.clownsinformatics.tiendajava.utils.cache.CacheWeighted;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,7 +16,7 @@ import java.util.Set;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class UserInfoResponse {
+public class UserInfoResponse implements CacheWeighted {
     @Schema(description = "User´s Id", example = "1")
     private Long id;
     @Schema(description = "User´s name", example = "David")
@@ -35,4 +36,9 @@ public class UserInfoResponse {
     @Builder.Default
     @Schema(description = "User´s orders", example = "[]")
     private List<String> orders = new ArrayList<>();
+
+    @Override
+    public int cacheWeight() {
+        return 1 + (orders == null ? 0 : orders.size());
+    }
 }
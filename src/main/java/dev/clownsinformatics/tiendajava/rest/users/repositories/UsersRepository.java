@@ -1,6 +1,8 @@
 package dev.clownsinformatics.tiendajava.rest.users.repositories;
 
 import dev.clownsinformatics.tiendajava.rest.users.models.User;
+import dev.clownsinformatics.tiendajava.utils.jpa.KeysetRepository;
+import dev.clownsinformatics.tiendajava.utils.jpa.SliceRepository;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
@@ -12,7 +14,7 @@ import java.util.Optional;
 
 
 @Repository
-public interface UsersRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
+public interface UsersRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>, SliceRepository<User>, KeysetRepository<User> {
 
     Optional<User> findByUsername(String username);
 
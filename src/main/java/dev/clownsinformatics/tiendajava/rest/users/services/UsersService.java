@@ -3,8 +3,10 @@ package dev.clownsinformatics.tiendajava.rest.users.services;
 import dev.clownsinformatics.tiendajava.rest.users.dto.UserInfoResponse;
 import dev.clownsinformatics.tiendajava.rest.users.dto.UserRequest;
 import dev.clownsinformatics.tiendajava.rest.users.dto.UserResponse;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.Optional;
 
@@ -12,6 +14,12 @@ public interface UsersService {
 
     Page<UserResponse> findAll(Optional<String> username, Optional<String> email, Optional<Boolean> isDeleted, Pageable pageable);
 
+    Slice<UserResponse> findAllSlice(Optional<String> username, Optional<String> email, Optional<Boolean> isDeleted, Pageable pageable);
+
+    long count(Optional<String> username, Optional<String> email, Optional<Boolean> isDeleted);
+
+    CursorPageResponse<UserResponse> findAllByCursor(Optional<String> username, Optional<String> email, Optional<Boolean> isDeleted, String cursor, int size, String sortBy, String direction);
+
     UserInfoResponse findById(Long id);
 
     UserResponse save(UserRequest userRequest);
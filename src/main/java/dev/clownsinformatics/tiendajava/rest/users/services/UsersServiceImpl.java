@@ -1,6 +1,7 @@
 package dev.clownsinformatics.tiendajava.rest.users.services;
 
 
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderArchiveRepository;
 import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderRepository;
 import dev.clownsinformatics.tiendajava.rest.users.dto.UserInfoResponse;
 import dev.clownsinformatics.tiendajava.rest.users.dto.UserRequest;
@@ -10,18 +11,27 @@ import dev.clownsinformatics.tiendajava.rest.users.exceptions.UserNotFound;
 import dev.clownsinformatics.tiendajava.rest.users.mappers.UsersMapper;
 import dev.clownsinformatics.tiendajava.rest.users.models.User;
 import dev.clownsinformatics.tiendajava.rest.users.repositories.UsersRepository;
+import dev.clownsinformatics.tiendajava.utils.jpa.FilterSpecification;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
@@ -31,33 +41,52 @@ public class UsersServiceImpl implements UsersService {
     private final UsersRepository usersRepository;
     private final UsersMapper usersMapper;
     private final OrderRepository orderRepository;
+    private final OrderArchiveRepository orderArchiveRepository;
 
-    public UsersServiceImpl(UsersRepository usersRepository, UsersMapper usersMapper, OrderRepository orderRepository) {
+    /**
+     * Número máximo de ids de pedidos que se devuelven con un usuario; 0 o negativo, el valor por defecto, para
+     * todos. Si se activa y un usuario lo alcanza, sus ids se recortan y se deja constancia en el log.
+     */
+    @Value("${users.orders.max-ids:0}")
+    private int maxOrderIds;
+
+    public UsersServiceImpl(UsersRepository usersRepository, UsersMapper usersMapper, OrderRepository orderRepository, OrderArchiveRepository orderArchiveRepository) {
         this.usersRepository = usersRepository;
         this.usersMapper = usersMapper;
         this.orderRepository = orderRepository;
+        this.orderArchiveRepository = orderArchiveRepository;
     }
 
     @Override
     public Page<UserResponse> findAll(Optional<String> username, Optional<String> email, Optional<Boolean> isDeleted, Pageable pageable) {
         log.info("Buscando todos los usuarios con username: " + username + " y borrados: " + isDeleted);
-        Specification<User> specUsernameUser = (root, query, criteriaBuilder) ->
-                username.map(m -> criteriaBuilder.like(criteriaBuilder.lower(root.get("username")), "%" + m.toLowerCase() + "%"))
-                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+        return usersRepository.findAll(specification(username, email, isDeleted), pageable).map(usersMapper::toUserResponse);
+    }
 
-        Specification<User> specEmailUser = (root, query, criteriaBuilder) ->
-                email.map(m -> criteriaBuilder.like(criteriaBuilder.lower(root.get("email")), "%" + m.toLowerCase() + "%"))
-                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+    @Override
+    public Slice<UserResponse> findAllSlice(Optional<String> username, Optional<String> email, Optional<Boolean> isDeleted, Pageable pageable) {
+        log.info("Buscando un trozo de usuarios con username: " + username + " y borrados: " + isDeleted);
+        return usersRepository.findSlice(specification(username, email, isDeleted), pageable).map(usersMapper::toUserResponse);
+    }
 
-        Specification<User> specIsDeleted = (root, query, criteriaBuilder) ->
-                isDeleted.map(m -> criteriaBuilder.equal(root.get("isDeleted"), m))
-                        .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+    @Override
+    public long count(Optional<String> username, Optional<String> email, Optional<Boolean> isDeleted) {
+        return usersRepository.count(specification(username, email, isDeleted));
+    }
 
-        Specification<User> criterio = Specification.where(specUsernameUser)
-                .and(specEmailUser)
-                .and(specIsDeleted);
+    @Override
+    public CursorPageResponse<UserResponse> findAllByCursor(Optional<String> username, Optional<String> email, Optional<Boolean> isDeleted, String cursor, int size, String sortBy, String direction) {
+        log.info("Buscando usuarios por cursor con username: " + username + " y borrados: " + isDeleted);
+        Sort.Direction sortDirection = direction.equalsIgnoreCase(Sort.Direction.ASC.name()) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return usersRepository.findAfter(specification(username, email, isDeleted), cursor, size, sortBy, sortDirection)
+                .toResponse(usersMapper::toUserResponse, sortBy, direction);
+    }
 
-        return usersRepository.findAll(criterio, pageable).map(usersMapper::toUserResponse);
+    private Specification<User> specification(Optional<String> username, Optional<String> email, Optional<Boolean> isDeleted) {
+        return FilterSpecification.<User>builder()
+                .contains("username", username)
+                .contains("email", email)
+                .equal("isDeleted", isDeleted);
     }
 
     @Override
@@ -65,12 +94,24 @@ public class UsersServiceImpl implements UsersService {
     public UserInfoResponse findById(Long id) {
         log.info("Buscando usuario por id: " + id);
         var user = usersRepository.findById(id).orElseThrow(() -> new UserNotFound(id));
-        var order = orderRepository.findOrderIdsByIdUser(id).stream().map(p -> p.getId().toHexString()).toList();
-        return usersMapper.toUserInfoResponse(user, order);
+        // Un pedido que se está archivando puede estar a la vez en las dos colecciones
+        Set<String> order = new LinkedHashSet<>();
+        try (Stream<ObjectId> ids = orderRepository.streamOrderIdsByIdUser(id, maxOrderIds)) {
+            ids.map(ObjectId::toHexString).forEach(order::add);
+        }
+        if (maxOrderIds <= 0 || order.size() < maxOrderIds) {
+            int remaining = maxOrderIds <= 0 ? 0 : maxOrderIds - order.size();
+            try (Stream<ObjectId> ids = orderArchiveRepository.streamOrderIdsByIdUser(id, remaining)) {
+                ids.map(ObjectId::toHexString).forEach(order::add);
+            }
+        }
+        if (maxOrderIds > 0 && order.size() >= maxOrderIds) {
+            log.warn("User {} has at least {} orders, only the most recent ones are returned (users.orders.max-ids)", id, maxOrderIds);
+        }
+        return usersMapper.toUserInfoResponse(user, new ArrayList<>(order));
     }
 
     @Override
-    @CachePut(key = "#result.id")
     public UserResponse save(UserRequest userRequest) {
         log.info("Guardando usuario: " + userRequest);
         usersRepository.findByUsernameEqualsIgnoreCaseOrEmailEqualsIgnoreCase(userRequest.getUsername(), userRequest.getEmail())
@@ -81,7 +122,7 @@ public class UsersServiceImpl implements UsersService {
     }
 
     @Override
-    @CachePut(key = "#result.id")
+    @CacheEvict(key = "#id")
     public UserResponse update(Long id, UserRequest userRequest) {
         log.info("Actualizando usuario: " + userRequest);
         usersRepository.findById(id).orElseThrow(() -> new UserNotFound(id));
@@ -102,11 +143,11 @@ public class UsersServiceImpl implements UsersService {
         log.info("Borrando usuario por id: " + id);
         User user = usersRepository.findById(id).orElseThrow(() -> new UserNotFound(id));
 
-        if (orderRepository.existsByIdUser(id)) {
+        if (orderRepository.existsByIdUser(id) || orderArchiveRepository.existsByIdUser(id)) {
             log.info("Borrado lógico de usuario por id: " + id);
             usersRepository.updateIsDeletedToTrueById(id);
         } else {
-            // Si hay pedidos, lo borramos físicamente
+            // Si no tiene pedidos, ni recientes ni archivados, lo borramos físicamente
             log.info("Borrado físico de usuario por id: " + id);
             usersRepository.delete(user);
         }
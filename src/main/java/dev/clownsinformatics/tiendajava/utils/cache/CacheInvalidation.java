@@ -0,0 +1,71 @@
+package dev.clownsinformatics.tiendajava.utils.cache;
+
+import org.springframework.core.convert.support.DefaultConversionService;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Aviso de que una entrada de una caché ha dejado de ser válida en todos los nodos.
+ * <p>
+ * La clave viaja como texto junto con su tipo, para que cada nodo la convierta al mismo tipo con el que la
+ * guardan las anotaciones de caché ({@code Long} en clientes, {@code String} en productos...). Sin clave, el
+ * aviso invalida la caché entera.
+ *
+ * @param cache   Nombre de la caché.
+ * @param key     Clave como texto, o {@code null} para toda la caché.
+ * @param keyType Tipo de la clave: {@code string}, {@code long}, {@code integer} o {@code uuid}.
+ * @param version Versión del cambio; de varios avisos de la misma clave solo se envía el más reciente.
+ */
+public record CacheInvalidation(String cache, String key, String keyType, long version) {
+    private static final Map<Class<?>, String> KEY_TYPES = Map.of(
+            String.class, "string",
+            Long.class, "long",
+            Integer.class, "integer",
+            UUID.class, "uuid");
+    private static final Map<String, Class<?>> KEY_CLASSES = Map.of(
+            "string", String.class,
+            "long", Long.class,
+            "integer", Integer.class,
+            "uuid", UUID.class);
+
+    /**
+     * Aviso para una clave.
+     *
+     * @throws IllegalArgumentException Si la clave no es de uno de los tipos admitidos.
+     */
+    public static CacheInvalidation of(String cache, Object key, long version) {
+        String keyType = KEY_TYPES.get(key.getClass());
+        if (keyType == null) {
+            throw new IllegalArgumentException("Unsupported cache key type: " + key.getClass().getName());
+        }
+        return new CacheInvalidation(cache, key.toString(), keyType, version);
+    }
+
+    /**
+     * Aviso para toda la caché.
+     */
+    public static CacheInvalidation all(String cache, long version) {
+        return new CacheInvalidation(cache, null, null, version);
+    }
+
+    /**
+     * Indica si el aviso invalida la caché entera.
+     */
+    public boolean allEntries() {
+        return key == null;
+    }
+
+    /**
+     * Clave convertida a su tipo original.
+     *
+     * @throws IllegalArgumentException Si el tipo no es uno de los admitidos.
+     */
+    public Object typedKey() {
+        Class<?> type = KEY_CLASSES.get(keyType);
+        if (type == null) {
+            throw new IllegalArgumentException("Unsupported cache key type: " + keyType);
+        }
+        return DefaultConversionService.getSharedInstance().convert(key, type);
+    }
+}
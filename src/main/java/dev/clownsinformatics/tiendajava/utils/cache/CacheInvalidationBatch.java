@@ -0,0 +1,12 @@
+package dev.clownsinformatics.tiendajava.utils.cache;
+
+import java.util.List;
+
+/**
+ * Lote de avisos de invalidación que envía un nodo.
+ *
+ * @param origin        Identificador del nodo que lo envía, que ignora sus propios lotes.
+ * @param invalidations Avisos, como mucho uno por clave.
+ */
+public record CacheInvalidationBatch(String origin, List<CacheInvalidation> invalidations) {
+}
@@ -0,0 +1,233 @@
+package dev.clownsinformatics.tiendajava.utils.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bus de invalidación de las cachés locales entre las instancias de la aplicación.
+ * <p>
+ * Cada escritura de un servicio avisa con {@link #invalidate(String, Object)} o {@link #invalidateAll(String)}.
+ * Los avisos se acumulan y un hilo en segundo plano los envía cada {@code caches.invalidation.flush-interval-ms}
+ * en lotes de como mucho {@code caches.invalidation.max-batch-size}, con un único aviso por clave (el de mayor
+ * versión) y sin los avisos de claves de una caché que se invalida entera. Dentro de una transacción el aviso
+ * se acumula al confirmarse, para que otro nodo no vuelva a cachear el valor anterior.
+ * <p>
+ * Al recibir un lote de otro nodo se borran de la caché local las claves indicadas. El nodo que envía ya tiene
+ * su caché al día por las anotaciones, así que ignora sus propios lotes. Si el canal avisa de que se han podido
+ * perder lotes se vacían todas las cachés locales.
+ *
+ * @version 1.0
+ * @since 2023-11-28
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBus implements CacheInvalidationTransport.Listener {
+    private final CacheManager cacheManager;
+    private final CacheInvalidationTransport transport;
+    private final long flushIntervalMs;
+    private final int maxBatchSize;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong clock = new AtomicLong();
+
+    private final Map<PendingKey, Long> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+
+    @Autowired
+    public CacheInvalidationBus(CacheManager cacheManager,
+                                CacheInvalidationTransport transport,
+                                @Value("${caches.invalidation.flush-interval-ms:50}") long flushIntervalMs,
+                                @Value("${caches.invalidation.max-batch-size:500}") int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("caches.invalidation.max-batch-size must be greater than 0");
+        }
+        this.cacheManager = cacheManager;
+        this.transport = transport;
+        this.flushIntervalMs = flushIntervalMs;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Se suscribe al canal y arranca el envío periódico de los avisos.
+     */
+    @PostConstruct
+    public void start() {
+        transport.subscribe(this);
+        if (flushIntervalMs > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cache-invalidation-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        log.info("Cache invalidation bus started for node {}", nodeId);
+    }
+
+    /**
+     * Detiene el envío periódico, envía los avisos pendientes y cancela la suscripción.
+     */
+    @PreDestroy
+    public void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        try {
+            flush();
+        } finally {
+            transport.unsubscribe(this);
+        }
+    }
+
+    /**
+     * Identificador de este nodo en los lotes que envía.
+     *
+     * @return Identificador del nodo.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Avisa a los demás nodos de que una clave de una caché ha cambiado.
+     *
+     * @param cache Nombre de la caché.
+     * @param key   Clave con la que la guardan las anotaciones de caché.
+     * @throws IllegalArgumentException Si la clave no es de uno de los tipos que admite {@link CacheInvalidation}.
+     */
+    public void invalidate(String cache, Object key) {
+        CacheInvalidation invalidation = CacheInvalidation.of(cache, key, 0);
+        enqueue(new PendingKey(cache, invalidation.key(), invalidation.keyType()));
+    }
+
+    /**
+     * Avisa a los demás nodos de que toda una caché ha cambiado.
+     *
+     * @param cache Nombre de la caché.
+     */
+    public void invalidateAll(String cache) {
+        enqueue(new PendingKey(cache, null, null));
+    }
+
+    /**
+     * Envía los avisos acumulados, agrupados por clave, en lotes de como mucho {@code maxBatchSize}. Si el canal
+     * falla, los avisos que no se han enviado vuelven a quedar pendientes.
+     */
+    public void flush() {
+        Set<String> wholeCaches = new HashSet<>();
+        List<Map.Entry<PendingKey, Long>> drained = new ArrayList<>();
+        for (var entry : pending.entrySet()) {
+            // Si entre tanto llega un aviso más reciente de la misma clave, se queda para el siguiente envío.
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                drained.add(Map.entry(entry.getKey(), entry.getValue()));
+                if (entry.getKey().key() == null) {
+                    wholeCaches.add(entry.getKey().cache());
+                }
+            }
+        }
+        drained.removeIf(entry -> entry.getKey().key() != null && wholeCaches.contains(entry.getKey().cache()));
+        for (int from = 0; from < drained.size(); from += maxBatchSize) {
+            List<Map.Entry<PendingKey, Long>> chunk = drained.subList(from, Math.min(from + maxBatchSize, drained.size()));
+            try {
+                transport.publish(new CacheInvalidationBatch(nodeId, chunk.stream().map(CacheInvalidationBus::toInvalidation).toList()));
+            } catch (RuntimeException e) {
+                drained.subList(from, drained.size()).forEach(entry -> pending.merge(entry.getKey(), entry.getValue(), Math::max));
+                throw e;
+            }
+        }
+        if (!drained.isEmpty()) {
+            log.debug("Published {} cache invalidations", drained.size());
+        }
+    }
+
+    @Override
+    public void onBatch(CacheInvalidationBatch batch) {
+        if (nodeId.equals(batch.origin())) {
+            return;
+        }
+        for (CacheInvalidation invalidation : batch.invalidations()) {
+            Cache cache = cacheManager.getCacheNames().contains(invalidation.cache()) ? cacheManager.getCache(invalidation.cache()) : null;
+            if (cache == null) {
+                continue;
+            }
+            try {
+                if (invalidation.allEntries()) {
+                    cache.clear();
+                } else {
+                    cache.evict(invalidation.typedKey());
+                }
+            } catch (IllegalArgumentException | ConversionException e) {
+                log.warn("Clearing cache {} after an invalid invalidation: {}", invalidation.cache(), e.getMessage());
+                cache.clear();
+            }
+        }
+    }
+
+    @Override
+    public void onReconnect() {
+        log.warn("Cache invalidations may have been lost, clearing all local caches");
+        cacheManager.getCacheNames().forEach(name -> {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+    }
+
+    private void enqueue(PendingKey pendingKey) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.merge(pendingKey, nextVersion(), Math::max);
+                }
+            });
+        } else {
+            pending.merge(pendingKey, nextVersion(), Math::max);
+        }
+    }
+
+    /**
+     * Versión creciente basada en el reloj, para que los avisos de un nodo se puedan ordenar aunque el reloj
+     * retroceda.
+     */
+    private long nextVersion() {
+        return clock.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Could not publish cache invalidations", e);
+        }
+    }
+
+    private static CacheInvalidation toInvalidation(Map.Entry<PendingKey, Long> entry) {
+        PendingKey key = entry.getKey();
+        return new CacheInvalidation(key.cache(), key.key(), key.keyType(), entry.getValue());
+    }
+
+    private record PendingKey(String cache, String key, String keyType) {
+    }
+}
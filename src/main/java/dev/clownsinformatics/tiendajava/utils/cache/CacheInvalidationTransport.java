@@ -0,0 +1,42 @@
+package dev.clownsinformatics.tiendajava.utils.cache;
+
+/**
+ * Canal por el que los nodos se envían los lotes de invalidación de caché.
+ * <p>
+ * Con {@code caches.invalidation.transport=postgres} se usa {@code LISTEN/NOTIFY} de Postgres; en cualquier otro
+ * caso un canal en memoria que solo comunica los nodos de la misma JVM, para desarrollo y pruebas.
+ */
+public interface CacheInvalidationTransport {
+    /**
+     * Envía un lote a todos los nodos suscritos, incluido el propio.
+     *
+     * @param batch Lote de avisos.
+     */
+    void publish(CacheInvalidationBatch batch);
+
+    /**
+     * Suscribe un nodo al canal.
+     *
+     * @param listener Receptor de los lotes.
+     */
+    void subscribe(Listener listener);
+
+    /**
+     * Cancela la suscripción de un nodo.
+     *
+     * @param listener Receptor suscrito con {@link #subscribe(Listener)}.
+     */
+    void unsubscribe(Listener listener);
+
+    interface Listener {
+        /**
+         * Recibe un lote de avisos.
+         */
+        void onBatch(CacheInvalidationBatch batch);
+
+        /**
+         * Avisa de que la conexión con el canal se ha recuperado tras perderse y pueden faltar lotes.
+         */
+        void onReconnect();
+    }
+}
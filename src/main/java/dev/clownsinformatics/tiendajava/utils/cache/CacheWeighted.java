@@ -0,0 +1,34 @@
+package dev.clownsinformatics.tiendajava.utils.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Valor cacheado cuyo tamaño depende de su contenido, como un usuario con la lista de sus pedidos.
+ * <p>
+ * Las cachés limitadas con {@code maximumWeight} pesan cada valor con {@link #weigh(Object)}, así que el
+ * límite se acerca más a la memoria ocupada que un número de entradas.
+ */
+public interface CacheWeighted {
+    /**
+     * Peso del valor: 1 más el número de elementos que contiene.
+     */
+    int cacheWeight();
+
+    /**
+     * Peso de un valor cualquiera: el que declare si es {@link CacheWeighted}, el número de elementos si es una
+     * colección o un mapa y 1 en otro caso.
+     */
+    static int weigh(Object value) {
+        if (value instanceof CacheWeighted weighted) {
+            return Math.max(1, weighted.cacheWeight());
+        }
+        if (value instanceof Collection<?> collection) {
+            return Math.max(1, collection.size());
+        }
+        if (value instanceof Map<?, ?> map) {
+            return Math.max(1, map.size());
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,42 @@
+package dev.clownsinformatics.tiendajava.utils.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Canal de invalidación en memoria. Los lotes se entregan en el mismo hilo que los publica a todos los nodos
+ * de la JVM suscritos al mismo canal, de modo que varios contextos de Spring de una misma prueba se comportan
+ * como varias instancias de la aplicación.
+ */
+@Component
+@ConditionalOnProperty(name = "caches.invalidation.transport", havingValue = "memory", matchIfMissing = true)
+public class InMemoryCacheInvalidationTransport implements CacheInvalidationTransport {
+    private static final Map<String, List<Listener>> CHANNELS = new ConcurrentHashMap<>();
+
+    private final List<Listener> listeners;
+
+    public InMemoryCacheInvalidationTransport(@Value("${caches.invalidation.channel:tienda_cache_invalidation}") String channel) {
+        this.listeners = CHANNELS.computeIfAbsent(channel, name -> new CopyOnWriteArrayList<>());
+    }
+
+    @Override
+    public void publish(CacheInvalidationBatch batch) {
+        listeners.forEach(listener -> listener.onBatch(batch));
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,55 @@
+package dev.clownsinformatics.tiendajava.utils.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.core.env.Environment;
+
+/**
+ * {@link CaffeineCacheManager} con una política distinta para cada caché.
+ * <p>
+ * La política de cada caché se lee de {@code caches.<nombre>.spec} con la sintaxis de {@link CaffeineSpec}
+ * ({@code maximumSize=1000,expireAfterWrite=10m}) y las que no tienen una usan {@code caches.default-spec}.
+ * Todas guardan estadísticas y las que se limitan con {@code maximumWeight} pesan sus valores con
+ * {@link CacheWeighted#weigh(Object)}. No se admite {@code refreshAfterWrite}: las cachés de las anotaciones
+ * no tienen con qué recargar una entrada, así que se caducan con {@code expireAfterWrite}.
+ */
+public class PolicyCacheManager extends CaffeineCacheManager {
+    static final String DEFAULT_SPEC = "maximumSize=1000,expireAfterWrite=10m";
+
+    private final Environment environment;
+
+    public PolicyCacheManager(Environment environment) {
+        this.environment = environment;
+    }
+
+    /**
+     * Política de la caché, la suya o la de por defecto.
+     *
+     * @param name Nombre de la caché.
+     * @return Especificación de Caffeine.
+     */
+    public String specFor(String name) {
+        return environment.getProperty("caches." + name + ".spec", environment.getProperty("caches.default-spec", DEFAULT_SPEC));
+    }
+
+    @Override
+    protected Cache<Object, Object> createNativeCaffeineCache(String name) {
+        return builder(name, specFor(name)).build();
+    }
+
+    static Caffeine<Object, Object> builder(String name, String spec) {
+        if (spec.contains("refreshAfterWrite")) {
+            throw new IllegalStateException("Cache " + name + " cannot use refreshAfterWrite, use expireAfterWrite instead");
+        }
+        Caffeine<Object, Object> builder = Caffeine.from(spec);
+        if (spec.contains("maximumWeight")) {
+            builder.weigher((key, value) -> CacheWeighted.weigh(value));
+        }
+        if (!spec.contains("recordStats")) {
+            builder.recordStats();
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,211 @@
+package dev.clownsinformatics.tiendajava.utils.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Canal de invalidación sobre {@code LISTEN/NOTIFY} de Postgres.
+ * <p>
+ * Los lotes se envían en JSON con {@code pg_notify}. Como Postgres limita el mensaje a 8000 bytes, los lotes
+ * que no caben se parten por la mitad hasta que caben; un único aviso que no cabe se sustituye por uno que
+ * invalida toda su caché.
+ * <p>
+ * Un hilo en segundo plano mantiene una conexión del pool escuchando en el canal y entrega los lotes a los
+ * nodos suscritos. Si la conexión se pierde se vuelve a abrir y, como los mensajes enviados mientras tanto se
+ * han perdido, se avisa a los nodos con {@link Listener#onReconnect()}.
+ *
+ * @version 1.0
+ * @since 2023-11-28
+ */
+@Component
+@ConditionalOnProperty(name = "caches.invalidation.transport", havingValue = "postgres")
+@Slf4j
+public class PostgresCacheInvalidationTransport implements CacheInvalidationTransport {
+    static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_]+");
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public PostgresCacheInvalidationTransport(DataSource dataSource,
+                                              JdbcTemplate jdbcTemplate,
+                                              ObjectMapper objectMapper,
+                                              @Value("${caches.invalidation.channel:tienda_cache_invalidation}") String channel) {
+        if (!CHANNEL.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid cache invalidation channel: " + channel);
+        }
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+    }
+
+    @Override
+    public void publish(CacheInvalidationBatch batch) {
+        for (String payload : encode(objectMapper, batch, MAX_PAYLOAD_BYTES)) {
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, payload);
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(Listener listener) {
+        listeners.add(listener);
+        if (listenerThread == null) {
+            running = true;
+            listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+            listenerThread.setDaemon(true);
+            listenerThread.start();
+        }
+    }
+
+    @Override
+    public void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Deja de escuchar en el canal.
+     */
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+            listenerThread = null;
+        }
+    }
+
+    /**
+     * Convierte un lote en uno o varios mensajes JSON de como mucho {@code maxBytes} bytes.
+     *
+     * @param objectMapper Conversor a JSON.
+     * @param batch        Lote de avisos.
+     * @param maxBytes     Tamaño máximo de cada mensaje.
+     * @return Mensajes a enviar.
+     */
+    static List<String> encode(ObjectMapper objectMapper, CacheInvalidationBatch batch, int maxBytes) {
+        List<String> payloads = new ArrayList<>();
+        encode(objectMapper, batch, maxBytes, payloads);
+        return payloads;
+    }
+
+    private static void encode(ObjectMapper objectMapper, CacheInvalidationBatch batch, int maxBytes, List<String> payloads) {
+        String payload = toJson(objectMapper, batch);
+        if (payload.getBytes(StandardCharsets.UTF_8).length <= maxBytes) {
+            payloads.add(payload);
+            return;
+        }
+        List<CacheInvalidation> invalidations = batch.invalidations();
+        if (invalidations.size() == 1) {
+            CacheInvalidation invalidation = invalidations.get(0);
+            payloads.add(toJson(objectMapper, new CacheInvalidationBatch(batch.origin(),
+                    List.of(CacheInvalidation.all(invalidation.cache(), invalidation.version())))));
+            return;
+        }
+        int half = invalidations.size() / 2;
+        encode(objectMapper, new CacheInvalidationBatch(batch.origin(), invalidations.subList(0, half)), maxBytes, payloads);
+        encode(objectMapper, new CacheInvalidationBatch(batch.origin(), invalidations.subList(half, invalidations.size())), maxBytes, payloads);
+    }
+
+    private static String toJson(ObjectMapper objectMapper, CacheInvalidationBatch batch) {
+        try {
+            return objectMapper.writeValueAsString(batch);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode cache invalidation batch", e);
+        }
+    }
+
+    private void listen() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connectedBefore) {
+                    listeners.forEach(Listener::onReconnect);
+                }
+                connectedBefore = true;
+                log.info("Listening for cache invalidations on channel {}", channel);
+                try {
+                    while (running) {
+                        PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                        if (notifications != null) {
+                            for (PGNotification notification : notifications) {
+                                deliver(notification.getParameter());
+                            }
+                        }
+                    }
+                } finally {
+                    unlisten(connection);
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Lost the cache invalidation channel, retrying in {} ms: {}", RETRY_DELAY_MS, e.getMessage());
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void deliver(String payload) {
+        CacheInvalidationBatch batch;
+        try {
+            batch = objectMapper.readValue(payload, CacheInvalidationBatch.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring invalid cache invalidation message: {}", e.getMessage());
+            return;
+        }
+        for (Listener listener : listeners) {
+            try {
+                listener.onBatch(batch);
+            } catch (RuntimeException e) {
+                log.error("Could not apply cache invalidations", e);
+            }
+        }
+    }
+
+    /**
+     * La conexión vuelve al pool, así que deja de escuchar para que no acumule mensajes que nadie lee.
+     */
+    private void unlisten(Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("UNLISTEN " + channel);
+        } catch (SQLException e) {
+            log.debug("Could not stop listening on channel {}: {}", channel, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package dev.clownsinformatics.tiendajava.utils.idempotency;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción para claves de idempotencia reutilizadas con otra petición o cuya primera petición sigue en curso.
+ * Status 409
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class IdempotencyKeyConflict extends RuntimeException {
+    public IdempotencyKeyConflict(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,145 @@
+package dev.clownsinformatics.tiendajava.utils.idempotency;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Almacén de respuestas para peticiones de creación con cabecera {@value #HEADER}.
+ * <p>
+ * La primera petición con una clave se ejecuta y su respuesta se guarda, por usuario y clave, durante
+ * {@code idempotency.ttl-seconds}. Las repeticiones de esa petición reciben la misma respuesta sin volver a
+ * ejecutarla, con la cabecera {@value #REPLAYED_HEADER}; si llegan mientras la primera sigue en curso esperan
+ * a su resultado. Si la primera falla la clave se libera y la siguiente repetición se ejecuta de nuevo.
+ * <p>
+ * El almacén está en memoria y limitado a {@code idempotency.max-entries} claves; al llenarse se descartan
+ * las más antiguas.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final String ANONYMOUS = "anonymous";
+
+    private final long ttlMs;
+    private final long waitTimeoutMs;
+    private final Map<String, Entry> entries;
+
+    public IdempotencyStore(@Value("${idempotency.max-entries:10000}") int maxEntries,
+                            @Value("${idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${idempotency.wait-timeout-ms:30000}") long waitTimeoutMs) {
+        this.ttlMs = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Ejecuta una petición de creación una sola vez por clave de idempotencia.
+     *
+     * @param key     Valor de la cabecera {@value #HEADER}, o {@code null} si no se envía.
+     * @param request Cuerpo de la petición, para detectar claves reutilizadas con otra petición.
+     * @param action  Petición a ejecutar.
+     * @param <T>     Tipo del cuerpo de la respuesta.
+     * @return Respuesta de la petición, la original si es una repetición.
+     * @throws IdempotencyKeyConflict Si la clave ya se usó con otra petición o la primera no termina a tiempo.
+     */
+    public <T> ResponseEntity<T> execute(String key, Object request, Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String id = currentUser() + ":" + key;
+        long now = System.currentTimeMillis();
+        Entry entry = new Entry(Objects.hashCode(request), now + ttlMs, new CompletableFuture<>());
+        Entry existing;
+        synchronized (entries) {
+            purgeExpired(now);
+            existing = entries.get(id);
+            if (existing == null) {
+                entries.put(id, entry);
+            }
+        }
+
+        if (existing != null) {
+            if (existing.fingerprint() != entry.fingerprint()) {
+                throw new IdempotencyKeyConflict("Idempotency key " + key + " was already used with a different request");
+            }
+            log.info("Replaying response for idempotency key {}", key);
+            return replay(existing.await(key, waitTimeoutMs));
+        }
+
+        try {
+            ResponseEntity<T> response = action.get();
+            entry.response().complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            synchronized (entries) {
+                entries.remove(id, entry);
+            }
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().expiresAt() > now) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ResponseEntity<T> replay(ResponseEntity<?> response) {
+        return (ResponseEntity<T>) ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(REPLAYED_HEADER, "true")
+                .body(response.getBody());
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : ANONYMOUS;
+    }
+
+    private record Entry(int fingerprint, long expiresAt, CompletableFuture<ResponseEntity<?>> response) {
+        ResponseEntity<?> await(String key, long timeoutMs) {
+            try {
+                return response.get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyKeyConflict("Interrupted while waiting for the request with idempotency key " + key);
+            } catch (TimeoutException e) {
+                throw new IdempotencyKeyConflict("The request with idempotency key " + key + " is still in progress");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package dev.clownsinformatics.tiendajava.utils.jpa;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Filtros de los listados como una única {@link Specification}.
+ * <p>
+ * Solo añade a la consulta los filtros que llegan con valor, sin predicados de relleno para los que faltan, y
+ * los valores van como parámetros ({@code hibernate.criteria.value_handling_mode=bind}). Así cada combinación
+ * de filtros genera siempre el mismo SQL y la base de datos puede reutilizar su plan, sea cual sea el valor
+ * que se busque.
+ *
+ * @param <T> Entidad que se filtra.
+ */
+public final class FilterSpecification<T> implements Specification<T> {
+    private final List<Filter<T>> filters = new ArrayList<>();
+
+    private FilterSpecification() {
+    }
+
+    public static <T> FilterSpecification<T> builder() {
+        return new FilterSpecification<>();
+    }
+
+    /**
+     * El atributo contiene el texto, sin distinguir mayúsculas.
+     */
+    public FilterSpecification<T> contains(String attribute, Optional<String> value) {
+        return joinedContains(null, attribute, value);
+    }
+
+    /**
+     * El atributo de la relación {@code join} contiene el texto, sin distinguir mayúsculas. Las entidades sin
+     * esa relación no se devuelven.
+     */
+    public FilterSpecification<T> joinedContains(String join, String attribute, Optional<String> value) {
+        value.map(v -> "%" + v.toLowerCase() + "%").ifPresent(pattern -> filters.add((joins, cb) ->
+                cb.like(cb.lower(joins.from(join).<String>get(attribute)), pattern)));
+        return this;
+    }
+
+    /**
+     * El atributo es igual al valor.
+     */
+    public FilterSpecification<T> equal(String attribute, Optional<?> value) {
+        value.ifPresent(v -> filters.add((joins, cb) -> cb.equal(joins.from(null).get(attribute), v)));
+        return this;
+    }
+
+    /**
+     * El atributo es igual al valor y, si no hay valor, no se devuelve nada.
+     */
+    public FilterSpecification<T> equalOrNone(String attribute, Optional<?> value) {
+        if (value.isEmpty()) {
+            filters.add((joins, cb) -> cb.isTrue(cb.literal(false)));
+        }
+        return equal(attribute, value);
+    }
+
+    /**
+     * El atributo es menor o igual que el valor.
+     */
+    public <Y extends Comparable<? super Y>> FilterSpecification<T> atMost(String attribute, Optional<Y> value) {
+        value.ifPresent(v -> filters.add((joins, cb) -> cb.lessThanOrEqualTo(joins.from(null).<Y>get(attribute), v)));
+        return this;
+    }
+
+    /**
+     * El atributo es mayor o igual que el valor.
+     */
+    public <Y extends Comparable<? super Y>> FilterSpecification<T> atLeast(String attribute, Optional<Y> value) {
+        value.ifPresent(v -> filters.add((joins, cb) -> cb.greaterThanOrEqualTo(joins.from(null).<Y>get(attribute), v)));
+        return this;
+    }
+
+    /**
+     * Número de filtros con valor.
+     */
+    public int size() {
+        return filters.size();
+    }
+
+    @Override
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        if (filters.isEmpty()) {
+            return null;
+        }
+        Joins<T> joins = new Joins<>(root);
+        if (filters.size() == 1) {
+            return filters.get(0).toPredicate(joins, criteriaBuilder);
+        }
+        Predicate[] predicates = new Predicate[filters.size()];
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = filters.get(i).toPredicate(joins, criteriaBuilder);
+        }
+        return criteriaBuilder.and(predicates);
+    }
+
+    private interface Filter<T> {
+        Predicate toPredicate(Joins<T> joins, CriteriaBuilder criteriaBuilder);
+    }
+
+    /**
+     * Raíz de la consulta con las relaciones ya unidas, para no unir dos veces la misma.
+     */
+    private static final class Joins<T> {
+        private final Root<T> root;
+        private Map<String, From<?, ?>> joins;
+
+        private Joins(Root<T> root) {
+            this.root = root;
+        }
+
+        private From<?, ?> from(String join) {
+            if (join == null) {
+                return root;
+            }
+            if (joins == null) {
+                joins = new HashMap<>(2);
+            }
+            return joins.computeIfAbsent(join, name -> root.join(name));
+        }
+    }
+}
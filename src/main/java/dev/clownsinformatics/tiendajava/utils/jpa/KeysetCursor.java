@@ -0,0 +1,90 @@
+package dev.clownsinformatics.tiendajava.utils.jpa;
+
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorBadRequest;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorCodec;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Sort;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Posición de la paginación por clave: valor del campo de ordenación e identificador del último elemento
+ * devuelto, junto con la ordenación con la que se obtuvo.
+ * <p>
+ * Los valores se guardan como texto codificado para URLs, de modo que nunca contienen el separador de
+ * {@link CursorCodec}, y con un {@code =} delante para distinguir el texto vacío de {@code null}.
+ *
+ * @param sortBy    Campo de ordenación.
+ * @param direction Dirección de ordenación.
+ * @param value     Valor del campo de ordenación del último elemento, o {@code null}.
+ * @param id        Identificador del último elemento.
+ */
+record KeysetCursor(String sortBy, Sort.Direction direction, Object value, Object id) {
+
+    String encode() {
+        return CursorCodec.encode(sortBy, direction.name(), format(value), format(id));
+    }
+
+    /**
+     * Decodifica un cursor y convierte sus valores a los tipos de los atributos.
+     *
+     * @param cursor    Cursor opaco.
+     * @param sortBy    Campo de ordenación pedido.
+     * @param direction Dirección de ordenación pedida.
+     * @param valueType Tipo del campo de ordenación.
+     * @param idType    Tipo del identificador.
+     * @return Posición del cursor.
+     * @throws CursorBadRequest Si el cursor no es válido o se obtuvo con otra ordenación.
+     */
+    static KeysetCursor decode(String cursor, String sortBy, Sort.Direction direction, Class<?> valueType, Class<?> idType) {
+        List<String> values = CursorCodec.decode(cursor, 4);
+        if (!values.get(0).equals(sortBy) || !values.get(1).equals(direction.name())) {
+            throw new CursorBadRequest("Cursor does not match sortBy " + sortBy + " and direction " + direction);
+        }
+        try {
+            Object id = parse(values.get(3), idType);
+            if (id == null) {
+                throw new CursorBadRequest("Invalid cursor: " + cursor);
+            }
+            return new KeysetCursor(sortBy, direction, parse(values.get(2), valueType), id);
+        } catch (IllegalArgumentException | DateTimeException | ConversionException e) {
+            throw new CursorBadRequest("Invalid cursor: " + cursor);
+        }
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof Money money ? String.valueOf(money.cents()) : value.toString();
+        return "=" + URLEncoder.encode(text, StandardCharsets.UTF_8);
+    }
+
+    private static Object parse(String value, Class<?> type) {
+        if (value.isEmpty()) {
+            return null;
+        }
+        if (!value.startsWith("=")) {
+            throw new IllegalArgumentException("Missing value prefix");
+        }
+        String text = URLDecoder.decode(value.substring(1), StandardCharsets.UTF_8);
+        if (type == Money.class) {
+            return Money.ofCents(Long.parseLong(text));
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.parse(text);
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.parse(text);
+        }
+        return DefaultConversionService.getSharedInstance().convert(text, type);
+    }
+}
@@ -0,0 +1,31 @@
+package dev.clownsinformatics.tiendajava.utils.jpa;
+
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorBadRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Listados paginados por clave: cada página continúa a partir del último elemento de la anterior, con un
+ * predicado sobre {@code (sortBy, id)} en lugar de saltar filas con {@code OFFSET}, así que su coste no depende
+ * de lo lejos que esté del principio.
+ * <p>
+ * El orden es estable aunque haya valores repetidos: se desempata por el identificador y los {@code null} van
+ * siempre al final. Lo implementa {@link ListingJpaRepository}, la clase base de todos los repositorios JPA.
+ *
+ * @param <T> Entidad del repositorio.
+ */
+public interface KeysetRepository<T> {
+    /**
+     * Devuelve la página que sigue al cursor pidiendo un elemento más de su tamaño, que solo sirve para saber
+     * si hay siguiente.
+     *
+     * @param spec      Filtros de la consulta; puede ser {@code null}.
+     * @param cursor    Cursor de la página anterior, o {@code null} para la primera.
+     * @param size      Número de elementos por página.
+     * @param sortBy    Atributo simple de la entidad por el que se ordena.
+     * @param direction Dirección de ordenación.
+     * @return Página con el cursor de la siguiente.
+     * @throws CursorBadRequest Si el cursor, el tamaño o la ordenación no son válidos.
+     */
+    KeysetSlice<T> findAfter(Specification<T> spec, String cursor, int size, String sortBy, Sort.Direction direction);
+}
@@ -0,0 +1,30 @@
+package dev.clownsinformatics.tiendajava.utils.jpa;
+
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Página obtenida con {@link KeysetRepository#findAfter}.
+ *
+ * @param content    Elementos de la página.
+ * @param size       Tamaño de página pedido.
+ * @param nextCursor Cursor de la siguiente página, o {@code null} si es la última.
+ * @param first      Si es la primera página.
+ * @param <T>        Entidad del repositorio.
+ */
+public record KeysetSlice<T>(List<T> content, int size, String nextCursor, boolean first) {
+
+    /**
+     * Convierte los elementos y construye la respuesta de la página.
+     *
+     * @param mapper    Conversión de cada elemento.
+     * @param sortBy    Campo de ordenación.
+     * @param direction Dirección de ordenación.
+     * @return Página de resultados paginados por cursor.
+     */
+    public <U> CursorPageResponse<U> toResponse(Function<? super T, U> mapper, String sortBy, String direction) {
+        return CursorPageResponse.of(content.stream().map(mapper).toList(), size, nextCursor, first, sortBy, direction);
+    }
+}
@@ -0,0 +1,157 @@
+package dev.clownsinformatics.tiendajava.utils.jpa;
+
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorBadRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.hibernate.query.NullPrecedence;
+import org.hibernate.query.criteria.JpaOrder;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Clase base de los repositorios JPA, registrada en {@code @EnableJpaRepositories}, que añade
+ * {@link SliceRepository#findSlice(Specification, Pageable)} y
+ * {@link KeysetRepository#findAfter(Specification, String, int, String, Sort.Direction)}. Como el resto de
+ * métodos de {@link SimpleJpaRepository}, respetan el {@code @EntityGraph} con el que los declare cada repositorio.
+ */
+public class ListingJpaRepository<T, ID> extends SimpleJpaRepository<T, ID> implements SliceRepository<T>, KeysetRepository<T> {
+    private final JpaEntityInformation<T, ?> entityInformation;
+    private final EntityManager entityManager;
+
+    public ListingJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+        this.entityInformation = entityInformation;
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Slice<T> findSlice(Specification<T> spec, Pageable pageable) {
+        TypedQuery<T> query = getQuery(spec, pageable);
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.getResultList(), pageable, false);
+        }
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+        List<T> content = query.getResultList();
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public KeysetSlice<T> findAfter(Specification<T> spec, String cursor, int size, String sortBy, Sort.Direction direction) {
+        if (size < 1) {
+            throw new CursorBadRequest("Page size must be greater than 0");
+        }
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(getDomainClass());
+        Root<T> root = query.from(getDomainClass());
+
+        SingularAttribute<? super T, ?> idAttribute = entityInformation.getIdAttribute();
+        SingularAttribute<? super T, ?> sortAttribute = sortAttribute(root, sortBy);
+        boolean byId = sortAttribute.getName().equals(idAttribute.getName());
+        boolean nullable = !byId && sortAttribute.isOptional() && !sortAttribute.getJavaType().isPrimitive();
+        Path<Object> id = root.get(idAttribute.getName());
+        Path<Object> sortField = root.get(sortBy);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (spec != null) {
+            Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+            if (predicate != null) {
+                predicates.add(predicate);
+            }
+        }
+        boolean first = cursor == null || cursor.isBlank();
+        if (!first) {
+            KeysetCursor last = KeysetCursor.decode(cursor, sortBy, direction,
+                    ClassUtils.resolvePrimitiveIfNecessary(sortAttribute.getJavaType()), idAttribute.getJavaType());
+            predicates.add(byId
+                    ? after(criteriaBuilder, id, last.id(), direction)
+                    : seek(criteriaBuilder, sortField, last.value(), nullable, id, last.id(), direction));
+        }
+
+        List<Order> orders = new ArrayList<>(2);
+        if (!byId) {
+            Order order = direction.isAscending() ? criteriaBuilder.asc(sortField) : criteriaBuilder.desc(sortField);
+            orders.add(nullable ? ((JpaOrder) order).nullPrecedence(NullPrecedence.LAST) : order);
+        }
+        orders.add(direction.isAscending() ? criteriaBuilder.asc(id) : criteriaBuilder.desc(id));
+        query.select(root).where(predicates.toArray(new Predicate[0])).orderBy(orders);
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query);
+        getQueryHints().withFetchGraphs(entityManager).forEach(typedQuery::setHint);
+        typedQuery.setMaxResults(size + 1);
+        List<T> content = typedQuery.getResultList();
+        String nextCursor = null;
+        if (content.size() > size) {
+            content = content.subList(0, size);
+            T last = content.get(size - 1);
+            Object value = byId ? null : PropertyAccessorFactory.forDirectFieldAccess(last).getPropertyValue(sortBy);
+            nextCursor = new KeysetCursor(sortBy, direction, value, entityInformation.getId(last)).encode();
+        }
+        return new KeysetSlice<>(content, size, nextCursor, first);
+    }
+
+    /**
+     * Atributo por el que se ordena, que debe ser un atributo simple y comparable de la entidad.
+     */
+    private SingularAttribute<? super T, ?> sortAttribute(Root<T> root, String sortBy) {
+        Attribute<? super T, ?> attribute;
+        try {
+            attribute = root.getModel().getAttribute(sortBy);
+        } catch (IllegalArgumentException e) {
+            throw new CursorBadRequest("Cursor pagination cannot sort by " + sortBy);
+        }
+        if (!(attribute instanceof SingularAttribute<? super T, ?> singular)
+                || singular.getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC
+                || !Comparable.class.isAssignableFrom(ClassUtils.resolvePrimitiveIfNecessary(singular.getJavaType()))) {
+            throw new CursorBadRequest("Cursor pagination cannot sort by " + sortBy);
+        }
+        return singular;
+    }
+
+    /**
+     * Elementos que van después de la posición {@code (value, lastId)} con los {@code null} al final:
+     * {@code field > value OR (field = value AND id > lastId) OR field IS NULL}, o, si el último valor ya era
+     * {@code null}, {@code field IS NULL AND id > lastId}.
+     */
+    private static Predicate seek(CriteriaBuilder criteriaBuilder, Path<Object> field, Object value, boolean nullable,
+                                  Path<Object> id, Object lastId, Sort.Direction direction) {
+        if (value == null) {
+            if (!nullable) {
+                throw new CursorBadRequest("Invalid cursor: missing sort value");
+            }
+            return criteriaBuilder.and(criteriaBuilder.isNull(field), after(criteriaBuilder, id, lastId, direction));
+        }
+        Predicate afterValue = after(criteriaBuilder, field, value, direction);
+        Predicate afterId = criteriaBuilder.and(criteriaBuilder.equal(field, value), after(criteriaBuilder, id, lastId, direction));
+        return nullable
+                ? criteriaBuilder.or(afterValue, afterId, criteriaBuilder.isNull(field))
+                : criteriaBuilder.or(afterValue, afterId);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(CriteriaBuilder criteriaBuilder, Path<Object> field, Object value, Sort.Direction direction) {
+        Path<Comparable> comparable = (Path) field;
+        return direction.isAscending()
+                ? criteriaBuilder.greaterThan(comparable, (Comparable) value)
+                : criteriaBuilder.lessThan(comparable, (Comparable) value);
+    }
+}
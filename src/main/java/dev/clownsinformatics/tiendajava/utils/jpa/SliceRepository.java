@@ -0,0 +1,23 @@
+package dev.clownsinformatics.tiendajava.utils.jpa;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Listados por trozos, sin la consulta {@code count(*)} de {@code findAll(Specification, Pageable)}.
+ * <p>
+ * Lo implementa {@link ListingJpaRepository}, la clase base de todos los repositorios JPA.
+ *
+ * @param <T> Entidad del repositorio.
+ */
+public interface SliceRepository<T> {
+    /**
+     * Devuelve la página pedida pidiendo un elemento más de su tamaño, que solo sirve para saber si hay siguiente.
+     *
+     * @param spec     Filtros de la consulta; puede ser {@code null}.
+     * @param pageable Página y ordenación.
+     * @return Trozo con los elementos de la página.
+     */
+    Slice<T> findSlice(Specification<T> spec, Pageable pageable);
+}
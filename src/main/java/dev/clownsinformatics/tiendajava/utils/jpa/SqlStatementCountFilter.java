@@ -0,0 +1,41 @@
+package dev.clownsinformatics.tiendajava.utils.jpa;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Cuenta las sentencias SQL de cada petición con {@link SqlStatementCounter} y avisa en el log de las que
+ * superan {@code sql.statements.warn-threshold}, que suelen ser relaciones cargadas una a una.
+ */
+@Component
+@Slf4j
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+    private final int warnThreshold;
+
+    public SqlStatementCountFilter(@Value("${sql.statements.warn-threshold:20}") int warnThreshold) {
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        SqlStatementCounter.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int count = SqlStatementCounter.count();
+            if (warnThreshold > 0 && count > warnThreshold) {
+                log.warn("{} {} ran {} SQL statements", request.getMethod(), request.getRequestURI(), count);
+            } else {
+                log.debug("{} {} ran {} SQL statements", request.getMethod(), request.getRequestURI(), count);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package dev.clownsinformatics.tiendajava.utils.jpa;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Cuenta las sentencias SQL que prepara Hibernate en cada hilo.
+ * <p>
+ * Se registra con {@code spring.jpa.properties.hibernate.session_factory.statement_inspector} y
+ * {@link SqlStatementCountFilter} pone el contador a cero al empezar cada petición, de modo que al acabar
+ * {@link #count()} devuelve las sentencias de esa petición. Los tests lo usan para comprobar cuántas consultas
+ * lanza cada listado.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+    private static final ThreadLocal<String> LAST = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        COUNT.get()[0]++;
+        LAST.set(sql);
+        return sql;
+    }
+
+    /**
+     * Pone a cero el contador del hilo actual.
+     */
+    public static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    /**
+     * Sentencias preparadas en el hilo actual desde la última vez que se puso a cero.
+     */
+    public static int count() {
+        return COUNT.get()[0];
+    }
+
+    /**
+     * Última sentencia preparada en el hilo actual.
+     */
+    public static String last() {
+        return LAST.get();
+    }
+}
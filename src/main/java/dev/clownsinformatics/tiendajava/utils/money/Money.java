@@ -0,0 +1,104 @@
+package dev.clownsinformatics.tiendajava.utils.money;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Importe en euros guardado como un número entero de céntimos.
+ * <p>
+ * Las operaciones son exactas y lanzan {@link ArithmeticException} si se desbordan, de modo que los totales
+ * no arrastran errores de redondeo como ocurre al sumar {@code Double}. En JSON se representa como un número
+ * con decimales, igual que los importes anteriores.
+ *
+ * @param cents Importe en céntimos.
+ */
+public record Money(long cents) implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+    private static final int SCALE = 2;
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Crea un importe a partir de euros, redondeando al céntimo más cercano.
+     *
+     * @param amount Importe en euros.
+     * @return Importe, o {@code null} si no se indica.
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Money of(Double amount) {
+        if (amount == null) {
+            return null;
+        }
+        return of(BigDecimal.valueOf(amount));
+    }
+
+    /**
+     * Crea un importe a partir de euros, redondeando al céntimo más cercano.
+     *
+     * @param amount Importe en euros.
+     * @return Importe, o {@code null} si no se indica.
+     */
+    public static Money of(BigDecimal amount) {
+        if (amount == null) {
+            return null;
+        }
+        return ofCents(amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Calcula en céntimos el importe de varias unidades sin crear objetos intermedios.
+     *
+     * @param cents    Precio unitario en céntimos.
+     * @param quantity Unidades.
+     * @return Importe total en céntimos.
+     */
+    public static long times(long cents, int quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(int quantity) {
+        return ofCents(times(cents, quantity));
+    }
+
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    /**
+     * Importe en euros con dos decimales exactos.
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Importe en euros como número en coma flotante, para la API y los informes.
+     */
+    @JsonValue
+    public double amount() {
+        return cents / 100.0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
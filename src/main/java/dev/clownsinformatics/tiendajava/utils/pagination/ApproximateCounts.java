@@ -0,0 +1,72 @@
+package dev.clownsinformatics.tiendajava.utils.pagination;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Totales de los listados con {@code withTotal=approximate}.
+ * <p>
+ * Guarda cada total durante {@code pagination.approximate-count.ttl-ms} con los filtros normalizados como clave
+ * (un {@link Optional} vacío es un filtro ausente y los textos van en minúsculas, como los comparan los
+ * listados), así que pasar de página o repetir la búsqueda no vuelve a contar. El total puede no reflejar los
+ * cambios de ese intervalo.
+ */
+@Component
+public class ApproximateCounts {
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<List<Object>, Count> counts = new ConcurrentHashMap<>();
+
+    public ApproximateCounts(@Value("${pagination.approximate-count.ttl-ms:30000}") long ttlMs,
+                             @Value("${pagination.approximate-count.max-entries:1000}") int maxEntries) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Total del listado con esos filtros, contado con {@code counter} si no hay uno reciente.
+     *
+     * @param listing Nombre del listado.
+     * @param filters Filtros del listado, en el mismo orden siempre; pueden ser {@link Optional}.
+     * @param counter Cuenta exacta en la base de datos.
+     * @return Total aproximado.
+     */
+    public long count(String listing, List<?> filters, LongSupplier counter) {
+        List<Object> key = key(listing, filters);
+        long now = System.nanoTime();
+        Count cached = counts.get(key);
+        if (cached != null && now - cached.countedAt() < ttlNanos) {
+            return cached.value();
+        }
+        long value = counter.getAsLong();
+        if (counts.size() >= maxEntries) {
+            counts.values().removeIf(count -> now - count.countedAt() >= ttlNanos);
+            if (counts.size() >= maxEntries) {
+                counts.clear();
+            }
+        }
+        counts.put(key, new Count(value, now));
+        return value;
+    }
+
+    static List<Object> key(String listing, List<?> filters) {
+        List<Object> key = new ArrayList<>(filters.size() + 1);
+        key.add(listing);
+        for (Object filter : filters) {
+            Object value = filter instanceof Optional<?> optional ? optional.orElse(null) : filter;
+            key.add(value instanceof String text ? text.toLowerCase() : value);
+        }
+        return key;
+    }
+
+    private record Count(long value, long countedAt) {
+    }
+}
@@ -0,0 +1,15 @@
+package dev.clownsinformatics.tiendajava.utils.pagination;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción para cursores de paginación no válidos o que no corresponden a la ordenación pedida.
+ * Status 400
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class CursorBadRequest extends RuntimeException {
+    public CursorBadRequest(String message) {
+        super(message);
+    }
+}
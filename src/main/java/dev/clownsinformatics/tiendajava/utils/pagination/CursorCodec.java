@@ -0,0 +1,48 @@
+package dev.clownsinformatics.tiendajava.utils.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Codifica y decodifica los cursores opacos de la paginación por cursor. Un cursor guarda la posición
+ * del último elemento devuelto y la ordenación con la que se obtuvo, para rechazarlo si se usa con otra.
+ */
+public final class CursorCodec {
+    private static final String SEPARATOR = "|";
+
+    private CursorCodec() {
+    }
+
+    /**
+     * Codifica los valores en un cursor apto para URLs.
+     *
+     * @param values Valores del cursor. No pueden contener el carácter {@code |}.
+     * @return Cursor opaco.
+     */
+    public static String encode(String... values) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(SEPARATOR, values).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor y comprueba que tenga el número de valores esperado.
+     *
+     * @param cursor Cursor opaco.
+     * @param size   Número de valores esperado.
+     * @return Valores del cursor.
+     * @throws CursorBadRequest Si el cursor no es válido.
+     */
+    public static List<String> decode(String cursor, int size) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            List<String> values = List.of(decoded.split("\\|", -1));
+            if (values.size() != size) {
+                throw new CursorBadRequest("Invalid cursor: " + cursor);
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw new CursorBadRequest("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package dev.clownsinformatics.tiendajava.utils.pagination;
+
+import java.util.List;
+
+/**
+ * Página de resultados paginados por cursor. No incluye totales: para obtener la siguiente página
+ * se envía {@code nextCursor}, que es {@code null} en la última.
+ */
+public record CursorPageResponse<T>(
+        List<T> content,
+        int pageSize,
+        int totalPageElements,
+        String nextCursor,
+        boolean first,
+        boolean last,
+        String sortBy,
+        String direction
+) {
+
+    public static <T> CursorPageResponse<T> of(List<T> content, int pageSize, String nextCursor, boolean first, String sortBy, String direction) {
+        return new CursorPageResponse<>(
+                content,
+                pageSize,
+                content.size(),
+                nextCursor,
+                first,
+                nextCursor == null,
+                sortBy,
+                direction
+        );
+    }
+}
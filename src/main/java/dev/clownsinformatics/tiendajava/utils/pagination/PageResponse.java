@@ -1,13 +1,19 @@
 package dev.clownsinformatics.tiendajava.utils.pagination;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 
+/**
+ * Página de resultados. En los listados con {@code withTotal=false} no se cuentan los elementos, así que
+ * {@code totalPages} y {@code totalElements} no se incluyen.
+ */
 public record PageResponse<T>(
         List<T> content,
-        int totalPages,
-        long totalElements,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Integer totalPages,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Long totalElements,
         int pageSize,
         int pageNumber,
         int totalPageElements,
@@ -33,4 +39,29 @@ public record PageResponse<T>(
                 direction
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Página a partir de un trozo sin contar.
+     *
+     * @param slice         Trozo con los elementos de la página.
+     * @param totalElements Total aproximado o {@code null} si no se ha contado. Nunca se devuelve menos de los
+     *                      elementos que el trozo demuestra que hay.
+     */
+    public static <T> PageResponse<T> of(Slice<T> slice, Long totalElements, String sortBy, String direction) {
+        Long total = totalElements == null ? null
+                : Math.max(totalElements, slice.getPageable().getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0));
+        return new PageResponse<>(
+                slice.getContent(),
+                total == null ? null : (int) ((total + slice.getSize() - 1) / slice.getSize()),
+                total,
+                slice.getSize(),
+                slice.getNumber(),
+                slice.getNumberOfElements(),
+                slice.isEmpty(),
+                slice.isFirst(),
+                slice.isLast(),
+                sortBy,
+                direction
+        );
+    }
+}
@@ -1,6 +1,7 @@
 package dev.clownsinformatics.tiendajava.utils.pagination;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Component;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -37,6 +38,49 @@ public class PaginationLinksUtils {
         return linkHeader.toString();
     }
 
+    /**
+     * Enlaces de un trozo sin contar: sin el total de páginas no hay enlace {@code last}.
+     */
+    public String createLinkHeader(Slice<?> slice, UriComponentsBuilder uriBuilder) {
+        final StringBuilder linkHeader = new StringBuilder();
+
+        if (slice.hasNext()) {
+            String uri = constructUri(slice.getNumber() + 1, slice.getSize(), uriBuilder);
+            linkHeader.append(buildLinkHeader(uri, "next"));
+        }
+
+        if (slice.hasPrevious()) {
+            String uri = constructUri(slice.getNumber() - 1, slice.getSize(), uriBuilder);
+            appendCommaIfNecessary(linkHeader);
+            linkHeader.append(buildLinkHeader(uri, "prev"));
+        }
+
+        if (!slice.isFirst()) {
+            String uri = constructUri(0, slice.getSize(), uriBuilder);
+            appendCommaIfNecessary(linkHeader);
+            linkHeader.append(buildLinkHeader(uri, "first"));
+        }
+
+        return linkHeader.toString();
+    }
+
+    public String createLinkHeader(CursorPageResponse<?> page, UriComponentsBuilder uriBuilder) {
+        final StringBuilder linkHeader = new StringBuilder();
+
+        if (page.nextCursor() != null) {
+            String uri = uriBuilder.replaceQueryParam("cursor", page.nextCursor()).replaceQueryParam("size", page.pageSize()).build().encode().toUriString();
+            linkHeader.append(buildLinkHeader(uri, "next"));
+        }
+
+        if (!page.first()) {
+            String uri = uriBuilder.replaceQueryParam("cursor").replaceQueryParam("size", page.pageSize()).build().encode().toUriString();
+            appendCommaIfNecessary(linkHeader);
+            linkHeader.append(buildLinkHeader(uri, "first"));
+        }
+
+        return linkHeader.toString();
+    }
+
     private String constructUri(int newPageNumber, int size, UriComponentsBuilder uriBuilder) {
         return uriBuilder.replaceQueryParam("page", newPageNumber).replaceQueryParam("size", size).build().encode().toUriString();
     }
@@ -0,0 +1,33 @@
+package dev.clownsinformatics.tiendajava.utils.pagination;
+
+/**
+ * Cómo se calcula el total de un listado, según el parámetro {@code withTotal}.
+ */
+public enum TotalMode {
+    /**
+     * {@code withTotal=true}, por defecto: se cuentan los elementos con cada página.
+     */
+    EXACT,
+    /**
+     * {@code withTotal=false}: no se cuenta nada, solo se sabe si hay página siguiente.
+     */
+    NONE,
+    /**
+     * {@code withTotal=approximate}: sin contar con cada página, con un total que puede tener unos segundos.
+     */
+    APPROXIMATE;
+
+    /**
+     * @param withTotal Valor del parámetro {@code withTotal}.
+     * @return Modo correspondiente.
+     * @throws TotalModeBadRequest Si el valor no es {@code true}, {@code false} ni {@code approximate}.
+     */
+    public static TotalMode of(String withTotal) {
+        return switch (withTotal.trim().toLowerCase()) {
+            case "true" -> EXACT;
+            case "false" -> NONE;
+            case "approximate" -> APPROXIMATE;
+            default -> throw new TotalModeBadRequest(withTotal);
+        };
+    }
+}
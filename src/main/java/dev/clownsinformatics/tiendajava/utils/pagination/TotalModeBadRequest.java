@@ -0,0 +1,15 @@
+package dev.clownsinformatics.tiendajava.utils.pagination;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Excepción para valores de {@code withTotal} no válidos.
+ * Status 400
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class TotalModeBadRequest extends RuntimeException {
+    public TotalModeBadRequest(String withTotal) {
+        super("Invalid withTotal: " + withTotal + ", expected true, false or approximate");
+    }
+}
@@ -0,0 +1,32 @@
+package dev.clownsinformatics.tiendajava.utils.transaction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Aplaza hasta la confirmación de la transacción en curso las acciones sobre copias fuera de la base de datos,
+ * como los índices de búsqueda o el catálogo en memoria, para que no reflejen cambios que luego se deshacen.
+ */
+public final class AfterCommit {
+    private AfterCommit() {
+    }
+
+    /**
+     * Ejecuta una acción cuando se confirme la transacción en curso, o en el momento si no hay ninguna.
+     * Si la transacción se deshace, la acción no se ejecuta.
+     *
+     * @param action Acción a ejecutar.
+     */
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -25,7 +25,7 @@ public class ProductNotificationMapper {
                 product.getId(),
                 product.getName(),
                 product.getWeight(),
-                product.getPrice(),
+                product.getPrice() != null ? product.getPrice().amount() : null,
                 product.getImg(),
                 product.getStock(),
                 product.getDescription(),
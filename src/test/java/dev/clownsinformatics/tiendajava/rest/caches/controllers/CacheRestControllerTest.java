@@ -0,0 +1,75 @@
+package dev.clownsinformatics.tiendajava.rest.caches.controllers;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.clownsinformatics.tiendajava.rest.caches.dto.CacheStatsDto;
+import dev.clownsinformatics.tiendajava.rest.employees.models.Employee;
+import dev.clownsinformatics.tiendajava.rest.employees.repository.EmployeeRepository;
+import dev.clownsinformatics.tiendajava.rest.employees.services.EmployeeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@WithMockUser(username = "admin", password = "admin", roles = {"ADMIN", "USER"})
+class CacheRestControllerTest {
+    private final String BASE_URL = "/api/caches";
+    private final ObjectMapper mapper = new ObjectMapper();
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    private EmployeeService employeeService;
+    @MockBean
+    private EmployeeRepository employeeRepository;
+
+    @Test
+    void getCacheStats() throws Exception {
+        Employee employee = Employee.builder().id(1234).name("Pedro Pérez").position("Manager").salary(1000.0).build();
+        when(employeeRepository.findById(1234)).thenReturn(Optional.of(employee));
+
+        employeeService.findById(1234);
+        employeeService.findById(1234);
+
+        MockHttpServletResponse response = mockMvc.perform(
+                        get(BASE_URL)
+                                .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+        List<CacheStatsDto> res = mapper.readValue(response.getContentAsString(), new TypeReference<>() {
+        });
+        CacheStatsDto employees = res.stream().filter(stats -> stats.name().equals("employees")).findFirst().orElseThrow();
+
+        assertAll(
+                () -> assertEquals(200, response.getStatus()),
+                () -> assertEquals("maximumSize=1000,expireAfterWrite=30m", employees.spec()),
+                () -> assertEquals(1000L, employees.maximum()),
+                () -> assertTrue(employees.hits() >= 1),
+                () -> assertTrue(employees.misses() >= 1)
+        );
+        verify(employeeRepository, times(1)).findById(1234);
+    }
+
+    @Test
+    @WithMockUser(username = "user", password = "user", roles = {"USER"})
+    void getCacheStatsForbidden() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(
+                        get(BASE_URL)
+                                .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        assertEquals(403, response.getStatus());
+    }
+}
@@ -3,6 +3,7 @@ package dev.clownsinformatics.tiendajava.rest.categories.controllers;
 import dev.clownsinformatics.tiendajava.rest.categories.dto.CategoryResponseDto;
 import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
 import dev.clownsinformatics.tiendajava.rest.categories.services.CategoryService;
+import dev.clownsinformatics.tiendajava.utils.pagination.ApproximateCounts;
 import dev.clownsinformatics.tiendajava.utils.pagination.PageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PaginationLinksUtils;
 import jakarta.servlet.http.HttpServletRequest;
@@ -29,6 +30,8 @@ class CategoryRestControllerTestMock {
     private CategoryService categoryService;
     @Mock
     private PaginationLinksUtils paginationLinksUtils;
+    @Mock
+    private ApproximateCounts approximateCounts;
     @InjectMocks
     private CategoryRestController categoryRestController;
 
@@ -44,7 +47,7 @@ class CategoryRestControllerTestMock {
 
         when(categoryService.findAll(name, Optional.empty(), pageable)).thenReturn(expectedPage);
 
-        PageResponse<Category> response = categoryRestController.getAll(name, Optional.empty(), 0, 10, "uuid", "asc", request).getBody();
+        PageResponse<Category> response = categoryRestController.getAll(name, Optional.empty(), 0, 10, "uuid", "asc", "true", request).getBody();
 
         assertAll(
                 () -> assertNotNull(expectedPage),
@@ -65,7 +68,7 @@ class CategoryRestControllerTestMock {
 
         when(categoryService.findAll(name, Optional.empty(), pageable)).thenReturn(expectedPage);
 
-        PageResponse<Category> response = categoryRestController.getAll(name, Optional.empty(), 0, 10, "uuid", "asc", request).getBody();
+        PageResponse<Category> response = categoryRestController.getAll(name, Optional.empty(), 0, 10, "uuid", "asc", "true", request).getBody();
 
         assertAll(
                 () -> assertNotNull(expectedPage),
@@ -86,7 +89,7 @@ class CategoryRestControllerTestMock {
 
         when(categoryService.findAll(Optional.empty(), isDeleted, pageable)).thenReturn(expectedPage);
 
-        PageResponse<Category> response = categoryRestController.getAll(Optional.empty(), isDeleted, 0, 10, "uuid", "asc", request).getBody();
+        PageResponse<Category> response = categoryRestController.getAll(Optional.empty(), isDeleted, 0, 10, "uuid", "asc", "true", request).getBody();
 
         assertAll(
                 () -> assertNotNull(expectedPage),
@@ -108,7 +111,7 @@ class CategoryRestControllerTestMock {
 
         when(categoryService.findAll(name, isDeleted, pageable)).thenReturn(expectedPage);
 
-        PageResponse<Category> response = categoryRestController.getAll(name, isDeleted, 0, 10, "uuid", "asc", request).getBody();
+        PageResponse<Category> response = categoryRestController.getAll(name, isDeleted, 0, 10, "uuid", "asc", "true", request).getBody();
 
         assertAll(
                 () -> assertNotNull(expectedPage),
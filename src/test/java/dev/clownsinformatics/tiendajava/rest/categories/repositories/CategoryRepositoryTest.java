@@ -2,6 +2,7 @@ package dev.clownsinformatics.tiendajava.rest.categories.repositories;
 
 import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
 import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -67,7 +68,7 @@ class CategoryRepositoryTest {
                 .id(uuidProduct)
                 .name("Product 1")
                 .weight(100.0)
-                .price(10.0)
+                .price(Money.of(10.0))
                 .stock(10)
                 .category(category)
                 .description("Description")
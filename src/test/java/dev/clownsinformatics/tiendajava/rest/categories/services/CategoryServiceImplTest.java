@@ -9,6 +9,9 @@ import dev.clownsinformatics.tiendajava.rest.categories.exceptions.CategoryNotFo
 import dev.clownsinformatics.tiendajava.rest.categories.mappers.CategoryMapper;
 import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
 import dev.clownsinformatics.tiendajava.rest.categories.repositories.CategoryRepository;
+import dev.clownsinformatics.tiendajava.rest.products.services.ProductCatalog;
+import dev.clownsinformatics.tiendajava.rest.suggestions.services.SuggestionService;
+import dev.clownsinformatics.tiendajava.utils.cache.CacheInvalidationBus;
 import dev.clownsinformatics.tiendajava.websockets.notifications.mapper.CategoryNotificationMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -44,6 +47,12 @@ class CategoryServiceImplTest {
     private CategoryNotificationMapper categoryNotificationMapper;
     @Mock
     private ObjectMapper objectMapper;
+    @Mock
+    private SuggestionService suggestionService;
+    @Mock
+    private ProductCatalog productCatalog;
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -6,6 +6,10 @@ import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientCreateRequest;
 import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientResponse;
 import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientUpdateRequest;
 import dev.clownsinformatics.tiendajava.rest.clients.services.ClientServiceImpl;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.ClientOrderSummaryDto;
+import dev.clownsinformatics.tiendajava.rest.orders.service.ClientOrderSummaryService;
+import dev.clownsinformatics.tiendajava.utils.idempotency.IdempotencyStore;
+import dev.clownsinformatics.tiendajava.utils.pagination.ApproximateCounts;
 import dev.clownsinformatics.tiendajava.utils.pagination.PageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PaginationLinksUtils;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,6 +17,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 import org.springframework.http.ResponseEntity;
@@ -34,6 +39,14 @@ public class ClientRestControllerTest {
 
     @Mock
     private PaginationLinksUtils paginationLinksUtils;
+    @Mock
+    private ApproximateCounts approximateCounts;
+
+    @Mock
+    private ClientOrderSummaryService clientOrderSummaryService;
+
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStore(100, 60, 1000);
 
     @InjectMocks
     private ClientRestController clientRestController;
@@ -67,6 +80,21 @@ public class ClientRestControllerTest {
 
 
 
+    @Test
+    public void testGetClientOrderSummary() {
+        ClientOrderSummaryDto summary = new ClientOrderSummaryDto(1L, 3, 150.0, null);
+        when(clientService.findById(1L)).thenReturn(clientsResponse.get(0));
+        when(clientOrderSummaryService.findByIdUser(1L)).thenReturn(summary);
+
+        ResponseEntity<ClientOrderSummaryDto> response = clientRestController.getClientOrderSummary(1L);
+
+        assertAll(
+                () -> assertEquals(200, response.getStatusCode().value()),
+                () -> assertEquals(summary, response.getBody())
+        );
+        verify(clientService, times(1)).findById(1L);
+    }
+
     @Test
     public void testCreateClient() {
 
@@ -82,7 +110,7 @@ public class ClientRestControllerTest {
                 null,
                 null,
                 false
-        ));
+        ), null);
 
         assertAll(
                 () -> assertEquals(200, response.getStatusCodeValue()),
@@ -140,7 +168,7 @@ public class ClientRestControllerTest {
         HttpServletRequest requestMock = mock(HttpServletRequest.class);
         when(requestMock.getRequestURL()).thenReturn(new StringBuffer("http://localhost:8080/api/clients/"));
 
-        ResponseEntity<PageResponse<ClientResponse>> response = clientRestController.getAllClients(null, "false", 0, 10, "id", "asc", requestMock);
+        ResponseEntity<PageResponse<ClientResponse>> response = clientRestController.getAllClients(null, "false", 0, 10, "id", "asc", "true", requestMock);
 
         assertAll(
                 () -> assertEquals(200, response.getStatusCodeValue()),
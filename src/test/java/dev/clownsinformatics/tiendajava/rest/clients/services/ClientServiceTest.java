@@ -13,6 +13,7 @@ import dev.clownsinformatics.tiendajava.rest.clients.repositories.ClientReposito
 import dev.clownsinformatics.tiendajava.rest.clients.services.ClientService;
 import dev.clownsinformatics.tiendajava.rest.clients.services.ClientServiceImpl;
 import dev.clownsinformatics.tiendajava.rest.storage.services.FileSystemStorageService;
+import dev.clownsinformatics.tiendajava.utils.cache.CacheInvalidationBus;
 import dev.clownsinformatics.tiendajava.websockets.notifications.mapper.ClientNotificationMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -112,6 +113,9 @@ public class ClientServiceTest {
     @Mock
     private ClientNotificationMapper clientNotificationMapper;
 
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
     WebSocketHandler webSocketHandlerMock = mock(WebSocketHandler.class);
 
     @Test
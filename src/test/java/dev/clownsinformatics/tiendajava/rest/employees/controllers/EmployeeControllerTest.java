@@ -6,6 +6,7 @@ import dev.clownsinformatics.tiendajava.rest.employees.dto.UpdateEmployeeRequest
 import dev.clownsinformatics.tiendajava.rest.employees.exceptions.EmployeeNotFoundException;
 import dev.clownsinformatics.tiendajava.rest.employees.models.Employee;
 import dev.clownsinformatics.tiendajava.rest.employees.services.EmployeeService;
+import dev.clownsinformatics.tiendajava.utils.pagination.ApproximateCounts;
 import dev.clownsinformatics.tiendajava.utils.pagination.PageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PaginationLinksUtils;
 import jakarta.servlet.http.HttpServletRequest;
@@ -47,6 +48,8 @@ class EmployeeControllerTest {
     private EmployeeService employeeService;
     @Mock
     private PaginationLinksUtils paginationLinksUtils;
+    @Mock
+    private ApproximateCounts approximateCounts;
 
     @InjectMocks
     private EmployeeController employeeController;
@@ -64,7 +67,7 @@ class EmployeeControllerTest {
         when(request.getRequestURL()).thenReturn(new StringBuffer("http://localhost:8080/api/employee"));
         when(employeeService.findAll(name, minSalary, maxSalary, position, pageable)).thenReturn(page);
 
-        ResponseEntity<PageResponse<EmployeeResponseDto>> allEmployees = employeeController.getAllEmployees(name, minSalary, maxSalary, position, 0, 10, "id", "asc", request);
+        ResponseEntity<PageResponse<EmployeeResponseDto>> allEmployees = employeeController.getAllEmployees(name, minSalary, maxSalary, position, 0, 10, "id", "asc", "true", request);
 
         assertAll(
                 () -> assertEquals(200, allEmployees.getStatusCodeValue()),
@@ -88,7 +91,7 @@ class EmployeeControllerTest {
         when(request.getRequestURL()).thenReturn(new StringBuffer("http://localhost:8080/api/employee"));
         when(employeeService.findAll(name, minSalary, maxSalary, position, pageable)).thenReturn(page);
 
-        ResponseEntity<PageResponse<EmployeeResponseDto>> allEmployees = employeeController.getAllEmployees(name, minSalary, maxSalary, position, 0, 10, "id", "asc", request);
+        ResponseEntity<PageResponse<EmployeeResponseDto>> allEmployees = employeeController.getAllEmployees(name, minSalary, maxSalary, position, 0, 10, "id", "asc", "true", request);
 
         assertAll(
                 () -> assertEquals(200, allEmployees.getStatusCodeValue()),
@@ -112,7 +115,7 @@ class EmployeeControllerTest {
         when(request.getRequestURL()).thenReturn(new StringBuffer("http://localhost:8080/api/employee"));
         when(employeeService.findAll(name, minSalary, maxSalary, position, pageable)).thenReturn(page);
 
-        ResponseEntity<PageResponse<EmployeeResponseDto>> allEmployees = employeeController.getAllEmployees(name, minSalary, maxSalary, position, 0, 10, "id", "asc", request);
+        ResponseEntity<PageResponse<EmployeeResponseDto>> allEmployees = employeeController.getAllEmployees(name, minSalary, maxSalary, position, 0, 10, "id", "asc", "true", request);
 
         assertAll(
                 () -> assertEquals(200, allEmployees.getStatusCodeValue()),
@@ -136,7 +139,7 @@ class EmployeeControllerTest {
         when(request.getRequestURL()).thenReturn(new StringBuffer("http://localhost:8080/api/employee"));
         when(employeeService.findAll(name, minSalary, maxSalary, position, pageable)).thenReturn(page);
 
-        ResponseEntity<PageResponse<EmployeeResponseDto>> allEmployees = employeeController.getAllEmployees(name, minSalary, maxSalary, position, 0, 10, "id", "asc", request);
+        ResponseEntity<PageResponse<EmployeeResponseDto>> allEmployees = employeeController.getAllEmployees(name, minSalary, maxSalary, position, 0, 10, "id", "asc", "true", request);
 
         assertAll(
                 () -> assertEquals(200, allEmployees.getStatusCodeValue()),
@@ -161,7 +164,7 @@ class EmployeeControllerTest {
         when(request.getRequestURL()).thenReturn(new StringBuffer("http://localhost:8080/api/employee"));
         when(employeeService.findAll(name, minSalary, maxSalary, position, pageable)).thenReturn(page);
 
-        ResponseEntity<PageResponse<EmployeeResponseDto>> allEmployees = employeeController.getAllEmployees(name, minSalary, maxSalary, position, 0, 10, "id", "asc", request);
+        ResponseEntity<PageResponse<EmployeeResponseDto>> allEmployees = employeeController.getAllEmployees(name, minSalary, maxSalary, position, 0, 10, "id", "asc", "true", request);
 
         assertAll(
                 () -> assertEquals(200, allEmployees.getStatusCodeValue()),
@@ -4,17 +4,30 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientResponse;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.ClientOrderSummaryCheckDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderBatchCreateDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderBatchResponseDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderBatchResultDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderCreateDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderExportFormat;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderIntakeDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderIntakeStatus;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderResponseDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderUpdateDto;
+import dev.clownsinformatics.tiendajava.rest.orders.exceptions.OrderIntakeFull;
 import dev.clownsinformatics.tiendajava.rest.orders.exceptions.OrderNotFound;
 import dev.clownsinformatics.tiendajava.rest.orders.exceptions.OrderNotItems;
 import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
 import dev.clownsinformatics.tiendajava.rest.orders.models.OrderLine;
+import dev.clownsinformatics.tiendajava.rest.orders.service.ClientOrderSummaryService;
+import dev.clownsinformatics.tiendajava.rest.orders.service.OrderIntakeQueue;
 import dev.clownsinformatics.tiendajava.rest.orders.service.OrderService;
 import dev.clownsinformatics.tiendajava.rest.products.exceptions.ProductBadPrice;
 import dev.clownsinformatics.tiendajava.rest.products.exceptions.ProductNotFound;
 import dev.clownsinformatics.tiendajava.rest.products.exceptions.ProductNotStock;
+import dev.clownsinformatics.tiendajava.utils.idempotency.IdempotencyStore;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PageResponse;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
@@ -32,6 +45,7 @@ import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -40,7 +54,9 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
@@ -53,14 +69,18 @@ class OrderRestControllerTest {
     private final ObjectMapper mapper = new ObjectMapper();
 
     private final ClientResponse clientResponse = new ClientResponse(1L, "Juan", "Perez", 0.0, "email", "address", "phone", LocalDate.now(), "image", false, LocalDateTime.now(), LocalDateTime.now());
-    private final OrderLine orderLine = OrderLine.builder().idProduct(UUID.randomUUID()).quantity(2).price(10.0).build();
+    private final OrderLine orderLine = OrderLine.builder().idProduct(UUID.randomUUID()).quantity(2).price(Money.of(10.0)).build();
     private final Order order1 = Order.builder().id(new ObjectId("5f9f1a3b9d6b6d2e3c1d6f1a")).idUser(1L).client(clientResponse).orderLines(List.of(orderLine)).build();
-    private final OrderResponseDto orderResponseDto = new OrderResponseDto(order1.getId().toHexString(), order1.getIdUser(), order1.getClient(), order1.getOrderLines(), order1.getTotalItems(), order1.getTotal(), order1.getCreatedAt(), order1.getUpdatedAt(), order1.getIsDeleted());
+    private final OrderResponseDto orderResponseDto = new OrderResponseDto(order1.getId().toHexString(), order1.getIdUser(), order1.getClient(), order1.getOrderLines(), order1.getTotalItems(), order1.getTotal().amount(), order1.getCreatedAt(), order1.getUpdatedAt(), order1.getIsDeleted());
 
     @Autowired
     MockMvc mockMvc;
     @MockBean
     private OrderService orderService;
+    @MockBean
+    private ClientOrderSummaryService clientOrderSummaryService;
+    @MockBean
+    private OrderIntakeQueue orderIntakeQueue;
 
     @Autowired
     public OrderRestControllerTest(OrderService orderService) {
@@ -94,6 +114,63 @@ class OrderRestControllerTest {
         verify(orderService, times(1)).findAll(any(Pageable.class));
     }
 
+    @Test
+    void getAllOrdersByCursor() throws Exception {
+        CursorPageResponse<OrderResponseDto> page = CursorPageResponse.of(List.of(orderResponseDto), 1, "bmV4dA", true, "id", "asc");
+
+        when(orderService.findAllByCursor(null, 1, "id", "asc")).thenReturn(page);
+
+        MockHttpServletResponse response = mockMvc.perform(
+                        get(myEndpoint + "/cursor?size=1")
+                                .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        CursorPageResponse<OrderResponseDto> res = mapper.readValue(response.getContentAsString(), new TypeReference<>() {
+        });
+
+        assertAll(
+                () -> assertEquals(200, response.getStatus()),
+                () -> assertEquals(1, res.content().size()),
+                () -> assertEquals("bmV4dA", res.nextCursor()),
+                () -> assertTrue(response.getHeader("link").contains("cursor=bmV4dA"))
+        );
+
+        verify(orderService, times(1)).findAllByCursor(null, 1, "id", "asc");
+        verify(orderService, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void checkClientOrderSummaries() throws Exception {
+        when(clientOrderSummaryService.check(true)).thenReturn(new ClientOrderSummaryCheckDto(10, 2, 1, true, 5));
+
+        MockHttpServletResponse response = mockMvc.perform(
+                        post(myEndpoint + "/summaries/check?repair=true"))
+                .andReturn().getResponse();
+
+        ClientOrderSummaryCheckDto res = mapper.readValue(response.getContentAsString(), ClientOrderSummaryCheckDto.class);
+        assertAll(
+                () -> assertEquals(200, response.getStatus()),
+                () -> assertEquals(2, res.mismatched())
+        );
+        verify(clientOrderSummaryService, times(1)).check(true);
+    }
+
+    @Test
+    void exportOrdersAsCsv() throws Exception {
+        MvcResult asyncResult = mockMvc.perform(
+                        get(myEndpoint + "/export?format=csv&idUser=1"))
+                .andReturn();
+        MockHttpServletResponse response = mockMvc.perform(asyncDispatch(asyncResult)).andReturn().getResponse();
+
+        assertAll(
+                () -> assertEquals(200, response.getStatus()),
+                () -> assertTrue(response.getContentType().startsWith("text/csv")),
+                () -> assertTrue(response.getHeader("Content-Disposition").contains("orders.csv"))
+        );
+
+        verify(orderService, times(1)).export(eq(OrderExportFormat.CSV), isNull(), isNull(), eq(1L), any());
+    }
+
     @Test
     void getOrderById() throws Exception {
 
@@ -200,6 +277,140 @@ class OrderRestControllerTest {
         verify(orderService, times(1)).save(any(OrderCreateDto.class));
     }
 
+    @Test
+    void createOrderRetryWithIdempotencyKeyIsReplayed() throws Exception {
+        OrderCreateDto orderCreateDto = new OrderCreateDto(1L, List.of(orderLine));
+        String key = UUID.randomUUID().toString();
+
+        when(orderService.save(orderCreateDto)).thenReturn(orderResponseDto);
+
+        MockHttpServletResponse first = mockMvc.perform(
+                        post(myEndpoint)
+                                .header(IdempotencyStore.HEADER, key)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(orderCreateDto)))
+                .andReturn().getResponse();
+        MockHttpServletResponse retry = mockMvc.perform(
+                        post(myEndpoint)
+                                .header(IdempotencyStore.HEADER, key)
+                                .accept(MediaType.APPLICATION_JSON)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(orderCreateDto)))
+                .andReturn().getResponse();
+
+        assertAll(
+                () -> assertEquals(201, first.getStatus()),
+                () -> assertEquals(201, retry.getStatus()),
+                () -> assertEquals(first.getContentAsString(), retry.getContentAsString()),
+                () -> assertEquals("true", retry.getHeader(IdempotencyStore.REPLAYED_HEADER))
+        );
+
+        verify(orderService, times(1)).save(orderCreateDto);
+    }
+
+    @Test
+    void createOrderAsyncAccepted() throws Exception {
+        OrderCreateDto orderCreateDto = new OrderCreateDto(1L, List.of(orderLine));
+        OrderIntakeDto intake = OrderIntakeDto.of(order1.get_id(), OrderIntakeStatus.QUEUED);
+
+        when(orderIntakeQueue.submit(orderCreateDto)).thenReturn(intake);
+
+        MockHttpServletResponse response = mockMvc.perform(
+                        post(myEndpoint + "/async")
+                                .accept(MediaType.APPLICATION_JSON)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(orderCreateDto)))
+                .andReturn().getResponse();
+
+        OrderIntakeDto res = mapper.readValue(response.getContentAsString(), OrderIntakeDto.class);
+
+        assertAll(
+                () -> assertEquals(202, response.getStatus()),
+                () -> assertEquals(intake, res),
+                () -> assertTrue(response.getHeader("Location").endsWith(myEndpoint + "/async/" + order1.get_id()))
+        );
+
+        verify(orderService, never()).save(any(OrderCreateDto.class));
+    }
+
+    @Test
+    void createOrderAsyncQueueFull() throws Exception {
+        OrderCreateDto orderCreateDto = new OrderCreateDto(1L, List.of(orderLine));
+
+        when(orderIntakeQueue.submit(orderCreateDto)).thenThrow(new OrderIntakeFull(1000));
+
+        MockHttpServletResponse response = mockMvc.perform(
+                        post(myEndpoint + "/async")
+                                .accept(MediaType.APPLICATION_JSON)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(orderCreateDto)))
+                .andReturn().getResponse();
+
+        assertEquals(503, response.getStatus());
+    }
+
+    @Test
+    void getOrderIntakeStatus() throws Exception {
+        OrderIntakeDto intake = OrderIntakeDto.failed(order1.get_id(), "Bad price");
+
+        when(orderIntakeQueue.status(order1.getId())).thenReturn(intake);
+
+        MockHttpServletResponse response = mockMvc.perform(
+                        get(myEndpoint + "/async/" + order1.get_id())
+                                .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        OrderIntakeDto res = mapper.readValue(response.getContentAsString(), OrderIntakeDto.class);
+
+        assertAll(
+                () -> assertEquals(200, response.getStatus()),
+                () -> assertEquals(intake, res)
+        );
+    }
+
+    @Test
+    void createOrdersBatchPartialFailure() throws Exception {
+        OrderCreateDto orderCreateDto = new OrderCreateDto(1L, List.of(orderLine));
+        OrderBatchResponseDto batchResponse = OrderBatchResponseDto.of(List.of(
+                OrderBatchResultDto.created(0, orderResponseDto),
+                OrderBatchResultDto.failed(1, "Bad price")
+        ));
+
+        when(orderService.saveAll(anyList())).thenReturn(batchResponse);
+
+        MockHttpServletResponse response = mockMvc.perform(
+                        post(myEndpoint + "/batch")
+                                .accept(MediaType.APPLICATION_JSON)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(new OrderBatchCreateDto(List.of(orderCreateDto, orderCreateDto)))))
+                .andReturn().getResponse();
+
+        OrderBatchResponseDto res = mapper.readValue(response.getContentAsString(), OrderBatchResponseDto.class);
+
+        assertAll(
+                () -> assertEquals(207, response.getStatus()),
+                () -> assertEquals(1, res.created()),
+                () -> assertEquals(1, res.failed()),
+                () -> assertEquals("Bad price", res.results().get(1).error())
+        );
+
+        verify(orderService, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void createOrdersBatchEmptyBadRequest() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(
+                        post(myEndpoint + "/batch")
+                                .accept(MediaType.APPLICATION_JSON)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(new OrderBatchCreateDto(List.of()))))
+                .andReturn().getResponse();
+
+        assertEquals(400, response.getStatus());
+        verify(orderService, never()).saveAll(anyList());
+    }
+
     @Test
     void createOrderNoItemsBadRequest() throws Exception {
 
@@ -0,0 +1,153 @@
+package dev.clownsinformatics.tiendajava.rest.orders.mappers;
+
+import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientResponse;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.orders.models.OrderLine;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import org.bson.BsonBinarySubType;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderDocumentMapperTest {
+    private final OrderDocumentMapper mapper = new OrderDocumentMapper();
+    private final DocumentCodec codec = new DocumentCodec();
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @Test
+    void roundTripKeepsEveryField() {
+        Order order = order(3);
+
+        Document document = mapper.toDocument(order);
+        Order decoded = mapper.toOrder(document);
+
+        Binary idProduct = (Binary) document.getList(OrderDocumentMapper.ORDER_LINES, Document.class).get(0).get(OrderDocumentMapper.LINE_ID_PRODUCT);
+        assertAll(
+                () -> assertEquals(order, decoded),
+                () -> assertEquals(BsonBinarySubType.UUID_STANDARD.getValue(), idProduct.getType()),
+                () -> assertEquals(17991, document.get(OrderDocumentMapper.TOTAL)),
+                () -> assertFalse(document.containsKey(OrderDocumentMapper.IS_DELETED))
+        );
+    }
+
+    @Test
+    void readsLegacyDocuments() {
+        Order order = order(2);
+
+        Order decoded = mapper.toOrder(legacyDocument(order));
+
+        assertAll(
+                () -> assertTrue(mapper.isLegacy(legacyDocument(order))),
+                () -> assertFalse(mapper.isLegacy(mapper.toDocument(order))),
+                () -> assertEquals(order, decoded)
+        );
+    }
+
+    @Test
+    void compactDocumentsAreSmallerThanLegacyOnes() {
+        int orders = 1_000;
+        long legacyBytes = 0;
+        long compactBytes = 0;
+        for (int i = 0; i < orders; i++) {
+            Order order = order(1 + i % 5);
+            int legacy = size(legacyDocument(order));
+            int compact = size(mapper.toDocument(order));
+            assertTrue(compact < legacy, "compact " + compact + " B, legacy " + legacy + " B");
+            legacyBytes += legacy;
+            compactBytes += compact;
+        }
+
+        // Con los nombres cortos y los importes en céntimos se ahorra al menos una quinta parte
+        assertTrue(compactBytes * 5 < legacyBytes * 4, "compact " + compactBytes + " B, legacy " + legacyBytes + " B");
+    }
+
+    private int size(Document document) {
+        return new RawBsonDocument(document, codec).getByteBuffer().remaining();
+    }
+
+    private Order order(int lines) {
+        List<OrderLine> orderLines = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            orderLines.add(OrderLine.builder().idProduct(UUID.randomUUID()).quantity(3).price(Money.of(19.99)).total(Money.of(59.97)).build());
+        }
+        ClientResponse client = new ClientResponse(7L, "juan", "Juan Perez", 1250.5, "juan@mail.com", "Calle Mayor 1",
+                "600000000", LocalDate.of(1990, 5, 17), "https://placehold.co/600x400", false, now, now);
+        return Order.builder()
+                .id(new ObjectId())
+                .idUser(7L)
+                .client(client)
+                .orderLines(orderLines)
+                .totalItems(lines * 3)
+                .total(Money.of(179.91))
+                .createdAt(now)
+                .updatedAt(now)
+                .isDeleted(false)
+                .build();
+    }
+
+    /**
+     * Documento con el formato que escribía el conversor de Spring Data antes del formato compacto.
+     */
+    private Document legacyDocument(Order order) {
+        List<Document> lines = order.getOrderLines().stream()
+                .map(line -> new Document("quantity", line.getQuantity())
+                        .append("idProduct", legacyUuid(line.getIdProduct()))
+                        .append("price", line.getPrice().amount())
+                        .append("total", line.getTotal().amount()))
+                .toList();
+        ClientResponse client = order.getClient();
+        Document clientDocument = new Document("_id", client.id())
+                .append("username", client.username())
+                .append("name", client.name())
+                .append("balance", client.balance())
+                .append("email", client.email())
+                .append("address", client.address())
+                .append("phone", client.phone())
+                .append("birthdate", Date.from(client.birthdate().atStartOfDay(ZoneId.systemDefault()).toInstant()))
+                .append("image", client.image())
+                .append("isDeleted", client.isDeleted())
+                .append("createdAt", date(client.createdAt()))
+                .append("updatedAt", date(client.updatedAt()));
+        return new Document("_id", order.getId())
+                .append("idUser", order.getIdUser())
+                .append("client", clientDocument)
+                .append("orderLines", lines)
+                .append("totalItems", order.getTotalItems())
+                .append("total", order.getTotal().amount())
+                .append("createdAt", date(order.getCreatedAt()))
+                .append("updatedAt", date(order.getUpdatedAt()))
+                .append("isDeleted", order.getIsDeleted())
+                .append("_class", "Order");
+    }
+
+    private Date date(LocalDateTime dateTime) {
+        return Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    private Binary legacyUuid(UUID uuid) {
+        byte[] bytes = ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits()).array();
+        for (int half = 0; half < 16; half += 8) {
+            for (int i = 0; i < 4; i++) {
+                byte tmp = bytes[half + i];
+                bytes[half + i] = bytes[half + 7 - i];
+                bytes[half + 7 - i] = tmp;
+            }
+        }
+        return new Binary(BsonBinarySubType.UUID_LEGACY, bytes);
+    }
+}
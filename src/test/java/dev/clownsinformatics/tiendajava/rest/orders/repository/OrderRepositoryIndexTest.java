@@ -0,0 +1,198 @@
+package dev.clownsinformatics.tiendajava.rest.orders.repository;
+
+import com.mongodb.client.MongoDatabase;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.orders.models.OrderLine;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba contra un Mongo real que cada consulta sobre pedidos usa un índice y no ordena en memoria.
+ * Las consultas que lanza el repositorio se recogen con el profiler de Mongo y se pasan por {@code explain},
+ * así que se comprueba el plan que elige el planificador para la consulta tal y como se envía.
+ * <p>
+ * Necesita Docker; sin él el test se omite.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class OrderRepositoryIndexTest {
+    private static final int USERS = 10;
+    private static final int ORDERS = 300;
+    private static final Set<String> INDEX_STAGES = Set.of("IXSCAN", "COUNT_SCAN", "IDHACK", "DISTINCT_SCAN",
+            "EXPRESS_IXSCAN", "EXPRESS_CLUSTERED_IXSCAN");
+
+    @Container
+    @ServiceConnection
+    static MongoDBContainer mongo = new MongoDBContainer("mongo:6.0");
+
+    @Autowired
+    private OrderRepository repository;
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private final LocalDateTime firstCreatedAt = LocalDateTime.of(2023, 11, 1, 10, 0);
+    private final List<Order> orders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(Order.class);
+        IndexOperations indexOps = mongoTemplate.indexOps(Order.class);
+        new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext())
+                .resolveIndexFor(Order.class).forEach(indexOps::ensureIndex);
+
+        for (int i = 0; i < ORDERS; i++) {
+            orders.add(Order.builder()
+                    .idUser((long) (i % USERS) + 1)
+                    .orderLines(List.of(OrderLine.builder().idProduct(UUID.randomUUID()).quantity(1).price(Money.of(10.0)).build()))
+                    .totalItems(1)
+                    .total(Money.of(10.0))
+                    .createdAt(firstCreatedAt.plusMinutes(i))
+                    .build());
+        }
+        mongoTemplate.insertAll(orders);
+    }
+
+    @Test
+    void findByIdUserUsesAnIndex() {
+        assertUsesAnIndex("findByIdUser", () -> repository.findByIdUser(3L, PageRequest.of(0, 10, Sort.by("id"))));
+        assertUsesAnIndex("findByIdUser by date", () -> repository.findByIdUser(3L,
+                PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "createdAt", "id"))));
+        assertUsesAnIndex("existsByIdUser", () -> repository.existsByIdUser(3L));
+    }
+
+    @Test
+    void cursorPagesUseAnIndex() {
+        Order middle = orders.get(ORDERS / 2);
+
+        assertUsesAnIndex("first page", () -> repository.findPageAfter(null, false, Sort.Direction.ASC, null, null, 10));
+        assertUsesAnIndex("next page", () -> repository.findPageAfter(null, false, Sort.Direction.ASC, null, middle.getId(), 10));
+        assertUsesAnIndex("next page by date", () -> repository.findPageAfter(null, true, Sort.Direction.DESC,
+                middle.getCreatedAt(), middle.getId(), 10));
+        assertUsesAnIndex("next page of a user", () -> repository.findPageAfter(middle.getIdUser(), false, Sort.Direction.DESC,
+                null, middle.getId(), 10));
+        assertUsesAnIndex("next page of a user by date", () -> repository.findPageAfter(middle.getIdUser(), true,
+                Sort.Direction.ASC, middle.getCreatedAt(), middle.getId(), 10));
+    }
+
+    @Test
+    void streamsUseAnIndex() {
+        LocalDateTime from = firstCreatedAt.plusHours(1);
+        LocalDateTime to = firstCreatedAt.plusHours(3);
+
+        assertUsesAnIndex("streamOrderIdsByIdUser", () -> {
+            try (Stream<ObjectId> ids = repository.streamOrderIdsByIdUser(3L, 0)) {
+                ids.forEach(id -> {
+                });
+            }
+        });
+        assertUsesAnIndex("streamByCreatedAt", () -> {
+            try (Stream<Order> stream = repository.streamByCreatedAt(from, to, null)) {
+                stream.forEach(order -> {
+                });
+            }
+        });
+        assertUsesAnIndex("streamByCreatedAt of a user", () -> {
+            try (Stream<Order> stream = repository.streamByCreatedAt(from, to, 3L)) {
+                stream.forEach(order -> {
+                });
+            }
+        });
+    }
+
+    private void assertUsesAnIndex(String description, Runnable query) {
+        List<Document> commands = profiled(query);
+        assertFalse(commands.isEmpty(), description + " did not query the orders collection");
+        for (Document command : commands) {
+            Document explain = mongoTemplate.executeCommand(new Document("explain", command).append("verbosity", "queryPlanner"));
+            Set<String> stages = new HashSet<>();
+            collectWinningStages(explain, false, stages);
+            assertAll(description + " " + command.toJson(),
+                    () -> assertFalse(stages.contains("COLLSCAN"), "scans the whole collection: " + stages),
+                    () -> assertFalse(stages.contains("SORT"), "sorts in memory: " + stages),
+                    () -> assertTrue(stages.stream().anyMatch(INDEX_STAGES::contains), "uses no index: " + stages)
+            );
+        }
+    }
+
+    /**
+     * Consultas que llegan a la colección de pedidos mientras se ejecuta {@code query}, sin los campos de sesión
+     * que {@code explain} no admite.
+     */
+    private List<Document> profiled(Runnable query) {
+        MongoDatabase database = mongoTemplate.getDb();
+        database.runCommand(new Document("profile", 0));
+        database.getCollection("system.profile").drop();
+        database.runCommand(new Document("profile", 2));
+        try {
+            query.run();
+        } finally {
+            database.runCommand(new Document("profile", 0));
+        }
+
+        String namespace = database.getName() + "." + mongoTemplate.getCollectionName(Order.class);
+        List<Document> commands = new ArrayList<>();
+        for (Document entry : database.getCollection("system.profile").find(new Document("ns", namespace))) {
+            Document command = entry.get("command", Document.class);
+            if (command != null && (command.containsKey("find") || command.containsKey("aggregate") || command.containsKey("count"))) {
+                Document explainable = new Document();
+                command.forEach((key, value) -> {
+                    if (!key.startsWith("$") && !key.equals("lsid") && !key.equals("txnNumber")) {
+                        explainable.put(key, value);
+                    }
+                });
+                commands.add(explainable);
+            }
+        }
+        return commands;
+    }
+
+    /**
+     * Recoge las etapas de los planes ganadores de un {@code explain}, sin las de los planes descartados.
+     */
+    private static void collectWinningStages(Object node, boolean winning, Set<String> stages) {
+        if (node instanceof Document document) {
+            for (Map.Entry<String, Object> entry : document.entrySet()) {
+                switch (entry.getKey()) {
+                    case "rejectedPlans" -> {
+                    }
+                    case "winningPlan" -> collectWinningStages(entry.getValue(), true, stages);
+                    case "stage" -> {
+                        if (winning && entry.getValue() instanceof String stage) {
+                            stages.add(stage);
+                        }
+                    }
+                    default -> collectWinningStages(entry.getValue(), winning, stages);
+                }
+            }
+        } else if (node instanceof List<?> list) {
+            list.forEach(item -> collectWinningStages(item, winning, stages));
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package dev.clownsinformatics.tiendajava.rest.orders.service;
+
+import dev.clownsinformatics.tiendajava.rest.orders.dto.ClientOrderSummaryDto;
+import dev.clownsinformatics.tiendajava.rest.orders.models.ClientOrderSummary;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.ClientOrderSummaryRepository;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderArchiveRepository;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClientOrderSummaryServiceImplTest {
+    private final LocalDateTime createdAt = LocalDateTime.of(2023, 11, 28, 10, 15);
+
+    @Mock
+    private ClientOrderSummaryRepository clientOrderSummaryRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private CacheManager cacheManager;
+    @Mock
+    private BulkOperations bulkOperations;
+    @Mock
+    private Cache cache;
+    @Mock
+    private OrderArchiveRepository orderArchiveRepository;
+    @InjectMocks
+    private ClientOrderSummaryServiceImpl clientOrderSummaryService;
+
+    @Test
+    void findByIdUserWithoutOrdersIsEmpty() {
+        when(clientOrderSummaryRepository.findById(1L)).thenReturn(Optional.empty());
+
+        ClientOrderSummaryDto summary = clientOrderSummaryService.findByIdUser(1L);
+
+        assertAll(
+                () -> assertEquals(1L, summary.idUser()),
+                () -> assertEquals(0, summary.totalOrders()),
+                () -> assertNull(summary.lastOrderAt())
+        );
+    }
+
+    @Test
+    void newOrderIncrementsTheClientSummary() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ClientOrderSummary.class)).thenReturn(bulkOperations);
+        when(cacheManager.getCache("clientOrderSummaries")).thenReturn(cache);
+
+        clientOrderSummaryService.apply(List.of(), List.of(order(1L, 120.0)));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulkOperations).upsert(any(Query.class), update.capture());
+        verify(bulkOperations).execute();
+        verify(cache).evict(1L);
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(ClientOrderSummary.class));
+        var document = update.getValue().getUpdateObject();
+        assertAll(
+                () -> assertEquals(1L, document.get("$inc", Document.class).get("totalOrders")),
+                () -> assertEquals(12_000L, document.get("$inc", Document.class).get("totalSpentCents")),
+                () -> assertEquals(createdAt, document.get("$max", Document.class).get("lastOrderAt"))
+        );
+    }
+
+    @Test
+    void updateWithSameTotalDoesNotWrite() {
+        Order order = order(1L, 120.0);
+
+        clientOrderSummaryService.apply(List.of(order), List.of(order));
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
+        verifyNoInteractions(cacheManager);
+    }
+
+    @Test
+    void movingAnOrderToAnotherClientUpdatesBoth() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ClientOrderSummary.class)).thenReturn(bulkOperations);
+        when(cacheManager.getCache("clientOrderSummaries")).thenReturn(cache);
+
+        clientOrderSummaryService.apply(List.of(order(1L, 120.0)), List.of(order(2L, 120.0)));
+
+        verify(bulkOperations, times(2)).upsert(any(Query.class), any(Update.class));
+        verify(mongoTemplate, times(1)).findOne(any(Query.class), eq(Order.class));
+        verify(orderArchiveRepository, times(1)).findLatestByIdUser(1L);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(ClientOrderSummary.class));
+        verify(cache).evict(1L);
+        verify(cache).evict(2L);
+    }
+
+    @Test
+    void summaryFailureDoesNotFailTheOrder() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ClientOrderSummary.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new IllegalStateException("mongo down"));
+        when(cacheManager.getCache("clientOrderSummaries")).thenReturn(cache);
+
+        assertDoesNotThrow(() -> clientOrderSummaryService.apply(List.of(order(1L, 120.0)), List.of()));
+        verify(cache).evict(1L);
+    }
+
+    private Order order(Long idUser, double total) {
+        return Order.builder().idUser(idUser).total(Money.of(total)).createdAt(createdAt).build();
+    }
+}
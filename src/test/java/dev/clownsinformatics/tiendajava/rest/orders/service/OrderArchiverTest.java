@@ -0,0 +1,82 @@
+package dev.clownsinformatics.tiendajava.rest.orders.service;
+
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.orders.models.OrderArchiveRun;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderArchiveRepository;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderArchiveRunRepository;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderArchiverTest {
+    private final LocalDateTime createdAt = LocalDateTime.of(2021, 3, 1, 12, 0);
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private OrderArchiveRepository orderArchiveRepository;
+    @Mock
+    private OrderArchiveRunRepository orderArchiveRunRepository;
+
+    private OrderArchiver orderArchiver;
+
+    @BeforeEach
+    void setUp() {
+        orderArchiver = new OrderArchiver(mongoTemplate, orderArchiveRepository, orderArchiveRunRepository, false, 365, 2, 24);
+    }
+
+    @Test
+    void copiesEachBatchToTheArchiveBeforeRemovingIt() {
+        List<Order> first = List.of(order(createdAt), order(createdAt.plusDays(1)));
+        List<Order> second = List.of(order(createdAt.minusDays(1)));
+
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(first, second);
+        when(orderArchiveRunRepository.save(any(OrderArchiveRun.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderArchiveRun run = orderArchiver.archive();
+
+        assertAll(
+                () -> assertEquals(3, run.getArchived()),
+                () -> assertEquals(createdAt.minusDays(1), run.getOldestCreatedAt()),
+                () -> assertEquals(createdAt.plusDays(1), run.getNewestCreatedAt()),
+                () -> assertNotNull(run.getFinishedAt())
+        );
+        InOrder inOrder = inOrder(orderArchiveRepository, mongoTemplate);
+        inOrder.verify(orderArchiveRepository).saveAll(first);
+        inOrder.verify(mongoTemplate).remove(any(Query.class), eq(Order.class));
+        inOrder.verify(orderArchiveRepository).saveAll(second);
+        inOrder.verify(mongoTemplate).remove(any(Query.class), eq(Order.class));
+        verify(mongoTemplate, times(2)).find(any(Query.class), eq(Order.class));
+    }
+
+    @Test
+    void nothingToArchiveStillRecordsTheRun() {
+        when(mongoTemplate.find(any(Query.class), eq(Order.class))).thenReturn(List.of());
+        when(orderArchiveRunRepository.save(any(OrderArchiveRun.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        OrderArchiveRun run = orderArchiver.archive();
+
+        assertEquals(0, run.getArchived());
+        verify(orderArchiveRepository, never()).saveAll(any());
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(Order.class));
+    }
+
+    private Order order(LocalDateTime createdAt) {
+        return Order.builder().id(new ObjectId()).idUser(1L).createdAt(createdAt).build();
+    }
+}
@@ -0,0 +1,120 @@
+package dev.clownsinformatics.tiendajava.rest.orders.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientResponse;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderExportFormat;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderResponseDto;
+import dev.clownsinformatics.tiendajava.rest.orders.mappers.OrderMapper;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.orders.models.OrderLine;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderExportWriterTest {
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final OrderExportWriter writer = new OrderExportWriter(objectMapper, new OrderMapper());
+
+    private final ClientResponse client = new ClientResponse(1L, "juan", "Perez, Juan", 0.0, "juan@mail.com", "address", "phone", LocalDate.now(), "image", false, null, null);
+
+    @Test
+    void writesOneJsonDocumentPerLine() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = writer.write(OrderExportFormat.NDJSON, Stream.of(order(1L), order(2L)), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        OrderResponseDto first = objectMapper.readValue(lines[0], OrderResponseDto.class);
+        assertAll(
+                () -> assertEquals(2, count),
+                () -> assertEquals(2, lines.length),
+                () -> assertEquals(1L, first.idUser()),
+                () -> assertEquals(1, first.orderLines().size())
+        );
+    }
+
+    @Test
+    void writesCsvWithHeaderAndEscapedValues() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        writer.write(OrderExportFormat.CSV, Stream.of(order(1L)), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertAll(
+                () -> assertEquals(OrderExportWriter.CSV_HEADER, lines[0]),
+                () -> assertTrue(lines[1].contains(",\"Perez, Juan\",")),
+                () -> assertEquals(10, lines[1].split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1).length)
+        );
+    }
+
+    @Test
+    void exportsMillionsOfOrdersWithoutHoldingThem() throws Exception {
+        int total = 2_000_000;
+        CountingOutputStream out = new CountingOutputStream();
+        long[] maxPending = new long[1];
+
+        // Al pedir cada pedido al cursor, los anteriores ya tienen que haber salido salvo los del último vaciado
+        long count = writer.write(OrderExportFormat.CSV, Stream.iterate(1L, i -> i + 1).limit(total).map(i -> {
+            maxPending[0] = Math.max(maxPending[0], i - out.lines);
+            return order(i);
+        }), out);
+
+        assertAll(
+                () -> assertEquals(total, count),
+                () -> assertEquals(total + 1, out.lines),
+                () -> assertTrue(maxPending[0] <= OrderExportWriter.FLUSH_EVERY + 1,
+                        "Orders held before writing: " + maxPending[0])
+        );
+    }
+
+    private Order order(long idUser) {
+        return Order.builder()
+                .id(new ObjectId())
+                .idUser(idUser)
+                .client(client)
+                .orderLines(List.of(OrderLine.builder().idProduct(UUID.randomUUID()).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build()))
+                .totalItems(2)
+                .total(Money.of(20.0))
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package dev.clownsinformatics.tiendajava.rest.orders.service;
+
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderBatchResponseDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderBatchResultDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderCreateDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderIntakeDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderIntakeStatus;
+import dev.clownsinformatics.tiendajava.rest.orders.exceptions.OrderIntakeFull;
+import dev.clownsinformatics.tiendajava.rest.orders.exceptions.OrderNotFound;
+import dev.clownsinformatics.tiendajava.rest.orders.models.OrderLine;
+import dev.clownsinformatics.tiendajava.rest.products.exceptions.ProductNotStock;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderIntakeQueueTest {
+    @Mock
+    private OrderService orderService;
+
+    private final OrderCreateDto order = new OrderCreateDto(1L, List.of(OrderLine.builder().idProduct(UUID.randomUUID()).quantity(1).price(Money.of(10.0)).build()));
+
+    @Test
+    void drainsQueuedOrdersInOneBatchWithTheirIds() throws InterruptedException {
+        var queue = new OrderIntakeQueue(orderService, 1, 10, 10, 100);
+        OrderIntakeDto first = queue.submit(order);
+        OrderIntakeDto second = queue.submit(order);
+        List<ObjectId> ids = List.of(new ObjectId(first.id()), new ObjectId(second.id()));
+
+        when(orderService.saveAll(List.of(order, order), ids)).thenReturn(OrderBatchResponseDto.of(List.of(
+                OrderBatchResultDto.created(0, null),
+                OrderBatchResultDto.failed(1, "Bad price"))));
+
+        int processed = queue.drainOnce(10);
+
+        assertAll(
+                () -> assertEquals(2, processed),
+                () -> assertEquals(OrderIntakeStatus.QUEUED, first.status()),
+                () -> assertEquals(OrderIntakeStatus.CREATED, queue.status(ids.get(0)).status()),
+                () -> assertEquals(OrderIntakeDto.failed(second.id(), "Bad price"), queue.status(ids.get(1))),
+                () -> assertEquals(0, queue.stats().depth()),
+                () -> assertEquals(1, queue.stats().created()),
+                () -> assertEquals(1, queue.stats().failed())
+        );
+    }
+
+    @Test
+    void rejectsOrdersWhenTheQueueIsFull() {
+        var queue = new OrderIntakeQueue(orderService, 1, 10, 1, 100);
+        queue.submit(order);
+
+        assertThrows(OrderIntakeFull.class, () -> queue.submit(order));
+
+        assertAll(
+                () -> assertEquals(1, queue.stats().depth()),
+                () -> assertEquals(1, queue.stats().accepted()),
+                () -> assertEquals(1, queue.stats().rejected())
+        );
+        verify(orderService, never()).saveAll(anyList(), anyList());
+    }
+
+    @Test
+    void rejectsInvalidOrdersBeforeQueueingThem() {
+        var queue = new OrderIntakeQueue(orderService, 1, 10, 10, 100);
+        doThrow(new ProductNotStock("Product stock is: 0 and order quantity is: 1")).when(orderService).validate(order);
+
+        assertThrows(ProductNotStock.class, () -> queue.submit(order));
+
+        assertAll(
+                () -> assertEquals(0, queue.stats().depth()),
+                () -> assertEquals(0, queue.stats().accepted())
+        );
+    }
+
+    @Test
+    void processesQueuedOrdersOnStop() throws InterruptedException {
+        var queue = new OrderIntakeQueue(orderService, 1, 10, 10, 100);
+        OrderIntakeDto intake = queue.submit(order);
+        ObjectId id = new ObjectId(intake.id());
+        when(orderService.saveAll(List.of(order), List.of(id))).thenReturn(OrderBatchResponseDto.of(List.of(
+                OrderBatchResultDto.created(0, null))));
+
+        queue.stop();
+
+        assertAll(
+                () -> assertEquals(OrderIntakeStatus.CREATED, queue.status(id).status()),
+                () -> assertEquals(0, queue.stats().depth()),
+                () -> assertThrows(OrderIntakeFull.class, () -> queue.submit(order))
+        );
+    }
+
+    @Test
+    void marksTheWholeBatchAsFailedWhenItCannotBeSaved() throws InterruptedException {
+        var queue = new OrderIntakeQueue(orderService, 1, 10, 10, 100);
+        OrderIntakeDto intake = queue.submit(order);
+
+        when(orderService.saveAll(anyList(), eq(List.of(new ObjectId(intake.id()))))).thenThrow(new IllegalStateException("Mongo is down"));
+
+        queue.drainOnce(10);
+
+        assertEquals(OrderIntakeDto.failed(intake.id(), "Mongo is down"), queue.status(new ObjectId(intake.id())));
+    }
+
+    @Test
+    void unknownOrderHasNoStatus() {
+        var queue = new OrderIntakeQueue(orderService, 1, 10, 10, 100);
+
+        assertThrows(OrderNotFound.class, () -> queue.status(new ObjectId()));
+    }
+}
@@ -0,0 +1,146 @@
+package dev.clownsinformatics.tiendajava.rest.orders.service;
+
+import dev.clownsinformatics.tiendajava.rest.clients.exceptions.ClientNotFound;
+import dev.clownsinformatics.tiendajava.rest.products.exceptions.ProductNotFound;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderLookupsTest {
+    private final OrderLookups lookups = new OrderLookups(true, 4, 8);
+
+    @AfterEach
+    void tearDown() {
+        lookups.stop();
+    }
+
+    @Test
+    void joinReturnsEveryResult() {
+        try (var scope = lookups.open()) {
+            var client = scope.fork(() -> "client");
+            var products = scope.fork(() -> 3);
+            scope.join();
+
+            assertAll(
+                    () -> assertEquals("client", client.get()),
+                    () -> assertEquals(3, products.get())
+            );
+        }
+    }
+
+    @Test
+    void firstFailureCancelsTheOtherLookups() throws InterruptedException {
+        var interrupted = new CountDownLatch(1);
+
+        try (var scope = lookups.open()) {
+            scope.fork(() -> {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            });
+            scope.fork(() -> {
+                throw new ProductNotFound("Product not found");
+            });
+
+            assertThrows(ProductNotFound.class, scope::join);
+        }
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void joinWaitsForLookupsForkedAfterOthersFinished() {
+        var finished = new AtomicBoolean();
+
+        try (var scope = lookups.open()) {
+            var client = scope.fork(() -> "client");
+            assertEquals("client", client.get());
+            scope.fork(() -> {
+                sleep(50, null);
+                finished.set(true);
+                return null;
+            });
+            scope.join();
+        }
+
+        assertTrue(finished.get());
+    }
+
+    @Test
+    void failedLookupRethrowsItsExceptionAsIs() {
+        try (var scope = lookups.open()) {
+            var product = scope.fork(() -> {
+                throw new ProductNotFound("Product not found");
+            });
+
+            assertThrows(ProductNotFound.class, scope::join);
+            assertThrows(ProductNotFound.class, product::get);
+        }
+    }
+
+    @Test
+    void latencyIsTheSlowestLookupInsteadOfTheSum() {
+        int requests = 40;
+        Supplier<String> client = () -> sleep(10, "client");
+        Supplier<String> products = () -> sleep(15, "products");
+
+        long[] sequential = new long[requests];
+        long[] concurrent = new long[requests];
+        for (int i = 0; i < requests; i++) {
+            long start = System.nanoTime();
+            client.get();
+            products.get();
+            sequential[i] = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            try (var scope = lookups.open()) {
+                scope.fork(client);
+                scope.fork(products);
+                scope.join();
+            }
+            concurrent[i] = System.nanoTime() - start;
+        }
+
+        // En serie tarda unos 25 ms y en paralelo unos 15 ms
+        assertTrue(percentile(concurrent, 50) < percentile(sequential, 50) * 0.8,
+                "concurrent p50 " + percentile(concurrent, 50) + " ms, sequential p50 " + percentile(sequential, 50) + " ms");
+    }
+
+    @Test
+    void failureIsRethrownAsIs() {
+        try (var scope = lookups.open()) {
+            scope.fork(() -> {
+                throw new ClientNotFound(1L);
+            });
+
+            var exception = assertThrows(ClientNotFound.class, scope::join);
+            assertEquals("Client with 1 not found.", exception.getMessage());
+        }
+    }
+
+    private static <T> T sleep(long millis, T value) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return value;
+    }
+
+    private static double percentile(long[] nanos, int percentile) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
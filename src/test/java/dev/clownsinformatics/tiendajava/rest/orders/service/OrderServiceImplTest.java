@@ -1,9 +1,11 @@
 package dev.clownsinformatics.tiendajava.rest.orders.service;
 
 import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientResponse;
+import dev.clownsinformatics.tiendajava.rest.clients.exceptions.ClientNotFound;
 import dev.clownsinformatics.tiendajava.rest.clients.models.Client;
 import dev.clownsinformatics.tiendajava.rest.clients.services.ClientService;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderCreateDto;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderExportFormat;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderResponseDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderUpdateDto;
 import dev.clownsinformatics.tiendajava.rest.orders.exceptions.OrderNotFound;
@@ -11,12 +13,18 @@ import dev.clownsinformatics.tiendajava.rest.orders.exceptions.OrderNotItems;
 import dev.clownsinformatics.tiendajava.rest.orders.mappers.OrderMapper;
 import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
 import dev.clownsinformatics.tiendajava.rest.orders.models.OrderLine;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderArchiveRepository;
 import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderRepository;
 import dev.clownsinformatics.tiendajava.rest.products.exceptions.ProductBadPrice;
 import dev.clownsinformatics.tiendajava.rest.products.exceptions.ProductNotFound;
 import dev.clownsinformatics.tiendajava.rest.products.exceptions.ProductNotStock;
 import dev.clownsinformatics.tiendajava.rest.products.models.Product;
 import dev.clownsinformatics.tiendajava.rest.products.repositories.ProductRepository;
+import dev.clownsinformatics.tiendajava.rest.products.services.StockLedger;
+import dev.clownsinformatics.tiendajava.rest.reports.services.SalesRollupDelta;
+import dev.clownsinformatics.tiendajava.rest.reports.services.SalesRollupService;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorBadRequest;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -27,12 +35,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -47,6 +62,18 @@ class OrderServiceImplTest {
     private OrderMapper orderMapper;
     @Mock
     private ClientService clientService;
+    @Mock
+    private StockLedger stockLedger;
+    @Mock
+    private OrderExportWriter orderExportWriter;
+    @Mock
+    private SalesRollupService salesRollupService;
+    @Mock
+    private ClientOrderSummaryService clientOrderSummaryService;
+    @Mock
+    private OrderLookups orderLookups;
+    @Mock
+    private OrderArchiveRepository orderArchiveRepository;
     @InjectMocks
     private OrderServiceImpl ordersService;
     
@@ -107,6 +134,33 @@ class OrderServiceImplTest {
         assertThrows(OrderNotFound.class, () -> ordersService.findById(idOrder));
         
         verify(ordersRepository).findById(idOrder);
+        verify(orderArchiveRepository).findById(idOrder);
+    }
+
+    @Test
+    void testFindByIdFallsThroughToTheArchive() {
+        ObjectId idOrder = new ObjectId();
+
+        when(ordersRepository.findById(idOrder)).thenReturn(Optional.empty());
+        when(orderArchiveRepository.findById(idOrder)).thenReturn(Optional.of(order));
+        when(orderMapper.toOrderResponseDto(order)).thenReturn(orderResponseDto);
+
+        assertEquals(orderResponseDto, ordersService.findById(idOrder));
+    }
+
+    @Test
+    void testFindArchived() {
+        LocalDateTime from = LocalDateTime.of(2022, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 1, 1, 0, 0);
+        Pageable pageable = PageRequest.of(0, 10);
+
+        when(orderArchiveRepository.findByIdUserAndCreatedAt(1L, from, to, pageable)).thenReturn(new PageImpl<>(List.of(order)));
+        when(orderMapper.toOrderResponseDto(order)).thenReturn(orderResponseDto);
+
+        Page<OrderResponseDto> result = ordersService.findArchived(1L, from, to, pageable);
+
+        assertEquals(List.of(orderResponseDto), result.getContent());
+        verify(ordersRepository, never()).findByIdUser(any(), any());
     }
 
     @Test
@@ -134,18 +188,75 @@ class OrderServiceImplTest {
         verify(ordersRepository, times(1)).findByIdUser(idUser, pageable);
     }
 
+    @Test
+    void findAllByCursorSeeksFromLastId() {
+        when(ordersRepository.findPageAfter(null, false, Sort.Direction.ASC, null, null, 2)).thenReturn(new ArrayList<>(List.of(order2, order)));
+        when(orderMapper.toOrderResponseDto(order2)).thenReturn(orderResponseDto2);
+
+        var firstPage = ordersService.findAllByCursor(null, 1, "id", "asc");
+
+        when(ordersRepository.findPageAfter(null, false, Sort.Direction.ASC, null, order2.getId(), 2)).thenReturn(List.of(order));
+        when(orderMapper.toOrderResponseDto(order)).thenReturn(orderResponseDto);
+
+        var secondPage = ordersService.findAllByCursor(firstPage.nextCursor(), 1, "id", "asc");
+
+        assertAll(
+                () -> assertEquals(List.of(orderResponseDto2), firstPage.content()),
+                () -> assertNotNull(firstPage.nextCursor()),
+                () -> assertTrue(firstPage.first()),
+                () -> assertEquals(List.of(orderResponseDto), secondPage.content()),
+                () -> assertNull(secondPage.nextCursor()),
+                () -> assertTrue(secondPage.last())
+        );
+        verify(ordersRepository, never()).findAll(any(Pageable.class));
+        verify(ordersRepository, never()).count();
+    }
+
+    @Test
+    void findByUserIdByCursorRejectsCursorFromAnotherSort() {
+        when(ordersRepository.findPageAfter(1L, false, Sort.Direction.ASC, null, null, 2)).thenReturn(new ArrayList<>(List.of(order, order2)));
+        when(orderMapper.toOrderResponseDto(order)).thenReturn(orderResponseDto);
+
+        var firstPage = ordersService.findByUserIdByCursor(1L, null, 1, "id", "asc");
+
+        assertAll(
+                () -> assertThrows(CursorBadRequest.class, () -> ordersService.findByUserIdByCursor(1L, firstPage.nextCursor(), 1, "createdAt", "asc")),
+                () -> assertThrows(CursorBadRequest.class, () -> ordersService.findByUserIdByCursor(1L, "not-a-cursor", 1, "id", "asc")),
+                () -> assertThrows(CursorBadRequest.class, () -> ordersService.findByUserIdByCursor(1L, null, 1, "total", "asc"))
+        );
+    }
+
+    @Test
+    void exportClosesTheCursor() throws Exception {
+        var closed = new AtomicBoolean(false);
+        Stream<Order> orders = Stream.of(order, order2).onClose(() -> closed.set(true));
+        var out = new ByteArrayOutputStream();
+
+        when(ordersRepository.streamByCreatedAt(null, null, 1L)).thenReturn(orders);
+        when(orderExportWriter.write(OrderExportFormat.CSV, orders, out)).thenReturn(2L);
+
+        long count = ordersService.export(OrderExportFormat.CSV, null, null, 1L, out);
+
+        assertAll(
+                () -> assertEquals(2, count),
+                () -> assertTrue(closed.get())
+        );
+        verify(ordersRepository, never()).findAll();
+    }
+
     @Test
     void testSave() {
         UUID idProduct = UUID.randomUUID();
-        Product product = Product.builder().id(idProduct).name("Product 1").price(10.0).stock(5).img("https://placehold.co/600x400").category(null).build();
-        OrderLine lineaOrder = OrderLine.builder().idProduct(product.getId()).quantity(2).price(10.0).total(20.0).build();
+        Product product = Product.builder().id(idProduct).name("Product 1").price(Money.of(10.0)).stock(5).img("https://placehold.co/600x400").category(null).build();
+        OrderLine lineaOrder = OrderLine.builder().idProduct(product.getId()).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build();
         OrderCreateDto orderDto = new OrderCreateDto(1L, List.of(lineaOrder));
 
         Order orderToSave = new Order();
         orderToSave.setIdUser(orderDto.idUser());
         orderToSave.setOrderLines(List.of(lineaOrder));
 
-        when(productsRepository.findById(any(UUID.class))).thenReturn(Optional.of(product));
+        when(productsRepository.findAllById(any())).thenReturn(List.of(product));
+        when(productsRepository.decrementStock(idProduct, 2)).thenReturn(1);
         when(ordersRepository.save(any(Order.class))).thenReturn(orderToSave);
         when(orderMapper.toOrder(any(OrderCreateDto.class), any())).thenReturn(orderToSave);
         when(orderMapper.toOrderResponseDto(any(Order.class))).thenReturn(orderResponseDto);
@@ -159,7 +270,201 @@ class OrderServiceImplTest {
         );
 
         verify(ordersRepository).save(any(Order.class));
-        verify(productsRepository, times(2)).findById(any(UUID.class));
+        verify(productsRepository, times(1)).findAllById(any());
+        verify(productsRepository, times(1)).decrementStock(idProduct, 2);
+        verify(productsRepository, never()).saveAll(any());
+        verify(productsRepository, never()).findById(any(UUID.class));
+        verify(salesRollupService, times(1)).apply(any(SalesRollupDelta.class), eq(Map.of(idProduct, product)));
+    }
+
+    @Test
+    void testSaveNotStock() {
+        UUID idProduct = UUID.randomUUID();
+        Product product = Product.builder().id(idProduct).name("Product 1").price(Money.of(10.0)).stock(5).img("https://placehold.co/600x400").category(null).build();
+        OrderLine lineaOrder = OrderLine.builder().idProduct(product.getId()).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build();
+        OrderCreateDto orderDto = new OrderCreateDto(1L, List.of(lineaOrder));
+
+        Order orderToSave = new Order();
+        orderToSave.setIdUser(orderDto.idUser());
+        orderToSave.setOrderLines(List.of(lineaOrder));
+
+        when(productsRepository.findAllById(any())).thenReturn(List.of(product));
+        when(productsRepository.decrementStock(idProduct, 2)).thenReturn(0);
+        when(orderMapper.toOrder(any(OrderCreateDto.class), any())).thenReturn(orderToSave);
+
+        assertThrows(ProductNotStock.class, () -> ordersService.save(orderDto));
+
+        verify(productsRepository, times(1)).decrementStock(idProduct, 2);
+        verify(ordersRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void testValidateChecksStockWithoutReserving() {
+        Product product = Product.builder().id(idProduct).name("Product 1").price(Money.of(10.0)).stock(1).img("https://placehold.co/600x400").category(null).build();
+        OrderLine lineaOrder = OrderLine.builder().idProduct(idProduct).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build();
+        OrderCreateDto orderDto = new OrderCreateDto(1L, List.of(lineaOrder));
+        Order orderToCheck = new Order();
+        orderToCheck.setOrderLines(List.of(lineaOrder));
+
+        when(productsRepository.findAllById(any())).thenReturn(List.of(product));
+        when(orderMapper.toOrder(any(OrderCreateDto.class), any())).thenReturn(orderToCheck);
+
+        assertThrows(ProductNotStock.class, () -> ordersService.validate(orderDto));
+
+        verify(clientService, times(1)).findById(1L);
+        verify(productsRepository, never()).decrementStock(any(), anyInt());
+        verify(ordersRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void testSaveWithConcurrentLookups() {
+        Product product = Product.builder().id(idProduct).name("Product 1").price(Money.of(10.0)).stock(5).build();
+        OrderLine lineaOrder = OrderLine.builder().idProduct(idProduct).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build();
+        OrderCreateDto orderDto = new OrderCreateDto(1L, List.of(lineaOrder));
+        ClientResponse client = new ClientResponse(1L, "name", "surname", 0.0, "email", "address", "phone", LocalDate.now(), "image", false, null, null);
+        Order orderToSave = new Order();
+        orderToSave.setIdUser(1L);
+        orderToSave.setOrderLines(List.of(lineaOrder));
+        OrderLookups lookups = new OrderLookups(true, 2, 4);
+        var service = new OrderServiceImpl(ordersRepository, productsRepository, orderMapper, clientService, stockLedger, orderExportWriter, salesRollupService, clientOrderSummaryService, lookups, orderArchiveRepository);
+
+        when(clientService.findById(1L)).thenReturn(client);
+        when(productsRepository.findAllById(any())).thenReturn(List.of(product));
+        when(productsRepository.decrementStock(idProduct, 2)).thenReturn(1);
+        when(orderMapper.toOrder(orderDto, null)).thenReturn(orderToSave);
+        when(ordersRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(orderMapper.toOrderResponseDto(any(Order.class))).thenReturn(orderResponseDto);
+
+        try {
+            assertEquals(orderResponseDto, service.save(orderDto));
+        } finally {
+            lookups.stop();
+        }
+
+        assertEquals(client, orderToSave.getClient());
+        verify(productsRepository).decrementStock(idProduct, 2);
+    }
+
+    @Test
+    void testSaveWithConcurrentLookupsFailsFastOnMissingClient() {
+        OrderLine lineaOrder = OrderLine.builder().idProduct(idProduct).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build();
+        OrderCreateDto orderDto = new OrderCreateDto(1L, List.of(lineaOrder));
+        Order orderToSave = new Order();
+        orderToSave.setOrderLines(List.of(lineaOrder));
+        OrderLookups lookups = new OrderLookups(true, 2, 4);
+        var service = new OrderServiceImpl(ordersRepository, productsRepository, orderMapper, clientService, stockLedger, orderExportWriter, salesRollupService, clientOrderSummaryService, lookups, orderArchiveRepository);
+
+        when(clientService.findById(1L)).thenThrow(new ClientNotFound(1L));
+        when(orderMapper.toOrder(orderDto, null)).thenReturn(orderToSave);
+        lenient().when(productsRepository.findAllById(any())).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return List.of();
+        });
+
+        long start = System.nanoTime();
+        try {
+            assertThrows(ClientNotFound.class, () -> service.save(orderDto));
+        } finally {
+            lookups.stop();
+        }
+
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+        verify(ordersRepository, never()).save(any(Order.class));
+        verify(productsRepository, never()).decrementStock(any(), anyInt());
+    }
+
+    @Test
+    void testSaveAllLooksUpOncePerBatch() {
+        UUID idProduct1 = new UUID(0, 1);
+        UUID idProduct2 = new UUID(0, 2);
+        Product product1 = Product.builder().id(idProduct1).name("Product 1").price(Money.of(10.0)).stock(50).build();
+        Product product2 = Product.builder().id(idProduct2).name("Product 2").price(Money.of(20.0)).stock(50).build();
+        ClientResponse client = new ClientResponse(1L, "name", "surname", 0.0, "email", "address", "phone", LocalDate.now(), "image", false, null, null);
+        List<OrderCreateDto> orders = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            orders.add(new OrderCreateDto(1L, List.of(
+                    OrderLine.builder().idProduct(idProduct1).quantity(1).price(Money.of(10.0)).build(),
+                    OrderLine.builder().idProduct(idProduct2).quantity(2).price(Money.of(20.0)).build())));
+        }
+        orders.add(new OrderCreateDto(1L, List.of(OrderLine.builder().idProduct(idProduct1).quantity(1).price(Money.of(99.0)).build())));
+
+        when(clientService.findById(1L)).thenReturn(client);
+        when(productsRepository.findAllById(any())).thenReturn(List.of(product1, product2));
+        when(orderMapper.toOrder(any(OrderCreateDto.class), any())).thenAnswer(invocation -> {
+            OrderCreateDto dto = invocation.getArgument(0);
+            return Order.builder().idUser(dto.idUser()).client(invocation.getArgument(1)).orderLines(dto.orderLines()).build();
+        });
+        when(productsRepository.decrementStock(idProduct1, 20)).thenReturn(1);
+        when(productsRepository.decrementStock(idProduct2, 40)).thenReturn(1);
+        when(ordersRepository.insertUnordered(anyList())).thenReturn(Map.of());
+        when(orderMapper.toOrderResponseDto(any(Order.class))).thenReturn(orderResponseDto);
+
+        var result = ordersService.saveAll(orders);
+
+        assertAll(
+                () -> assertEquals(20, result.created()),
+                () -> assertEquals(1, result.failed()),
+                () -> assertFalse(result.results().get(20).created()),
+                () -> assertTrue(result.results().get(0).created())
+        );
+        verify(clientService, times(1)).findById(1L);
+        verify(productsRepository, times(1)).findAllById(any());
+        verify(productsRepository, times(2)).decrementStock(any(UUID.class), anyInt());
+        verify(ordersRepository, times(1)).insertUnordered(anyList());
+        verify(ordersRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    void testSaveAllFallsBackToOrderByOrderReservation() {
+        Product product = Product.builder().id(idProduct).name("Product 1").price(Money.of(10.0)).stock(3).build();
+        ClientResponse client = new ClientResponse(1L, "name", "surname", 0.0, "email", "address", "phone", LocalDate.now(), "image", false, null, null);
+        List<OrderCreateDto> orders = List.of(
+                new OrderCreateDto(1L, List.of(OrderLine.builder().idProduct(idProduct).quantity(2).price(Money.of(10.0)).build())),
+                new OrderCreateDto(1L, List.of(OrderLine.builder().idProduct(idProduct).quantity(2).price(Money.of(10.0)).build())));
+
+        when(clientService.findById(1L)).thenReturn(client);
+        when(productsRepository.findAllById(any())).thenReturn(List.of(product));
+        when(orderMapper.toOrder(any(OrderCreateDto.class), any())).thenAnswer(invocation -> {
+            OrderCreateDto dto = invocation.getArgument(0);
+            return Order.builder().idUser(dto.idUser()).orderLines(dto.orderLines()).build();
+        });
+        when(productsRepository.decrementStock(idProduct, 4)).thenReturn(0);
+        when(productsRepository.decrementStock(idProduct, 2)).thenReturn(1, 0);
+        when(ordersRepository.insertUnordered(anyList())).thenReturn(Map.of());
+        when(orderMapper.toOrderResponseDto(any(Order.class))).thenReturn(orderResponseDto);
+
+        var result = ordersService.saveAll(orders);
+
+        assertAll(
+                () -> assertEquals(1, result.created()),
+                () -> assertTrue(result.results().get(0).created()),
+                () -> assertFalse(result.results().get(1).created())
+        );
+    }
+
+    @Test
+    void testSaveAllReleasesStockOfOrdersRejectedByMongo() {
+        Product product = Product.builder().id(idProduct).name("Product 1").price(Money.of(10.0)).stock(10).build();
+        List<OrderCreateDto> orders = List.of(
+                new OrderCreateDto(1L, List.of(OrderLine.builder().idProduct(idProduct).quantity(1).price(Money.of(10.0)).build())),
+                new OrderCreateDto(1L, List.of(OrderLine.builder().idProduct(idProduct).quantity(1).price(Money.of(10.0)).build())));
+
+        when(productsRepository.findAllById(any())).thenReturn(List.of(product));
+        when(orderMapper.toOrder(any(OrderCreateDto.class), any())).thenAnswer(invocation -> {
+            OrderCreateDto dto = invocation.getArgument(0);
+            return Order.builder().idUser(dto.idUser()).orderLines(dto.orderLines()).build();
+        });
+        when(productsRepository.decrementStock(idProduct, 2)).thenReturn(1);
+        when(ordersRepository.insertUnordered(anyList())).thenReturn(Map.of(1, "E11000 duplicate key"));
+        when(orderMapper.toOrderResponseDto(any(Order.class))).thenReturn(orderResponseDto);
+
+        var result = ordersService.saveAll(orders);
+
+        assertAll(
+                () -> assertEquals(1, result.created()),
+                () -> assertEquals("E11000 duplicate key", result.results().get(1).error())
+        );
+        verify(productsRepository, times(1)).incrementStock(idProduct, 1);
     }
 
     @Test
@@ -186,6 +491,8 @@ class OrderServiceImplTest {
         
         verify(ordersRepository).findById(idOrder);
         verify(ordersRepository).delete(orderToDelete);
+        verify(salesRollupService).apply(any(SalesRollupDelta.class), eq(Map.of()));
+        verify(clientOrderSummaryService).apply(List.of(orderToDelete), List.of());
     }
 
     @Test
@@ -203,15 +510,15 @@ class OrderServiceImplTest {
     @Test
     void testUpdate() {
         UUID idProduct = UUID.randomUUID();
-        Product product = Product.builder().id(idProduct).name("Product 1").price(10.0).stock(5).img("https://placehold.co/600x400").category(null).build();
-        OrderLine lineaOrder = OrderLine.builder().idProduct(product.getId()).quantity(2).price(10.0).total(20.0).build();
+        Product product = Product.builder().id(idProduct).name("Product 1").price(Money.of(10.0)).stock(5).img("https://placehold.co/600x400").category(null).build();
+        OrderLine lineaOrder = OrderLine.builder().idProduct(product.getId()).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build();
         OrderUpdateDto orderDto = new OrderUpdateDto(1L, List.of(lineaOrder));
 
         Order orderToUpdate = new Order();
         orderToUpdate.setIdUser(orderDto.idUser());
         orderToUpdate.setOrderLines(List.of(lineaOrder));
 
-        when(productsRepository.findById(any(UUID.class))).thenReturn(Optional.of(product));
+        when(productsRepository.findAllById(any())).thenReturn(List.of(product));
         when(ordersRepository.findById(any(ObjectId.class))).thenReturn(Optional.of(orderToUpdate));
         when(ordersRepository.save(any(Order.class))).thenReturn(orderToUpdate);
         when(orderMapper.toOrder(any(OrderUpdateDto.class), any(), any())).thenReturn(orderToUpdate);
@@ -226,15 +533,17 @@ class OrderServiceImplTest {
         );
 
         verify(ordersRepository).save(any(Order.class));
-        verify(productsRepository, times(3)).findById(any(UUID.class));
+        verify(productsRepository, times(1)).findAllById(any());
+        verify(productsRepository, never()).decrementStock(any(UUID.class), anyInt());
+        verify(productsRepository, never()).incrementStock(any(UUID.class), anyInt());
         verify(ordersRepository).findById(any(ObjectId.class));
     }
 
     @Test
     void testUpdateNotFound() {
         UUID idProduct = UUID.randomUUID();
-        Product product = Product.builder().id(idProduct).name("Product 1").price(10.0).stock(5).img("https://placehold.co/600x400").category(null).build();
-        OrderLine lineaOrder = OrderLine.builder().idProduct(product.getId()).quantity(2).price(10.0).total(20.0).build();
+        Product product = Product.builder().id(idProduct).name("Product 1").price(Money.of(10.0)).stock(5).img("https://placehold.co/600x400").category(null).build();
+        OrderLine lineaOrder = OrderLine.builder().idProduct(product.getId()).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build();
         OrderUpdateDto orderDto = new OrderUpdateDto(1L, List.of(lineaOrder));
 
         when(ordersRepository.findById(any(ObjectId.class))).thenReturn(Optional.empty());
@@ -248,111 +557,232 @@ class OrderServiceImplTest {
     void testReserveStockOrder() throws OrderNotFound {
         Order order = new Order();
         List<OrderLine> lineasOrder = new ArrayList<>();
-        OrderLine lineaOrder = OrderLine.builder().idProduct(idProduct).quantity(2).price(10.0).total(20.0).build();
+        OrderLine lineaOrder = OrderLine.builder().idProduct(idProduct).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build();
         lineasOrder.add(lineaOrder);
         order.setOrderLines(lineasOrder);
-        Product product = Product.builder().id(idProduct).name("Product 1").price(10.0).stock(5).img("https://placehold.co/600x400").category(null).build();
-        
-        when(productsRepository.findById(idProduct)).thenReturn(Optional.of(product));
+        Product product = Product.builder().id(idProduct).name("Product 1").price(Money.of(10.0)).stock(5).img("https://placehold.co/600x400").category(null).build();
         
-        Order result = ordersService.reserveStockOrder(order);
+        when(productsRepository.decrementStock(idProduct, 2)).thenReturn(1);
+
+        Order result = ordersService.reserveStockOrder(order, Map.of(idProduct, product));
         
-        assertAll(() -> assertEquals(3, product.getStock()),
-                () -> assertEquals(20.0, lineaOrder.getTotal()),
-                () -> assertEquals(20.0, result.getTotal()),
+        assertAll(() -> assertEquals(Money.of(20.0), lineaOrder.getTotal()),
+                () -> assertEquals(Money.of(20.0), result.getTotal()),
                 () -> assertEquals(2, result.getTotalItems())
         );
         
-        verify(productsRepository, times(1)).findById(idProduct);
-        verify(productsRepository, times(1)).save(product);
+        verify(productsRepository, never()).findById(idProduct);
+        verify(productsRepository, times(1)).decrementStock(idProduct, 2);
+    }
+
+    @Test
+    void testReserveStockOrderAppliesNetDeltaInIdOrder() {
+        UUID first = new UUID(0, 1);
+        UUID second = new UUID(0, 2);
+        Order order = new Order();
+        order.setOrderLines(List.of(
+                OrderLine.builder().idProduct(second).quantity(3).price(Money.of(10.0)).total(Money.of(30.0)).build(),
+                OrderLine.builder().idProduct(first).quantity(1).price(Money.of(10.0)).total(Money.of(10.0)).build()
+        ));
+        Product product1 = Product.builder().id(first).name("Product 1").price(Money.of(10.0)).stock(5).build();
+        Product product2 = Product.builder().id(second).name("Product 2").price(Money.of(10.0)).stock(5).build();
+
+        when(productsRepository.decrementStock(second, 1)).thenReturn(1);
+
+        ordersService.reserveStockOrder(order, Map.of(first, product1, second, product2), Map.of(first, 2, second, 2));
+
+        var inOrder = inOrder(productsRepository);
+        inOrder.verify(productsRepository).incrementStock(first, 1);
+        inOrder.verify(productsRepository).decrementStock(second, 1);
+        verify(productsRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void testReserveStockOrderStopsAtFirstProductWithoutStock() {
+        UUID first = new UUID(0, 1);
+        UUID second = new UUID(0, 2);
+        Order order = new Order();
+        order.setOrderLines(List.of(
+                OrderLine.builder().idProduct(second).quantity(1).price(Money.of(10.0)).total(Money.of(10.0)).build(),
+                OrderLine.builder().idProduct(first).quantity(1).price(Money.of(10.0)).total(Money.of(10.0)).build()
+        ));
+        Product product1 = Product.builder().id(first).name("Product 1").price(Money.of(10.0)).stock(0).build();
+        Product product2 = Product.builder().id(second).name("Product 2").price(Money.of(10.0)).stock(5).build();
+
+        when(productsRepository.decrementStock(first, 1)).thenReturn(0);
+
+        assertThrows(ProductNotStock.class, () -> ordersService.reserveStockOrder(order, Map.of(first, product1, second, product2)));
+
+        verify(productsRepository, times(1)).decrementStock(first, 1);
+        verify(productsRepository, never()).decrementStock(second, 1);
+    }
+
+    @Test
+    void testReserveStockOrderWithLedger() {
+        Order order = new Order();
+        OrderLine lineaOrder = OrderLine.builder().idProduct(idProduct).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build();
+        order.setOrderLines(List.of(lineaOrder));
+        Product product = Product.builder().id(idProduct).name("Product 1").price(Money.of(10.0)).stock(5).build();
+
+        when(stockLedger.isEnabled()).thenReturn(true);
+
+        Order result = ordersService.reserveStockOrder(order, Map.of(idProduct, product));
+
+        assertEquals(Money.of(20.0), result.getTotal());
+        verify(stockLedger).reserve(new TreeMap<>(Map.of(idProduct, 2)));
+        verify(productsRepository, never()).decrementStock(any(UUID.class), anyInt());
+    }
+
+    @Test
+    void testCheckOrderWithLedgerUsesTheLedgerStock() {
+        Order order = new Order();
+        order.setOrderLines(List.of(OrderLine.builder().idProduct(idProduct).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build()));
+        // El stock devuelto por otro pedido está en el libro pero aún no se ha volcado a la base de datos
+        Product product = Product.builder().id(idProduct).name("Product 1").price(Money.of(10.0)).stock(0).build();
+
+        when(stockLedger.isEnabled()).thenReturn(true);
+        when(stockLedger.available(idProduct)).thenReturn(2);
+        when(productsRepository.findAllById(any())).thenReturn(List.of(product));
+
+        assertEquals(Map.of(idProduct, product), ordersService.checkOrder(order));
+
+        when(stockLedger.available(idProduct)).thenReturn(1);
+        assertThrows(ProductNotStock.class, () -> ordersService.checkOrder(order));
+    }
+
+    @Test
+    void testSaveWithLedgerReleasesStockWhenOrderIsNotSaved() {
+        Product product = Product.builder().id(idProduct).name("Product 1").price(Money.of(10.0)).stock(5).build();
+        OrderLine lineaOrder = OrderLine.builder().idProduct(idProduct).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build();
+        OrderCreateDto orderDto = new OrderCreateDto(1L, List.of(lineaOrder));
+        Order orderToSave = new Order();
+        orderToSave.setOrderLines(List.of(lineaOrder));
+
+        when(stockLedger.isEnabled()).thenReturn(true);
+        when(stockLedger.available(idProduct)).thenReturn(5);
+        when(productsRepository.findAllById(any())).thenReturn(List.of(product));
+        when(orderMapper.toOrder(any(OrderCreateDto.class), any())).thenReturn(orderToSave);
+        when(ordersRepository.save(any(Order.class))).thenThrow(new IllegalStateException("mongo down"));
+
+        assertThrows(IllegalStateException.class, () -> ordersService.save(orderDto));
+
+        var inOrder = inOrder(stockLedger);
+        inOrder.verify(stockLedger).reserve(new TreeMap<>(Map.of(idProduct, 2)));
+        inOrder.verify(stockLedger).release(new TreeMap<>(Map.of(idProduct, 2)));
     }
 
     @Test
     void returnStockOrderWithUpdateStock() {
         Order order = new Order();
         List<OrderLine> lineasOrder = new ArrayList<>();
-        OrderLine lineaOrder1 = OrderLine.builder().idProduct(idProduct).quantity(2).price(10.0).total(20.0).build();
+        OrderLine lineaOrder1 = OrderLine.builder().idProduct(idProduct).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build();
         lineasOrder.add(lineaOrder1);
         order.setOrderLines(lineasOrder);
-        Product product = Product.builder().id(idProduct).name("Product 1").price(10.0).stock(13).img("https://placehold.co/600x400").category(null).build();
-        
-        when(productsRepository.findById(idProduct)).thenReturn(Optional.of(product));
-        when(productsRepository.save(product)).thenReturn(product);
         
         Order result = ordersService.returnStockOrders(order);
         
-        assertEquals(15, product.getStock());
         assertEquals(order, result);
         
-        verify(productsRepository, times(1)).findById(idProduct);
-        verify(productsRepository, times(1)).save(product);
+        verify(productsRepository, times(1)).incrementStock(idProduct, 2);
+        verify(productsRepository, never()).findAllById(any());
     }
 
     @Test
     void checkOrder_ProductExistenYHayStock() {
         Order order = new Order();
         List<OrderLine> lineasOrder = new ArrayList<>();
-        OrderLine lineaOrder1 = OrderLine.builder().idProduct(idProduct).quantity(2).price(10.0).total(20.0).build();
+        OrderLine lineaOrder1 = OrderLine.builder().idProduct(idProduct).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build();
         lineasOrder.add(lineaOrder1);
         order.setOrderLines(lineasOrder);
-        Product product = Product.builder().id(idProduct).name("Product 1").price(10.0).stock(5).img("https://placehold.co/600x400").category(null).build();
+        Product product = Product.builder().id(idProduct).name("Product 1").price(Money.of(10.0)).stock(5).img("https://placehold.co/600x400").category(null).build();
         
-        when(productsRepository.findById(idProduct)).thenReturn(Optional.of(product));
+        when(productsRepository.findAllById(any())).thenReturn(List.of(product));
         
         assertDoesNotThrow(() -> ordersService.checkOrder(order));
         
-        verify(productsRepository, times(1)).findById(idProduct);
+        verify(productsRepository, times(1)).findAllById(any());
     }
 
     @Test
     void checkOrderNotFound() {
         Order order = new Order();
         List<OrderLine> lineasOrder = new ArrayList<>();
-        OrderLine lineaOrder1 = OrderLine.builder().idProduct(idProduct).quantity(2).price(10.0).total(20.0).build();
+        OrderLine lineaOrder1 = OrderLine.builder().idProduct(idProduct).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build();
         lineasOrder.add(lineaOrder1);
         order.setOrderLines(lineasOrder);
         
-        when(productsRepository.findById(idProduct)).thenReturn(Optional.empty());
+        when(productsRepository.findAllById(any())).thenReturn(List.of());
         
         assertThrows(ProductNotFound.class, () -> ordersService.checkOrder(order));
         
-        verify(productsRepository, times(1)).findById(idProduct);
+        verify(productsRepository, times(1)).findAllById(any());
     }
 
     @Test
     void checkOrderNotEnoughtStock() {
         Order order = new Order();
         List<OrderLine> lineasOrder = new ArrayList<>();
-        OrderLine lineaOrder1 = OrderLine.builder().idProduct(idProduct).quantity(2).price(10.0).total(20.0).build();
+        OrderLine lineaOrder1 = OrderLine.builder().idProduct(idProduct).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build();
         lineaOrder1.setIdProduct(idProduct);
         lineaOrder1.setQuantity(10);
         lineasOrder.add(lineaOrder1);
         order.setOrderLines(lineasOrder);
-        Product product = Product.builder().id(idProduct).name("Product 1").price(10.0).stock(5).img("https://placehold.co/600x400").category(null).build();
+        Product product = Product.builder().id(idProduct).name("Product 1").price(Money.of(10.0)).stock(5).img("https://placehold.co/600x400").category(null).build();
         
-        when(productsRepository.findById(idProduct)).thenReturn(Optional.of(product));
+        when(productsRepository.findAllById(any())).thenReturn(List.of(product));
         
         assertThrows(ProductNotStock.class, () -> ordersService.checkOrder(order));
         
-        verify(productsRepository, times(1)).findById(idProduct);
+        verify(productsRepository, times(1)).findAllById(any());
     }
 
     @Test
     void checkOrderBadPrice() {
         Order order = new Order();
         List<OrderLine> lineasOrder = new ArrayList<>();
-        OrderLine lineaOrder1 = OrderLine.builder().idProduct(idProduct).quantity(2).price(10.0).total(20.0).build();
+        OrderLine lineaOrder1 = OrderLine.builder().idProduct(idProduct).quantity(2).price(Money.of(10.0)).total(Money.of(20.0)).build();
         lineaOrder1.setIdProduct(idProduct);
         lineaOrder1.setQuantity(2);
-        lineaOrder1.setPrice(20.0);
+        lineaOrder1.setPrice(Money.of(20.0));
         lineasOrder.add(lineaOrder1);
         order.setOrderLines(lineasOrder);
-        Product product = Product.builder().id(idProduct).name("Product 1").price(10.0).stock(5).img("https://placehold.co/600x400").category(null).build();
+        Product product = Product.builder().id(idProduct).name("Product 1").price(Money.of(10.0)).stock(5).img("https://placehold.co/600x400").category(null).build();
         
-        when(productsRepository.findById(idProduct)).thenReturn(Optional.of(product));
+        when(productsRepository.findAllById(any())).thenReturn(List.of(product));
         
         assertThrows(ProductBadPrice.class, () -> ordersService.checkOrder(order));
         
-        verify(productsRepository, times(1)).findById(idProduct);
+        verify(productsRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void checkAndReserveStatementsDoNotGrowWithOrderLines() {
+        Order order = new Order();
+        List<OrderLine> lineasOrder = new ArrayList<>();
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Product product = Product.builder().id(UUID.randomUUID()).name("Product " + i).price(Money.of(10.0)).stock(5).img("https://placehold.co/600x400").category(null).build();
+            products.add(product);
+            lineasOrder.add(OrderLine.builder().idProduct(product.getId()).quantity(1).price(Money.of(10.0)).total(Money.of(10.0)).build());
+        }
+        order.setOrderLines(lineasOrder);
+
+        when(productsRepository.findAllById(any())).thenReturn(products);
+        when(productsRepository.decrementStock(any(UUID.class), eq(1))).thenReturn(1);
+
+        var productsById = ordersService.checkOrder(order);
+        Order result = ordersService.reserveStockOrder(order, productsById);
+
+        assertAll(
+                () -> assertEquals(50, productsById.size()),
+                () -> assertEquals(Money.of(500.0), result.getTotal()),
+                () -> assertEquals(50, result.getTotalItems())
+        );
+
+        verify(productsRepository, times(1)).findAllById(any());
+        verify(productsRepository, times(50)).decrementStock(any(UUID.class), eq(1));
+        verify(productsRepository, never()).saveAll(any());
+        verify(productsRepository, never()).findById(any(UUID.class));
+        verify(productsRepository, never()).save(any(Product.class));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,114 @@
+package dev.clownsinformatics.tiendajava.rest.orders.service;
+
+import dev.clownsinformatics.tiendajava.rest.clients.services.ClientService;
+import dev.clownsinformatics.tiendajava.rest.orders.mappers.OrderMapper;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.orders.models.OrderLine;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderArchiveRepository;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderRepository;
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.rest.products.repositories.ProductRepository;
+import dev.clownsinformatics.tiendajava.rest.products.services.StockLedger;
+import dev.clownsinformatics.tiendajava.rest.reports.services.SalesRollupService;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Sentencias SQL que lanza la comprobación y la reserva de stock de un pedido contra H2, con una línea y con
+ * muchas. Se cuentan con las estadísticas de Hibernate, vaciando la sesión para incluir las escrituras pendientes.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=WARN"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class OrderStockStatementCountTest {
+    private static final int LINES = 30;
+
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private OrderServiceImpl service;
+    private Statistics statistics;
+    private final List<Product> products = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new OrderServiceImpl(mock(OrderRepository.class), productRepository, mock(OrderMapper.class),
+                mock(ClientService.class), mock(StockLedger.class), mock(OrderExportWriter.class),
+                mock(SalesRollupService.class), mock(ClientOrderSummaryService.class), mock(OrderLookups.class),
+                mock(OrderArchiveRepository.class));
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        for (int i = 0; i < LINES; i++) {
+            Product product = Product.builder().name("Statement product " + i).description("Producto " + i)
+                    .price(Money.of(10.0 + i)).stock(100).build();
+            entityManager.persist(product);
+            products.add(product);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void checkOrderLoadsEveryProductWithOneStatement() {
+        int oneLine = statementsFor(() -> service.checkOrder(order(1, 1)));
+        int manyLines = statementsFor(() -> service.checkOrder(order(LINES, LINES)));
+
+        assertAll(
+                () -> assertEquals(1, oneLine),
+                () -> assertEquals(oneLine, manyLines)
+        );
+    }
+
+    @Test
+    void reserveStockWritesOncePerProductNotPerLine() {
+        Order oneProduct = order(LINES, 1);
+        Order twoProducts = order(LINES, 2);
+        var oneProductMap = service.checkOrder(oneProduct);
+        var twoProductsMap = service.checkOrder(twoProducts);
+
+        int oneProductStatements = statementsFor(() -> service.reserveStockOrder(oneProduct, oneProductMap));
+        int twoProductsStatements = statementsFor(() -> service.reserveStockOrder(twoProducts, twoProductsMap));
+
+        assertAll(
+                () -> assertEquals(1, oneProductStatements),
+                () -> assertEquals(2, twoProductsStatements),
+                () -> assertEquals(100 - LINES - LINES / 2, productRepository.findById(products.get(0).getId()).orElseThrow().getStock())
+        );
+    }
+
+    /**
+     * Pedido con {@code lines} líneas de una unidad repartidas entre los {@code distinctProducts} primeros productos.
+     */
+    private Order order(int lines, int distinctProducts) {
+        List<OrderLine> orderLines = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            Product product = products.get(i % distinctProducts);
+            orderLines.add(OrderLine.builder().idProduct(product.getId()).quantity(1).price(product.getPrice()).build());
+        }
+        return Order.builder().idUser(1L).orderLines(orderLines).build();
+    }
+
+    private int statementsFor(Runnable action) {
+        statistics.clear();
+        action.run();
+        entityManager.flush();
+        return (int) statistics.getPrepareStatementCount();
+    }
+}
@@ -11,6 +11,9 @@ import dev.clownsinformatics.tiendajava.rest.products.exceptions.ProductNotFound
 import dev.clownsinformatics.tiendajava.rest.products.models.Product;
 import dev.clownsinformatics.tiendajava.rest.products.services.ProductService;
 import dev.clownsinformatics.tiendajava.rest.suppliers.models.Supplier;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorBadRequest;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorPageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PageResponse;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -22,6 +25,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletResponse;
@@ -82,7 +86,7 @@ class ProductRestControllerTest {
             .id(idProduct1)
             .name("Product 1")
             .weight(2.5)
-            .price(50.0)
+            .price(Money.of(50.0))
             .img("imagen1.jpg")
             .stock(10)
             .description("Descripcion del producto 1")
@@ -94,7 +98,7 @@ class ProductRestControllerTest {
             .id(idProduct2)
             .name("Product 2")
             .weight(3.2)
-            .price(50.0)
+            .price(Money.of(50.0))
             .img("imagen2.jpg")
             .stock(10)
             .description("Descripcion del producto 2")
@@ -175,6 +179,137 @@ class ProductRestControllerTest {
         verify(productService, times(1)).findAll(name, maxWeight, maxPrice, minStock, category, isDeleted, pageable);
     }
 
+    @Test
+    void getAllProductsByText() throws Exception {
+        var pageable = PageRequest.of(0, 10);
+        var page = new PageImpl<>(List.of(productResponseDto2, productResponseDto1), pageable, 2);
+
+        when(productService.search("producto", pageable)).thenReturn(page);
+
+        MockHttpServletResponse response = mockMvc.perform(
+                        get(BASE_URL + "?q=producto&sortBy=name")
+                                .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        PageResponse<ProductResponseDto> res = mapper.readValue(response.getContentAsString(), new TypeReference<>() {
+        });
+
+        assertAll(
+                () -> assertEquals(200, response.getStatus()),
+                () -> assertEquals(productResponseDto2.id(), res.content().get(0).id()),
+                () -> assertEquals("relevance", res.sortBy())
+        );
+
+        verify(productService, times(1)).search("producto", pageable);
+        verify(productService, never()).findAll(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getAllProductsWithoutTotal() throws Exception {
+        var pageable = PageRequest.of(0, 1, Sort.by("id").ascending());
+        var slice = new SliceImpl<>(List.of(productResponseDto1), pageable, true);
+
+        when(productService.findAllSlice(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(false), pageable)).thenReturn(slice);
+
+        MockHttpServletResponse response = mockMvc.perform(
+                        get(BASE_URL + "?size=1&withTotal=false")
+                                .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        PageResponse<ProductResponseDto> res = mapper.readValue(response.getContentAsString(), new TypeReference<>() {
+        });
+
+        assertAll(
+                () -> assertEquals(200, response.getStatus()),
+                () -> assertEquals(1, res.content().size()),
+                () -> assertFalse(res.last()),
+                () -> assertNull(res.totalPages()),
+                () -> assertNull(res.totalElements()),
+                () -> assertFalse(response.getContentAsString().contains("totalPages")),
+                () -> assertTrue(response.getHeader("link").contains("rel=\"next\"")),
+                () -> assertFalse(response.getHeader("link").contains("rel=\"last\""))
+        );
+
+        verify(productService, never()).findAll(any(), any(), any(), any(), any(), any(), any());
+        verify(productService, never()).count(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getAllProductsWithApproximateTotal() throws Exception {
+        var pageable = PageRequest.of(0, 1, Sort.by("id").ascending());
+        var slice = new SliceImpl<>(List.of(productResponseDto1), pageable, true);
+        Optional<String> name = Optional.of("approximate");
+
+        when(productService.findAllSlice(name, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(false), pageable)).thenReturn(slice);
+        when(productService.count(name, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(false))).thenReturn(5L);
+
+        for (int i = 0; i < 2; i++) {
+            MockHttpServletResponse response = mockMvc.perform(
+                            get(BASE_URL + "?name=approximate&size=1&withTotal=approximate")
+                                    .accept(MediaType.APPLICATION_JSON))
+                    .andReturn().getResponse();
+
+            PageResponse<ProductResponseDto> res = mapper.readValue(response.getContentAsString(), new TypeReference<>() {
+            });
+
+            assertAll(
+                    () -> assertEquals(200, response.getStatus()),
+                    () -> assertEquals(5L, res.totalElements()),
+                    () -> assertEquals(5, res.totalPages())
+            );
+        }
+
+        verify(productService, times(1)).count(name, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(false));
+    }
+
+    @Test
+    void getAllProductsWithInvalidTotal() throws Exception {
+        MockHttpServletResponse response = mockMvc.perform(
+                        get(BASE_URL + "?withTotal=maybe")
+                                .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        assertEquals(400, response.getStatus());
+    }
+
+    @Test
+    void getAllProductsByCursor() throws Exception {
+        var page = CursorPageResponse.of(List.of(productResponseDto1), 1, "next", false, "price", "desc");
+
+        when(productService.findAllByCursor(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(false), "previous", 1, "price", "desc")).thenReturn(page);
+
+        MockHttpServletResponse response = mockMvc.perform(
+                        get(BASE_URL + "/cursor?cursor=previous&size=1&sortBy=price&direction=desc")
+                                .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        CursorPageResponse<ProductResponseDto> res = mapper.readValue(response.getContentAsString(), new TypeReference<>() {
+        });
+
+        assertAll(
+                () -> assertEquals(200, response.getStatus()),
+                () -> assertEquals(1, res.content().size()),
+                () -> assertEquals("next", res.nextCursor()),
+                () -> assertTrue(response.getHeader("link").contains("cursor=next")),
+                () -> assertTrue(response.getHeader("link").contains("rel=\"first\""))
+        );
+
+        verify(productService, never()).findAll(any(), any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void getAllProductsByInvalidCursor() throws Exception {
+        when(productService.findAllByCursor(any(), any(), any(), any(), any(), any(), eq("invalid"), anyInt(), any(), any()))
+                .thenThrow(new CursorBadRequest("Invalid cursor: invalid"));
+
+        MockHttpServletResponse response = mockMvc.perform(
+                        get(BASE_URL + "/cursor?cursor=invalid")
+                                .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        assertEquals(400, response.getStatus());
+    }
+
     @Test
     void getAllProductsByName() throws Exception {
         var LOCAL_URL = "/api/products?name=Product 1";
@@ -867,7 +1002,7 @@ class ProductRestControllerTest {
                 () -> assertEquals(product1.getId(), res.id()),
                 () -> assertEquals(product1.getName(), res.name()),
                 () -> assertEquals(product1.getWeight(), res.weight()),
-                () -> assertEquals(product1.getPrice(), res.price()),
+                () -> assertEquals(product1.getPrice().amount(), res.price()),
                 () -> assertEquals(product1.getImg(), res.img()),
                 () -> assertEquals(product1.getStock(), res.stock()),
                 () -> assertEquals(product1.getDescription(), res.description()),
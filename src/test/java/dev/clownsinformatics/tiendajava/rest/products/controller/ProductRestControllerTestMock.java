@@ -6,6 +6,8 @@ import dev.clownsinformatics.tiendajava.rest.products.dto.ProductResponseDto;
 import dev.clownsinformatics.tiendajava.rest.products.dto.ProductUpdateDto;
 import dev.clownsinformatics.tiendajava.rest.products.services.ProductServiceImpl;
 import dev.clownsinformatics.tiendajava.rest.suppliers.models.Supplier;
+import dev.clownsinformatics.tiendajava.utils.idempotency.IdempotencyStore;
+import dev.clownsinformatics.tiendajava.utils.pagination.ApproximateCounts;
 import dev.clownsinformatics.tiendajava.utils.pagination.PageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PaginationLinksUtils;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,6 +15,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 import org.springframework.http.ResponseEntity;
@@ -60,7 +63,11 @@ class ProductRestControllerTestMock {
     @Mock
     PaginationLinksUtils paginationLinksUtils;
     @Mock
+    ApproximateCounts approximateCounts;
+    @Mock
     private ProductServiceImpl productService;
+    @Spy
+    private IdempotencyStore idempotencyStore = new IdempotencyStore(100, 60, 1000);
     @InjectMocks
     private ProductRestController productRestController;
 
@@ -81,7 +88,7 @@ class ProductRestControllerTestMock {
 
         when(productService.findAll(name, maxWeight, maxPrice, minStock, category, isDeleted, pageable)).thenReturn(expectedPage);
 
-        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", request).getBody();
+        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(Optional.empty(), name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", "true", request).getBody();
 
         assertAll(
                 () -> assertNotNull(response),
@@ -108,7 +115,7 @@ class ProductRestControllerTestMock {
 
         when(productService.findAll(name, maxWeight, maxPrice, minStock, category, isDeleted, pageable)).thenReturn(expectedPage);
 
-        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", request).getBody();
+        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(Optional.empty(), name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", "true", request).getBody();
 
         assertAll(
                 () -> assertNotNull(response),
@@ -135,7 +142,7 @@ class ProductRestControllerTestMock {
 
         when(productService.findAll(name, maxWeight, maxPrice, minStock, category, isDeleted, pageable)).thenReturn(expectedPage);
 
-        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", request).getBody();
+        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(Optional.empty(), name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", "true", request).getBody();
 
         assertAll(
                 () -> assertNotNull(response),
@@ -162,7 +169,7 @@ class ProductRestControllerTestMock {
 
         when(productService.findAll(name, maxWeight, maxPrice, minStock, category, isDeleted, pageable)).thenReturn(expectedPage);
 
-        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", request).getBody();
+        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(Optional.empty(), name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", "true", request).getBody();
 
         assertAll(
                 () -> assertNotNull(response),
@@ -189,7 +196,7 @@ class ProductRestControllerTestMock {
 
         when(productService.findAll(name, maxWeight, maxPrice, minStock, category, isDeleted, pageable)).thenReturn(expectedPage);
 
-        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", request).getBody();
+        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(Optional.empty(), name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", "true", request).getBody();
 
         assertAll(
                 () -> assertNotNull(response),
@@ -216,7 +223,7 @@ class ProductRestControllerTestMock {
 
         when(productService.findAll(name, maxWeight, maxPrice, minStock, category, isDeleted, pageable)).thenReturn(expectedPage);
 
-        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", request).getBody();
+        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(Optional.empty(), name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", "true", request).getBody();
 
         assertAll(
                 () -> assertNotNull(response),
@@ -243,7 +250,7 @@ class ProductRestControllerTestMock {
 
         when(productService.findAll(name, maxWeight, maxPrice, minStock, category, isDeleted, pageable)).thenReturn(expectedPage);
 
-        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", request).getBody();
+        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(Optional.empty(), name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", "true", request).getBody();
 
         assertAll(
                 () -> assertNotNull(response),
@@ -270,7 +277,7 @@ class ProductRestControllerTestMock {
 
         when(productService.findAll(name, maxWeight, maxPrice, minStock, category, isDeleted, pageable)).thenReturn(expectedPage);
 
-        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", request).getBody();
+        PageResponse<ProductResponseDto> response = productRestController.getAllProducts(Optional.empty(), name, maxWeight, maxPrice, minStock, category, isDeleted, 0, 10, "id", "asc", "true", request).getBody();
 
         assertAll(
                 () -> assertNotNull(response),
@@ -296,7 +303,7 @@ class ProductRestControllerTestMock {
         ProductCreateDto productCreateDto = new ProductCreateDto("Product 3", 2.5, 50.0, "imagen3.jpg", 10, "Descripcion del producto 3", category1, supplier1);
         ProductResponseDto productResponseDto = new ProductResponseDto(UUID.randomUUID(), "Product 3", 2.5, 50.0, "imagen3.jpg", 10, "Descripcion del producto 3", category1, supplier1, LocalDateTime.now(), LocalDateTime.now(), false);
         when(productService.save(any(ProductCreateDto.class))).thenReturn(productResponseDto);
-        ResponseEntity<ProductResponseDto> response = productRestController.postProduct(productCreateDto);
+        ResponseEntity<ProductResponseDto> response = productRestController.postProduct(productCreateDto, null);
         assertAll(
                 () -> assertNotNull(response),
                 () -> assertEquals(productCreateDto.name(), response.getBody().name()),
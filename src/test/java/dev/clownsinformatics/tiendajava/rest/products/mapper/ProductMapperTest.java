@@ -5,6 +5,7 @@ import dev.clownsinformatics.tiendajava.rest.products.dto.ProductCreateDto;
 import dev.clownsinformatics.tiendajava.rest.products.dto.ProductUpdateDto;
 import dev.clownsinformatics.tiendajava.rest.products.models.Product;
 import dev.clownsinformatics.tiendajava.rest.suppliers.models.Supplier;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDateTime;
@@ -46,8 +47,8 @@ class ProductMapperTest {
         var res = mapper.toProduct(productCreateDto, category1, supplier1);
         assertAll(
                 () -> assertEquals(productCreateDto.name(), res.getName()),
-                () -> assertEquals(productCreateDto.price(), res.getPrice()),
-                () -> assertEquals(productCreateDto.price(), res.getPrice()),
+                () -> assertEquals(Money.of(productCreateDto.price()), res.getPrice()),
+                () -> assertEquals(Money.of(productCreateDto.price()), res.getPrice()),
                 () -> assertEquals(productCreateDto.img(), res.getImg()),
                 () -> assertEquals(productCreateDto.stock(), res.getStock()),
                 () -> assertEquals(productCreateDto.description(), res.getDescription()),
@@ -71,8 +72,8 @@ class ProductMapperTest {
         Product product = Product.builder()
                 .id(uuid)
                 .name(productUpdateDto.name())
-                .price(productUpdateDto.price())
-                .price(productUpdateDto.price())
+                .price(Money.of(productUpdateDto.price()))
+                .price(Money.of(productUpdateDto.price()))
                 .img(productUpdateDto.img())
                 .stock(productUpdateDto.stock())
                 .description(productUpdateDto.description())
@@ -82,8 +83,8 @@ class ProductMapperTest {
         assertAll(
                 () -> assertEquals(uuid, res.getId()),
                 () -> assertEquals(productUpdateDto.name(), res.getName()),
-                () -> assertEquals(productUpdateDto.price(), res.getPrice()),
-                () -> assertEquals(productUpdateDto.price(), res.getPrice()),
+                () -> assertEquals(Money.of(productUpdateDto.price()), res.getPrice()),
+                () -> assertEquals(Money.of(productUpdateDto.price()), res.getPrice()),
                 () -> assertEquals(productUpdateDto.img(), res.getImg()),
                 () -> assertEquals(productUpdateDto.stock(), res.getStock()),
                 () -> assertEquals(productUpdateDto.description(), res.getDescription()),
@@ -98,8 +99,8 @@ class ProductMapperTest {
         Product product = Product.builder()
                 .id(uuid)
                 .name("Product 3")
-                .price(50.0)
-                .price(50.0)
+                .price(Money.of(50.0))
+                .price(Money.of(50.0))
                 .img("imagen3.jpg")
                 .stock(10)
                 .description("Descripción del producto 3")
@@ -109,8 +110,8 @@ class ProductMapperTest {
         assertAll(
                 () -> assertEquals(uuid, res.id()),
                 () -> assertEquals(product.getName(), res.name()),
-                () -> assertEquals(product.getPrice(), res.price()),
-                () -> assertEquals(product.getPrice(), res.price()),
+                () -> assertEquals(product.getPrice().amount(), res.price()),
+                () -> assertEquals(product.getPrice().amount(), res.price()),
                 () -> assertEquals(product.getImg(), res.img()),
                 () -> assertEquals(product.getStock(), res.stock()),
                 () -> assertEquals(product.getDescription(), res.description()),
@@ -2,6 +2,7 @@ package dev.clownsinformatics.tiendajava.rest.products.repositories;
 
 import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
 import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,7 +35,7 @@ class ProductRepositoryImplTest {
             .id(idProduct1)
             .name("Product 1")
             .weight(2.5)
-            .price(50.0)
+            .price(Money.of(50.0))
             .img("imagen1.jpg")
             .stock(10)
             .description("Descripción del producto 1")
@@ -45,7 +46,7 @@ class ProductRepositoryImplTest {
             .id(idProduct2)
             .name("Product 2")
             .weight(3.2)
-            .price(50.0)
+            .price(Money.of(50.0))
             .img("imagen2.jpg")
             .stock(10)
             .description("Descripción del producto 2")
@@ -0,0 +1,142 @@
+package dev.clownsinformatics.tiendajava.rest.products.repositories;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductStockConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+    private static final int INITIAL_STOCK = 200;
+
+    private final UUID idProduct = UUID.fromString("d69cf3db-b77d-4181-b3cd-5ca8107fb6a0");
+
+    @Autowired
+    private ProductRepository repository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private int originalStock;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        originalStock = repository.findById(idProduct).orElseThrow().getStock();
+        setStock(INITIAL_STOCK);
+    }
+
+    @AfterEach
+    void tearDown() {
+        setStock(originalStock);
+    }
+
+    @Test
+    void decrementStockNeverOversells() throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+
+        runConcurrently(() -> {
+            if (transactionTemplate.execute(status -> repository.decrementStock(idProduct, 1)) == 1) {
+                reserved.incrementAndGet();
+            }
+            return null;
+        });
+
+        int finalStock = repository.findById(idProduct).orElseThrow().getStock();
+
+        assertAll(
+                () -> assertEquals(INITIAL_STOCK, reserved.get()),
+                () -> assertEquals(0, finalStock)
+        );
+    }
+
+    /**
+     * Dos reservas que se solapan: la primera lee el producto y, antes de escribir, otra reserva el mismo producto
+     * en su propia transacción. Leyendo, restando y guardando la segunda reserva se pierde; con la actualización
+     * condicional se descuentan las dos.
+     */
+    @Test
+    void readModifyWriteLosesAnOverlappingReservationThatDecrementStockKeeps() {
+        TransactionTemplate overlapping = new TransactionTemplate(transactionManager);
+        overlapping.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            var product = repository.findById(idProduct).orElseThrow();
+            overlapping.executeWithoutResult(inner -> repository.findById(idProduct).ifPresent(other -> {
+                other.setStock(other.getStock() - 1);
+                repository.save(other);
+            }));
+            product.setStock(product.getStock() - 1);
+            repository.save(product);
+        });
+        int readModifyWriteStock = repository.findById(idProduct).orElseThrow().getStock();
+
+        setStock(INITIAL_STOCK);
+        transactionTemplate.executeWithoutResult(status -> {
+            repository.findById(idProduct).orElseThrow();
+            overlapping.execute(inner -> repository.decrementStock(idProduct, 1));
+            repository.decrementStock(idProduct, 1);
+        });
+        int decrementStock = repository.findById(idProduct).orElseThrow().getStock();
+
+        assertAll(
+                () -> assertEquals(INITIAL_STOCK - 1, readModifyWriteStock),
+                () -> assertEquals(INITIAL_STOCK - 2, decrementStock)
+        );
+    }
+
+    private void runConcurrently(Callable<Void> attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < ATTEMPTS_PER_THREAD; j++) {
+                    try {
+                        attempt.call();
+                    } catch (RuntimeException e) {
+                        // Un conflicto de bloqueo cuenta como un intento fallido
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+    }
+
+    private void setStock(int stock) {
+        transactionTemplate.executeWithoutResult(status -> repository.findById(idProduct).ifPresent(product -> {
+            product.setStock(stock);
+            repository.save(product);
+        }));
+    }
+}
@@ -0,0 +1,228 @@
+package dev.clownsinformatics.tiendajava.rest.products.services;
+
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.rest.products.repositories.ProductRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryProductSearchEngineTest {
+    private static final String[] WORDS = {"portátil", "gaming", "ratón", "teclado", "monitor", "placa", "base",
+            "procesador", "memoria", "disco", "sólido", "gráfica", "inalámbrico", "mecánico", "curvo", "oficina",
+            "sobremesa", "torre", "ventilador", "fuente", "alimentación", "cable", "adaptador", "altavoz"};
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private final Pageable firstPage = PageRequest.of(0, 10);
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        var engine = engine(
+                product("Teclado mecánico", "Teclado para oficina"),
+                product("Ratón inalámbrico", "Ratón que combina con el teclado"),
+                product("Monitor curvo", "Para juegos"));
+
+        Page<UUID> result = engine.search("teclado", firstPage);
+
+        assertAll(
+                () -> assertEquals(2, result.getTotalElements()),
+                () -> assertEquals(engine.search("mecanico", firstPage).getContent().get(0), result.getContent().get(0))
+        );
+    }
+
+    @Test
+    void requiresEveryTermAndMatchesTheLastOneAsAPrefix() {
+        Product laptop = product("Portátil gaming", "Portátil con gráfica dedicada");
+        var engine = engine(laptop, product("Portátil oficina", "Ligero"), product("Torre gaming", "Sobremesa"));
+
+        assertAll(
+                () -> assertEquals(List.of(laptop.getId()), engine.search("portatil gam", firstPage).getContent()),
+                () -> assertEquals(List.of(laptop.getId()), engine.search("GRÁFICA, portátil", firstPage).getContent()),
+                () -> assertTrue(engine.search("portatil gaming torre", firstPage).isEmpty()),
+                () -> assertTrue(engine.search("  ", firstPage).isEmpty())
+        );
+    }
+
+    @Test
+    void keepsTheIndexUpToDate() {
+        Product keyboard = product("Teclado mecánico", "Para oficina");
+        var engine = engine(keyboard, product("Ratón", "Inalámbrico"));
+
+        keyboard.setName("Teclado inalámbrico");
+        engine.index(keyboard);
+        Product monitor = product("Monitor inalámbrico", "Nuevo");
+        engine.index(monitor);
+
+        assertEquals(3, engine.search("inalambrico", firstPage).getTotalElements());
+
+        engine.remove(monitor.getId());
+        keyboard.setIsDeleted(true);
+        engine.index(keyboard);
+
+        assertAll(
+                () -> assertEquals(1, engine.search("inalambrico", firstPage).getTotalElements()),
+                () -> assertTrue(engine.search("mecanico", firstPage).isEmpty()),
+                () -> assertEquals(1, engine.size())
+        );
+    }
+
+    @Test
+    void compactsAfterManyUpdates() {
+        Product product = product("Disco sólido", "Rápido");
+        var engine = engine(product);
+
+        for (int i = 0; i < 5000; i++) {
+            product.setDescription("Versión " + i);
+            engine.index(product);
+        }
+
+        assertAll(
+                () -> assertEquals(List.of(product.getId()), engine.search("disco version 4999", firstPage).getContent()),
+                () -> assertTrue(engine.search("version 10", firstPage).isEmpty()),
+                () -> assertEquals(1, engine.size())
+        );
+    }
+
+    @Test
+    void pagesThroughRankedResults() {
+        Product[] products = new Product[25];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = product("Cable " + i, "Cable de " + i + " metros");
+        }
+        var engine = engine(products);
+
+        Page<UUID> second = engine.search("cable", PageRequest.of(1, 10));
+        Page<UUID> third = engine.search("cable", PageRequest.of(2, 10));
+
+        assertAll(
+                () -> assertEquals(25, second.getTotalElements()),
+                () -> assertEquals(10, second.getNumberOfElements()),
+                () -> assertEquals(5, third.getNumberOfElements()),
+                () -> assertEquals(products[10].getId(), second.getContent().get(0))
+        );
+    }
+
+    @Test
+    void matchesALinearScanAt100kProducts() {
+        var engine = new InMemoryProductSearchEngine(productRepository, 1000);
+        Random random = new Random(42);
+        when(productRepository.findAll(any(Pageable.class))).thenReturn(Page.empty());
+        engine.load();
+
+        List<Set<String>> documents = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            Product product = product(words(random, 3), words(random, 8));
+            engine.index(product);
+            Set<String> terms = new HashSet<>(ProductSearchTerms.of(product.getName()));
+            terms.addAll(ProductSearchTerms.of(product.getDescription()));
+            documents.add(terms);
+        }
+
+        for (int i = 0; i < 60; i++) {
+            String query = words(random, 1 + i % 3);
+            // La mitad de las consultas acaban con un término a medio escribir
+            String typed = i % 2 == 0 ? query : query.substring(0, query.length() - 2);
+            List<String> terms = ProductSearchTerms.of(typed);
+            long expected = documents.stream().filter(document -> matches(document, terms)).count();
+            assertEquals(expected, engine.search(typed, firstPage).getTotalElements(), typed);
+        }
+        assertEquals(100_000, engine.size());
+    }
+
+    @Test
+    void answersWithinBudgetAt100kProducts() {
+        assertP99Below(100_000, 25);
+    }
+
+    /**
+     * Con un millón de productos el índice ocupa varios cientos de megas, así que solo se ejecuta con
+     * {@code ./gradlew benchmark}.
+     */
+    @Test
+    @Tag("benchmark")
+    void answersWithinBudgetAt1mProducts() {
+        assertP99Below(1_000_000, 100);
+    }
+
+    /**
+     * Indexa {@code products} productos aleatorios y comprueba que el percentil 99 de la primera página de
+     * búsquedas de uno a tres términos, la mitad a medio escribir, no supera {@code budgetMillis}.
+     */
+    private void assertP99Below(int products, long budgetMillis) {
+        var engine = new InMemoryProductSearchEngine(productRepository, 1000);
+        Random random = new Random(42);
+        when(productRepository.findAll(any(Pageable.class))).thenReturn(Page.empty());
+        engine.load();
+        for (int i = 0; i < products; i++) {
+            engine.index(product(words(random, 3), words(random, 8)));
+        }
+
+        for (int i = 0; i < 200; i++) {
+            engine.search(words(random, 1 + i % 3), firstPage);
+        }
+        long[] nanos = new long[1000];
+        for (int i = 0; i < nanos.length; i++) {
+            String query = words(random, 1 + i % 3);
+            String typed = i % 2 == 0 ? query : query.substring(0, query.length() - 2);
+            long begin = System.nanoTime();
+            engine.search(typed, firstPage);
+            nanos[i] = System.nanoTime() - begin;
+        }
+        Arrays.sort(nanos);
+
+        long p99Millis = nanos[nanos.length * 99 / 100 - 1] / 1_000_000;
+        assertTrue(p99Millis < budgetMillis, "p99 " + p99Millis + " ms with " + products + " products");
+    }
+
+    /**
+     * Búsqueda lineal de referencia: todos los términos exactos menos el último, que basta con que empiece igual.
+     */
+    private static boolean matches(Set<String> document, List<String> terms) {
+        for (int i = 0; i < terms.size() - 1; i++) {
+            if (!document.contains(terms.get(i))) {
+                return false;
+            }
+        }
+        String last = terms.get(terms.size() - 1);
+        return document.stream().anyMatch(term -> term.startsWith(last));
+    }
+
+    private InMemoryProductSearchEngine engine(Product... products) {
+        when(productRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(products)));
+        var engine = new InMemoryProductSearchEngine(productRepository, 1000);
+        engine.load();
+        return engine;
+    }
+
+    private Product product(String name, String description) {
+        return Product.builder().id(UUID.randomUUID()).name(name).description(description).build();
+    }
+
+    private String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(i > 0 ? " " : "").append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,112 @@
+package dev.clownsinformatics.tiendajava.rest.products.services;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PostgresProductSearchEngineTest {
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Test
+    void toTsQueryRequiresEveryTermAndMatchesTheLastOneAsAPrefix() {
+        assertAll(
+                () -> assertEquals("portatil & gaming & rat:*", PostgresProductSearchEngine.toTsQuery("Portátil  GAMING, rat")),
+                () -> assertEquals("pinguino:*", PostgresProductSearchEngine.toTsQuery("pingüino")),
+                () -> assertEquals("", PostgresProductSearchEngine.toTsQuery("  ")),
+                () -> assertEquals("", PostgresProductSearchEngine.toTsQuery(null))
+        );
+    }
+
+    @Test
+    void toTsQueryDropsTsQueryOperators() {
+        assertEquals("a & b & c:*", PostgresProductSearchEngine.toTsQuery("a' | !b & (c:*"));
+    }
+
+    @Test
+    void columnAndQueryIgnoreAccentsTheSameWay() {
+        var engine = engine();
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of());
+        when(namedJdbcTemplate.queryForList(anyString(), any(MapSqlParameterSource.class), eq(UUID.class))).thenReturn(List.of());
+        when(namedJdbcTemplate.queryForObject(anyString(), any(MapSqlParameterSource.class), eq(Long.class))).thenReturn(0L);
+
+        engine.createIndex();
+        engine.search("Ratón", PageRequest.of(0, 10));
+
+        ArgumentCaptor<String> ddl = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(ddl.capture());
+        ArgumentCaptor<String> query = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<MapSqlParameterSource> params = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(namedJdbcTemplate).queryForList(query.capture(), params.capture(), eq(UUID.class));
+        String column = ddl.getAllValues().stream().filter(sql -> sql.contains("search_vector tsvector")).findFirst().orElseThrow();
+        assertAll(
+                () -> assertTrue(column.contains("to_tsvector('spanish', products_unaccent(coalesce(name, '')))"), column),
+                () -> assertTrue(column.contains("to_tsvector('spanish', products_unaccent(coalesce(description, '')))"), column),
+                () -> assertTrue(query.getValue().contains("to_tsquery('spanish', products_unaccent(:query))"), query.getValue()),
+                () -> assertEquals("raton:*", params.getValue().getValue("query")),
+                () -> assertFalse(ddl.getAllValues().contains("ALTER TABLE products DROP COLUMN search_vector"))
+        );
+    }
+
+    @Test
+    void recreatesAColumnBuiltWithoutUnaccent() {
+        var engine = engine();
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "(setweight(to_tsvector('spanish'::regconfig, (COALESCE(name, ''::character varying))::text), 'A'::\"char\"))"));
+
+        engine.createIndex();
+
+        verify(jdbcTemplate).execute("ALTER TABLE products DROP COLUMN search_vector");
+    }
+
+    @Test
+    void keepsAColumnBuiltWithUnaccent() {
+        var engine = engine();
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of(
+                "(setweight(to_tsvector('spanish'::regconfig, products_unaccent((COALESCE(name, ''::character varying))::text)), 'A'::\"char\"))"));
+
+        engine.createIndex();
+
+        verify(jdbcTemplate, never()).execute("ALTER TABLE products DROP COLUMN search_vector");
+    }
+
+    @Test
+    void blankQueriesDoNotReachTheDatabase() {
+        var engine = engine();
+
+        assertTrue(engine.search(" ,; ", PageRequest.of(0, 10)).isEmpty());
+        verifyNoInteractions(namedJdbcTemplate);
+    }
+
+    @Test
+    void rejectsInvalidConfigurations() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PostgresProductSearchEngine(jdbcTemplate, namedJdbcTemplate, "spanish'); DROP TABLE products; --"));
+    }
+
+    private PostgresProductSearchEngine engine() {
+        return new PostgresProductSearchEngine(jdbcTemplate, namedJdbcTemplate, "spanish");
+    }
+}
@@ -0,0 +1,157 @@
+package dev.clownsinformatics.tiendajava.rest.products.services;
+
+import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.rest.products.repositories.ProductRepository;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara los listados de {@link ProductCatalog} con la consulta a la base de datos sobre los mismos productos.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductCatalogTest {
+    private static final String[] WORDS = {"Portátil", "Gaming", "Ratón", "Teclado", "Monitor", "Placa", "Disco", "Torre"};
+    private static final Sort[] SORTS = {
+            Sort.by("id"),
+            Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id")),
+            Sort.by("price").and(Sort.by(Sort.Direction.DESC, "id")),
+            Sort.by(Sort.Direction.DESC, "weight").and(Sort.by("id"))
+    };
+
+    @Autowired
+    private ProductRepository repository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final Random random = new Random(19);
+    private final List<Category> categories = new ArrayList<>();
+    private final List<Product> products = new ArrayList<>();
+    private ProductCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        for (int i = 0; i < 5; i++) {
+            categories.add(entityManager.persist(Category.builder().uuid(null).name("Catálogo " + WORDS[i] + " " + i).build()));
+        }
+        for (int i = 0; i < 300; i++) {
+            products.add(entityManager.persist(Product.builder()
+                    .name(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i)
+                    .description("Producto de prueba " + i)
+                    .weight(random.nextInt(10) * 0.5)
+                    .price(Money.of(BigDecimal.valueOf(random.nextInt(20_000), 2)))
+                    .stock(random.nextInt(30))
+                    .category(random.nextInt(10) == 0 ? null : categories.get(random.nextInt(categories.size())))
+                    .isDeleted(random.nextInt(8) == 0)
+                    .build()));
+        }
+        entityManager.flush();
+        catalog = new ProductCatalog(repository, true, 64, 0);
+        catalog.refresh();
+    }
+
+    @Test
+    void matchesTheDatabaseForRandomFilters() {
+        int compared = 0;
+        for (int i = 0; i < 300; i++) {
+            compared += compareRandomQuery() ? 1 : 0;
+        }
+        assertEquals(300, compared);
+    }
+
+    @Test
+    void matchesTheDatabaseAfterChanges() {
+        for (int i = 0; i < 30; i++) {
+            Product product = products.get(random.nextInt(products.size()));
+            product.setPrice(Money.of(BigDecimal.valueOf(random.nextInt(20_000), 2)));
+            product.setStock(random.nextInt(30));
+            product.setCategory(categories.get(random.nextInt(categories.size())));
+            catalog.index(entityManager.merge(product));
+        }
+        Product deleted = products.get(0);
+        entityManager.flush();
+        repository.deleteById(deleted.getId());
+        catalog.markDeleted(deleted.getId());
+        Category renamed = entityManager.find(Category.class, categories.get(0).getUuid());
+        renamed.setName("Renombrada");
+        catalog.index(entityManager.merge(renamed));
+        Product created = entityManager.persist(Product.builder().name("Monitor nuevo").description("Nuevo")
+                .price(Money.of(1.0)).stock(100).category(renamed).build());
+        catalog.index(created);
+        entityManager.flush();
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(compareRandomQuery());
+        }
+        assertEquals(products.size() + 1, catalog.size());
+    }
+
+    @Test
+    void leavesToTheDatabaseWhatItCannotAnswerTheSame() {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("id"));
+
+        assertAll(
+                () -> assertTrue(catalog.findAll(Optional.of("a_b"), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(false), pageable).isEmpty()),
+                () -> assertTrue(catalog.findAll(Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(2.0), Optional.empty(), Optional.of(false), pageable).isEmpty()),
+                () -> assertTrue(catalog.findAll(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(false), PageRequest.of(0, 10, Sort.by("stock"))).isEmpty()),
+                () -> assertTrue(catalog.findAll(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(false), PageRequest.of(0, 10, Sort.by("name"))).isEmpty()),
+                () -> assertTrue(new ProductCatalog(repository, false, 64, 0).findAll(Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(false), pageable).isEmpty())
+        );
+    }
+
+    @Test
+    void stockChangedByAnOrderIsListedFromTheDatabase() {
+        Product product = products.stream().filter(p -> !p.getIsDeleted() && p.getStock() > 0).findFirst().orElseThrow();
+        int stock = product.getStock();
+        Optional<Double> minStock = Optional.of((double) stock);
+        Pageable pageable = PageRequest.of(0, 500, Sort.by("id"));
+
+        // Reserva de un pedido: solo cambia la base de datos, sin pasar por el catálogo
+        assertEquals(1, repository.decrementStock(product.getId(), stock));
+
+        assertTrue(catalog.findAll(Optional.empty(), Optional.empty(), Optional.empty(), minStock, Optional.empty(), Optional.of(false), pageable).isEmpty());
+        Page<Product> fromDatabase = repository.findAll(ProductServiceImpl.specification(Optional.empty(), Optional.empty(), Optional.empty(), minStock, Optional.empty(), Optional.of(false)), pageable);
+        assertFalse(fromDatabase.map(Product::getId).getContent().contains(product.getId()));
+    }
+
+    private boolean compareRandomQuery() {
+        Optional<String> name = random.nextInt(3) == 0 ? Optional.of(WORDS[random.nextInt(WORDS.length)].substring(0, 3).toUpperCase()) : Optional.empty();
+        Optional<Double> maxWeight = random.nextInt(3) == 0 ? Optional.of(random.nextInt(10) * 0.5) : Optional.empty();
+        Optional<Double> maxPrice = random.nextInt(3) == 0 ? Optional.of(random.nextInt(20_000) / 100.0 + 0.005) : Optional.empty();
+        Optional<Double> minStock = Optional.empty();
+        Optional<String> category = random.nextInt(3) == 0 ? Optional.of(random.nextBoolean() ? "catálogo" : "renombrada") : Optional.empty();
+        Optional<Boolean> isDeleted = random.nextInt(10) == 0 ? Optional.empty() : Optional.of(random.nextInt(4) == 0);
+        Pageable pageable = PageRequest.of(random.nextInt(4), 1 + random.nextInt(25), SORTS[random.nextInt(SORTS.length)]);
+
+        Optional<Page<UUID>> fromCatalog = catalog.findAll(name, maxWeight, maxPrice, minStock, category, isDeleted, pageable);
+        if (fromCatalog.isEmpty()) {
+            return false;
+        }
+        Page<Product> fromDatabase = repository.findAll(ProductServiceImpl.specification(name, maxWeight, maxPrice, minStock, category, isDeleted), pageable);
+
+        String query = name + " " + maxWeight + " " + maxPrice + " " + minStock + " " + category + " " + isDeleted + " " + pageable;
+        assertEquals(fromDatabase.getTotalElements(), fromCatalog.get().getTotalElements(), query);
+        assertEquals(fromDatabase.map(Product::getId).getContent(), fromCatalog.get().getContent(), query);
+        return true;
+    }
+}
@@ -14,10 +14,13 @@ import dev.clownsinformatics.tiendajava.rest.products.mapper.ProductMapper;
 import dev.clownsinformatics.tiendajava.rest.products.models.Product;
 import dev.clownsinformatics.tiendajava.rest.products.repositories.ProductRepository;
 import dev.clownsinformatics.tiendajava.rest.storage.services.StorageService;
+import dev.clownsinformatics.tiendajava.rest.suggestions.services.SuggestionService;
 import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierResponseDto;
 import dev.clownsinformatics.tiendajava.rest.suppliers.mapper.SupplierMapper;
 import dev.clownsinformatics.tiendajava.rest.suppliers.models.Supplier;
 import dev.clownsinformatics.tiendajava.rest.suppliers.services.SupplierService;
+import dev.clownsinformatics.tiendajava.utils.cache.CacheInvalidationBus;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
 import dev.clownsinformatics.tiendajava.websockets.notifications.mapper.ProductNotificationMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -26,6 +29,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -72,7 +77,7 @@ class ProductServiceImplTest {
             .id(idProduct1)
             .name("Product 1")
             .weight(2.5)
-            .price(50.0)
+            .price(Money.of(50.0))
             .img("imagen1.jpg")
             .stock(10)
             .description("Descripción del producto 1")
@@ -83,7 +88,7 @@ class ProductServiceImplTest {
             .id(idProduct2)
             .name("Product 2")
             .weight(3.2)
-            .price(50.0)
+            .price(Money.of(50.0))
             .img("imagen2.jpg")
             .stock(10)
             .description("Descripción del producto 2")
@@ -112,6 +117,16 @@ class ProductServiceImplTest {
     private SupplierMapper supplierMapper;
     @Mock
     private SupplierService supplierService;
+    @Mock
+    private StockLedger stockLedger;
+    @Mock
+    private ProductSearchEngine productSearchEngine;
+    @Mock
+    private SuggestionService suggestionService;
+    @Mock
+    private ProductCatalog productCatalog;
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
     @InjectMocks
     private ProductServiceImpl service;
 
@@ -171,6 +186,24 @@ class ProductServiceImplTest {
         verify(mapper, times(1)).toProductResponseDto(any(Product.class));
     }
 
+    @Test
+    void searchKeepsTheRelevanceOrder() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        when(productSearchEngine.search("product", pageable)).thenReturn(new PageImpl<>(List.of(idProduct2, idProduct1), pageable, 2));
+        when(repository.findAllById(List.of(idProduct2, idProduct1))).thenReturn(List.of(product1, product2));
+        when(mapper.toProductResponseDto(product1)).thenReturn(productResponseDto1);
+        when(mapper.toProductResponseDto(product2)).thenReturn(productResponseDto2);
+
+        Page<ProductResponseDto> actualPage = service.search("product", pageable);
+
+        assertAll(
+                () -> assertEquals(List.of(productResponseDto2, productResponseDto1), actualPage.getContent()),
+                () -> assertEquals(2, actualPage.getTotalElements())
+        );
+        verify(repository, never()).findAll(any(Specification.class), any(Pageable.class));
+    }
+
     @Test
     void findAllByWeight() {
         Optional<String> name = Optional.empty();
@@ -397,7 +430,7 @@ class ProductServiceImplTest {
                 .id(id)
                 .name("Product 3")
                 .weight(2.5)
-                .price(50.0)
+                .price(Money.of(50.0))
                 .img("imagen3.jpg")
                 .stock(10)
                 .description("Descripción del producto 3")
@@ -473,7 +506,7 @@ class ProductServiceImplTest {
                 .id(id)
                 .name("Product 3")
                 .weight(2.5)
-                .price(50.0)
+                .price(Money.of(50.0))
                 .img("imagen3.jpg")
                 .stock(10)
                 .description("Descripción del producto 3")
@@ -564,6 +597,23 @@ class ProductServiceImplTest {
         verify(repository, times(1)).deleteById(idProduct1);
     }
 
+    @Test
+    void deleteByIdUpdatesTheIndexesOnlyAfterCommit() {
+        when(repository.findById(idProduct1)).thenReturn(Optional.of(product1));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.deleteById(idProduct1.toString());
+            verify(productSearchEngine, never()).remove(idProduct1);
+            verify(productCatalog, never()).markDeleted(idProduct1);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(productSearchEngine, times(1)).remove(idProduct1);
+            verify(productCatalog, times(1)).markDeleted(idProduct1);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     @Test
     void deleteByIdNotFound() {
         when(repository.findById(idProduct1)).thenReturn(Optional.empty());
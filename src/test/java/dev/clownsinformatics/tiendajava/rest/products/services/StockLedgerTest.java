@@ -0,0 +1,172 @@
+package dev.clownsinformatics.tiendajava.rest.products.services;
+
+import dev.clownsinformatics.tiendajava.rest.products.exceptions.ProductNotStock;
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.rest.products.models.StockLedgerWatermark;
+import dev.clownsinformatics.tiendajava.rest.products.repositories.ProductRepository;
+import dev.clownsinformatics.tiendajava.rest.products.repositories.StockLedgerWatermarkRepository;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockLedgerTest {
+    private final UUID idProduct1 = new UUID(0, 1);
+    private final UUID idProduct2 = new UUID(0, 2);
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private StockLedgerWatermarkRepository watermarkRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @TempDir
+    Path logDir;
+
+    private StockLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        ledger = newLedger();
+        ledger.start();
+    }
+
+    @Test
+    void reserveAndFlushCoalescesDeltas() throws Exception {
+        stock(idProduct1, 10);
+
+        ledger.reserve(new TreeMap<>(Map.of(idProduct1, 2)));
+        ledger.reserve(new TreeMap<>(Map.of(idProduct1, 3)));
+        ledger.release(Map.of(idProduct1, 1));
+        ledger.flush();
+
+        assertEquals(6, ledger.available(idProduct1));
+        verify(productRepository, times(1)).incrementStock(idProduct1, -4);
+        try (var files = Files.list(logDir)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void reserveIsAllOrNothing() {
+        stock(idProduct1, 10);
+        stock(idProduct2, 1);
+
+        assertThrows(ProductNotStock.class, () -> ledger.reserve(new TreeMap<>(Map.of(idProduct1, 2, idProduct2, 5))));
+        ledger.flush();
+
+        assertAll(
+                () -> assertEquals(10, ledger.available(idProduct1)),
+                () -> assertEquals(1, ledger.available(idProduct2))
+        );
+        verify(productRepository, never()).incrementStock(any(UUID.class), anyInt());
+    }
+
+    @Test
+    void replaysUnflushedDeltasAfterCrash() {
+        stock(idProduct1, 10);
+        ledger.reserve(new TreeMap<>(Map.of(idProduct1, 4)));
+        ledger.reserve(new TreeMap<>(Map.of(idProduct1, 1)));
+
+        StockLedger restarted = newLedger();
+        restarted.start();
+
+        verify(productRepository, times(1)).incrementStock(idProduct1, -5);
+    }
+
+    @Test
+    void skipsFlushedSegmentsThatWereNotDeleted() throws Exception {
+        stock(idProduct1, 10);
+        ledger.reserve(new TreeMap<>(Map.of(idProduct1, 4)));
+        Path segment;
+        try (var files = Files.list(logDir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        byte[] content = Files.readAllBytes(segment);
+        ledger.flush();
+        // La caída llega después de confirmar el lote y antes de borrar su segmento
+        Files.write(segment, content);
+        ArgumentCaptor<StockLedgerWatermark> watermark = ArgumentCaptor.forClass(StockLedgerWatermark.class);
+        verify(watermarkRepository).save(watermark.capture());
+        when(watermarkRepository.findById(watermark.getValue().getName())).thenReturn(Optional.of(watermark.getValue()));
+
+        StockLedger restarted = newLedger();
+        restarted.start();
+
+        verify(productRepository, times(1)).incrementStock(idProduct1, -4);
+        try (var files = Files.list(logDir)) {
+            assertTrue(files.allMatch(path -> !path.equals(segment)));
+        }
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        int threads = 8;
+        int attemptsPerThread = 10_000;
+        int initialStock = threads * attemptsPerThread / 2;
+        stock(idProduct1, initialStock);
+        AtomicInteger reserved = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < attemptsPerThread; j++) {
+                    try {
+                        ledger.reserve(new TreeMap<>(Map.of(idProduct1, 1)));
+                        reserved.incrementAndGet();
+                    } catch (ProductNotStock e) {
+                        // Sin stock: el intento cuenta igualmente
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        ledger.flush();
+
+        assertAll(
+                () -> assertEquals(initialStock, reserved.get()),
+                () -> assertEquals(0, ledger.available(idProduct1))
+        );
+        verify(productRepository, times(1)).incrementStock(idProduct1, -initialStock);
+    }
+
+    private StockLedger newLedger() {
+        return new StockLedger(productRepository, watermarkRepository, transactionManager, true, 0, logDir.toString());
+    }
+
+    private void stock(UUID idProduct, int stock) {
+        lenient().when(productRepository.findById(idProduct))
+                .thenReturn(Optional.of(Product.builder().id(idProduct).name("Product").price(Money.of(10.0)).stock(stock).build()));
+    }
+}
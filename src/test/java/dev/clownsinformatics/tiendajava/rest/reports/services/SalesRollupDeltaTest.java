@@ -0,0 +1,93 @@
+package dev.clownsinformatics.tiendajava.rest.reports.services;
+
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.orders.models.OrderLine;
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupDimension;
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupGranularity;
+import dev.clownsinformatics.tiendajava.rest.reports.models.SalesRollup;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalesRollupDeltaTest {
+    private final UUID laptop = new UUID(0, 1);
+    private final UUID mouse = new UUID(0, 2);
+    private final Function<UUID, String> categories = id -> id.equals(laptop) ? "PORTATILES" : "PERIFERICOS";
+    private final LocalDateTime createdAt = LocalDateTime.of(2023, 11, 28, 10, 15);
+
+    @Test
+    void newOrderIncrementsEveryBucket() {
+        var rollups = new SalesRollupDelta()
+                .add(order(line(laptop, 1, 500.0), line(mouse, 2, 10.0), line(mouse, 1, 10.0)))
+                .toRollups(categories);
+
+        SalesRollup dayTotal = rollups.get(SalesRollup.of(RollupGranularity.DAY, RollupDimension.TOTAL, SalesRollup.TOTAL_KEY, createdAt).getId());
+        SalesRollup hourMouse = rollups.get(SalesRollup.of(RollupGranularity.HOUR, RollupDimension.PRODUCT, mouse.toString(), createdAt).getId());
+        assertAll(
+                () -> assertEquals(10, rollups.size()),
+                () -> assertEquals(1, dayTotal.getOrders()),
+                () -> assertEquals(4, dayTotal.getQuantity()),
+                () -> assertEquals(53_000, dayTotal.getRevenueCents()),
+                () -> assertEquals(1, hourMouse.getOrders()),
+                () -> assertEquals(3, hourMouse.getQuantity()),
+                () -> assertEquals(LocalDateTime.of(2023, 11, 28, 10, 0), hourMouse.getBucket())
+        );
+    }
+
+    @Test
+    void updateOnlyWritesWhatChanged() {
+        Order before = order(line(laptop, 1, 500.0), line(mouse, 2, 10.0));
+        var delta = new SalesRollupDelta().remove(before);
+        Order after = order(line(laptop, 1, 500.0), line(mouse, 5, 10.0));
+
+        var rollups = delta.add(after).toRollups(categories);
+
+        SalesRollup dayMouse = rollups.get(SalesRollup.of(RollupGranularity.DAY, RollupDimension.PRODUCT, mouse.toString(), createdAt).getId());
+        assertAll(
+                () -> assertTrue(rollups.values().stream().noneMatch(rollup -> rollup.getKey().equals(laptop.toString()))),
+                () -> assertTrue(rollups.values().stream().noneMatch(rollup -> rollup.getKey().equals("PORTATILES"))),
+                () -> assertTrue(rollups.values().stream().allMatch(rollup -> rollup.getOrders() == 0)),
+                () -> assertEquals(3, dayMouse.getQuantity()),
+                () -> assertEquals(3_000, dayMouse.getRevenueCents())
+        );
+    }
+
+    @Test
+    void removingAnOrderUndoesAddingIt() {
+        Order order = order(line(laptop, 1, 500.0), line(mouse, 2, 10.0));
+
+        Map<String, SalesRollup> rollups = new SalesRollupDelta().add(order).remove(order).toRollups(categories);
+
+        assertTrue(rollups.isEmpty());
+    }
+
+    @Test
+    void categoryCountsEachOrderOnce() {
+        UUID keyboard = new UUID(0, 3);
+        var rollups = new SalesRollupDelta()
+                .add(order(line(mouse, 1, 10.0), line(keyboard, 1, 30.0)))
+                .toRollups(categories);
+
+        SalesRollup category = rollups.get(SalesRollup.of(RollupGranularity.DAY, RollupDimension.CATEGORY, "PERIFERICOS", createdAt).getId());
+        assertAll(
+                () -> assertEquals(1, category.getOrders()),
+                () -> assertEquals(2, category.getQuantity()),
+                () -> assertEquals(4_000, category.getRevenueCents())
+        );
+    }
+
+    private Order order(OrderLine... lines) {
+        return Order.builder().idUser(1L).orderLines(List.of(lines)).createdAt(createdAt).build();
+    }
+
+    private OrderLine line(UUID idProduct, int quantity, double price) {
+        return OrderLine.builder().idProduct(idProduct).quantity(quantity).price(Money.of(price)).total(Money.of(price).times(quantity)).build();
+    }
+}
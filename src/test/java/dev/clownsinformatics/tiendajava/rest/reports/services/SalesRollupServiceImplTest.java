@@ -0,0 +1,133 @@
+package dev.clownsinformatics.tiendajava.rest.reports.services;
+
+import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.orders.models.OrderLine;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderArchiveRepository;
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderRepository;
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.rest.products.repositories.ProductRepository;
+import dev.clownsinformatics.tiendajava.rest.reports.dto.SalesRollupDto;
+import dev.clownsinformatics.tiendajava.rest.reports.exceptions.ReportBadRequest;
+import dev.clownsinformatics.tiendajava.rest.reports.mappers.SalesRollupMapper;
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupDimension;
+import dev.clownsinformatics.tiendajava.rest.reports.models.RollupGranularity;
+import dev.clownsinformatics.tiendajava.rest.reports.models.SalesRollup;
+import dev.clownsinformatics.tiendajava.rest.reports.repositories.SalesRollupRepository;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupServiceImplTest {
+    private final Category category = Category.builder().uuid(UUID.randomUUID()).name("PORTATILES").build();
+    private final Product product = Product.builder().id(UUID.randomUUID()).name("Laptop").price(Money.of(500.0)).stock(10).category(category).build();
+    private final LocalDateTime createdAt = LocalDateTime.of(2023, 11, 28, 10, 15);
+
+    @Mock
+    private SalesRollupRepository salesRollupRepository;
+    @Mock
+    private OrderRepository orderRepository;
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private BulkOperations bulkOperations;
+    @Mock
+    private OrderArchiveRepository orderArchiveRepository;
+
+    private SalesRollupServiceImpl salesRollupService;
+
+    @BeforeEach
+    void setUp() {
+        salesRollupService = new SalesRollupServiceImpl(salesRollupRepository, orderRepository, productRepository,
+                mongoTemplate, new SalesRollupMapper(), orderArchiveRepository, 2, 7);
+    }
+
+    @Test
+    void applyUpsertsEveryChangedBucketInOneBulkWrite() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SalesRollup.class)).thenReturn(bulkOperations);
+
+        salesRollupService.apply(new SalesRollupDelta().add(order(2)), Map.of(product.getId(), product));
+
+        verify(bulkOperations, times(6)).upsert(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(1)).execute();
+        verify(productRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void applyLoadsMissingProductsOnce() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SalesRollup.class)).thenReturn(bulkOperations);
+        when(productRepository.findAllById(List.of(product.getId()))).thenReturn(List.of(product));
+
+        salesRollupService.apply(new SalesRollupDelta().remove(order(2)), Map.of());
+
+        verify(productRepository, times(1)).findAllById(List.of(product.getId()));
+        verify(bulkOperations, times(1)).execute();
+    }
+
+    @Test
+    void applyWithoutChangesDoesNotWrite() {
+        Order order = order(2);
+
+        salesRollupService.apply(new SalesRollupDelta().remove(order).add(order), Map.of(product.getId(), product));
+
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
+    }
+
+    @Test
+    void applyDoesNotFailTheOrderWhenMongoFails() {
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, SalesRollup.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new IllegalStateException("mongo down"));
+
+        assertDoesNotThrow(() -> salesRollupService.apply(new SalesRollupDelta().add(order(2)), Map.of(product.getId(), product)));
+    }
+
+    @Test
+    void findRollupsReadsOnlyTheRequestedBuckets() {
+        LocalDateTime from = LocalDateTime.of(2023, 11, 1, 12, 0);
+        LocalDateTime to = LocalDateTime.of(2023, 12, 1, 0, 0);
+        SalesRollup rollup = SalesRollup.of(RollupGranularity.DAY, RollupDimension.CATEGORY, "PORTATILES", createdAt).add(3, 4, 200_000);
+        when(salesRollupRepository.findBuckets(RollupGranularity.DAY, RollupDimension.CATEGORY, "PORTATILES",
+                LocalDateTime.of(2023, 11, 1, 0, 0), to, Sort.by("bucket", "key"))).thenReturn(List.of(rollup));
+
+        List<SalesRollupDto> result = salesRollupService.findRollups(RollupGranularity.DAY, RollupDimension.CATEGORY, "PORTATILES", from, to);
+
+        assertAll(
+                () -> assertEquals(1, result.size()),
+                () -> assertEquals(3, result.get(0).orders()),
+                () -> assertEquals(2000.0, result.get(0).revenue())
+        );
+    }
+
+    @Test
+    void findRollupsRejectsInvalidRange() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(ReportBadRequest.class, () -> salesRollupService.findRollups(RollupGranularity.DAY, RollupDimension.TOTAL, null, now, now));
+        verifyNoInteractions(salesRollupRepository);
+    }
+
+    private Order order(int quantity) {
+        OrderLine line = OrderLine.builder().idProduct(product.getId()).quantity(quantity).price(Money.of(500.0)).total(Money.of(500.0).times(quantity)).build();
+        return Order.builder().idUser(1L).orderLines(List.of(line)).createdAt(createdAt).build();
+    }
+}
@@ -0,0 +1,164 @@
+package dev.clownsinformatics.tiendajava.rest.suggestions.services;
+
+import dev.clownsinformatics.tiendajava.rest.suggestions.dto.SuggestionDto;
+import dev.clownsinformatics.tiendajava.rest.suggestions.models.SuggestionType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionTrieTest {
+    private final SuggestionTrie trie = new SuggestionTrie();
+
+    @Test
+    void suggestsByPrefixOfTheNameOrOfAnyWord() {
+        UUID pc = put(SuggestionType.PRODUCT, "PC Gamer", 5);
+        UUID laptop = put(SuggestionType.PRODUCT, "Portátil Gaming", 3);
+        put(SuggestionType.PRODUCT, "Ratón", 9);
+
+        assertAll(
+                () -> assertEquals(List.of(pc, laptop), ids(trie.suggest("ga", 10))),
+                () -> assertEquals(List.of(laptop), ids(trie.suggest("PORTATIL G", 10))),
+                () -> assertEquals(List.of(pc), ids(trie.suggest("pc-gam", 10))),
+                () -> assertTrue(trie.suggest("gamers", 10).isEmpty()),
+                () -> assertTrue(trie.suggest("", 10).isEmpty())
+        );
+    }
+
+    @Test
+    void returnsTheBestScoresFirstUpToTheLimit() {
+        UUID low = put(SuggestionType.PRODUCT, "Monitor 24", 1);
+        UUID high = put(SuggestionType.PRODUCT, "Monitor 27", 50);
+        UUID middle = put(SuggestionType.PRODUCT, "Monitor curvo", 10);
+        UUID category = put(SuggestionType.CATEGORY, "MONITORES", Long.MAX_VALUE);
+
+        assertAll(
+                () -> assertEquals(List.of(category, high, middle, low), ids(trie.suggest("mon", 10))),
+                () -> assertEquals(List.of(category, high), ids(trie.suggest("mon", 2)))
+        );
+    }
+
+    @Test
+    void listsEachElementOnceEvenIfSeveralWordsMatch() {
+        UUID id = put(SuggestionType.PRODUCT, "Cable cable cableado", 1);
+
+        assertEquals(List.of(id), ids(trie.suggest("cab", 10)));
+    }
+
+    @Test
+    void replacesAndRemovesElements() {
+        UUID id = UUID.randomUUID();
+        trie.put(SuggestionType.PRODUCT, id, "Teclado mecánico", 1);
+        UUID other = put(SuggestionType.PRODUCT, "Teclado", 2);
+        trie.put(SuggestionType.PRODUCT, id, "Teclado inalámbrico", 5);
+
+        assertAll(
+                () -> assertTrue(trie.suggest("mec", 10).isEmpty()),
+                () -> assertEquals(List.of(id, other), ids(trie.suggest("tecl", 10))),
+                () -> assertEquals(2, trie.size())
+        );
+
+        trie.remove(SuggestionType.PRODUCT, id);
+
+        assertAll(
+                () -> assertEquals(List.of(other), ids(trie.suggest("teclado", 10))),
+                () -> assertTrue(trie.suggest("inal", 10).isEmpty()),
+                () -> assertEquals(1, trie.size())
+        );
+    }
+
+    @Test
+    void keepsSuggestingAfterNodesAreSplitAndMerged() {
+        UUID portatil = put(SuggestionType.PRODUCT, "portatil", 1);
+        UUID portatiles = put(SuggestionType.CATEGORY, "portatiles", 2);
+        UUID portal = put(SuggestionType.PRODUCT, "portal", 3);
+
+        trie.remove(SuggestionType.PRODUCT, portatil);
+        trie.remove(SuggestionType.PRODUCT, portal);
+
+        assertAll(
+                () -> assertEquals(List.of(portatiles), ids(trie.suggest("p", 10))),
+                () -> assertEquals(List.of(portatiles), ids(trie.suggest("portatiles", 10))),
+                () -> assertTrue(trie.suggest("portal", 10).isEmpty())
+        );
+
+        UUID port = put(SuggestionType.PRODUCT, "port", 4);
+
+        assertEquals(List.of(port, portatiles), ids(trie.suggest("por", 10)));
+    }
+
+    @Test
+    void sameTypeAndIdIsOneElement() {
+        UUID id = UUID.randomUUID();
+        trie.put(SuggestionType.PRODUCT, id, "Altavoz", 1);
+        trie.put(SuggestionType.SUPPLIER, id, "Altavoces SL", 1);
+
+        assertEquals(2, trie.suggest("alta", 10).size());
+    }
+
+    @Test
+    void keepsEveryNameAfterSplittingABranchTwice() {
+        UUID first = put(SuggestionType.PRODUCT, "Placa 1202", 1);
+        UUID second = put(SuggestionType.PRODUCT, "Placa 1210", 1);
+        UUID third = put(SuggestionType.PRODUCT, "Placa 1211", 1);
+
+        assertAll(
+                () -> assertEquals(List.of(first), ids(trie.suggest("1202", 10))),
+                () -> assertEquals(List.of(second), ids(trie.suggest("1210", 10))),
+                () -> assertEquals(List.of(third), ids(trie.suggest("1211", 10))),
+                () -> assertEquals(3, trie.suggest("placa 12", 10).size())
+        );
+    }
+
+    @Test
+    void suggestsTheBestScoresAt100kNames() {
+        String[] words = {"portátil", "gaming", "ratón", "teclado", "monitor", "placa", "base", "procesador",
+                "memoria", "disco", "sólido", "gráfica", "inalámbrico", "mecánico", "curvo", "oficina"};
+        Random random = new Random(7);
+        int size = 100_000;
+        Map<UUID, Long> scores = new HashMap<>();
+        Map<UUID, List<String>> nameWords = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String name = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + i;
+            long score = random.nextInt(1000);
+            UUID id = put(SuggestionType.PRODUCT, name, score);
+            scores.put(id, score);
+            nameWords.put(id, List.of(SuggestionTrie.normalize(name).split(" ")));
+        }
+
+        assertEquals(size, trie.size());
+        for (int i = 0; i < 200; i++) {
+            String word = SuggestionTrie.normalize(words[random.nextInt(words.length)]);
+            String prefix = word.substring(0, 1 + random.nextInt(word.length()));
+            List<Long> expected = nameWords.entrySet().stream()
+                    .filter(entry -> entry.getValue().stream().anyMatch(nameWord -> nameWord.startsWith(prefix)))
+                    .map(entry -> scores.get(entry.getKey()))
+                    .sorted(Comparator.reverseOrder())
+                    .limit(10)
+                    .toList();
+
+            List<UUID> suggested = ids(trie.suggest(prefix, 10));
+
+            assertAll(prefix,
+                    () -> assertEquals(expected, suggested.stream().map(scores::get).toList()),
+                    () -> assertTrue(suggested.stream().allMatch(id -> nameWords.get(id).stream().anyMatch(nameWord -> nameWord.startsWith(prefix))))
+            );
+        }
+    }
+
+    private UUID put(SuggestionType type, String text, long score) {
+        UUID id = UUID.randomUUID();
+        trie.put(type, id, text, score);
+        return id;
+    }
+
+    private List<UUID> ids(List<SuggestionDto> suggestions) {
+        return suggestions.stream().map(SuggestionDto::id).toList();
+    }
+}
@@ -6,6 +6,7 @@ import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierResponseDto;
 import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierUpdateDto;
 import dev.clownsinformatics.tiendajava.rest.suppliers.models.Supplier;
 import dev.clownsinformatics.tiendajava.rest.suppliers.services.SupplierService;
+import dev.clownsinformatics.tiendajava.utils.pagination.ApproximateCounts;
 import dev.clownsinformatics.tiendajava.utils.pagination.PageResponse;
 import dev.clownsinformatics.tiendajava.utils.pagination.PaginationLinksUtils;
 import jakarta.servlet.http.HttpServletRequest;
@@ -90,6 +91,8 @@ class SupplierControllerTestMock {
     private SupplierService supplierService;
     @Mock
     private PaginationLinksUtils paginationLinksUtils;
+    @Mock
+    private ApproximateCounts approximateCounts;
     @InjectMocks
     private SupplierController supplierController;
 
@@ -106,7 +109,7 @@ class SupplierControllerTestMock {
         Page<SupplierResponseDto> expectedPage = new PageImpl<>(supplierResponseDtoList);
         when(supplierService.findAll(category, name, contact, isDeleted, pageable)).thenReturn(expectedPage);
 
-        PageResponse<SupplierResponseDto> pageResponse = supplierController.getAll(category, name, contact, isDeleted, 0, 10, "id", "asc", request).getBody();
+        PageResponse<SupplierResponseDto> pageResponse = supplierController.getAll(category, name, contact, isDeleted, 0, 10, "id", "asc", "true", request).getBody();
                 ;
 
         assertAll(
@@ -131,7 +134,7 @@ class SupplierControllerTestMock {
         Page<SupplierResponseDto> expectedPage = new PageImpl<>(supplierResponseDtoList);
         when(supplierService.findAll(category, name, contact, isDeleted, pageable)).thenReturn(expectedPage);
 
-        PageResponse<SupplierResponseDto> pageResponse = supplierController.getAll(category, name, contact, isDeleted, 0, 10, "id", "asc", request).getBody();
+        PageResponse<SupplierResponseDto> pageResponse = supplierController.getAll(category, name, contact, isDeleted, 0, 10, "id", "asc", "true", request).getBody();
 
         assertAll(
                 () -> assertNotNull(pageResponse),
@@ -155,7 +158,7 @@ class SupplierControllerTestMock {
         Page<SupplierResponseDto> expectedPage = new PageImpl<>(supplierResponseDtoList);
         when(supplierService.findAll(category, name, contact, isDeleted, pageable)).thenReturn(expectedPage);
 
-        PageResponse<SupplierResponseDto> pageResponse = supplierController.getAll(category, name, contact, isDeleted,0, 10, "id", "asc", request).getBody();
+        PageResponse<SupplierResponseDto> pageResponse = supplierController.getAll(category, name, contact, isDeleted,0, 10, "id", "asc", "true", request).getBody();
 
         assertAll(
                 () -> assertNotNull(pageResponse),
@@ -179,7 +182,7 @@ class SupplierControllerTestMock {
         Page<SupplierResponseDto> expectedPage = new PageImpl<>(supplierResponseDtoList);
         when(supplierService.findAll(category, name, contact, isDeleted, pageable)).thenReturn(expectedPage);
 
-        PageResponse<SupplierResponseDto> pageResponse = supplierController.getAll(category, name, contact, isDeleted, 0, 10, "id", "asc", request).getBody();
+        PageResponse<SupplierResponseDto> pageResponse = supplierController.getAll(category, name, contact, isDeleted, 0, 10, "id", "asc", "true", request).getBody();
 
         assertAll(
                 () -> assertNotNull(pageResponse),
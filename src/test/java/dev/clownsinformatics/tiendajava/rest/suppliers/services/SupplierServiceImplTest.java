@@ -5,6 +5,7 @@ import dev.clownsinformatics.tiendajava.config.websocket.WebSocketHandler;
 import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
 import dev.clownsinformatics.tiendajava.rest.categories.repositories.CategoryRepository;
 import dev.clownsinformatics.tiendajava.rest.categories.services.CategoryService;
+import dev.clownsinformatics.tiendajava.rest.suggestions.services.SuggestionService;
 import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierCreateDto;
 import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierResponseDto;
 import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierUpdateDto;
@@ -12,6 +13,7 @@ import dev.clownsinformatics.tiendajava.rest.suppliers.exceptions.SupplierNotFou
 import dev.clownsinformatics.tiendajava.rest.suppliers.mapper.SupplierMapper;
 import dev.clownsinformatics.tiendajava.rest.suppliers.models.Supplier;
 import dev.clownsinformatics.tiendajava.rest.suppliers.repositories.SupplierRepository;
+import dev.clownsinformatics.tiendajava.utils.cache.CacheInvalidationBus;
 import dev.clownsinformatics.tiendajava.websockets.notifications.mapper.SuppliersNotificationMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -104,6 +106,10 @@ class SupplierServiceImplTest {
     private CategoryRepository categoryRepository;
     @Mock
     private CategoryService categoryService;
+    @Mock
+    private SuggestionService suggestionService;
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
     @InjectMocks
     private SupplierServiceImpl supplierService;
 
@@ -5,11 +5,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import dev.clownsinformatics.tiendajava.rest.clients.dto.ClientResponse;
 import dev.clownsinformatics.tiendajava.rest.clients.models.Client;
+import dev.clownsinformatics.tiendajava.rest.orders.dto.ClientOrderSummaryDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderCreateDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderResponseDto;
 import dev.clownsinformatics.tiendajava.rest.orders.dto.OrderUpdateDto;
 import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
 import dev.clownsinformatics.tiendajava.rest.orders.models.OrderLine;
+import dev.clownsinformatics.tiendajava.rest.orders.service.ClientOrderSummaryService;
 import dev.clownsinformatics.tiendajava.rest.orders.service.OrderService;
 import dev.clownsinformatics.tiendajava.rest.users.dto.UserInfoResponse;
 import dev.clownsinformatics.tiendajava.rest.users.dto.UserRequest;
@@ -17,6 +19,7 @@ import dev.clownsinformatics.tiendajava.rest.users.dto.UserResponse;
 import dev.clownsinformatics.tiendajava.rest.users.exceptions.UserNotFound;
 import dev.clownsinformatics.tiendajava.rest.users.models.User;
 import dev.clownsinformatics.tiendajava.rest.users.services.UsersService;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
 import dev.clownsinformatics.tiendajava.utils.pagination.PageResponse;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
@@ -142,8 +145,8 @@ class UsersRestControllerTest {
 
     OrderLine orderLine = OrderLine.builder()
             .idProduct(uuid)
-            .price(99.99)
-            .total(99.99)
+            .price(Money.of(99.99))
+            .total(Money.of(99.99))
             .build();
     private final Order order = Order.builder()
             .id(new ObjectId("5f9c7b9b9c6b9e1d7c9d9c9d"))
@@ -152,7 +155,7 @@ class UsersRestControllerTest {
             .idUser(2L)
             .build();
 
-    private final OrderResponseDto orderResponseDto = new OrderResponseDto(order.getId().toHexString(), order.getIdUser(), order.getClient(), order.getOrderLines(), order.getTotalItems(), order.getTotal(), order.getCreatedAt(), order.getUpdatedAt(), order.getIsDeleted());
+    private final OrderResponseDto orderResponseDto = new OrderResponseDto(order.getId().toHexString(), order.getIdUser(), order.getClient(), order.getOrderLines(), order.getTotalItems(), order.getTotal().amount(), order.getCreatedAt(), order.getUpdatedAt(), order.getIsDeleted());
 
     @Autowired
     MockMvc mockMvc;
@@ -161,6 +164,8 @@ class UsersRestControllerTest {
     private UsersService usersService;
     @MockBean
     private OrderService orderService;
+    @MockBean
+    private ClientOrderSummaryService clientOrderSummaryService;
 
     @Autowired
     public UsersRestControllerTest(UsersService UsersService) {
@@ -693,6 +698,28 @@ class UsersRestControllerTest {
         verify(usersService, times(1)).deleteById(anyLong());
     }
 
+    @Test
+    @WithUserDetails("user")
+    void getPedidosSummary() throws Exception {
+        var LOCAL_URL = BASE_URL + "/me/pedidos/summary";
+
+        when(clientOrderSummaryService.findByIdUser(anyLong())).thenReturn(new ClientOrderSummaryDto(2L, 4, 120.0, null));
+
+        MockHttpServletResponse response = mockMvc.perform(
+                        get(LOCAL_URL)
+                                .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        ClientOrderSummaryDto res = mapper.readValue(response.getContentAsString(), ClientOrderSummaryDto.class);
+        assertAll(
+                () -> assertEquals(200, response.getStatus()),
+                () -> assertEquals(4, res.totalOrders())
+        );
+
+        verify(clientOrderSummaryService, times(1)).findByIdUser(anyLong());
+        verify(orderService, never()).findByUserId(anyLong(), any(Pageable.class));
+    }
+
     @Test
     @WithUserDetails("user")
     void getPedidosByUsuario() throws Exception {
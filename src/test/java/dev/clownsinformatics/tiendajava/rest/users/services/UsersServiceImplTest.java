@@ -1,5 +1,6 @@
 package dev.clownsinformatics.tiendajava.rest.users.services;
 
+import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderArchiveRepository;
 import dev.clownsinformatics.tiendajava.rest.orders.repository.OrderRepository;
 import dev.clownsinformatics.tiendajava.rest.users.dto.UserInfoResponse;
 import dev.clownsinformatics.tiendajava.rest.users.dto.UserRequest;
@@ -9,6 +10,7 @@ import dev.clownsinformatics.tiendajava.rest.users.exceptions.UserNotFound;
 import dev.clownsinformatics.tiendajava.rest.users.mappers.UsersMapper;
 import dev.clownsinformatics.tiendajava.rest.users.models.User;
 import dev.clownsinformatics.tiendajava.rest.users.repositories.UsersRepository;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -22,6 +24,7 @@ import org.springframework.data.jpa.domain.Specification;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -39,6 +42,8 @@ class UsersServiceImplTest {
     @Mock
     private OrderRepository orderRepository;
     @Mock
+    private OrderArchiveRepository orderArchiveRepository;
+    @Mock
     private UsersMapper usersMapper;
     @InjectMocks
     private UsersServiceImpl usersService;
@@ -64,7 +69,7 @@ class UsersServiceImplTest {
     void findById() {
         Long userId = 1L;
         when(usersRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(orderRepository.findOrderIdsByIdUser(userId)).thenReturn(List.of());
+        when(orderRepository.streamOrderIdsByIdUser(eq(userId), anyInt())).thenReturn(Stream.empty());
         when(usersMapper.toUserInfoResponse(any(User.class), anyList())).thenReturn(userIResponse);
 
         UserInfoResponse result = usersService.findById(userId);
@@ -76,10 +81,39 @@ class UsersServiceImplTest {
         );
 
         verify(usersRepository, times(1)).findById(userId);
-        verify(orderRepository, times(1)).findOrderIdsByIdUser(userId);
+        verify(orderRepository, times(1)).streamOrderIdsByIdUser(eq(userId), anyInt());
+        verify(orderRepository, never()).findAll();
         verify(usersMapper, times(1)).toUserInfoResponse(user, List.of());
     }
 
+    @Test
+    void findByIdMapsStreamedOrderIds() {
+        Long userId = 1L;
+        ObjectId orderId = new ObjectId("6536518de9b0d305f193b5ef");
+        when(usersRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(orderRepository.streamOrderIdsByIdUser(eq(userId), anyInt())).thenReturn(Stream.of(orderId));
+        when(usersMapper.toUserInfoResponse(any(User.class), anyList())).thenReturn(userIResponse);
+
+        usersService.findById(userId);
+
+        verify(usersMapper, times(1)).toUserInfoResponse(user, List.of("6536518de9b0d305f193b5ef"));
+    }
+
+    @Test
+    void findByIdIncludesArchivedOrderIds() {
+        Long userId = 1L;
+        ObjectId orderId = new ObjectId("6536518de9b0d305f193b5ef");
+        ObjectId archivedId = new ObjectId("6436518de9b0d305f193b5ef");
+        when(usersRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(orderRepository.streamOrderIdsByIdUser(eq(userId), anyInt())).thenReturn(Stream.of(orderId));
+        when(orderArchiveRepository.streamOrderIdsByIdUser(eq(userId), anyInt())).thenReturn(Stream.of(orderId, archivedId));
+        when(usersMapper.toUserInfoResponse(any(User.class), anyList())).thenReturn(userIResponse);
+
+        usersService.findById(userId);
+
+        verify(usersMapper, times(1)).toUserInfoResponse(user, List.of("6536518de9b0d305f193b5ef", "6436518de9b0d305f193b5ef"));
+    }
+
     @Test
     void findByIdNotFound() {
         Long userId = 1L;
@@ -192,4 +226,17 @@ class UsersServiceImplTest {
         verify(usersRepository, times(1)).updateIsDeletedToTrueById(userId);
         verify(orderRepository, times(1)).existsByIdUser(userId);
     }
-}
\ No newline at end of file
+
+    @Test
+    void deleteByIdLogicalDeleteWithOnlyArchivedOrders() {
+        Long userId = 1L;
+        when(usersRepository.findById(userId)).thenReturn(Optional.of(user));
+        when(orderRepository.existsByIdUser(userId)).thenReturn(false);
+        when(orderArchiveRepository.existsByIdUser(userId)).thenReturn(true);
+
+        usersService.deleteById(userId);
+
+        verify(usersRepository, times(1)).updateIsDeletedToTrueById(userId);
+        verify(usersRepository, never()).delete(any(User.class));
+    }
+}
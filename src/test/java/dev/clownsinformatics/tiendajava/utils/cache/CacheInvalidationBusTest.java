@@ -0,0 +1,200 @@
+package dev.clownsinformatics.tiendajava.utils.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheInvalidationBusTest {
+    private final String channel = "test_" + UUID.randomUUID().toString().replace("-", "_");
+    private final List<CacheInvalidationBus> buses = new ArrayList<>();
+    private final List<CacheInvalidationBatch> published = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        buses.forEach(CacheInvalidationBus::stop);
+    }
+
+    @Test
+    void writesOnOneNodeEvictTheOtherNodes() {
+        Node a = node(500);
+        Node b = node(500);
+        Node c = node(500);
+        List.of(a, b, c).forEach(node -> {
+            node.cache("products").put("1", "old");
+            node.cache("products").put("2", "old");
+            node.cache("clients").put(7L, "old");
+        });
+        a.cache("products").put("1", "new");
+
+        a.bus.invalidate("products", "1");
+        a.bus.invalidate("clients", 7L);
+        a.bus.flush();
+
+        assertAll(
+                () -> assertEquals("new", a.cache("products").get("1").get()),
+                () -> assertNotNull(a.cache("clients").get(7L)),
+                () -> assertNull(b.cache("products").get("1")),
+                () -> assertNull(c.cache("products").get("1")),
+                () -> assertNull(b.cache("clients").get(7L)),
+                () -> assertNull(c.cache("clients").get(7L)),
+                () -> assertEquals("old", b.cache("products").get("2").get())
+        );
+    }
+
+    @Test
+    void coalescesInvalidationsOfTheSameKey() {
+        Node a = node(500);
+        recordPublished();
+
+        for (int i = 0; i < 100; i++) {
+            a.bus.invalidate("products", "1");
+        }
+        a.bus.invalidate("products", "2");
+        a.bus.flush();
+
+        assertEquals(1, published.size());
+        List<CacheInvalidation> invalidations = published.get(0).invalidations();
+        assertAll(
+                () -> assertEquals(2, invalidations.size()),
+                () -> assertEquals(a.bus.getNodeId(), published.get(0).origin()),
+                () -> assertTrue(invalidations.stream().allMatch(invalidation -> invalidation.version() > 0))
+        );
+    }
+
+    @Test
+    void wholeCacheInvalidationReplacesItsKeys() {
+        Node a = node(500);
+        Node b = node(500);
+        b.cache("categories").put("SOBREMESA", "old");
+        b.cache("products").put("1", "old");
+        recordPublished();
+
+        a.bus.invalidate("categories", UUID.randomUUID());
+        a.bus.invalidateAll("categories");
+        a.bus.invalidate("products", "1");
+        a.bus.flush();
+
+        List<CacheInvalidation> invalidations = published.get(0).invalidations();
+        assertAll(
+                () -> assertEquals(2, invalidations.size()),
+                () -> assertTrue(invalidations.stream().anyMatch(invalidation -> invalidation.cache().equals("categories") && invalidation.allEntries())),
+                () -> assertTrue(invalidations.stream().noneMatch(invalidation -> invalidation.cache().equals("categories") && !invalidation.allEntries())),
+                () -> assertNull(b.cache("categories").get("SOBREMESA")),
+                () -> assertNull(b.cache("products").get("1"))
+        );
+    }
+
+    @Test
+    void splitsLargeFlushesIntoBatches() {
+        Node a = node(10);
+        recordPublished();
+
+        for (int i = 0; i < 25; i++) {
+            a.bus.invalidate("products", String.valueOf(i));
+        }
+        a.bus.flush();
+
+        assertEquals(List.of(10, 10, 5), published.stream().map(batch -> batch.invalidations().size()).toList());
+    }
+
+    @Test
+    void waitsForTheTransactionToCommit() {
+        Node a = node(500);
+        recordPublished();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            a.bus.invalidate("products", "1");
+            a.bus.flush();
+            assertTrue(published.isEmpty());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        a.bus.flush();
+
+        assertEquals(1, published.size());
+    }
+
+    @Test
+    void keepsInvalidationsWhenTheTransportFails() {
+        Node a = node(500);
+        CacheInvalidationTransport.Listener failing = new CacheInvalidationTransport.Listener() {
+            @Override
+            public void onBatch(CacheInvalidationBatch batch) {
+                throw new IllegalStateException("Transport down");
+            }
+
+            @Override
+            public void onReconnect() {
+            }
+        };
+        InMemoryCacheInvalidationTransport transport = new InMemoryCacheInvalidationTransport(channel);
+        transport.subscribe(failing);
+        a.bus.invalidate("products", "1");
+
+        assertThrows(IllegalStateException.class, a.bus::flush);
+
+        transport.unsubscribe(failing);
+        recordPublished();
+        a.bus.flush();
+        assertEquals(1, published.size());
+    }
+
+    @Test
+    void clearsEverythingAfterReconnecting() {
+        Node a = node(500);
+        a.cache("products").put("1", "value");
+        a.cache("clients").put(1L, "value");
+
+        a.bus.onReconnect();
+
+        assertAll(
+                () -> assertNull(a.cache("products").get("1")),
+                () -> assertNull(a.cache("clients").get(1L))
+        );
+    }
+
+    @Test
+    void rejectsUnsupportedKeys() {
+        Node a = node(500);
+
+        assertThrows(IllegalArgumentException.class, () -> a.bus.invalidate("products", List.of("1")));
+    }
+
+    private Node node(int maxBatchSize) {
+        PolicyCacheManager cacheManager = new PolicyCacheManager(new MockEnvironment());
+        CacheInvalidationBus bus = new CacheInvalidationBus(cacheManager, new InMemoryCacheInvalidationTransport(channel), 0, maxBatchSize);
+        bus.start();
+        buses.add(bus);
+        return new Node(cacheManager, bus);
+    }
+
+    private void recordPublished() {
+        new InMemoryCacheInvalidationTransport(channel).subscribe(new CacheInvalidationTransport.Listener() {
+            @Override
+            public void onBatch(CacheInvalidationBatch batch) {
+                published.add(batch);
+            }
+
+            @Override
+            public void onReconnect() {
+            }
+        });
+    }
+
+    private record Node(PolicyCacheManager cacheManager, CacheInvalidationBus bus) {
+        Cache cache(String name) {
+            return cacheManager.getCache(name);
+        }
+    }
+}
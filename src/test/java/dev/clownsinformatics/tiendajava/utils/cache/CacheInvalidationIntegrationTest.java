@@ -0,0 +1,62 @@
+package dev.clownsinformatics.tiendajava.utils.cache;
+
+import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierResponseDto;
+import dev.clownsinformatics.tiendajava.rest.suppliers.dto.SupplierUpdateDto;
+import dev.clownsinformatics.tiendajava.rest.suppliers.services.SupplierService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"caches.invalidation.channel=cache_invalidation_it", "caches.invalidation.flush-interval-ms=20"})
+class CacheInvalidationIntegrationTest {
+    private static final String SUPPLIER_ID = "f47a2544-5b87-49c7-8931-1b9d5cfbdf04";
+
+    @Autowired
+    private SupplierService supplierService;
+    @Autowired
+    private CacheManager cacheManager;
+
+    private PolicyCacheManager otherCacheManager;
+    private CacheInvalidationBus otherBus;
+    private String originalName;
+
+    @BeforeEach
+    void setUp() {
+        otherCacheManager = new PolicyCacheManager(new MockEnvironment());
+        otherBus = new CacheInvalidationBus(otherCacheManager, new InMemoryCacheInvalidationTransport("cache_invalidation_it"), 0, 500);
+        otherBus.start();
+        originalName = supplierService.findByUUID(SUPPLIER_ID).name();
+    }
+
+    @AfterEach
+    void tearDown() {
+        supplierService.update(new SupplierUpdateDto(originalName, null, null, null, null), SUPPLIER_ID);
+        otherBus.stop();
+    }
+
+    @Test
+    void updateOnOneNodeEvictsTheOtherNode() throws InterruptedException {
+        Cache otherSuppliers = otherCacheManager.getCache("suppliers");
+        otherSuppliers.put(SUPPLIER_ID, supplierService.findByUUID(SUPPLIER_ID));
+
+        supplierService.update(new SupplierUpdateDto("Proveedor cambiado", null, null, null, null), SUPPLIER_ID);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (otherSuppliers.get(SUPPLIER_ID) != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Cache.ValueWrapper local = cacheManager.getCache("suppliers").get(SUPPLIER_ID);
+        assertAll(
+                () -> assertNull(otherSuppliers.get(SUPPLIER_ID)),
+                () -> assertNotNull(local),
+                () -> assertEquals("Proveedor cambiado", ((SupplierResponseDto) local.get()).name())
+        );
+    }
+}
@@ -0,0 +1,81 @@
+package dev.clownsinformatics.tiendajava.utils.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolicyCacheManagerTest {
+    private final MockEnvironment environment = new MockEnvironment()
+            .withProperty("caches.default-spec", "maximumSize=100")
+            .withProperty("caches.small.spec", "maximumSize=2")
+            .withProperty("caches.weighted.spec", "maximumWeight=10");
+    private final PolicyCacheManager cacheManager = new PolicyCacheManager(environment);
+
+    @Test
+    void usesTheSpecOfEachCacheOrTheDefault() {
+        assertAll(
+                () -> assertEquals("maximumSize=2", cacheManager.specFor("small")),
+                () -> assertEquals("maximumSize=100", cacheManager.specFor("other")),
+                () -> assertEquals(PolicyCacheManager.DEFAULT_SPEC, new PolicyCacheManager(new MockEnvironment()).specFor("other")),
+                () -> assertEquals(100, nativeCache("other").policy().eviction().orElseThrow().getMaximum())
+        );
+    }
+
+    @Test
+    void evictsBySize() {
+        Cache<Object, Object> cache = nativeCache("small");
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, "value " + i);
+        }
+        cache.cleanUp();
+
+        assertAll(
+                () -> assertEquals(2, cache.estimatedSize()),
+                () -> assertEquals(8, cache.stats().evictionCount())
+        );
+    }
+
+    @Test
+    void evictsByWeight() {
+        Cache<Object, Object> cache = nativeCache("weighted");
+        cache.put("heavy", (CacheWeighted) () -> 8);
+        cache.put("list", List.of(1, 2, 3));
+        cache.put("plain", "value");
+        cache.cleanUp();
+
+        assertAll(
+                () -> assertTrue(cache.policy().eviction().orElseThrow().weightedSize().orElseThrow() <= 10),
+                () -> assertTrue(cache.stats().evictionWeight() >= 2)
+        );
+    }
+
+    @Test
+    void recordsHitsAndMisses() {
+        CaffeineCache cache = (CaffeineCache) cacheManager.getCache("other");
+        cache.put("key", "value");
+        cache.get("key");
+        cache.get("key");
+        cache.get("missing");
+
+        assertAll(
+                () -> assertEquals(2, cache.getNativeCache().stats().hitCount()),
+                () -> assertEquals(1, cache.getNativeCache().stats().missCount())
+        );
+    }
+
+    @Test
+    void rejectsRefreshAfterWrite() {
+        environment.setProperty("caches.refreshing.spec", "maximumSize=10,refreshAfterWrite=1m");
+
+        assertThrows(IllegalStateException.class, () -> cacheManager.getCache("refreshing"));
+    }
+
+    private Cache<Object, Object> nativeCache(String name) {
+        return ((CaffeineCache) cacheManager.getCache(name)).getNativeCache();
+    }
+}
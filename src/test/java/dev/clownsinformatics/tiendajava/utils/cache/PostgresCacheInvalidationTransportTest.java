@@ -0,0 +1,64 @@
+package dev.clownsinformatics.tiendajava.utils.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostgresCacheInvalidationTransportTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void encodesSmallBatchesInOneMessage() throws Exception {
+        CacheInvalidationBatch batch = new CacheInvalidationBatch("node", List.of(
+                CacheInvalidation.of("products", "1", 10),
+                CacheInvalidation.of("clients", 7L, 11),
+                CacheInvalidation.of("categories", UUID.randomUUID(), 12),
+                CacheInvalidation.all("suppliers", 13)));
+
+        List<String> payloads = PostgresCacheInvalidationTransport.encode(mapper, batch, PostgresCacheInvalidationTransport.MAX_PAYLOAD_BYTES);
+        CacheInvalidationBatch decoded = mapper.readValue(payloads.get(0), CacheInvalidationBatch.class);
+
+        assertAll(
+                () -> assertEquals(1, payloads.size()),
+                () -> assertEquals(batch, decoded),
+                () -> assertEquals(7L, decoded.invalidations().get(1).typedKey()),
+                () -> assertTrue(decoded.invalidations().get(3).allEntries())
+        );
+    }
+
+    @Test
+    void splitsBatchesThatDoNotFit() throws Exception {
+        List<CacheInvalidation> invalidations = IntStream.range(0, 300)
+                .mapToObj(i -> CacheInvalidation.of("products", UUID.randomUUID().toString(), i))
+                .toList();
+
+        List<String> payloads = PostgresCacheInvalidationTransport.encode(mapper, new CacheInvalidationBatch("node", invalidations),
+                PostgresCacheInvalidationTransport.MAX_PAYLOAD_BYTES);
+        List<CacheInvalidation> decoded = new ArrayList<>();
+        for (String payload : payloads) {
+            decoded.addAll(mapper.readValue(payload, CacheInvalidationBatch.class).invalidations());
+        }
+
+        assertAll(
+                () -> assertTrue(payloads.size() > 1),
+                () -> assertTrue(payloads.stream().allMatch(payload -> payload.getBytes(StandardCharsets.UTF_8).length <= PostgresCacheInvalidationTransport.MAX_PAYLOAD_BYTES)),
+                () -> assertEquals(invalidations, decoded)
+        );
+    }
+
+    @Test
+    void replacesKeysThatDoNotFitWithTheWholeCache() throws Exception {
+        CacheInvalidationBatch batch = new CacheInvalidationBatch("node", List.of(CacheInvalidation.of("products", "x".repeat(200), 5)));
+
+        List<String> payloads = PostgresCacheInvalidationTransport.encode(mapper, batch, 100);
+
+        assertEquals(List.of(CacheInvalidation.all("products", 5)), mapper.readValue(payloads.get(0), CacheInvalidationBatch.class).invalidations());
+    }
+}
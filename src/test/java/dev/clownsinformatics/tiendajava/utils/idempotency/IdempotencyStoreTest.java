@@ -0,0 +1,120 @@
+package dev.clownsinformatics.tiendajava.utils.idempotency;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+    private final IdempotencyStore store = new IdempotencyStore(2, 60, 5000);
+    private final AtomicInteger executions = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void replaysTheFirstResponse() {
+        var first = store.execute("key", "order", this::create);
+        var second = store.execute("key", "order", this::create);
+
+        assertAll(
+                () -> assertEquals(1, executions.get()),
+                () -> assertEquals(HttpStatus.CREATED, second.getStatusCode()),
+                () -> assertEquals(first.getBody(), second.getBody()),
+                () -> assertNull(first.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER)),
+                () -> assertEquals("true", second.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER))
+        );
+    }
+
+    @Test
+    void withoutKeyEveryRequestRuns() {
+        store.execute(null, "order", this::create);
+        store.execute(" ", "order", this::create);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void keysAreScopedByUser() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("ana", null, List.of()));
+        store.execute("key", "order", this::create);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("juan", null, List.of()));
+        store.execute("key", "order", this::create);
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void reusingAKeyWithAnotherRequestIsAConflict() {
+        store.execute("key", "order", this::create);
+
+        assertThrows(IdempotencyKeyConflict.class, () -> store.execute("key", "another order", this::create));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void failedRequestsReleaseTheKey() {
+        assertThrows(IllegalStateException.class, () -> store.execute("key", "order", () -> {
+            throw new IllegalStateException("Database is down");
+        }));
+        store.execute("key", "order", this::create);
+
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheInFlightRequest() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+
+        var first = CompletableFuture.supplyAsync(() -> store.execute("key", "order", () -> {
+            started.countDown();
+            await(release);
+            return create();
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        var duplicate = CompletableFuture.supplyAsync(() -> store.execute("key", "order", this::create));
+        Thread.sleep(50);
+        assertFalse(duplicate.isDone());
+        release.countDown();
+
+        assertAll(
+                () -> assertEquals(first.get(5, TimeUnit.SECONDS).getBody(), duplicate.get(5, TimeUnit.SECONDS).getBody()),
+                () -> assertEquals(1, executions.get())
+        );
+    }
+
+    @Test
+    void oldestKeysAreEvictedWhenFull() {
+        store.execute("key1", "order", this::create);
+        store.execute("key2", "order", this::create);
+        store.execute("key3", "order", this::create);
+        store.execute("key1", "order", this::create);
+
+        assertEquals(4, executions.get());
+    }
+
+    private ResponseEntity<String> create() {
+        return ResponseEntity.status(HttpStatus.CREATED).body("created " + executions.incrementAndGet());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package dev.clownsinformatics.tiendajava.utils.jpa;
+
+import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
+import dev.clownsinformatics.tiendajava.rest.suppliers.models.Supplier;
+import dev.clownsinformatics.tiendajava.rest.suppliers.repositories.SupplierRepository;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class FilterSpecificationTest {
+    private static final String[] NAMES = {"Norte", "Sur", "Este", "Oeste"};
+    private static final int QUERIES = 2_000;
+
+    @Autowired
+    private SupplierRepository repository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final Random random = new Random(21);
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 4; i++) {
+            Category category = entityManager.persist(Category.builder().uuid(null).name("Filtro " + NAMES[i]).build());
+            for (int j = 0; j < 50; j++) {
+                entityManager.persist(Supplier.builder().name("Proveedor " + NAMES[(i + j) % NAMES.length] + " " + j)
+                        .contact(j % 5 + 1).address("Calle " + j).category(category).isDeleted(j % 7 == 0).build());
+            }
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void returnsTheSameAsFilteringInMemory() {
+        List<Supplier> all = repository.findAll();
+        for (int i = 0; i < 200; i++) {
+            Filters filters = randomFilters();
+            Set<UUID> expected = all.stream().filter(filters::matches).map(Supplier::getId).collect(Collectors.toSet());
+            Set<UUID> actual = repository.findAll(filters.specification(), Pageable.unpaged()).stream()
+                    .map(Supplier::getId).collect(Collectors.toSet());
+            assertEquals(expected, actual, filters.toString());
+        }
+    }
+
+    @Test
+    void leavesOutAbsentFilters() {
+        repository.findAll(FilterSpecification.<Supplier>builder()
+                .contains("name", Optional.empty())
+                .equal("isDeleted", Optional.empty()), PageRequest.of(0, 1000));
+
+        assertAll(
+                () -> assertFalse(SqlStatementCounter.last().toLowerCase().contains(" where "), SqlStatementCounter.last()),
+                () -> assertEquals(0, FilterSpecification.builder().contains("name", Optional.empty()).size()),
+                () -> assertEquals(1, FilterSpecification.builder().equalOrNone("isDeleted", Optional.empty()).size())
+        );
+    }
+
+    @Test
+    void producesOneStatementPerFilterCombination() {
+        Set<Integer> combinations = new HashSet<>();
+        Set<String> filtered = new HashSet<>();
+        for (int i = 0; i < QUERIES; i++) {
+            Filters filters = randomFilters();
+            combinations.add(filters.combination());
+
+            repository.findAll(filters.specification(), PageRequest.of(0, 1000));
+            filtered.add(SqlStatementCounter.last());
+        }
+
+        assertEquals(combinations.size(), filtered.size());
+    }
+
+    @Test
+    void buildsOnlyThePredicatesOfPresentFilters() {
+        CriteriaBuilder criteriaBuilder = entityManager.getEntityManager().getCriteriaBuilder();
+        for (int i = 0; i < 200; i++) {
+            Filters filters = randomFilters();
+            int present = Integer.bitCount(filters.combination());
+
+            int filteredPredicates = predicatesBuilt(criteriaBuilder, filters.specification());
+            int placeholderPredicates = predicatesBuilt(criteriaBuilder, filters.placeholderSpecification());
+
+            // Un predicado por filtro con valor más el "and" que los une; con relleno, siempre cuatro y tres "and"
+            assertAll(filters.toString(),
+                    () -> assertEquals(present > 1 ? present + 1 : present, filteredPredicates),
+                    () -> assertEquals(7, placeholderPredicates)
+            );
+        }
+    }
+
+    /**
+     * Número de predicados que crea la especificación al construir la consulta.
+     */
+    private static int predicatesBuilt(CriteriaBuilder criteriaBuilder, Specification<Supplier> specification) {
+        int[] predicates = new int[1];
+        CriteriaBuilder counting = (CriteriaBuilder) Proxy.newProxyInstance(CriteriaBuilder.class.getClassLoader(),
+                new Class<?>[]{CriteriaBuilder.class}, (proxy, method, args) -> {
+                    if (Predicate.class.isAssignableFrom(method.getReturnType())) {
+                        predicates[0]++;
+                    }
+                    try {
+                        return method.invoke(criteriaBuilder, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        CriteriaQuery<Supplier> query = criteriaBuilder.createQuery(Supplier.class);
+        Root<Supplier> root = query.from(Supplier.class);
+        Predicate predicate = specification.toPredicate(root, query, counting);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return predicates[0];
+    }
+
+    private Filters randomFilters() {
+        return new Filters(
+                random.nextBoolean() ? Optional.of(NAMES[random.nextInt(NAMES.length)].toUpperCase()) : Optional.empty(),
+                random.nextBoolean() ? Optional.of(NAMES[random.nextInt(NAMES.length)].substring(0, 2)) : Optional.empty(),
+                random.nextBoolean() ? Optional.of(random.nextInt(5) + 1) : Optional.empty(),
+                random.nextBoolean() ? Optional.of(random.nextBoolean()) : Optional.empty());
+    }
+
+    /**
+     * Filtros del listado de proveedores, construidos con {@link FilterSpecification} y como se hacían antes, con
+     * un predicado siempre cierto para cada filtro que falta.
+     */
+    private record Filters(Optional<String> category, Optional<String> name, Optional<Integer> contact, Optional<Boolean> isDeleted) {
+        Specification<Supplier> specification() {
+            return FilterSpecification.<Supplier>builder()
+                    .joinedContains("category", "name", category)
+                    .contains("name", name)
+                    .equal("isDeleted", isDeleted)
+                    .equal("contact", contact);
+        }
+
+        Specification<Supplier> placeholderSpecification() {
+            Specification<Supplier> specCategory = (root, query, criteriaBuilder) ->
+                    category.map(c -> criteriaBuilder.like(criteriaBuilder.lower(root.join("category").get("name")), "%" + c.toLowerCase() + "%"))
+                            .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+            Specification<Supplier> specName = (root, query, criteriaBuilder) ->
+                    name.map(n -> criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), "%" + n.toLowerCase() + "%"))
+                            .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+            Specification<Supplier> specIsDeleted = (root, query, criteriaBuilder) ->
+                    isDeleted.map(d -> criteriaBuilder.equal(root.get("isDeleted"), d))
+                            .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+            Specification<Supplier> specContact = (root, query, criteriaBuilder) ->
+                    contact.map(c -> criteriaBuilder.equal(root.get("contact"), c))
+                            .orElseGet(() -> criteriaBuilder.isTrue(criteriaBuilder.literal(true)));
+            return Specification.where(specCategory).and(specName).and(specIsDeleted).and(specContact);
+        }
+
+        boolean matches(Supplier supplier) {
+            return category.map(c -> supplier.getCategory() != null && supplier.getCategory().getName().toLowerCase().contains(c.toLowerCase())).orElse(true)
+                    && name.map(n -> supplier.getName().toLowerCase().contains(n.toLowerCase())).orElse(true)
+                    && contact.map(c -> c.equals(supplier.getContact())).orElse(true)
+                    && isDeleted.map(d -> d.equals(supplier.getIsDeleted())).orElse(true);
+        }
+
+        int combination() {
+            return (category.isPresent() ? 1 : 0) | (name.isPresent() ? 2 : 0) | (contact.isPresent() ? 4 : 0) | (isDeleted.isPresent() ? 8 : 0);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package dev.clownsinformatics.tiendajava.utils.jpa;
+
+import dev.clownsinformatics.tiendajava.rest.employees.models.Employee;
+import dev.clownsinformatics.tiendajava.rest.employees.repository.EmployeeRepository;
+import dev.clownsinformatics.tiendajava.utils.pagination.CursorBadRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class KeysetPaginationTest {
+    private static final int ROWS = 100_000;
+    private static final int PAGE_SIZE = 10;
+    private static final int DEEP_PAGE = 9_999;
+    private static final int RUNS = 20;
+
+    @Autowired
+    private EmployeeRepository repository;
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void walksEveryRowOnceInStableOrder() {
+        List<Employee> employees = persistEmployees(300);
+        Comparator<Employee> byId = Comparator.comparing(Employee::getId);
+        Comparator<Double> salaryAsc = Comparator.naturalOrder();
+        Comparator<Double> salaryDesc = Comparator.reverseOrder();
+
+        assertAll(
+                () -> assertEquals(ids(sorted(employees, Comparator.comparing(Employee::getSalary, Comparator.nullsLast(salaryAsc)).thenComparing(byId))),
+                        walk("salary", Sort.Direction.ASC)),
+                () -> assertEquals(ids(sorted(employees, Comparator.comparing(Employee::getSalary, Comparator.nullsLast(salaryDesc)).thenComparing(byId.reversed()))),
+                        walk("salary", Sort.Direction.DESC)),
+                () -> assertEquals(ids(sorted(employees, Comparator.comparing(Employee::getName).thenComparing(byId))),
+                        walk("name", Sort.Direction.ASC)),
+                () -> assertEquals(ids(sorted(employees, byId.reversed())), walk("id", Sort.Direction.DESC))
+        );
+    }
+
+    @Test
+    void rejectsInvalidCursorsAndSorts() {
+        persistEmployees(20);
+        String cursor = repository.findAfter(keyset(), null, 5, "salary", Sort.Direction.ASC).nextCursor();
+
+        assertAll(
+                () -> assertNotNull(cursor),
+                () -> assertThrows(CursorBadRequest.class, () -> repository.findAfter(keyset(), cursor, 5, "name", Sort.Direction.ASC)),
+                () -> assertThrows(CursorBadRequest.class, () -> repository.findAfter(keyset(), cursor, 5, "salary", Sort.Direction.DESC)),
+                () -> assertThrows(CursorBadRequest.class, () -> repository.findAfter(keyset(), "not a cursor", 5, "salary", Sort.Direction.ASC)),
+                () -> assertThrows(CursorBadRequest.class, () -> repository.findAfter(keyset(), null, 5, "unknown", Sort.Direction.ASC)),
+                () -> assertThrows(CursorBadRequest.class, () -> repository.findAfter(keyset(), null, 0, "salary", Sort.Direction.ASC))
+        );
+    }
+
+    @Test
+    void deepPagesCostTheSameAsTheFirst() {
+        entityManager.getEntityManager().createNativeQuery("INSERT INTO employee (name, salary, position, created_at, updated_at) "
+                + "SELECT CONCAT('Empleado ', X), MOD(X, 1000) * 10.0, 'Benchmark', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP "
+                + "FROM SYSTEM_RANGE(1, " + ROWS + ")").executeUpdate();
+        Specification<Employee> spec = FilterSpecification.<Employee>builder().equal("position", Optional.of("Benchmark"));
+        Integer lastId = repository.findSlice(spec, PageRequest.of(DEEP_PAGE * PAGE_SIZE - 1, 1, Sort.by("id"))).getContent().get(0).getId();
+        String deepCursor = new KeysetCursor("id", Sort.Direction.ASC, null, lastId).encode();
+
+        assertEquals(ids(repository.findSlice(spec, PageRequest.of(DEEP_PAGE, PAGE_SIZE, Sort.by("id"))).getContent()),
+                ids(repository.findAfter(spec, deepCursor, PAGE_SIZE, "id", Sort.Direction.ASC).content()));
+
+        long offsetDeep = median(() -> repository.findSlice(spec, PageRequest.of(DEEP_PAGE, PAGE_SIZE, Sort.by("id"))).getContent());
+        long keysetFirst = median(() -> repository.findAfter(spec, null, PAGE_SIZE, "id", Sort.Direction.ASC).content());
+        long keysetDeep = median(() -> repository.findAfter(spec, deepCursor, PAGE_SIZE, "id", Sort.Direction.ASC).content());
+
+        // La página profunda por cursor no recorre las filas anteriores, así que tarda lo mismo que la primera
+        assertAll(
+                () -> assertTrue(keysetDeep < 3 * keysetFirst, "keyset deep " + keysetDeep + " ns, first " + keysetFirst + " ns"),
+                () -> assertTrue(keysetDeep < offsetDeep, "keyset " + keysetDeep + " ns, offset " + offsetDeep + " ns")
+        );
+    }
+
+    private List<Employee> persistEmployees(int count) {
+        List<Employee> employees = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            employees.add(entityManager.persist(Employee.builder().name("Empleado " + (char) ('a' + i % 26))
+                    .salary(i % 7 == 0 ? null : (i % 10) * 100.0).position("Keyset").build()));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return employees;
+    }
+
+    private List<Integer> walk(String sortBy, Sort.Direction direction) {
+        List<Integer> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetSlice<Employee> page = repository.findAfter(keyset(), cursor, 7, sortBy, direction);
+            assertEquals(cursor == null, page.first());
+            ids.addAll(ids(page.content()));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static Specification<Employee> keyset() {
+        return FilterSpecification.<Employee>builder().equal("position", Optional.of("Keyset"));
+    }
+
+    private static List<Employee> sorted(List<Employee> employees, Comparator<Employee> comparator) {
+        return employees.stream().sorted(comparator).toList();
+    }
+
+    private static List<Integer> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).toList();
+    }
+
+    private static long median(Supplier<List<Employee>> query) {
+        for (int i = 0; i < 5; i++) {
+            query.get();
+        }
+        long[] nanos = new long[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            assertEquals(PAGE_SIZE, query.get().size());
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos[RUNS / 2];
+    }
+}
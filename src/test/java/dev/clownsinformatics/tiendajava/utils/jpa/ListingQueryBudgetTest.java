@@ -0,0 +1,105 @@
+package dev.clownsinformatics.tiendajava.utils.jpa;
+
+import dev.clownsinformatics.tiendajava.rest.categories.models.Category;
+import dev.clownsinformatics.tiendajava.rest.products.models.Product;
+import dev.clownsinformatics.tiendajava.rest.suppliers.models.Supplier;
+import dev.clownsinformatics.tiendajava.utils.money.Money;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Número máximo de sentencias SQL de cada listado, con productos y proveedores de categorías distintas para
+ * que se note si las relaciones se cargan una a una.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+@WithMockUser(username = "admin", password = "admin", roles = {"ADMIN", "USER"})
+class ListingQueryBudgetTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void setUp() {
+        List<Category> categories = new ArrayList<>();
+        List<Supplier> suppliers = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Category category = Category.builder().uuid(null).name("Budget category " + i).build();
+            entityManager.persist(category);
+            categories.add(category);
+            Supplier supplier = Supplier.builder().name("Budget supplier " + i).contact(i + 1).address("Calle " + i)
+                    .category(category).build();
+            entityManager.persist(supplier);
+            suppliers.add(supplier);
+        }
+        for (int i = 0; i < 40; i++) {
+            entityManager.persist(Product.builder().name("Budget product " + i).description("Producto " + i)
+                    .price(Money.of(10.0)).stock(5)
+                    .category(categories.get(i % categories.size()))
+                    .supplier(suppliers.get((i * 7) % suppliers.size()))
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void productListing() throws Exception {
+        assertBudget("/api/products?size=100", 2);
+    }
+
+    @Test
+    void productListingByCategory() throws Exception {
+        assertBudget("/api/products?size=100&category=budget", 2);
+    }
+
+    @Test
+    void supplierListing() throws Exception {
+        assertBudget("/api/suppliers?size=100", 2);
+    }
+
+    @Test
+    void categoryListing() throws Exception {
+        assertBudget("/api/categories?size=100", 2);
+    }
+
+    @Test
+    void productSliceSkipsTheCount() throws Exception {
+        assertBudget("/api/products?size=10&withTotal=false", 1);
+    }
+
+    @Test
+    void supplierSliceSkipsTheCount() throws Exception {
+        assertBudget("/api/suppliers?size=10&withTotal=false", 1);
+    }
+
+    @Test
+    void approximateTotalIsCountedOnce() throws Exception {
+        assertBudget("/api/suppliers?size=10&name=budget&withTotal=approximate", 2);
+        assertBudget("/api/suppliers?size=10&name=budget&withTotal=approximate&page=1", 1);
+    }
+
+    private void assertBudget(String url, int budget) throws Exception {
+        SqlStatementCounter.reset();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        int count = SqlStatementCounter.count();
+        entityManager.clear();
+        assertTrue(count <= budget, url + " ran " + count + " SQL statements, budget is " + budget);
+    }
+}
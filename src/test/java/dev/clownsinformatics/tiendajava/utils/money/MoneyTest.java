@@ -0,0 +1,89 @@
+package dev.clownsinformatics.tiendajava.utils.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.clownsinformatics.tiendajava.rest.orders.models.Order;
+import dev.clownsinformatics.tiendajava.rest.orders.models.OrderLine;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void sumsWithoutRoundingErrors() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(Money.of(0.1));
+        }
+
+        assertAll(
+                () -> assertEquals(Money.ofCents(100), total),
+                () -> assertEquals(Money.of(0.3), Money.of(0.1).plus(Money.of(0.2))),
+                () -> assertEquals(Money.ofCents(5997), Money.of(19.99).times(3)),
+                () -> assertEquals(Money.ofCents(101), Money.of(1.005)),
+                () -> assertEquals(new BigDecimal("179.91"), Money.ofCents(17991).toBigDecimal()),
+                () -> assertEquals("179.91", Money.ofCents(17991).toString())
+        );
+    }
+
+    @Test
+    void overflowFails() {
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+    }
+
+    @Test
+    void isWrittenAsADecimalNumberInJson() throws Exception {
+        OrderLine line = OrderLine.builder().idProduct(UUID.randomUUID()).quantity(3).price(Money.of(19.99)).total(Money.of(59.97)).build();
+
+        String json = objectMapper.writeValueAsString(line);
+        OrderLine read = objectMapper.readValue(json, OrderLine.class);
+
+        assertAll(
+                () -> assertTrue(json.contains("\"price\":19.99")),
+                () -> assertTrue(json.contains("\"total\":59.97")),
+                () -> assertEquals(line, read),
+                () -> assertEquals(Money.ofCents(1000), objectMapper.readValue("10", Money.class))
+        );
+    }
+
+    @Test
+    void orderTotalIsTheSumOfTheLines() {
+        OrderLine first = OrderLine.builder().idProduct(UUID.randomUUID()).price(Money.of(0.1)).build();
+        first.setQuantity(3);
+        OrderLine second = OrderLine.builder().idProduct(UUID.randomUUID()).quantity(2).build();
+        second.setPrice(Money.of(0.2));
+
+        Order order = Order.builder().build();
+        order.setOrderLines(List.of(first, second));
+
+        assertAll(
+                () -> assertEquals(Money.of(0.3), first.getTotal()),
+                () -> assertEquals(Money.of(0.4), second.getTotal()),
+                () -> assertEquals(Money.of(0.7), order.getTotal()),
+                () -> assertEquals(2, order.getTotalItems())
+        );
+    }
+
+    @Test
+    void primitiveTotalsMatchTheMoneyTotals() {
+        long primitiveSum = 0;
+        long expected = 0;
+        Money total = Money.ZERO;
+        for (int i = 0; i < 20_000; i++) {
+            for (int j = 0; j <= i % 10; j++) {
+                OrderLine line = OrderLine.builder().idProduct(UUID.randomUUID()).quantity(1 + j).price(Money.ofCents(1999 + j)).build();
+                primitiveSum += line.totalCents();
+                total = total.plus(line.getPrice().times(line.getQuantity()));
+                expected += (1L + j) * (1999 + j);
+            }
+        }
+
+        assertEquals(expected, primitiveSum);
+        assertEquals(Money.ofCents(expected), total);
+    }
+}
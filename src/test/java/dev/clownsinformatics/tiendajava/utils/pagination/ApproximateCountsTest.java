@@ -0,0 +1,67 @@
+package dev.clownsinformatics.tiendajava.utils.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApproximateCountsTest {
+    private final AtomicInteger counts = new AtomicInteger();
+
+    @Test
+    void reusesTheCountForTheSameFilters() {
+        ApproximateCounts approximateCounts = new ApproximateCounts(60_000, 10);
+
+        long first = approximateCounts.count("products", List.of(Optional.of("Portátil"), Optional.empty()), this::count);
+        long second = approximateCounts.count("products", List.of(Optional.of("PORTÁTIL"), Optional.empty()), this::count);
+        long other = approximateCounts.count("products", List.of(Optional.of("Portátil"), Optional.of(2.0)), this::count);
+        long otherListing = approximateCounts.count("suppliers", List.of(Optional.of("Portátil"), Optional.empty()), this::count);
+
+        assertAll(
+                () -> assertEquals(1, first),
+                () -> assertEquals(1, second),
+                () -> assertEquals(2, other),
+                () -> assertEquals(3, otherListing),
+                () -> assertEquals(3, counts.get())
+        );
+    }
+
+    @Test
+    void countsAgainWhenExpired() {
+        ApproximateCounts approximateCounts = new ApproximateCounts(0, 10);
+
+        approximateCounts.count("products", List.of(Optional.empty()), this::count);
+        long second = approximateCounts.count("products", List.of(Optional.empty()), this::count);
+
+        assertEquals(2, second);
+    }
+
+    @Test
+    void keepsAtMostMaxEntries() {
+        ApproximateCounts approximateCounts = new ApproximateCounts(60_000, 2);
+
+        approximateCounts.count("products", List.of(Optional.of("a")), this::count);
+        approximateCounts.count("products", List.of(Optional.of("b")), this::count);
+        approximateCounts.count("products", List.of(Optional.of("c")), this::count);
+        long first = approximateCounts.count("products", List.of(Optional.of("a")), this::count);
+
+        assertEquals(4, first);
+    }
+
+    @Test
+    void parsesTotalModes() {
+        assertAll(
+                () -> assertEquals(TotalMode.EXACT, TotalMode.of("true")),
+                () -> assertEquals(TotalMode.NONE, TotalMode.of("FALSE")),
+                () -> assertEquals(TotalMode.APPROXIMATE, TotalMode.of("approximate")),
+                () -> assertThrows(TotalModeBadRequest.class, () -> TotalMode.of("maybe"))
+        );
+    }
+
+    private long count() {
+        return counts.incrementAndGet();
+    }
+}